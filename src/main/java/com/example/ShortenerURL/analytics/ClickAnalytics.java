@@ -0,0 +1,192 @@
+package com.example.ShortenerURL.analytics;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.ShortenerURL.models.ClickBucket;
+import com.example.ShortenerURL.models.ClickCount;
+import com.example.ShortenerURL.models.Granularity;
+import com.example.ShortenerURL.repositories.ClickBucketRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Click event pipeline. Resolutions offer an event to a lock-free ring and never wait;
+ * when the ring is full the event is dropped and counted. A scheduled consumer drains
+ * the ring, rolls the events up into per-minute, per-hour and per-day buckets and adds
+ * them to the bucket rows in click_buckets. Another scheduled task deletes the buckets
+ * older than their granularity's retention.
+ */
+@Component
+public class ClickAnalytics implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ClickAnalytics.class);
+    private static final int DRAIN_CHUNK = 4096;
+
+    private final ClickBucketRepository bucketRepository;
+    private final boolean enabled;
+    private final ClickEventRing ring;
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final Map<Granularity, Integer> retentionDays = new EnumMap<>(Granularity.class);
+    private final int purgeBatchSize;
+
+    public ClickAnalytics(ClickBucketRepository bucketRepository,
+                          @Value("${shortener.analytics.enabled:true}") boolean enabled,
+                          @Value("${shortener.analytics.buffer-size:65536}") int bufferSize,
+                          @Value("${shortener.analytics.minute-retention-days:2}") int minuteRetentionDays,
+                          @Value("${shortener.analytics.hour-retention-days:90}") int hourRetentionDays,
+                          @Value("${shortener.analytics.day-retention-days:0}") int dayRetentionDays,
+                          @Value("${shortener.analytics.purge-batch-size:5000}") int purgeBatchSize) {
+        this.bucketRepository = bucketRepository;
+        this.enabled = enabled;
+        this.ring = new ClickEventRing(bufferSize);
+        retentionDays.put(Granularity.MINUTE, minuteRetentionDays);
+        retentionDays.put(Granularity.HOUR, hourRetentionDays);
+        retentionDays.put(Granularity.DAY, dayRetentionDays);
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    public void record(String shortCode, String referrer, String userAgent) {
+        if (!enabled)
+            return;
+
+        int referrerHash = referrer == null ? 0 : referrer.hashCode();
+        int userAgentHash = userAgent == null ? 0 : userAgent.hashCode();
+        if (ring.offer(shortCode, System.currentTimeMillis(), referrerHash, userAgentHash))
+            recorded.increment();
+        else
+            dropped.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${shortener.analytics.flush-interval-ms:1000}")
+    public void flush() {
+        drainLock.lock();
+        try {
+            Map<BucketKey, Long> buckets = new HashMap<>();
+            // At most one ring's worth per flush, so sustained load cannot keep the consumer here forever
+            int drained;
+            int total = 0;
+            do {
+                drained = ring.drain((shortCode, timestamp, referrerHash, userAgentHash) -> {
+                    for (Granularity granularity : Granularity.values()) {
+                        buckets.merge(new BucketKey(shortCode, granularity, granularity.truncate(timestamp)), 1L, Long::sum);
+                    }
+                }, DRAIN_CHUNK);
+                total += drained;
+            } while (drained == DRAIN_CHUNK && total < ring.capacity());
+
+            if (!buckets.isEmpty())
+                write(buckets);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private void write(Map<BucketKey, Long> buckets) {
+        List<ClickBucket> rows = new ArrayList<>(buckets.size());
+        for (Map.Entry<BucketKey, Long> bucket : buckets.entrySet()) {
+            BucketKey key = bucket.getKey();
+            LocalDateTime bucketStart = LocalDateTime.ofInstant(Instant.ofEpochMilli(key.bucketStart()), ZoneOffset.UTC);
+            rows.add(new ClickBucket(null, key.shortCode(), key.granularity(), bucketStart, bucket.getValue()));
+        }
+        try {
+            bucketRepository.addClicks(rows);
+        } catch (RuntimeException ex) {
+            // Analytics are best effort: count the lost clicks (minute rows hold each click once)
+            for (Map.Entry<BucketKey, Long> bucket : buckets.entrySet()) {
+                if (bucket.getKey().granularity() == Granularity.MINUTE)
+                    dropped.add(bucket.getValue());
+            }
+            log.warn("Failed to write click buckets, dropping {} rows", rows.size(), ex);
+        }
+    }
+
+    // Deletes the buckets of each granularity older than its retention, a non-positive one keeping them
+    @Scheduled(fixedDelayString = "${shortener.analytics.purge-interval-ms:3600000}")
+    public void purge() {
+        if (!enabled)
+            return;
+
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        for (Map.Entry<Granularity, Integer> retention : retentionDays.entrySet()) {
+            if (retention.getValue() <= 0)
+                continue;
+            LocalDateTime cutoff = now.minusDays(retention.getValue());
+            long deleted = 0;
+            try {
+                int chunk;
+                do {
+                    chunk = bucketRepository.deleteOlderThan(retention.getKey(), cutoff, purgeBatchSize);
+                    deleted += chunk;
+                } while (chunk == purgeBatchSize);
+            } catch (RuntimeException ex) {
+                log.warn("Failed to purge {} click buckets before {}, retrying on next interval", retention.getKey(), cutoff, ex);
+            }
+            if (deleted > 0)
+                log.info("Purged {} {} click buckets before {}", deleted, retention.getKey(), cutoff);
+        }
+    }
+
+    // Buckets of the code starting in [from, to), both in UTC; events still in the ring are not included
+    public List<ClickCount> series(String shortCode, Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        long fromMillis = granularity.truncate(from.toInstant(ZoneOffset.UTC).toEpochMilli());
+        LocalDateTime bucketFrom = LocalDateTime.ofInstant(Instant.ofEpochMilli(fromMillis), ZoneOffset.UTC);
+        return bucketRepository.findSeries(shortCode, granularity, bucketFrom, to);
+    }
+
+    @PreDestroy
+    public void drain() {
+        flush();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int bufferCapacity() {
+        return ring.capacity();
+    }
+
+    public long buffered() {
+        return ring.size();
+    }
+
+    public long recorded() {
+        return recorded.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("shortener.analytics.buffered", ring, ClickEventRing::size).register(registry);
+        FunctionCounter.builder("shortener.analytics.events", recorded, LongAdder::sum)
+            .tag("outcome", "recorded").register(registry);
+        FunctionCounter.builder("shortener.analytics.events", dropped, LongAdder::sum)
+            .tag("outcome", "dropped").register(registry);
+    }
+
+    private record BucketKey(String shortCode, Granularity granularity, long bucketStart) {}
+}
@@ -0,0 +1,96 @@
+package com.example.ShortenerURL.analytics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free multi-producer, single-consumer ring of click events (Vyukov's bounded
+ * queue). Slots are preallocated as parallel arrays, so offering an event allocates nothing,
+ * and a full ring rejects the event instead of blocking the producer.
+ */
+public class ClickEventRing {
+
+    @FunctionalInterface
+    public interface ClickEventConsumer {
+        void accept(String shortCode, long timestamp, int referrerHash, int userAgentHash);
+    }
+
+    private final int capacity;
+    private final int mask;
+    // sequences[i] == position: slot free for the producer claiming position
+    // sequences[i] == position + 1: slot published, readable by the consumer
+    private final AtomicLongArray sequences;
+    private final String[] shortCodes;
+    private final long[] timestamps;
+    private final int[] referrerHashes;
+    private final int[] userAgentHashes;
+
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head; // Only advanced by the single consumer
+
+    public ClickEventRing(int requestedCapacity) {
+        if (requestedCapacity < 2 || requestedCapacity > (1 << 30))
+            throw new IllegalArgumentException("capacity must be between 2 and 2^30: " + requestedCapacity);
+        this.capacity = Integer.highestOneBit(requestedCapacity - 1) << 1; // Next power of two
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.shortCodes = new String[capacity];
+        this.timestamps = new long[capacity];
+        this.referrerHashes = new int[capacity];
+        this.userAgentHashes = new int[capacity];
+    }
+
+    // Returns false, without waiting, when the ring is full
+    public boolean offer(String shortCode, long timestamp, int referrerHash, int userAgentHash) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    shortCodes[index] = shortCode;
+                    timestamps[index] = timestamp;
+                    referrerHashes[index] = referrerHash;
+                    userAgentHashes[index] = userAgentHash;
+                    sequences.set(index, position + 1); // Publish
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false; // Slot still holds an event from the previous lap: full
+            } else {
+                position = tail.get(); // Another producer claimed this position
+            }
+        }
+    }
+
+    // Hands up to maxEvents published events to the consumer; must only be called by one thread at a time
+    public int drain(ClickEventConsumer consumer, int maxEvents) {
+        long position = head;
+        int drained = 0;
+        while (drained < maxEvents) {
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1)
+                break; // Empty, or the next event is claimed but not yet published
+
+            consumer.accept(shortCodes[index], timestamps[index], referrerHashes[index], userAgentHashes[index]);
+            shortCodes[index] = null;
+            sequences.set(index, position + capacity); // Free the slot for the next lap
+            position++;
+            drained++;
+        }
+        head = position;
+        return drained;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long size() {
+        return Math.max(0, tail.get() - head);
+    }
+}
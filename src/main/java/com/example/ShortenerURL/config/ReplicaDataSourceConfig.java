@@ -0,0 +1,81 @@
+package com.example.ShortenerURL.config;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import com.example.ShortenerURL.services.ReplicaRouter;
+import com.zaxxer.hikari.HikariDataSource;
+
+// Replaces the auto-configured pool with one per database: spring.datasource is the primary,
+// each of shortener.replicas.urls a replica with the same driver, credentials (unless given)
+// and spring.datasource.hikari settings. Connections are handed out lazily, on the first
+// statement, so the routing decision sees which replica ReplicaRouter picked for the lookup
+@Configuration
+@ConditionalOnProperty(name = "shortener.replicas.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+
+    @Bean
+    @ConfigurationProperties(HIKARI_PREFIX)
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, DataSourceProperties properties,
+                                 ReplicaRouter replicaRouter, Environment environment,
+                                 @Value("${shortener.replicas.urls}") List<String> urls,
+                                 @Value("${shortener.replicas.username:${spring.datasource.username:}}") String username,
+                                 @Value("${shortener.replicas.password:${spring.datasource.password:}}") String password) {
+        if (urls.isEmpty())
+            throw new IllegalArgumentException("shortener.replicas.urls must list at least one replica");
+
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(urls.get(i).trim())
+                .username(username)
+                .password(password)
+                .build();
+            Binder.get(environment).bind(HIKARI_PREFIX, Bindable.ofInstance(replica));
+            replica.setPoolName("replica-" + i);
+            replica.setReadOnly(true);
+            targets.put(replica.getPoolName(), replica);
+            replicaRouter.addReplica(replica.getPoolName(), replica);
+        }
+
+        AbstractRoutingDataSource routing = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return replicaRouter.currentReplica(); // Null for the primary
+            }
+        };
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
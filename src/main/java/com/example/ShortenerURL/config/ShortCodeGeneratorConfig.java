@@ -0,0 +1,42 @@
+package com.example.ShortenerURL.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.ShortenerURL.generators.BlockShortCodeGenerator;
+import com.example.ShortenerURL.generators.CodePermutation;
+import com.example.ShortenerURL.generators.RandomShortCodeGenerator;
+import com.example.ShortenerURL.generators.SequenceShortCodeGenerator;
+import com.example.ShortenerURL.generators.ShortCodeGenerator;
+import com.example.ShortenerURL.repositories.ShortUrlRepository;
+
+@Configuration
+public class ShortCodeGeneratorConfig {
+
+    // Created by the V6 migration
+    static final String CODE_SEQUENCE = "short_code_seq";
+    static final String BLOCK_SEQUENCE = "short_code_block_seq";
+
+    // random: 6 random chars, checked against the database before use
+    // sequence: one database sequence value per code, scrambled into a code
+    // block: leases blocks of sequence values and mints codes locally
+    @Bean
+    public ShortCodeGenerator shortCodeGenerator(ShortUrlRepository urlRepository,
+                                                 @Value("${shortener.code-generator.strategy:random}") String strategy,
+                                                 @Value("${shortener.code-generator.seed:0}") long seed,
+                                                 @Value("${shortener.code-generator.block-size:1000}") long blockSize) {
+        switch (strategy) {
+            case "random":
+                return new RandomShortCodeGenerator();
+            case "sequence":
+                return new SequenceShortCodeGenerator(
+                    () -> urlRepository.nextSequenceValue(CODE_SEQUENCE), new CodePermutation(seed));
+            case "block":
+                return new BlockShortCodeGenerator(
+                    () -> urlRepository.nextSequenceValue(BLOCK_SEQUENCE), blockSize, new CodePermutation(seed));
+            default:
+                throw new IllegalArgumentException("Unknown short code generator strategy: " + strategy);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.ShortenerURL.controllers;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.ShortenerURL.analytics.ClickAnalytics;
+import com.example.ShortenerURL.models.AnalyticsStatsResponse;
+import com.example.ShortenerURL.models.CacheStatsResponse;
+import com.example.ShortenerURL.models.HotKeysResponse;
+import com.example.ShortenerURL.services.HotKeyDetector;
+import com.example.ShortenerURL.services.ShortUrlCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+
+    private ShortUrlCache urlCache;
+    private ClickAnalytics clickAnalytics;
+    private HotKeyDetector hotKeyDetector;
+
+    public AdminController(ShortUrlCache urlCache, ClickAnalytics clickAnalytics, HotKeyDetector hotKeyDetector) {
+        this.urlCache = urlCache;
+        this.clickAnalytics = clickAnalytics;
+        this.hotKeyDetector = hotKeyDetector;
+    }
+
+    @GetMapping("/cache")
+    public ResponseEntity<CacheStatsResponse> getCacheStats() {
+        CacheStats stats = urlCache.stats();
+        CacheStatsResponse response = new CacheStatsResponse(
+            urlCache.isEnabled(),
+            urlCache.size(),
+            stats.hitCount(),
+            stats.missCount(),
+            stats.hitRate(),
+            stats.evictionCount()
+        );
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @GetMapping("/analytics")
+    public ResponseEntity<AnalyticsStatsResponse> getAnalyticsStats() {
+        AnalyticsStatsResponse response = new AnalyticsStatsResponse(
+            clickAnalytics.isEnabled(),
+            clickAnalytics.bufferCapacity(),
+            clickAnalytics.buffered(),
+            clickAnalytics.recorded(),
+            clickAnalytics.dropped()
+        );
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @GetMapping("/hot-keys")
+    public ResponseEntity<HotKeysResponse> getHotKeys() {
+        HotKeysResponse response = new HotKeysResponse(
+            hotKeyDetector.isEnabled(),
+            hotKeyDetector.windowMillis(),
+            hotKeyDetector.minRate(),
+            hotKeyDetector.hotKeys()
+        );
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+}
\ No newline at end of file
@@ -1,10 +1,35 @@
 package com.example.ShortenerURL.controllers;
 
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 
+import com.example.ShortenerURL.exceptions.BatchSizeExceededException;
+import com.example.ShortenerURL.ratelimit.RateLimitFilter;
 import com.example.ShortenerURL.services.ShortUrlService;
+import com.example.ShortenerURL.services.ShortUrlTransfer;
 import com.example.ShortenerURL.models.*;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,59 +38,276 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
 @RestController
-@RequestMapping("/shorten")
-public class ShortUrlController {
+public class ShortUrlController implements MeterBinder {
 
     private ShortUrlService urlService;
+    private ShortUrlTransfer urlTransfer;
+    private RateLimitFilter rateLimitFilter;
+    private HttpStatus redirectStatus;
+    private long redirectMaxAgeSeconds;
+    private boolean redirectEtag;
+    private Validator validator;
+    private int maxBatchSize;
+    private Counter redirectNotFound;
+    private Counter retrieveNotFound;
+    private Counter updateNotFound;
+    private Counter deleteNotFound;
+    private Counter statsNotFound;
+    private Counter clickSeriesNotFound;
 
-    public ShortUrlController(ShortUrlService urlService) {
+    public ShortUrlController(ShortUrlService urlService,
+                              @Value("${shortener.redirect.status:302}") int redirectStatus,
+                              @Value("${shortener.redirect.cache-max-age-seconds:0}") long redirectMaxAgeSeconds,
+                              @Value("${shortener.redirect.etag:true}") boolean redirectEtag,
+                              Validator validator,
+                              @Value("${shortener.batch.max-size:1000}") int maxBatchSize,
+                              ShortUrlTransfer urlTransfer,
+                              RateLimitFilter rateLimitFilter) {
         this.urlService = urlService;
+        this.urlTransfer = urlTransfer;
+        this.rateLimitFilter = rateLimitFilter;
+        this.redirectStatus = HttpStatus.valueOf(redirectStatus);
+        this.redirectMaxAgeSeconds = redirectMaxAgeSeconds;
+        this.redirectEtag = redirectEtag;
+        this.validator = validator;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    // Plain redirect for browsers and the edge: no response body, no JSON serialization
+    @GetMapping("/{shortCode:[a-zA-Z0-9]+}")
+    public ResponseEntity<Void> redirect(@PathVariable String shortCode,
+                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                         @RequestHeader(value = HttpHeaders.REFERER, required = false) String referrer,
+                                         @RequestHeader(value = HttpHeaders.USER_AGENT, required = false) String userAgent) {
+        String url = urlService.resolveUrl(shortCode, referrer, userAgent);
+        if (url == null) 
+            return notFound(redirectNotFound);
+
+        ResponseEntity.BodyBuilder response;
+        String etag = redirectEtag ? "\"" + Integer.toHexString(url.hashCode()) + "\"" : null;
+        if (etag != null && etag.equals(ifNoneMatch)) 
+            response = ResponseEntity.status(HttpStatus.NOT_MODIFIED);
+        else 
+            response = ResponseEntity.status(redirectStatus).header(HttpHeaders.LOCATION, url);
+
+        if (etag != null) 
+            response.eTag(etag);
+        if (redirectMaxAgeSeconds > 0) 
+            response.cacheControl(CacheControl.maxAge(redirectMaxAgeSeconds, TimeUnit.SECONDS));
+        return response.build();
     }
 
-    @PostMapping
-    public ResponseEntity<UrlResponse> createShortUrl(@Valid @RequestBody UrlRequest urlRequest) {
-        UrlResponse createdShortUrl = urlService.createShortUrl(urlRequest.getUrl());
-        return new ResponseEntity<>(createdShortUrl, HttpStatus.CREATED);
+    // With async creates on, the request thread is released until the create's batch is written
+    @PostMapping("/shorten")
+    public CompletableFuture<ResponseEntity<UrlResponse>> createShortUrl(@Valid @RequestBody UrlRequest urlRequest) {
+        return urlService.createShortUrlAsync(urlRequest.getUrl(), urlRequest.getExpiresAt())
+            .thenApply(createdShortUrl -> new ResponseEntity<>(createdShortUrl, HttpStatus.CREATED));
     }
 
-    @GetMapping("/{shortCode}")
+    @GetMapping("/shorten/{shortCode}")
     public ResponseEntity<UrlResponse> retrieveOriginalUrl(@PathVariable String shortCode) {
         UrlResponse urlResponse = urlService.retrieveOriginalUrl(shortCode);
         if (urlResponse != null) 
             return new ResponseEntity<>(urlResponse, HttpStatus.OK);
         else 
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            return notFound(retrieveNotFound);
     }
 
-    @PutMapping("/{shortCode}")
+    @PutMapping("/shorten/{shortCode}")
     public ResponseEntity<UrlResponse> updateShortUrl(@PathVariable String shortCode, 
                                                       @Valid @RequestBody UrlRequest urlRequest) {
-        UrlResponse urlUpdated = urlService.updateShortUrl(shortCode, urlRequest.getUrl());
+        UrlResponse urlUpdated = urlService.updateShortUrl(shortCode, urlRequest.getUrl(), urlRequest.getExpiresAt());
         if (urlUpdated != null) 
             return new ResponseEntity<>(urlUpdated, HttpStatus.OK);
         else 
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            return notFound(updateNotFound);
     }
 
-    @DeleteMapping("/{shortCode}")
+    @DeleteMapping("/shorten/{shortCode}")
     public ResponseEntity<Void> deleteShortUrl(@PathVariable String shortCode) {
         boolean isDeleted = urlService.deleteShortUrl(shortCode);
         if (isDeleted) 
             return new ResponseEntity<>(HttpStatus.NO_CONTENT); 
         else 
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND); 
+            return notFound(deleteNotFound);
     }
 
-    @GetMapping("/{shortCode}/stats")
+    @GetMapping("/shorten/{shortCode}/stats")
     public ResponseEntity<UrlStatsResponse> getUrlStats(@PathVariable String shortCode) {
         UrlStatsResponse stats = urlService.getUrlStats(shortCode);
         if (stats != null) 
             return new ResponseEntity<>(stats, HttpStatus.OK);
         else 
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);    
+            return notFound(statsNotFound);
+    }
+
+    // Click series, e.g. /shorten/abc123/stats?granularity=HOUR&from=2024-01-01T00:00:00; times are UTC
+    @GetMapping(value = "/shorten/{shortCode}/stats", params = "granularity")
+    public ResponseEntity<ClickSeriesResponse> getClickSeries(@PathVariable String shortCode,
+                                                              @RequestParam Granularity granularity,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (to == null) 
+            to = LocalDateTime.now(ZoneOffset.UTC);
+        if (from == null) 
+            from = to.minusDays(1);
+
+        ClickSeriesResponse series = urlService.getClickSeries(shortCode, granularity, from, to);
+        if (series != null) 
+            return new ResponseEntity<>(series, HttpStatus.OK);
+        else 
+            return notFound(clickSeriesNotFound);
+    }
+
+    @PostMapping("/shorten/batch")
+    public ResponseEntity<BatchResponse> createShortUrls(@Valid @RequestBody BatchCreateRequest batchRequest,
+                                                         HttpServletRequest request) {
+        List<UrlRequest> urlRequests = batchRequest.getUrls();
+        checkBatchSize("urls", urlRequests.size());
+        rateLimitFilter.chargeItems(request, urlRequests.size());
+
+        // Invalid items are reported individually, the valid ones are created in one batch
+        List<BatchItemResponse> items = new ArrayList<>(Collections.nCopies(urlRequests.size(), null));
+        List<String> urls = new ArrayList<>();
+        List<LocalDateTime> expiries = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < urlRequests.size(); i++) {
+            String error = validate(urlRequests.get(i));
+            if (error != null) {
+                items.set(i, new BatchItemResponse(HttpStatus.BAD_REQUEST.value(), null, null, error));
+            } else {
+                urls.add(urlRequests.get(i).getUrl());
+                expiries.add(urlRequests.get(i).getExpiresAt());
+                positions.add(i);
+            }
+        }
+
+        List<UrlResponse> created = urls.isEmpty() ? List.of() : urlService.createShortUrls(urls, expiries);
+        for (int i = 0; i < created.size(); i++) {
+            UrlResponse urlResponse = created.get(i);
+            items.set(positions.get(i), 
+                new BatchItemResponse(HttpStatus.CREATED.value(), urlResponse.getShortCode(), urlResponse, null));
+        }
+        return new ResponseEntity<>(toBatchResponse(items), HttpStatus.OK);
+    }
+
+    @PostMapping("/shorten/batch/resolve")
+    public ResponseEntity<BatchResponse> resolveShortUrls(@Valid @RequestBody BatchCodesRequest batchRequest,
+                                                          HttpServletRequest request) {
+        List<String> shortCodes = batchRequest.getShortCodes();
+        checkBatchSize("shortCodes", shortCodes.size());
+        rateLimitFilter.chargeItems(request, shortCodes.size());
+
+        Map<String, UrlResponse> found = urlService.resolveShortUrls(shortCodes);
+        LocalDateTime now = LocalDateTime.now();
+        List<BatchItemResponse> items = new ArrayList<>(shortCodes.size());
+        for (String shortCode : shortCodes) {
+            UrlResponse urlResponse = found.get(shortCode);
+            if (urlResponse != null && urlResponse.isExpiredAt(now))
+                items.add(new BatchItemResponse(HttpStatus.GONE.value(), shortCode, null, "Short URL has expired"));
+            else if (urlResponse != null) 
+                items.add(new BatchItemResponse(HttpStatus.OK.value(), shortCode, urlResponse, null));
+            else 
+                items.add(new BatchItemResponse(HttpStatus.NOT_FOUND.value(), shortCode, null, "Short URL not found"));
+        }
+        return new ResponseEntity<>(toBatchResponse(items), HttpStatus.OK);
+    }
+
+    @PostMapping("/shorten/batch/delete")
+    public ResponseEntity<BatchResponse> deleteShortUrls(@Valid @RequestBody BatchCodesRequest batchRequest) {
+        List<String> shortCodes = batchRequest.getShortCodes();
+        checkBatchSize("shortCodes", shortCodes.size());
+
+        Set<String> deleted = urlService.deleteShortUrls(shortCodes);
+        List<BatchItemResponse> items = new ArrayList<>(shortCodes.size());
+        for (String shortCode : shortCodes) {
+            if (deleted.contains(shortCode)) 
+                items.add(new BatchItemResponse(HttpStatus.NO_CONTENT.value(), shortCode, null, null));
+            else 
+                items.add(new BatchItemResponse(HttpStatus.NOT_FOUND.value(), shortCode, null, "Short URL not found"));
+        }
+        return new ResponseEntity<>(toBatchResponse(items), HttpStatus.OK);
+    }
+
+    // Streams every short URL, e.g. /shorten/export?format=CSV; the row count and rate follow as
+    // trailer fields, since the body is under way before they are known
+    @GetMapping("/shorten/export")
+    public void exportShortUrls(@RequestParam(defaultValue = "NDJSON") TransferFormat format,
+                                HttpServletResponse response) throws IOException {
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"short_urls." + format.getExtension() + "\"");
+        TransferResponse[] result = new TransferResponse[1];
+        try {
+            response.setTrailerFields(() -> result[0] == null ? Map.of() : Map.of(
+                "X-Export-Rows", Long.toString(result[0].getRows()),
+                "X-Export-Rows-Per-Second", Long.toString(result[0].getRowsPerSecond())));
+        } catch (IllegalStateException ex) {
+            // No trailers over HTTP/1.0; the count is still logged
+        }
+        Writer writer = new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8);
+        result[0] = urlTransfer.exportShortUrls(format, writer);
+    }
+
+    // Reads the body as it arrives, NDJSON or CSV by Content-Type, in the format of the export
+    @PostMapping("/shorten/import")
+    public ResponseEntity<TransferResponse> importShortUrls(HttpServletRequest request) throws IOException {
+        TransferFormat format = TransferFormat.ofContentType(request.getContentType());
+        TransferResponse imported = urlTransfer.importShortUrls(format, request.getReader());
+        return new ResponseEntity<>(imported, HttpStatus.OK);
+    }
+
+    private void checkBatchSize(String field, int size) {
+        if (size > maxBatchSize)
+            throw new BatchSizeExceededException(field, maxBatchSize);
+    }
+
+    // First constraint violation of the item, or null when it is valid
+    private String validate(UrlRequest urlRequest) {
+        if (urlRequest == null)
+            return "URL cannot be empty";
+        Set<ConstraintViolation<UrlRequest>> violations = validator.validate(urlRequest);
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+
+    private static BatchResponse toBatchResponse(List<BatchItemResponse> items) {
+        int succeeded = 0;
+        for (BatchItemResponse item : items) {
+            if (item.getStatus() < 400)
+                succeeded++;
+        }
+        return new BatchResponse(succeeded, items.size() - succeeded, items);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        redirectNotFound = notFoundCounter(registry, "redirect");
+        retrieveNotFound = notFoundCounter(registry, "retrieve");
+        updateNotFound = notFoundCounter(registry, "update");
+        deleteNotFound = notFoundCounter(registry, "delete");
+        statsNotFound = notFoundCounter(registry, "stats");
+        clickSeriesNotFound = notFoundCounter(registry, "click_series");
+    }
+
+    private static Counter notFoundCounter(MeterRegistry registry, String endpoint) {
+        return Counter.builder("shortener.not_found")
+            .description("Requests answered 404 because the short code does not exist")
+            .tag("endpoint", endpoint)
+            .register(registry);
+    }
+
+    private static <T> ResponseEntity<T> notFound(Counter counter) {
+        if (counter != null)
+            counter.increment();
+        return new ResponseEntity<>(HttpStatus.NOT_FOUND);
     }
-}
\ No newline at end of file
+}
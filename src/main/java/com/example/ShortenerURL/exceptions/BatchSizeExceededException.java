@@ -0,0 +1,15 @@
+package com.example.ShortenerURL.exceptions;
+
+public class BatchSizeExceededException extends RuntimeException {
+
+    private final String field;
+
+    public BatchSizeExceededException(String field, int maxSize) {
+        super("Batch cannot contain more than " + maxSize + " items");
+        this.field = field;
+    }
+
+    public String getField() {
+        return field;
+    }
+}
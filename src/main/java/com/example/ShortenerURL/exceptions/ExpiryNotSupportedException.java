@@ -0,0 +1,8 @@
+package com.example.ShortenerURL.exceptions;
+
+public class ExpiryNotSupportedException extends RuntimeException {
+
+    public ExpiryNotSupportedException() {
+        super("Short URLs cannot expire on this node's storage backend");
+    }
+}
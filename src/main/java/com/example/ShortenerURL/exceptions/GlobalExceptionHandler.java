@@ -5,20 +5,89 @@ import java.util.Map;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 
 @RestControllerAdvice
-public class GlobalExceptionHandler {
+public class GlobalExceptionHandler implements MeterBinder {
+
+    private Counter validationFailures;
+    private Counter batchSizeFailures;
+    private Counter expiryFailures;
+    private Counter expired;
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationExceptions(MethodArgumentNotValidException ex) {
+        return fieldErrors(ex.getBindingResult());
+    }
+
+    // The same failure raised by WebFlux, for the reactive variant
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Map<String, String>> handleReactiveValidationExceptions(WebExchangeBindException ex) {
+        return fieldErrors(ex.getBindingResult());
+    }
+
+    private ResponseEntity<Map<String, String>> fieldErrors(BindingResult bindingResult) {
+        increment(validationFailures);
         Map<String, String> errors = new HashMap<>();
-        for (FieldError error : ex.getBindingResult().getFieldErrors()) {
+        for (FieldError error : bindingResult.getFieldErrors()) {
             errors.put(error.getField(), error.getDefaultMessage());
         }
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler(BatchSizeExceededException.class)
+    public ResponseEntity<Map<String, String>> handleBatchSizeExceeded(BatchSizeExceededException ex) {
+        increment(batchSizeFailures);
+        Map<String, String> errors = new HashMap<>();
+        errors.put(ex.getField(), ex.getMessage());
+        return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+    }
+
+    // An expiry sent to a node whose storage backend cannot expire links
+    @ExceptionHandler(ExpiryNotSupportedException.class)
+    public ResponseEntity<Map<String, String>> handleExpiryNotSupported(ExpiryNotSupportedException ex) {
+        increment(expiryFailures);
+        Map<String, String> errors = new HashMap<>();
+        errors.put("expiresAt", ex.getMessage());
+        return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+    }
+
+    // Thrown by the lookups of ShortUrlService, on both stacks
+    @ExceptionHandler(ShortUrlExpiredException.class)
+    public ResponseEntity<Map<String, String>> handleShortUrlExpired(ShortUrlExpiredException ex) {
+        increment(expired);
+        Map<String, String> errors = new HashMap<>();
+        errors.put("shortCode", ex.getMessage());
+        return new ResponseEntity<>(errors, HttpStatus.GONE);
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null)
+            counter.increment();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        validationFailures = validationFailures(registry, "invalid_field");
+        batchSizeFailures = validationFailures(registry, "batch_size");
+        expiryFailures = validationFailures(registry, "expiry_unsupported");
+        expired = Counter.builder("shortener.expired")
+            .description("Requests answered 410 because the short code has expired")
+            .register(registry);
+    }
+
+    private static Counter validationFailures(MeterRegistry registry, String reason) {
+        return Counter.builder("shortener.validation.failures")
+            .tag("reason", reason)
+            .register(registry);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.ShortenerURL.exceptions;
+
+public class ShortUrlExpiredException extends RuntimeException {
+
+    private final String shortCode;
+
+    public ShortUrlExpiredException(String shortCode) {
+        super("Short URL has expired");
+        this.shortCode = shortCode;
+    }
+
+    public String getShortCode() {
+        return shortCode;
+    }
+}
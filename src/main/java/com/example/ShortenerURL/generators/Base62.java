@@ -0,0 +1,34 @@
+package com.example.ShortenerURL.generators;
+
+public final class Base62 {
+
+    public static final String ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+    private Base62() {}
+
+    // 62^length, the number of codes of the given length
+    public static long keyspace(int length) {
+        long size = 1;
+        for (int i = 0; i < length; i++) {
+            size = Math.multiplyExact(size, 62);
+        }
+        return size;
+    }
+
+    // Encodes a non-negative value, left-padded with the zero digit to at least minLength chars
+    public static String encode(long value, int minLength) {
+        if (value < 0)
+            throw new IllegalArgumentException("value must not be negative: " + value);
+
+        char[] buffer = new char[Math.max(11, minLength)]; // 62^11 > Long.MAX_VALUE
+        int position = buffer.length;
+        do {
+            buffer[--position] = ALPHABET.charAt((int) (value % 62));
+            value /= 62;
+        } while (value > 0);
+        while (buffer.length - position < minLength) {
+            buffer[--position] = ALPHABET.charAt(0);
+        }
+        return new String(buffer, position, buffer.length - position);
+    }
+}
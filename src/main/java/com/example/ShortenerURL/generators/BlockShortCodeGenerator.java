@@ -0,0 +1,52 @@
+package com.example.ShortenerURL.generators;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Leases blocks of blockSize values from a database sequence (one value per block) and
+ * mints codes from the current block locally, so the database is only touched once
+ * per block. Values left in a block at shutdown are simply skipped.
+ */
+public class BlockShortCodeGenerator implements ShortCodeGenerator {
+
+    private final LongSupplier blockSequence;
+    private final long blockSize;
+    private final CodePermutation permutation;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long next;
+    private long end;
+
+    public BlockShortCodeGenerator(LongSupplier blockSequence, long blockSize, CodePermutation permutation) {
+        if (blockSize <= 0)
+            throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+        this.blockSequence = blockSequence;
+        this.blockSize = blockSize;
+        this.permutation = permutation;
+    }
+
+    @Override
+    public String generate() {
+        return permutation.encode(nextValue());
+    }
+
+    private long nextValue() {
+        lock.lock();
+        try {
+            if (next == end) {
+                long block = blockSequence.getAsLong();
+                next = Math.multiplyExact(block, blockSize);
+                end = next + blockSize;
+            }
+            return next++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isCollisionFree() {
+        return true;
+    }
+}
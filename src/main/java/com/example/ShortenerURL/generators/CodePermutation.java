@@ -0,0 +1,64 @@
+package com.example.ShortenerURL.generators;
+
+/**
+ * Keyed bijection that scrambles sequence values into short codes. Values below 62^6
+ * map to 6-char codes, larger values to the shortest length that holds them. Within a
+ * length the mapping is a Feistel network over [0, 62^length), applied with cycle
+ * walking, so distinct values always give distinct codes but consecutive values do not
+ * give guessable neighbours.
+ */
+public class CodePermutation {
+
+    public static final int MIN_LENGTH = 6;
+    private static final int MAX_LENGTH = 10; // 62^10 < 2^60
+    private static final int ROUNDS = 4;
+
+    private final long[] roundKeys = new long[ROUNDS];
+
+    public CodePermutation(long seed) {
+        long key = seed;
+        for (int i = 0; i < ROUNDS; i++) {
+            key = mix(key + 0x9E3779B97F4A7C15L);
+            roundKeys[i] = key;
+        }
+    }
+
+    public String encode(long value) {
+        if (value < 0)
+            throw new IllegalArgumentException("value must not be negative: " + value);
+
+        for (int length = MIN_LENGTH; length <= MAX_LENGTH; length++) {
+            long domain = Base62.keyspace(length);
+            if (value < domain)
+                return Base62.encode(permute(value, domain), length);
+        }
+        throw new IllegalArgumentException("value out of range: " + value);
+    }
+
+    private long permute(long value, long domain) {
+        int bits = 64 - Long.numberOfLeadingZeros(domain - 1);
+        int halfBits = (bits + 1) / 2;
+        long halfMask = (1L << halfBits) - 1;
+
+        // Cycle walking: re-apply the permutation until the result lands inside the domain
+        long result = value;
+        do {
+            long left = result >>> halfBits;
+            long right = result & halfMask;
+            for (int round = 0; round < ROUNDS; round++) {
+                long next = left ^ (mix(right ^ roundKeys[round]) & halfMask);
+                left = right;
+                right = next;
+            }
+            result = (left << halfBits) | right;
+        } while (result >= domain);
+        return result;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
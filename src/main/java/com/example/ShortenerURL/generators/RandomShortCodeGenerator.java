@@ -0,0 +1,26 @@
+package com.example.ShortenerURL.generators;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Draws random 6-char codes. Codes may repeat, so callers must check for existing ones.
+ */
+public class RandomShortCodeGenerator implements ShortCodeGenerator {
+
+    private static final int LENGTH = 6;
+
+    @Override
+    public String generate() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] shortCode = new char[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            shortCode[i] = Base62.ALPHABET.charAt(random.nextInt(Base62.ALPHABET.length()));
+        }
+        return new String(shortCode);
+    }
+
+    @Override
+    public boolean isCollisionFree() {
+        return false;
+    }
+}
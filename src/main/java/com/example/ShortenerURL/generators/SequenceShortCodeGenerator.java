@@ -0,0 +1,27 @@
+package com.example.ShortenerURL.generators;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Mints one code per database sequence value, scrambled by a CodePermutation.
+ */
+public class SequenceShortCodeGenerator implements ShortCodeGenerator {
+
+    private final LongSupplier sequence;
+    private final CodePermutation permutation;
+
+    public SequenceShortCodeGenerator(LongSupplier sequence, CodePermutation permutation) {
+        this.sequence = sequence;
+        this.permutation = permutation;
+    }
+
+    @Override
+    public String generate() {
+        return permutation.encode(sequence.getAsLong());
+    }
+
+    @Override
+    public boolean isCollisionFree() {
+        return true;
+    }
+}
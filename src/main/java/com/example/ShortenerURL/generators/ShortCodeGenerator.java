@@ -0,0 +1,12 @@
+package com.example.ShortenerURL.generators;
+
+/**
+ * Strategy for minting new short codes.
+ */
+public interface ShortCodeGenerator {
+
+    String generate();
+
+    // True when generated codes never repeat, so no existence check is needed before saving
+    boolean isCollisionFree();
+}
@@ -0,0 +1,77 @@
+package com.example.ShortenerURL.invalidation;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stand-in for the database transport when several nodes run in one JVM, as in tests and
+ * benchmarks: every transport on the same channel receives what any of them sends. Payloads
+ * are delivered on a thread of the receiving transport, so senders never wait on receivers.
+ */
+@Component
+@ConditionalOnProperty(name = "shortener.invalidation.transport", havingValue = "in-process")
+public class InProcessInvalidationTransport implements InvalidationTransport {
+
+    // Same limit as NOTIFY, so batches are split as they would be against PostgreSQL
+    private static final int MAX_PAYLOAD_BYTES = 7999;
+
+    private static final Map<String, Set<InProcessInvalidationTransport>> CHANNELS = new ConcurrentHashMap<>();
+
+    private final String channel;
+    private final ExecutorService delivery = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "invalidation-delivery");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Receiver receiver;
+
+    public InProcessInvalidationTransport(@Value("${shortener.invalidation.channel:short_url_invalidations}") String channel) {
+        this.channel = channel;
+        CHANNELS.computeIfAbsent(channel, key -> ConcurrentHashMap.newKeySet()).add(this);
+    }
+
+    @Override
+    public int maxPayloadBytes() {
+        return MAX_PAYLOAD_BYTES;
+    }
+
+    @Override
+    public void send(String payload) {
+        for (InProcessInvalidationTransport transport : CHANNELS.getOrDefault(channel, Set.of())) {
+            transport.deliver(payload);
+        }
+    }
+
+    private void deliver(String payload) {
+        Receiver current = receiver;
+        if (current == null)
+            return;
+        try {
+            delivery.execute(() -> current.onMessage(payload));
+        } catch (RejectedExecutionException ex) {
+            // Closed meanwhile
+        }
+    }
+
+    @Override
+    public void subscribe(Receiver receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public void close() {
+        CHANNELS.computeIfPresent(channel, (key, transports) -> {
+            transports.remove(this);
+            return transports.isEmpty() ? null : transports;
+        });
+        delivery.shutdown();
+    }
+}
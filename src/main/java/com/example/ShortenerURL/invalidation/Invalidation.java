@@ -0,0 +1,41 @@
+package com.example.ShortenerURL.invalidation;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A committed write of one short code, as broadcast to the other nodes. The version orders
+ * the writes of a code across nodes.
+ */
+@Getter
+@AllArgsConstructor
+public class Invalidation {
+
+    public enum Kind {
+        CREATED('C'),
+        UPDATED('U'),
+        DELETED('D');
+
+        private final char symbol;
+
+        Kind(char symbol) {
+            this.symbol = symbol;
+        }
+
+        public char getSymbol() {
+            return symbol;
+        }
+
+        public static Kind of(char symbol) {
+            for (Kind kind : values()) {
+                if (kind.symbol == symbol)
+                    return kind;
+            }
+            throw new IllegalArgumentException("Unknown invalidation kind: " + symbol);
+        }
+    }
+
+    private final String shortCode;
+    private final Kind kind;
+    private final long version;
+}
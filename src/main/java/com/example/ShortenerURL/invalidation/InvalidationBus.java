@@ -0,0 +1,245 @@
+package com.example.ShortenerURL.invalidation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Broadcasts the short codes written on this node to the other nodes, and hands theirs to
+ * ShortUrlService, so local caches and indexes do not go on serving what another node changed.
+ * Writes are queued and sent in batches every flush interval, split to the transport's payload
+ * limit.
+ *
+ * Every write carries a version from a hybrid clock: wall time, but always past any version
+ * this node has sent or received. The newest version applied per code is kept for the
+ * retention period, and anything older for that code is dropped, so a late or repeated
+ * message cannot undo a later write, e.g. remove a code from the index after it was created
+ * again. Without a transport this does nothing.
+ */
+@Component
+public class InvalidationBus implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+
+    public interface Listener {
+
+        // Writes from other nodes, each newer than any applied before for its code
+        void onInvalidations(List<Invalidation> invalidations);
+
+        // Messages may have been lost: nothing held locally can be trusted
+        void onGap();
+    }
+
+    private final InvalidationTransport transport;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Queue<Invalidation> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final Cache<String, Long> applied;
+    private volatile Listener listener;
+    private Counter sent;
+    private Counter appliedCount;
+    private Counter staleCount;
+    private Counter gaps;
+    private Timer convergence;
+
+    public InvalidationBus(Optional<InvalidationTransport> transport,
+                           @Value("${shortener.invalidation.version-retention-seconds:600}") long retentionSeconds,
+                           @Value("${shortener.invalidation.version-retention-size:1000000}") long retentionSize) {
+        this.transport = transport.orElse(null);
+        this.applied = this.transport == null ? null : Caffeine.newBuilder()
+            .maximumSize(retentionSize)
+            .expireAfterWrite(Duration.ofSeconds(retentionSeconds))
+            .build();
+        if (this.transport != null) {
+            this.transport.subscribe(new InvalidationTransport.Receiver() {
+                @Override
+                public void onMessage(String payload) {
+                    receive(payload);
+                }
+
+                @Override
+                public void onGap() {
+                    gap();
+                }
+            });
+        }
+    }
+
+    public boolean isEnabled() {
+        return transport != null;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    // Called once the write committed; sent with the next flush
+    public void publish(String shortCode, Invalidation.Kind kind) {
+        if (transport == null)
+            return;
+        long version = clock.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis()));
+        pending.add(new Invalidation(shortCode, kind, version));
+    }
+
+    @Scheduled(fixedDelayString = "${shortener.invalidation.flush-interval-ms:100}")
+    @PreDestroy
+    public void flush() {
+        if (transport == null || pending.isEmpty())
+            return;
+
+        String header = nodeId + "\n";
+        StringBuilder payload = new StringBuilder(header);
+        List<Invalidation> batch = new ArrayList<>();
+        for (Invalidation invalidation; (invalidation = pending.poll()) != null; ) {
+            String line = invalidation.getKind().getSymbol() + " " + invalidation.getShortCode() + " " + invalidation.getVersion() + "\n";
+            // Codes are ASCII, so characters are bytes
+            if (!batch.isEmpty() && payload.length() + line.length() > transport.maxPayloadBytes()) {
+                if (!send(payload.toString(), batch)) {
+                    pending.add(invalidation); // Polled for the next batch, so not in the one requeued
+                    return;
+                }
+                payload.setLength(0);
+                payload.append(header);
+                batch.clear();
+            }
+            payload.append(line);
+            batch.add(invalidation);
+        }
+        send(payload.toString(), batch);
+    }
+
+    // On failure the batch goes back in the queue for the next flush
+    private boolean send(String payload, List<Invalidation> batch) {
+        try {
+            transport.send(payload);
+        } catch (RuntimeException ex) {
+            log.warn("Could not send {} short URL invalidations, retrying with the next flush: {}", batch.size(), ex.getMessage());
+            pending.addAll(batch);
+            return false;
+        }
+        if (sent != null)
+            sent.increment(batch.size());
+        return true;
+    }
+
+    private void receive(String payload) {
+        int headerEnd = payload.indexOf('\n');
+        if (headerEnd < 0 || payload.substring(0, headerEnd).equals(nodeId)) // Malformed, or sent by this node
+            return;
+
+        List<Invalidation> fresh = new ArrayList<>();
+        try {
+            for (int start = headerEnd + 1, end; start < payload.length(); start = end + 1) {
+                end = payload.indexOf('\n', start);
+                if (end < 0)
+                    end = payload.length();
+                int versionStart = payload.lastIndexOf(' ', end - 1) + 1;
+                String shortCode = payload.substring(start + 2, versionStart - 1);
+                long version = Long.parseLong(payload.substring(versionStart, end));
+                clock.accumulateAndGet(version, Math::max);
+                if (isNewest(shortCode, version))
+                    fresh.add(new Invalidation(shortCode, Invalidation.Kind.of(payload.charAt(start)), version));
+                else if (staleCount != null)
+                    staleCount.increment();
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Ignoring a malformed invalidation message: {}", ex.getMessage());
+            return;
+        }
+
+        Listener current = listener;
+        if (current == null || fresh.isEmpty())
+            return;
+        try {
+            current.onInvalidations(fresh);
+        } catch (RuntimeException ex) {
+            // What was not applied is as good as lost
+            log.warn("Could not apply {} short URL invalidations: {}", fresh.size(), ex.getMessage());
+            gap();
+            return;
+        }
+
+        if (appliedCount != null)
+            appliedCount.increment(fresh.size());
+        if (convergence != null) {
+            long now = System.currentTimeMillis();
+            for (Invalidation invalidation : fresh) {
+                convergence.record(Math.max(0, now - invalidation.getVersion()), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private boolean isNewest(String shortCode, long version) {
+        boolean[] newest = { false };
+        applied.asMap().compute(shortCode, (code, last) -> {
+            if (last != null && last >= version)
+                return last;
+            newest[0] = true;
+            return version;
+        });
+        return newest[0];
+    }
+
+    private void gap() {
+        log.warn("Short URL invalidations may have been missed, dropping local state");
+        if (gaps != null)
+            gaps.increment();
+        Listener current = listener;
+        if (current == null)
+            return;
+        try {
+            current.onGap();
+        } catch (RuntimeException ex) {
+            log.warn("Could not drop local state after missed invalidations: {}", ex.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (transport == null)
+            return;
+        sent = Counter.builder("shortener.invalidation.sent")
+            .description("Short code writes broadcast to the other nodes")
+            .register(registry);
+        appliedCount = receivedCounter(registry, "applied");
+        staleCount = receivedCounter(registry, "stale");
+        gaps = Counter.builder("shortener.invalidation.gaps")
+            .description("Times invalidations may have been missed and local state was dropped")
+            .register(registry);
+        convergence = Timer.builder("shortener.invalidation.convergence")
+            .description("Time from a write on another node to its invalidation applied here, by the writer's clock")
+            .register(registry);
+        Gauge.builder("shortener.invalidation.pending", pending, Queue::size)
+            .description("Invalidations waiting for the next flush")
+            .register(registry);
+    }
+
+    private static Counter receivedCounter(MeterRegistry registry, String result) {
+        return Counter.builder("shortener.invalidation.received")
+            .description("Short code writes received from other nodes; stale ones were superseded")
+            .tag("result", result)
+            .register(registry);
+    }
+}
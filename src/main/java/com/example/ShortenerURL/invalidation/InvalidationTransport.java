@@ -0,0 +1,26 @@
+package com.example.ShortenerURL.invalidation;
+
+/**
+ * Carries invalidation batches, as text payloads, between the nodes sharing a database. A
+ * payload sent reaches every subscriber, the sender included, at most once. A subscriber that
+ * may have missed payloads, e.g. after reconnecting, is told so through {@link Receiver#onGap()}.
+ */
+public interface InvalidationTransport extends AutoCloseable {
+
+    // Largest payload send accepts, in bytes
+    int maxPayloadBytes();
+
+    void send(String payload);
+
+    void subscribe(Receiver receiver);
+
+    @Override
+    void close();
+
+    interface Receiver {
+
+        void onMessage(String payload);
+
+        void onGap();
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.ShortenerURL.invalidation;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Invalidation transport over PostgreSQL LISTEN/NOTIFY on the primary, so it needs nothing
+ * besides the database. Sends are one pg_notify call each. A daemon thread holds one pooled
+ * connection to LISTEN on, and after losing it reports a gap, since notifications sent
+ * meanwhile are gone.
+ */
+@Component
+@ConditionalOnProperty(name = "shortener.invalidation.transport", havingValue = "postgres")
+public class PostgresInvalidationTransport implements InvalidationTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresInvalidationTransport.class);
+
+    // NOTIFY payloads must be shorter than 8000 bytes
+    private static final int MAX_PAYLOAD_BYTES = 7999;
+    // The channel is spliced into LISTEN, which takes no bind parameters
+    private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final String channel;
+    private final int pollMillis;
+    private final long reconnectMillis;
+    private final ReentrantLock listenerLock = new ReentrantLock();
+    private volatile boolean running = true;
+    private Thread listener;
+
+    public PostgresInvalidationTransport(DataSource dataSource,
+                                         @Value("${shortener.invalidation.channel:short_url_invalidations}") String channel,
+                                         @Value("${shortener.invalidation.poll-ms:500}") int pollMillis,
+                                         @Value("${shortener.invalidation.reconnect-ms:1000}") long reconnectMillis) {
+        if (!CHANNEL.matcher(channel).matches())
+            throw new IllegalArgumentException("shortener.invalidation.channel must be a lowercase SQL identifier");
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.channel = channel;
+        this.pollMillis = pollMillis;
+        this.reconnectMillis = reconnectMillis;
+    }
+
+    @Override
+    public int maxPayloadBytes() {
+        return MAX_PAYLOAD_BYTES;
+    }
+
+    @Override
+    public void send(String payload) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, channel, payload);
+    }
+
+    @Override
+    public void subscribe(Receiver receiver) {
+        listenerLock.lock();
+        try {
+            listener = new Thread(() -> listen(receiver), "invalidation-listener");
+            listener.setDaemon(true);
+            listener.start();
+        } finally {
+            listenerLock.unlock();
+        }
+    }
+
+    private void listen(Receiver receiver) {
+        boolean connected = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (connected)
+                    receiver.onGap();
+                connected = true;
+                log.info("Listening for short URL invalidations on channel {}", channel);
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+                    if (notifications == null)
+                        continue;
+                    for (PGNotification notification : notifications) {
+                        receiver.onMessage(notification.getParameter());
+                    }
+                }
+            } catch (SQLException | RuntimeException ex) {
+                if (!running)
+                    return;
+                log.warn("Lost the invalidation listener connection, reconnecting in {} ms: {}", reconnectMillis, ex.getMessage());
+                try {
+                    Thread.sleep(reconnectMillis);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        listenerLock.lock();
+        try {
+            running = false;
+            if (listener != null)
+                listener.interrupt();
+        } finally {
+            listenerLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.ShortenerURL.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class AnalyticsStatsResponse {
+    private boolean enabled;
+    private int bufferCapacity;
+    private long buffered;
+    private long recorded;
+    private long dropped;
+}
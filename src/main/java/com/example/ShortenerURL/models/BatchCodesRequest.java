@@ -0,0 +1,25 @@
+package com.example.ShortenerURL.models;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+
+public class BatchCodesRequest {
+    @NotEmpty(message = "Short codes cannot be empty")
+    private List<String> shortCodes;
+
+    public BatchCodesRequest() {}
+
+    public BatchCodesRequest(List<String> shortCodes) {
+        this.shortCodes = shortCodes;
+    }
+
+    // Getter and Setter
+    public List<String> getShortCodes() {
+        return shortCodes;
+    }
+
+    public void setShortCodes(List<String> shortCodes) {
+        this.shortCodes = shortCodes;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.ShortenerURL.models;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+
+public class BatchCreateRequest {
+    // Items are validated one by one, so one bad URL does not fail the whole batch
+    @NotEmpty(message = "URLs cannot be empty")
+    private List<UrlRequest> urls;
+
+    public BatchCreateRequest() {}
+
+    public BatchCreateRequest(List<UrlRequest> urls) {
+        this.urls = urls;
+    }
+
+    // Getter and Setter
+    public List<UrlRequest> getUrls() {
+        return urls;
+    }
+
+    public void setUrls(List<UrlRequest> urls) {
+        this.urls = urls;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.ShortenerURL.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class BatchItemResponse {
+    private int status;
+    private String shortCode;
+    private UrlResponse data;
+    private String error;
+}
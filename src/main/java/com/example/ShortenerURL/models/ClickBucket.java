@@ -0,0 +1,54 @@
+package com.example.ShortenerURL.models;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Clicks of one short code within one time bucket. There is one row per bucket, and each
+ * analytics flush adds the clicks it counted to it; rows older than their granularity's
+ * retention are deleted.
+ */
+@Entity
+@Table(name = "click_buckets",
+       uniqueConstraints = @UniqueConstraint(name = "uk_click_buckets_bucket", columnNames = { "shortCode", "granularity", "bucketStart" }),
+       indexes = @Index(name = "idx_click_buckets_retention", columnList = "granularity, bucketStart"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClickBucket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "click_buckets_seq")
+    @SequenceGenerator(name = "click_buckets_seq", sequenceName = "click_buckets_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String shortCode;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 6)
+    private Granularity granularity;
+
+    // UTC
+    @Column(nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false)
+    private long clicks;
+}
@@ -0,0 +1,13 @@
+package com.example.ShortenerURL.models;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ClickCount {
+    private LocalDateTime bucketStart;
+    private Long clicks;
+}
@@ -0,0 +1,18 @@
+package com.example.ShortenerURL.models;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ClickSeriesResponse {
+    private String shortCode;
+    private Granularity granularity;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private long totalClicks;
+    private List<ClickCount> series;
+}
@@ -0,0 +1,20 @@
+package com.example.ShortenerURL.models;
+
+import java.time.Duration;
+
+public enum Granularity {
+    MINUTE(Duration.ofMinutes(1)),
+    HOUR(Duration.ofHours(1)),
+    DAY(Duration.ofDays(1));
+
+    private final long millis;
+
+    Granularity(Duration duration) {
+        this.millis = duration.toMillis();
+    }
+
+    // Start of the UTC bucket holding the timestamp
+    public long truncate(long epochMillis) {
+        return epochMillis - Math.floorMod(epochMillis, millis);
+    }
+}
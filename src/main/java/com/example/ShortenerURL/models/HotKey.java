@@ -0,0 +1,13 @@
+package com.example.ShortenerURL.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class HotKey {
+    private String shortCode;
+    // Lower bound over the last window, from sampled accesses
+    private double accessesPerSecond;
+    private boolean pinned;
+}
@@ -0,0 +1,15 @@
+package com.example.ShortenerURL.models;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class HotKeysResponse {
+    private boolean enabled;
+    private long windowMillis;
+    private double minAccessesPerSecond;
+    private List<HotKey> hotKeys;
+}
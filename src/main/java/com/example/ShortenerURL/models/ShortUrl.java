@@ -7,6 +7,8 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -14,27 +16,52 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "short_urls")
+// The schema itself is owned by the Flyway migrations in db/migration; these mappings are only
+// validated against it. url is unindexed; lookups by content go through the fixed-width url_hash
+@Table(name = "short_urls", indexes = {
+    @Index(name = "idx_short_urls_url_hash", columnList = "url_hash"),
+    @Index(name = "idx_short_urls_expires_at", columnList = "expires_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class ShortUrl {
 
+    public static final String ID_SEQUENCE = "short_urls_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+    public static final int MAX_CODE_LENGTH = 16;
+    public static final int MAX_URL_LENGTH = 2048;
+
+    // Pooled sequence instead of IDENTITY, so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
-    @Column(nullable = false)
+    @Column(nullable = false, length = MAX_URL_LENGTH)
     private String url;
 
-    @Column(unique = true, nullable = false)
+    @Column(unique = true, nullable = false, length = MAX_CODE_LENGTH)
     private String shortCode;
 
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
-    @Column(nullable = false)
-    private int accessCount = 0; 
+    // Only ever incremented in place by AccessCountAggregator, never overwritten by entity updates
+    @Column(nullable = false, updatable = false)
+    private long accessCount = 0;
+
+    // 128-bit UrlHasher.hash of the URL; null for rows written before the column existed, until backfilled
+    @Column(name = "url_hash", length = 16)
+    private byte[] urlHash;
+
+    // Null for links that never expire; expired rows are purged by ExpiryScheduler
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
 
+    public ShortUrl(Long id, String url, String shortCode, LocalDateTime createdAt, LocalDateTime updatedAt,
+                    long accessCount) {
+        this(id, url, shortCode, createdAt, updatedAt, accessCount, null, null);
+    }
 }
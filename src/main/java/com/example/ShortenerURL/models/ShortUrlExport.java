@@ -0,0 +1,27 @@
+package com.example.ShortenerURL.models;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// One row of an export or import; ids and URL hashes are not carried, the importing side assigns its own
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({ "shortCode", "url", "createdAt", "updatedAt", "accessCount", "expiresAt" })
+public class ShortUrlExport {
+    private String shortCode;
+    private String url;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private long accessCount;
+    private LocalDateTime expiresAt;
+}
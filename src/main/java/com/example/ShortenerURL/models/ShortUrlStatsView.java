@@ -0,0 +1,18 @@
+package com.example.ShortenerURL.models;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Read-only projection of a short_urls row including its persisted access count
+@Getter
+@AllArgsConstructor
+public class ShortUrlStatsView {
+    private Long id;
+    private String url;
+    private String shortCode;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private long accessCount;
+}
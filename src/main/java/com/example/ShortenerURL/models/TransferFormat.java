@@ -0,0 +1,27 @@
+package com.example.ShortenerURL.models;
+
+public enum TransferFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    TransferFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    // Format of an import body by its Content-Type; anything that is not CSV is read as NDJSON
+    public static TransferFormat ofContentType(String contentType) {
+        return contentType != null && contentType.startsWith(CSV.contentType) ? CSV : NDJSON;
+    }
+}
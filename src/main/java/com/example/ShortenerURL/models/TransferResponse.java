@@ -0,0 +1,15 @@
+package com.example.ShortenerURL.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class TransferResponse {
+    private long rows;
+    // Import only: rows whose short code already existed, and lines that could not be read
+    private long skipped;
+    private long invalid;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+}
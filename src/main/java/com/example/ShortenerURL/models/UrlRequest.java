@@ -1,19 +1,33 @@
 package com.example.ShortenerURL.models;
 
+import java.time.LocalDateTime;
+
+import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 
 public class UrlRequest {
     @NotBlank(message = "URL cannot be empty")
     @Pattern(regexp = "^(https?|ftp)://.+$", message = "Invalid URL format")
+    @Size(max = ShortUrl.MAX_URL_LENGTH, message = "URL is too long")
     private String url;
 
+    // Optional, in the server's time zone like createdAt; the link answers 410 Gone from then on
+    @Future(message = "Expiry must be in the future")
+    private LocalDateTime expiresAt;
+
     public UrlRequest() {}  
 
     public UrlRequest(String url) {
         this.url = url;
     }
 
+    public UrlRequest(String url, LocalDateTime expiresAt) {
+        this.url = url;
+        this.expiresAt = expiresAt;
+    }
+
     // Getter and Setter
     public String getUrl() {
         return url;
@@ -22,4 +36,12 @@ public class UrlRequest {
     public void setUrl(String url) {
         this.url = url;
     }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
 }
@@ -2,6 +2,8 @@ package com.example.ShortenerURL.models;
 
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
@@ -13,4 +15,15 @@ public class UrlResponse {
     private String shortCode;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
-}
\ No newline at end of file
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private LocalDateTime expiresAt;
+
+    public UrlResponse(Long id, String url, String shortCode, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, url, shortCode, createdAt, updatedAt, null);
+    }
+
+    // Expired links answer 410 Gone until they are purged
+    public boolean isExpiredAt(LocalDateTime time) {
+        return expiresAt != null && !expiresAt.isAfter(time);
+    }
+}
@@ -13,5 +13,5 @@ public class UrlStatsResponse {
     private String shortCode;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
-    private int accessCount;
+    private long accessCount;
 }
\ No newline at end of file
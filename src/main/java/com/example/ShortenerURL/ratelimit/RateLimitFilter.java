@@ -0,0 +1,211 @@
+package com.example.ShortenerURL.ratelimit;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.ShortenerURL.services.ShortUrlService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Per-client rate limits on the create, resolve and stats endpoints, each with its own
+ * buckets. Clients are told apart by the API key header when it carries one of the
+ * configured keys, by their address otherwise, so a made-up key never buys a fresh bucket. A request over its limit is answered 429 with Retry-After before it
+ * reaches the controller, so it costs neither a code draw nor a query. Batch requests take
+ * one token at the door and are charged one per item by the controller once it has read them.
+ * WarmUp's synthetic redirects, which carry ShortUrlService's warm-up user agent, are not
+ * limited: they all come from the node's own address, whose bucket would stop them early.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private final boolean enabled;
+    private final String warmUpUserAgent;
+    private final String keyHeader;
+    private final Set<String> apiKeys;
+    private final RateLimiter createLimiter;
+    private final RateLimiter resolveLimiter;
+    private final RateLimiter statsLimiter;
+    private Counter createRejected;
+    private Counter resolveRejected;
+    private Counter statsRejected;
+
+    public RateLimitFilter(ShortUrlService urlService,
+                           @Value("${shortener.rate-limit.enabled:false}") boolean enabled,
+                           @Value("${shortener.rate-limit.key-header:X-API-Key}") String keyHeader,
+                           @Value("${shortener.rate-limit.api-keys:}") Set<String> apiKeys,
+                           @Value("${shortener.rate-limit.max-clients:100000}") long maxClients,
+                           @Value("${shortener.rate-limit.create.requests-per-second:10}") double createRate,
+                           @Value("${shortener.rate-limit.create.burst:20}") int createBurst,
+                           @Value("${shortener.rate-limit.resolve.requests-per-second:100}") double resolveRate,
+                           @Value("${shortener.rate-limit.resolve.burst:200}") int resolveBurst,
+                           @Value("${shortener.rate-limit.stats.requests-per-second:5}") double statsRate,
+                           @Value("${shortener.rate-limit.stats.burst:10}") int statsBurst) {
+        this.enabled = enabled;
+        this.warmUpUserAgent = urlService.warmUpUserAgent();
+        this.apiKeys = Set.copyOf(apiKeys);
+        this.keyHeader = keyHeader.isEmpty() || this.apiKeys.isEmpty() ? null : keyHeader;
+        // A rate of 0 leaves that endpoint unlimited
+        this.createLimiter = createRate > 0 ? new RateLimiter(createRate, createBurst, maxClients) : null;
+        this.resolveLimiter = resolveRate > 0 ? new RateLimiter(resolveRate, resolveBurst, maxClients) : null;
+        this.statsLimiter = statsRate > 0 ? new RateLimiter(statsRate, statsBurst, maxClients) : null;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || isWarmUp(request);
+    }
+
+    // The warm-up user agent is drawn at random on each start, so clients cannot send it
+    private boolean isWarmUp(HttpServletRequest request) {
+        return warmUpUserAgent != null && warmUpUserAgent.equals(request.getHeader(HttpHeaders.USER_AGENT));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String endpoint = endpoint(request);
+        RateLimiter limiter = limiter(endpoint);
+        if (limiter == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long waitNanos = limiter.tryAcquire(clientKey(request), System.nanoTime());
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Counter rejected = rejected(endpoint);
+        if (rejected != null)
+            rejected.increment();
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"rateLimit\":\"Too many " + endpoint + " requests\"}");
+    }
+
+    // Called by the batch routes with the number of items read: the token taken at the door
+    // paid for the first, the others are charged now and may overdraw the client's bucket
+    public void chargeItems(HttpServletRequest request, int items) {
+        if (!enabled || items <= 1)
+            return;
+        RateLimiter limiter = limiter(endpoint(request));
+        if (limiter != null)
+            limiter.charge(clientKey(request), items - 1, System.nanoTime());
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        return endpoint(request.getMethod(), request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    // Which limit the request falls under, following the routes of ShortUrlController; null for none
+    private static String endpoint(String method, String path) {
+        if ("POST".equals(method)) {
+            if (path.equals("/shorten") || path.equals("/shorten/batch"))
+                return "create";
+            if (path.equals("/shorten/batch/resolve"))
+                return "resolve";
+            return null;
+        }
+        if (!"GET".equals(method))
+            return null;
+
+        if (path.startsWith("/shorten/")) {
+            int slash = path.indexOf('/', 9);
+            if (slash < 0)
+                return path.length() > 9 ? "resolve" : null;
+            return path.length() - slash == 6 && path.endsWith("/stats") ? "stats" : null;
+        }
+        // The redirect route only takes alphanumeric codes
+        if (path.length() < 2)
+            return null;
+        for (int i = 1; i < path.length(); i++) {
+            if (!isAlphanumeric(path.charAt(i)))
+                return null;
+        }
+        return "resolve";
+    }
+
+    private static boolean isAlphanumeric(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        if (keyHeader != null) {
+            String key = request.getHeader(keyHeader);
+            if (key != null && apiKeys.contains(key))
+                return "key:" + key;
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private RateLimiter limiter(String endpoint) {
+        if (endpoint == null)
+            return null;
+        switch (endpoint) {
+            case "create":
+                return createLimiter;
+            case "resolve":
+                return resolveLimiter;
+            default:
+                return statsLimiter;
+        }
+    }
+
+    private Counter rejected(String endpoint) {
+        switch (endpoint) {
+            case "create":
+                return createRejected;
+            case "resolve":
+                return resolveRejected;
+            default:
+                return statsRejected;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled)
+            return;
+        createRejected = rejectedCounter(registry, "create");
+        resolveRejected = rejectedCounter(registry, "resolve");
+        statsRejected = rejectedCounter(registry, "stats");
+        bindClients(registry, "create", createLimiter);
+        bindClients(registry, "resolve", resolveLimiter);
+        bindClients(registry, "stats", statsLimiter);
+    }
+
+    private static Counter rejectedCounter(MeterRegistry registry, String endpoint) {
+        return Counter.builder("shortener.rate_limit.rejected")
+            .description("Requests answered 429 because the client exceeded its rate limit")
+            .tag("endpoint", endpoint)
+            .register(registry);
+    }
+
+    private static void bindClients(MeterRegistry registry, String endpoint, RateLimiter limiter) {
+        if (limiter == null)
+            return;
+        Gauge.builder("shortener.rate_limit.clients", limiter, RateLimiter::clients)
+            .description("Clients with a rate limit bucket")
+            .tag("endpoint", endpoint)
+            .register(registry);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.ShortenerURL.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+/**
+ * Per-client token buckets of one limit, in GCRA form: a bucket is a single AtomicLong
+ * holding the time at which it will be full again, so taking a token is one CAS and
+ * refilling needs no timer. Buckets live in a bounded map; an idle bucket is dropped once
+ * it would have refilled anyway, and evicting an active one under size pressure only
+ * hands that client a full bucket again. A request for many items takes one token to get
+ * in and is charged the rest afterwards, overdrawing the bucket if need be.
+ */
+public class RateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long capacityNanos;
+    private final Cache<String, AtomicLong> buckets;
+
+    public RateLimiter(double requestsPerSecond, int burst, long maxClients) {
+        if (requestsPerSecond <= 0 || burst < 1)
+            throw new IllegalArgumentException("requestsPerSecond and burst must be positive");
+        this.emissionIntervalNanos = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / requestsPerSecond));
+        this.capacityNanos = Math.multiplyExact(emissionIntervalNanos, (long) burst);
+        this.buckets = Caffeine.newBuilder()
+            .maximumSize(maxClients)
+            // Kept until it would be full again, so an overdrawn bucket is not dropped with its debt
+            .expireAfter(new Expiry<String, AtomicLong>() {
+                @Override
+                public long expireAfterCreate(String client, AtomicLong fullAt, long currentTime) {
+                    return untilFull(fullAt, currentTime);
+                }
+
+                @Override
+                public long expireAfterUpdate(String client, AtomicLong fullAt, long currentTime, long currentDuration) {
+                    return untilFull(fullAt, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String client, AtomicLong fullAt, long currentTime, long currentDuration) {
+                    return untilFull(fullAt, currentTime);
+                }
+            })
+            .build();
+    }
+
+    /**
+     * Takes a token from the client's bucket. Returns 0 when one was available, otherwise
+     * the nanoseconds until the next one is, without taking anything.
+     */
+    public long tryAcquire(String client, long nowNanos) {
+        AtomicLong fullAt = buckets.getIfPresent(client);
+        if (fullAt == null)
+            fullAt = buckets.get(client, key -> new AtomicLong(nowNanos));
+
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + emissionIntervalNanos;
+            long waitNanos = next - nowNanos - capacityNanos;
+            if (waitNanos > 0)
+                return waitNanos;
+            if (fullAt.compareAndSet(current, next))
+                return 0;
+        }
+    }
+
+    /**
+     * Takes permits tokens from the client's bucket whatever it holds. An overdrawn bucket
+     * admits nothing until it has refilled past the debt.
+     */
+    public void charge(String client, long permits, long nowNanos) {
+        if (permits <= 0)
+            return;
+        long chargeNanos = Math.multiplyExact(emissionIntervalNanos, permits);
+        // A write, so the bucket's expiry is worked out again with the debt
+        buckets.asMap().compute(client, (key, fullAt) -> {
+            AtomicLong bucket = fullAt == null ? new AtomicLong(nowNanos) : fullAt;
+            bucket.updateAndGet(current -> Math.max(current, nowNanos) + chargeNanos);
+            return bucket;
+        });
+    }
+
+    // Plus one burst, since the token taken after this read moves the time a bucket is full
+    private long untilFull(AtomicLong fullAt, long nowNanos) {
+        return Math.max(0, fullAt.get() - nowNanos) + capacityNanos;
+    }
+
+    public long clients() {
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.ShortenerURL.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.ShortenerURL.models.ClickBucket;
+import com.example.ShortenerURL.models.ClickCount;
+import com.example.ShortenerURL.models.Granularity;
+
+@Repository
+public interface ClickBucketRepository extends JpaRepository<ClickBucket, Long>, ClickBucketRepositoryCustom {
+
+    @Query("select new com.example.ShortenerURL.models.ClickCount(b.bucketStart, sum(b.clicks)) from ClickBucket b "
+         + "where b.shortCode = :shortCode and b.granularity = :granularity "
+         + "and b.bucketStart >= :from and b.bucketStart < :to "
+         + "group by b.bucketStart order by b.bucketStart")
+    List<ClickCount> findSeries(@Param("shortCode") String shortCode, @Param("granularity") Granularity granularity,
+                                @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,17 @@
+package com.example.ShortenerURL.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.example.ShortenerURL.models.ClickBucket;
+import com.example.ShortenerURL.models.Granularity;
+
+public interface ClickBucketRepositoryCustom {
+
+    // Adds the clicks of each row to the stored row of its bucket, creating those missing, in one
+    // JDBC batch; the rows' ids are ignored
+    void addClicks(List<ClickBucket> buckets);
+
+    // Deletes up to limit buckets of the granularity starting before the cutoff; returns how many
+    int deleteOlderThan(Granularity granularity, LocalDateTime cutoff, int limit);
+}
@@ -0,0 +1,77 @@
+package com.example.ShortenerURL.repositories;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.ShortenerURL.models.ClickBucket;
+import com.example.ShortenerURL.models.Granularity;
+
+public class ClickBucketRepositoryCustomImpl implements ClickBucketRepositoryCustom {
+
+    // Ids step by the sequence's increment; nothing but their uniqueness matters
+    private static final String UPSERT_POSTGRES =
+        "INSERT INTO click_buckets (id, short_code, granularity, bucket_start, clicks) "
+        + "VALUES (nextval('click_buckets_seq'), ?, ?, ?, ?) "
+        + "ON CONFLICT (short_code, granularity, bucket_start) DO UPDATE SET clicks = click_buckets.clicks + EXCLUDED.clicks";
+    private static final String UPSERT_MERGE =
+        "MERGE INTO click_buckets b USING (VALUES (CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(6)), CAST(? AS TIMESTAMP(6)), CAST(? AS BIGINT))) "
+        + "v (short_code, granularity, bucket_start, clicks) "
+        + "ON b.short_code = v.short_code AND b.granularity = v.granularity AND b.bucket_start = v.bucket_start "
+        + "WHEN MATCHED THEN UPDATE SET clicks = b.clicks + v.clicks "
+        + "WHEN NOT MATCHED THEN INSERT (id, short_code, granularity, bucket_start, clicks) "
+        + "VALUES (NEXT VALUE FOR click_buckets_seq, v.short_code, v.granularity, v.bucket_start, v.clicks)";
+    private static final String DELETE_OLDER_THAN =
+        "DELETE FROM click_buckets WHERE id IN (SELECT id FROM click_buckets WHERE granularity = ? AND bucket_start < ? LIMIT ?)";
+    // One order for every writer, so two nodes upserting the same buckets cannot deadlock
+    private static final Comparator<ClickBucket> LOCK_ORDER = Comparator.comparing(ClickBucket::getShortCode)
+        .thenComparing(ClickBucket::getGranularity)
+        .thenComparing(ClickBucket::getBucketStart);
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
+
+    public ClickBucketRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public void addClicks(List<ClickBucket> buckets) {
+        if (buckets.isEmpty())
+            return;
+
+        List<ClickBucket> ordered = new ArrayList<>(buckets);
+        ordered.sort(LOCK_ORDER);
+        List<Object[]> batch = new ArrayList<>(ordered.size());
+        for (ClickBucket bucket : ordered) {
+            batch.add(new Object[] {
+                bucket.getShortCode(), bucket.getGranularity().name(), Timestamp.valueOf(bucket.getBucketStart()), bucket.getClicks()
+            });
+        }
+        jdbcTemplate.batchUpdate(isPostgres() ? UPSERT_POSTGRES : UPSERT_MERGE, batch);
+    }
+
+    // Chunked, so a large backlog is deleted in short transactions over the retention index
+    @Override
+    @Transactional
+    public int deleteOlderThan(Granularity granularity, LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.update(DELETE_OLDER_THAN, granularity.name(), Timestamp.valueOf(cutoff), limit);
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                JdbcUtils.commonDatabaseName(connection.getMetaData().getDatabaseProductName()));
+            postgres = "PostgreSQL".equals(product);
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.ShortenerURL.repositories;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.ShortenerURL.exceptions.ExpiryNotSupportedException;
+import com.example.ShortenerURL.models.ShortUrl;
+import com.example.ShortenerURL.models.ShortUrlStatsView;
+import com.example.ShortenerURL.models.ShortUrlView;
+import com.example.ShortenerURL.storage.MappedShortUrlStore;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * ShortUrlRepository over the embedded {@link MappedShortUrlStore}, for nodes without a
+ * database server. Active with the embedded profile, where it takes precedence over the
+ * JPA repository; click analytics still go through JPA, to an embedded H2 file.
+ *
+ * Lookups by short code hit the off-heap index.
+ */
+@Repository
+@Primary
+@Profile("embedded")
+// Overrides the per-method @Transactional of ShortUrlRepository: the store does not take part in JDBC transactions
+@Transactional(propagation = Propagation.SUPPORTS)
+public class MappedShortUrlRepository implements ShortUrlRepository, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedShortUrlRepository.class);
+
+    private final MappedShortUrlStore store;
+    private final double compactionDeadRatio;
+    private final long compactionMinDeadBytes;
+
+    public MappedShortUrlRepository(@Value("${shortener.storage.mapped.directory:./data}") String directory,
+                                    @Value("${shortener.storage.mapped.segment-size-mb:256}") int segmentSizeMb,
+                                    @Value("${shortener.storage.mapped.expected-entries:1000000}") long expectedEntries,
+                                    @Value("${shortener.storage.mapped.compaction-dead-ratio:0.5}") double compactionDeadRatio,
+                                    @Value("${shortener.storage.mapped.compaction-min-dead-mb:64}") long compactionMinDeadMb) {
+        if (segmentSizeMb < 1 || segmentSizeMb > 2047)
+            throw new IllegalArgumentException("shortener.storage.mapped.segment-size-mb must be between 1 and 2047");
+
+        long started = System.nanoTime();
+        this.store = MappedShortUrlStore.open(Path.of(directory), segmentSizeMb << 20, expectedEntries);
+        this.compactionDeadRatio = compactionDeadRatio;
+        this.compactionMinDeadBytes = compactionMinDeadMb << 20;
+        log.info("Opened short URL store in {} with {} entries in {} ms",
+            directory, store.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Short code lookups
+
+    @Override
+    public boolean existsByShortCode(String shortCode) {
+        return store.contains(shortCode);
+    }
+
+    @Override
+    public ShortUrl findByShortCode(String shortCode) {
+        return store.get(shortCode);
+    }
+
+    @Override
+    public ShortUrlView findViewByShortCode(String shortCode) {
+        ShortUrl shortUrl = store.get(shortCode);
+        return shortUrl == null ? null : toView(shortUrl);
+    }
+
+    @Override
+    public ShortUrlStatsView findStatsByShortCode(String shortCode) {
+        ShortUrl shortUrl = store.get(shortCode);
+        if (shortUrl == null)
+            return null;
+        return new ShortUrlStatsView(shortUrl.getId(), shortUrl.getUrl(), shortUrl.getShortCode(),
+                                     shortUrl.getCreatedAt(), shortUrl.getUpdatedAt(), shortUrl.getAccessCount());
+    }
+
+    @Override
+    public String findUrlByShortCode(String shortCode) {
+        return store.getUrl(shortCode);
+    }
+
+    @Override
+    public List<ShortUrlView> findViewsByShortCodeIn(Collection<String> shortCodes) {
+        List<ShortUrlView> views = new ArrayList<>(shortCodes.size());
+        for (String shortCode : new HashSet<>(shortCodes)) {
+            ShortUrl shortUrl = store.get(shortCode);
+            if (shortUrl != null)
+                views.add(toView(shortUrl));
+        }
+        return views;
+    }
+
+    @Override
+    public List<String> findExistingShortCodes(Collection<String> shortCodes) {
+        List<String> existing = new ArrayList<>();
+        for (String shortCode : new HashSet<>(shortCodes)) {
+            if (store.contains(shortCode))
+                existing.add(shortCode);
+        }
+        return existing;
+    }
+
+    // The store keeps no URL hash: on embedded nodes deduplication only finds URLs in its hot table
+    @Override
+    public ShortUrlView findFirstViewByUrlHashAndExpiresAtIsNullOrderByIdAsc(byte[] urlHash) {
+        return null;
+    }
+
+    @Override
+    public int updateUrlByShortCode(String shortCode, String url, byte[] urlHash, LocalDateTime expiresAt,
+                                    LocalDateTime updatedAt) {
+        if (expiresAt != null)
+            throw new ExpiryNotSupportedException();
+        return store.updateUrl(shortCode, url, updatedAt) ? 1 : 0;
+    }
+
+    @Override
+    public int deleteByShortCode(String shortCode) {
+        return store.delete(shortCode) ? 1 : 0;
+    }
+
+    // Nothing expires in the store
+    @Override
+    public List<String> deleteExpiredByShortCodeIn(Collection<String> shortCodes, LocalDateTime expiredBefore) {
+        return List.of();
+    }
+
+    @Override
+    public int deleteAllByShortCodeIn(Collection<String> shortCodes) {
+        int deleted = 0;
+        for (String shortCode : new HashSet<>(shortCodes)) {
+            if (store.delete(shortCode))
+                deleted++;
+        }
+        return deleted;
+    }
+
+    // ShortUrlRepositoryCustom
+
+    // The record format has no expiry
+    @Override
+    public boolean supportsExpiry() {
+        return false;
+    }
+
+    @Override
+    public void incrementAccessCounts(Map<String, Long> deltas) {
+        store.incrementAccessCounts(deltas);
+    }
+
+    @Override
+    public List<ShortUrl> insertAll(List<ShortUrl> shortUrls) {
+        for (ShortUrl shortUrl : shortUrls) {
+            if (shortUrl.getExpiresAt() != null)
+                throw new ExpiryNotSupportedException();
+        }
+        if (!store.insertAll(shortUrls))
+            throw new DuplicateKeyException("Short code already exists in batch of " + shortUrls.size());
+        return shortUrls;
+    }
+
+    @Override
+    public List<ShortUrl> insertSkippingTakenCodes(List<ShortUrl> shortUrls) {
+        for (ShortUrl shortUrl : shortUrls) {
+            if (shortUrl.getExpiresAt() != null)
+                throw new ExpiryNotSupportedException();
+        }
+        List<ShortUrl> inserted = new ArrayList<>(shortUrls.size());
+        for (ShortUrl shortUrl : shortUrls) {
+            if (store.insertAll(List.of(shortUrl)))
+                inserted.add(shortUrl);
+        }
+        return inserted;
+    }
+
+    @Override
+    public void forEachUrl(BiConsumer<String, String> action) {
+        store.forEach(shortUrl -> action.accept(shortUrl.getShortCode(), shortUrl.getUrl()));
+    }
+
+    @Override
+    public void forEachShortUrl(Consumer<ShortUrl> action) {
+        store.forEach(action);
+    }
+
+    // Keeps the top limit in a min-heap over one pass of the log
+    @Override
+    public void forEachMostAccessed(int limit, LocalDateTime now, Consumer<ShortUrl> action) {
+        if (limit <= 0)
+            return;
+        PriorityQueue<ShortUrl> top = new PriorityQueue<>(Comparator.comparingLong(ShortUrl::getAccessCount));
+        store.forEach(shortUrl -> {
+            if (shortUrl.getExpiresAt() != null && !shortUrl.getExpiresAt().isAfter(now))
+                return;
+            if (top.size() < limit) {
+                top.add(shortUrl);
+            } else if (shortUrl.getAccessCount() > top.peek().getAccessCount()) {
+                top.poll();
+                top.add(shortUrl);
+            }
+        });
+        List<ShortUrl> mostAccessed = new ArrayList<>(top);
+        mostAccessed.sort(Comparator.comparingLong(ShortUrl::getAccessCount).reversed());
+        mostAccessed.forEach(action);
+    }
+
+    @Override
+    public void forEachExpiring(LocalDateTime after, LocalDateTime until, BiConsumer<String, LocalDateTime> action) {
+    }
+
+    @Override
+    public Map<Long, String> findUrlsWithoutHash(long afterId, int limit) {
+        return Map.of();
+    }
+
+    @Override
+    public void updateUrlHashes(Map<Long, byte[]> urlHashes) {
+    }
+
+    // Sequences come into existence on their first value
+    @Override
+    public long nextSequenceValue(String sequenceName) {
+        return store.nextSequenceValue(sequenceName);
+    }
+
+    // A null id inserts, like persist; anything else replaces by short code, like merge
+
+    @Override
+    public <S extends ShortUrl> S save(S shortUrl) {
+        if (shortUrl.getExpiresAt() != null)
+            throw new ExpiryNotSupportedException();
+        if (shortUrl.getId() == null) {
+            if (!store.insert(shortUrl))
+                throw new DuplicateKeyException("Short code already exists: " + shortUrl.getShortCode());
+        } else {
+            store.upsert(shortUrl);
+        }
+        return shortUrl;
+    }
+
+    // Maintenance
+
+    @Scheduled(fixedDelayString = "${shortener.storage.mapped.sync-interval-ms:1000}")
+    public void sync() {
+        store.force();
+    }
+
+    @Scheduled(fixedDelayString = "${shortener.storage.mapped.compaction-interval-ms:60000}")
+    public void compactIfNeeded() {
+        long deadBytes = store.deadBytes();
+        long logBytes = store.logBytes();
+        if (deadBytes < compactionMinDeadBytes || deadBytes < logBytes * compactionDeadRatio)
+            return;
+
+        long started = System.nanoTime();
+        store.compact();
+        log.info("Compacted short URL store from {} to {} bytes in {} ms",
+            logBytes, store.logBytes(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @PreDestroy
+    public void close() {
+        store.close();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("shortener.storage.entries", store, MappedShortUrlStore::size)
+            .description("Short URLs in the embedded store")
+            .register(registry);
+        Gauge.builder("shortener.storage.log.bytes", store, MappedShortUrlStore::logBytes)
+            .description("Bytes written to the mapped log, live and dead")
+            .register(registry);
+        Gauge.builder("shortener.storage.log.dead.bytes", store, MappedShortUrlStore::deadBytes)
+            .description("Bytes of the mapped log that compaction would reclaim")
+            .register(registry);
+        Gauge.builder("shortener.storage.index.bytes", store, MappedShortUrlStore::indexMemoryBytes)
+            .description("Off-heap memory of the short code index")
+            .register(registry);
+    }
+
+    private static ShortUrlView toView(ShortUrl shortUrl) {
+        return new ShortUrlView(shortUrl.getId(), shortUrl.getUrl(), shortUrl.getShortCode(),
+                                shortUrl.getCreatedAt(), shortUrl.getUpdatedAt(), null);
+    }
+}
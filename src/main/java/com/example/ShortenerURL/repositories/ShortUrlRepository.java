@@ -1,18 +1,73 @@
 package com.example.ShortenerURL.repositories;
 
-import org.springframework.data.jpa.repository.JpaRepository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.ShortenerURL.models.ShortUrl;
+import com.example.ShortenerURL.models.ShortUrlStatsView;
+import com.example.ShortenerURL.models.ShortUrlView;
 
+// Only the operations the application uses, rather than all of JpaRepository, so that
+// MappedShortUrlRepository can implement every one of them
 @Repository
-public interface ShortUrlRepository extends JpaRepository<ShortUrl, Long> {
+public interface ShortUrlRepository extends org.springframework.data.repository.Repository<ShortUrl, Long>, ShortUrlRepositoryCustom {
+
+    // CrudRepository.save, backed by SimpleJpaRepository
+    @Transactional
+    <S extends ShortUrl> S save(S shortUrl);
 
+    @Transactional(readOnly = true)
     boolean existsByShortCode(String shortCode);
 
     ShortUrl findByShortCode(String shortCode);
-    
+
+    // Projections: only the selected columns are read, nothing enters the persistence context
+
+    @Transactional(readOnly = true)
+    ShortUrlView findViewByShortCode(String shortCode);
+
+    @Transactional(readOnly = true)
+    ShortUrlStatsView findStatsByShortCode(String shortCode);
+
+    @Transactional(readOnly = true)
+    @Query("select s.url from ShortUrl s where s.shortCode = :shortCode")
+    String findUrlByShortCode(@Param("shortCode") String shortCode);
+
+    // Oldest row with this URL hash that never expires, over idx_short_urls_url_hash
+    @Transactional(readOnly = true)
+    ShortUrlView findFirstViewByUrlHashAndExpiresAtIsNullOrderByIdAsc(byte[] urlHash);
+
+    @Transactional(readOnly = true)
+    List<ShortUrlView> findViewsByShortCodeIn(Collection<String> shortCodes);
+
+    @Transactional(readOnly = true)
+    @Query("select s.shortCode from ShortUrl s where s.shortCode in :shortCodes")
+    List<String> findExistingShortCodes(@Param("shortCodes") Collection<String> shortCodes);
+
+    // Bulk statements, returning the number of affected rows
+
+    @Transactional
+    @Modifying
+    @Query("update ShortUrl s set s.url = :url, s.urlHash = :urlHash, s.expiresAt = :expiresAt, s.updatedAt = :updatedAt "
+         + "where s.shortCode = :shortCode")
+    int updateUrlByShortCode(@Param("shortCode") String shortCode, @Param("url") String url,
+                             @Param("urlHash") byte[] urlHash, @Param("expiresAt") LocalDateTime expiresAt,
+                             @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Transactional
+    @Modifying
+    @Query("delete from ShortUrl s where s.shortCode = :shortCode")
+    int deleteByShortCode(@Param("shortCode") String shortCode);
+
     @Transactional
-    void deleteByShortCode(String shortCode);
-}
\ No newline at end of file
+    @Modifying
+    @Query("delete from ShortUrl s where s.shortCode in :shortCodes")
+    int deleteAllByShortCodeIn(@Param("shortCodes") Collection<String> shortCodes);
+}
@@ -0,0 +1,56 @@
+package com.example.ShortenerURL.repositories;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import com.example.ShortenerURL.models.ShortUrl;
+
+public interface ShortUrlRepositoryCustom {
+
+    // False where rows cannot carry an expiry, so that callers turn expiring links away up front
+    default boolean supportsExpiry() {
+        return true;
+    }
+
+    // Adds each delta to the persisted access count of its short code in one JDBC batch
+    void incrementAccessCounts(Map<String, Long> deltas);
+
+    // Persists new rows in JDBC batches, clearing the persistence context between batches
+    List<ShortUrl> insertAll(List<ShortUrl> shortUrls);
+
+    // Inserts new rows in one multi-row INSERT, skipping those whose short code is taken, and
+    // returns the rows inserted. Rows without an id get one from the entity's sequence
+    List<ShortUrl> insertSkippingTakenCodes(List<ShortUrl> shortUrls);
+
+    // Deletes the rows of these codes that expired at or before the given time and returns their
+    // codes; a row whose expiry was moved past it meanwhile is kept and left out
+    List<String> deleteExpiredByShortCodeIn(Collection<String> shortCodes, LocalDateTime expiredBefore);
+
+    long nextSequenceValue(String sequenceName);
+
+    // Streams the short code and URL of every row through a cursor, without loading entities
+    void forEachUrl(BiConsumer<String, String> action);
+
+    // Streams every row through a cursor as a new ShortUrl that is never managed, so memory stays
+    // flat however large the table
+    void forEachShortUrl(Consumer<ShortUrl> action);
+
+    // Streams up to limit rows not expired at the given time, highest access count first. There is
+    // no index on the count, which would keep its increments from being heap-only updates, so
+    // this is one scan with a top-N sort
+    void forEachMostAccessed(int limit, LocalDateTime now, Consumer<ShortUrl> action);
+
+    // Streams the short code and expiry of the rows expiring after the first time (if not null)
+    // and up to the second, over the expires_at index
+    void forEachExpiring(LocalDateTime after, LocalDateTime until, BiConsumer<String, LocalDateTime> action);
+
+    // Id and URL of up to limit rows without a URL hash, in id order after afterId
+    Map<Long, String> findUrlsWithoutHash(long afterId, int limit);
+
+    // Sets the URL hash of each row by id in one JDBC batch, unless it was set meanwhile
+    void updateUrlHashes(Map<Long, byte[]> urlHashes);
+}
@@ -0,0 +1,311 @@
+package com.example.ShortenerURL.repositories;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.ShortenerURL.models.ShortUrl;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+public class ShortUrlRepositoryCustomImpl implements ShortUrlRepositoryCustom {
+
+    private static final String INCREMENT_ACCESS_COUNT =
+        "UPDATE short_urls SET access_count = access_count + ? WHERE short_code = ?";
+    private static final String SELECT_URLS = "SELECT short_code, url FROM short_urls";
+    private static final String SELECT_SHORT_URLS =
+        "SELECT id, url, short_code, created_at, updated_at, access_count, url_hash, expires_at FROM short_urls";
+    private static final String SELECT_MOST_ACCESSED =
+        SELECT_SHORT_URLS + " WHERE expires_at IS NULL OR expires_at > ? ORDER BY access_count DESC LIMIT ?";
+    private static final String SELECT_EXPIRING = "SELECT short_code, expires_at FROM short_urls WHERE expires_at <= ?";
+    private static final String SELECT_URLS_WITHOUT_HASH =
+        "SELECT id, url FROM short_urls WHERE url_hash IS NULL AND id > ? ORDER BY id LIMIT ?";
+    private static final String UPDATE_URL_HASH =
+        "UPDATE short_urls SET url_hash = ? WHERE id = ? AND url_hash IS NULL";
+    private static final String INSERT_SHORT_URLS =
+        "INSERT INTO short_urls (id, url, short_code, created_at, updated_at, access_count, url_hash, expires_at) VALUES ";
+    private static final int[] INSERT_COLUMNS = {
+        Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP, Types.TIMESTAMP, Types.BIGINT, Types.VARBINARY, Types.TIMESTAMP
+    };
+    private static final String SELECT_SHORT_CODES_IN = "SELECT short_code FROM short_urls WHERE short_code IN (";
+    private static final String DELETE_EXPIRED_IN = "DELETE FROM short_urls WHERE expires_at <= ? AND short_code IN (";
+    private static final int STREAM_FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private volatile Boolean postgres;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ShortUrlRepositoryCustomImpl(JdbcTemplate jdbcTemplate,
+                                        @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    @Transactional
+    public void incrementAccessCounts(Map<String, Long> deltas) {
+        if (deltas.isEmpty())
+            return;
+
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+            batch.add(new Object[] { delta.getValue(), delta.getKey() });
+        }
+        jdbcTemplate.batchUpdate(INCREMENT_ACCESS_COUNT, batch);
+    }
+
+    @Override
+    @Transactional
+    public List<ShortUrl> insertAll(List<ShortUrl> shortUrls) {
+        for (int i = 0; i < shortUrls.size(); i++) {
+            entityManager.persist(shortUrls.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return shortUrls;
+    }
+
+    // PostgreSQL skips the taken codes in the statement itself and returns the others. Elsewhere
+    // the taken codes are looked up first; one taken meanwhile fails the whole statement, and
+    // then no row is inserted
+    @Override
+    @Transactional
+    public List<ShortUrl> insertSkippingTakenCodes(List<ShortUrl> shortUrls) {
+        if (shortUrls.isEmpty())
+            return shortUrls;
+        assignIds(shortUrls);
+
+        if (isPostgres()) {
+            Set<String> inserted = new HashSet<>(jdbcTemplate.queryForList(
+                multiRowInsert(shortUrls.size()) + " ON CONFLICT (short_code) DO NOTHING RETURNING short_code",
+                insertArgs(shortUrls), insertArgTypes(shortUrls.size()), String.class));
+            return shortUrls.stream().filter(shortUrl -> inserted.contains(shortUrl.getShortCode())).toList();
+        }
+
+        Set<String> shortCodes = shortUrls.stream().map(ShortUrl::getShortCode).collect(Collectors.toSet());
+        Set<String> taken = new HashSet<>(jdbcTemplate.queryForList(
+            SELECT_SHORT_CODES_IN + String.join(", ", Collections.nCopies(shortCodes.size(), "?")) + ")",
+            String.class, shortCodes.toArray()));
+        List<ShortUrl> free = shortUrls.stream().filter(shortUrl -> !taken.contains(shortUrl.getShortCode())).toList();
+        if (free.isEmpty())
+            return free;
+        try {
+            jdbcTemplate.update(multiRowInsert(free.size()), insertArgs(free), insertArgTypes(free.size()));
+        } catch (DuplicateKeyException ex) {
+            return List.of();
+        }
+        return free;
+    }
+
+    // PostgreSQL returns the deleted codes from the DELETE itself, H2 from its OLD TABLE delta
+    @Override
+    @Transactional
+    public List<String> deleteExpiredByShortCodeIn(Collection<String> shortCodes, LocalDateTime expiredBefore) {
+        if (shortCodes.isEmpty())
+            return List.of();
+
+        String delete = DELETE_EXPIRED_IN + String.join(", ", Collections.nCopies(shortCodes.size(), "?")) + ")";
+        Object[] args = new Object[shortCodes.size() + 1];
+        args[0] = Timestamp.valueOf(expiredBefore);
+        int i = 1;
+        for (String shortCode : shortCodes) {
+            args[i++] = shortCode;
+        }
+        return jdbcTemplate.queryForList(isPostgres() ? delete + " RETURNING short_code"
+                                                      : "SELECT short_code FROM OLD TABLE (" + delete + ")",
+            String.class, args);
+    }
+
+    // Ids come from the entity's pooled sequence: each value drawn ends a block of allocation
+    // size ids, as Hibernate's pooled optimizer reads it, so the two never hand out the same id.
+    // All the blocks needed are drawn in one query
+    private void assignIds(List<ShortUrl> shortUrls) {
+        int missing = (int) shortUrls.stream().filter(shortUrl -> shortUrl.getId() == null).count();
+        if (missing == 0)
+            return;
+
+        String format = isPostgres() ? "SELECT nextval('%s') FROM generate_series(1, ?)"
+                                     : "SELECT NEXT VALUE FOR %s FROM SYSTEM_RANGE(1, ?)";
+        int blocks = (missing + ShortUrl.ID_ALLOCATION_SIZE - 1) / ShortUrl.ID_ALLOCATION_SIZE;
+        Deque<Long> ids = new ArrayDeque<>(blocks * ShortUrl.ID_ALLOCATION_SIZE);
+        for (long blockEnd : jdbcTemplate.queryForList(String.format(format, ShortUrl.ID_SEQUENCE), Long.class, blocks)) {
+            for (long id = Math.max(1, blockEnd - ShortUrl.ID_ALLOCATION_SIZE + 1); id <= blockEnd; id++) {
+                ids.add(id);
+            }
+        }
+        for (ShortUrl shortUrl : shortUrls) {
+            if (shortUrl.getId() == null)
+                shortUrl.setId(ids.poll());
+        }
+    }
+
+    private static String multiRowInsert(int rows) {
+        return INSERT_SHORT_URLS + String.join(", ", Collections.nCopies(rows, "(?, ?, ?, ?, ?, ?, ?, ?)"));
+    }
+
+    private static Object[] insertArgs(List<ShortUrl> shortUrls) {
+        Object[] args = new Object[shortUrls.size() * INSERT_COLUMNS.length];
+        int i = 0;
+        for (ShortUrl shortUrl : shortUrls) {
+            args[i++] = shortUrl.getId();
+            args[i++] = shortUrl.getUrl();
+            args[i++] = shortUrl.getShortCode();
+            args[i++] = toTimestamp(shortUrl.getCreatedAt());
+            args[i++] = toTimestamp(shortUrl.getUpdatedAt());
+            args[i++] = shortUrl.getAccessCount();
+            args[i++] = shortUrl.getUrlHash();
+            args[i++] = toTimestamp(shortUrl.getExpiresAt());
+        }
+        return args;
+    }
+
+    // Explicit types, so nulls bind without a metadata lookup
+    private static int[] insertArgTypes(int rows) {
+        int[] types = new int[rows * INSERT_COLUMNS.length];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = INSERT_COLUMNS[i % INSERT_COLUMNS.length];
+        }
+        return types;
+    }
+
+    // PostgreSQL only honours the fetch size inside a transaction; otherwise it buffers the whole result
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachUrl(BiConsumer<String, String> action) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_URLS);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) row -> action.accept(row.getString(1), row.getString(2)));
+    }
+
+    // One transaction, hence one snapshot, for the whole scan
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachShortUrl(Consumer<ShortUrl> action) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_SHORT_URLS);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) row -> action.accept(toShortUrl(row)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachMostAccessed(int limit, LocalDateTime now, Consumer<ShortUrl> action) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_MOST_ACCESSED);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            statement.setTimestamp(1, Timestamp.valueOf(now));
+            statement.setInt(2, limit);
+            return statement;
+        }, (RowCallbackHandler) row -> action.accept(toShortUrl(row)));
+    }
+
+    // A row of SELECT_SHORT_URLS
+    private static ShortUrl toShortUrl(ResultSet row) throws SQLException {
+        return new ShortUrl(
+            row.getLong(1),
+            row.getString(2),
+            row.getString(3),
+            toLocalDateTime(row.getTimestamp(4)),
+            toLocalDateTime(row.getTimestamp(5)),
+            row.getLong(6),
+            row.getBytes(7),
+            toLocalDateTime(row.getTimestamp(8)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachExpiring(LocalDateTime after, LocalDateTime until, BiConsumer<String, LocalDateTime> action) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                after == null ? SELECT_EXPIRING : SELECT_EXPIRING + " AND expires_at > ?");
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            statement.setTimestamp(1, Timestamp.valueOf(until));
+            if (after != null)
+                statement.setTimestamp(2, Timestamp.valueOf(after));
+            return statement;
+        }, (RowCallbackHandler) row -> action.accept(row.getString(1), row.getTimestamp(2).toLocalDateTime()));
+    }
+
+    // Keyset pagination over the primary key, so every page costs the same however far the scan is
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, String> findUrlsWithoutHash(long afterId, int limit) {
+        Map<Long, String> urls = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_URLS_WITHOUT_HASH,
+            (RowCallbackHandler) row -> urls.put(row.getLong(1), row.getString(2)), afterId, limit);
+        return urls;
+    }
+
+    // A row updated since it was read already carries the hash of its new URL and is skipped
+    @Override
+    @Transactional
+    public void updateUrlHashes(Map<Long, byte[]> urlHashes) {
+        if (urlHashes.isEmpty())
+            return;
+
+        List<Object[]> batch = new ArrayList<>(urlHashes.size());
+        for (Map.Entry<Long, byte[]> urlHash : urlHashes.entrySet()) {
+            batch.add(new Object[] { urlHash.getValue(), urlHash.getKey() });
+        }
+        jdbcTemplate.batchUpdate(UPDATE_URL_HASH, batch);
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime time) {
+        return time == null ? null : Timestamp.valueOf(time);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    @Override
+    public long nextSequenceValue(String sequenceName) {
+        // PostgreSQL has its own nextval() function, the others accept the SQL standard form
+        String format = isPostgres() ? "SELECT nextval('%s')" : "SELECT NEXT VALUE FOR %s";
+        return jdbcTemplate.queryForObject(String.format(format, sequenceName), Long.class);
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                JdbcUtils.commonDatabaseName(connection.getMetaData().getDatabaseProductName()));
+            postgres = "PostgreSQL".equals(product);
+        }
+        return postgres;
+    }
+}
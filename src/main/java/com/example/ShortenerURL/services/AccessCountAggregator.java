@@ -0,0 +1,130 @@
+package com.example.ShortenerURL.services;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.ShortenerURL.repositories.ShortUrlRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind buffer for access counts. Redirects only bump an in-memory counter per
+ * code; a scheduled flush drains the pending deltas into the database as one batch of
+ * {@code access_count = access_count + ?} updates. Subclasses may write the batch
+ * elsewhere by overriding {@link #write}.
+ */
+@Component
+public class AccessCountAggregator implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessCountAggregator.class);
+
+    // A striped count per code, so redirects of a hot code do not contend on one CAS. A flush
+    // retires an idle counter before taking it out of the map, and an increment checks the
+    // flag after adding: either the increment sees it, or the flush's second look sees the increment
+    private static final class Counter {
+        final LongAdder count = new LongAdder();
+        volatile boolean retired;
+    }
+
+    private final ShortUrlRepository urlRepository;
+    private final ConcurrentHashMap<String, Counter> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // Subclasses that override write may pass null
+    public AccessCountAggregator(ShortUrlRepository urlRepository) {
+        this.urlRepository = urlRepository;
+    }
+
+    public void increment(String shortCode) {
+        while (true) {
+            Counter counter = pending.get(shortCode);
+            if (counter == null)
+                counter = pending.computeIfAbsent(shortCode, code -> new Counter());
+            counter.count.increment();
+            if (!counter.retired)
+                return;
+            // Retired by a flush since it was looked up, which may not count this access: take
+            // it back and count it again, on a new counter or this one if the flush kept it
+            counter.count.decrement();
+            Thread.onSpinWait();
+        }
+    }
+
+    // Accesses counted but not yet written to the database
+    public long pendingCount(String shortCode) {
+        Counter counter = pending.get(shortCode);
+        return counter == null ? 0 : Math.max(0, counter.count.sum());
+    }
+
+    // Drops the pending deltas of a deleted short code
+    public void discard(String shortCode) {
+        pending.remove(shortCode);
+    }
+
+    @Scheduled(fixedDelayString = "${shortener.access-count.flush-interval-ms:1000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<String, Long> deltas = new HashMap<>();
+            Map<String, Counter> counters = new HashMap<>();
+            for (Map.Entry<String, Counter> entry : pending.entrySet()) {
+                Counter counter = entry.getValue();
+                long delta = counter.count.sum();
+                if (delta != 0) {
+                    deltas.put(entry.getKey(), delta);
+                    counters.put(entry.getKey(), counter);
+                    continue;
+                }
+                // Idle since the last flush. An increment that has not seen the flag shows up
+                // in this second sum; any other one takes itself back and counts again
+                counter.retired = true;
+                if (counter.count.sum() == 0)
+                    pending.remove(entry.getKey(), counter);
+                else
+                    counter.retired = false;
+            }
+            if (deltas.isEmpty())
+                return;
+
+            write(deltas);
+
+            // Subtract only what was written, so accesses counted during the flush stay pending.
+            // A counter holding a delta is not retired in this flush, so the subtraction always lands
+            for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+                counters.get(delta.getKey()).count.add(-delta.getValue());
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Failed to flush access counts, retrying on next interval", ex);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Applies the deltas to the stored counts; a failure leaves them pending for the next flush
+    protected void write(Map<String, Long> deltas) {
+        urlRepository.incrementAccessCounts(deltas);
+    }
+
+    @PreDestroy
+    public void drain() {
+        flush();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("shortener.access_count.pending_codes", pending, Map::size)
+            .description("Short codes with accesses not yet flushed to the database")
+            .register(registry);
+    }
+}
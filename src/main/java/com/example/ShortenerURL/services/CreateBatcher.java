@@ -0,0 +1,191 @@
+package com.example.ShortenerURL.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.ShortenerURL.models.UrlRequest;
+import com.example.ShortenerURL.models.UrlResponse;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Async create path. Callers queue their create and get a future; writer threads take what is
+ * queued, up to max-batch-size, and hand it to ShortUrlService as one batch. A writer does not
+ * wait for a batch to fill: whatever queued while the previous batch was written goes next, so
+ * batches grow with load on their own. A positive max-wait-ms lets a writer linger that long
+ * for more creates. The queue is bounded, and submitting blocks while it is full, so creates
+ * arriving faster than the writers keep up slow their callers down instead of piling up.
+ */
+@Component
+public class CreateBatcher implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(CreateBatcher.class);
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private record PendingCreate(UrlRequest request, CompletableFuture<UrlResponse> result) {}
+
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final int writerCount;
+    private final BlockingQueue<PendingCreate> queue;
+    private final List<Thread> writers = new ArrayList<>();
+    private final ReentrantLock lifecycleLock = new ReentrantLock();
+    private volatile boolean running;
+    private DistributionSummary batchSizes;
+
+    public CreateBatcher(@Value("${shortener.create.async.enabled:false}") boolean enabled,
+                         @Value("${shortener.create.async.max-batch-size:500}") int maxBatchSize,
+                         @Value("${shortener.create.async.max-wait-ms:0}") long maxWaitMillis,
+                         @Value("${shortener.create.async.writers:2}") int writerCount,
+                         @Value("${shortener.create.async.queue-capacity:10000}") int queueCapacity) {
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.writerCount = writerCount;
+        this.queue = new ArrayBlockingQueue<>(enabled ? queueCapacity : 1);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Starts the writers; each batch is written by the given function, which returns one
+    // response per request, in order
+    public void start(Function<List<UrlRequest>, List<UrlResponse>> writer) {
+        lifecycleLock.lock();
+        try {
+            if (!enabled || running)
+                return;
+            running = true;
+            for (int i = 0; i < writerCount; i++) {
+                Thread thread = new Thread(() -> drain(writer), "create-writer-" + i);
+                thread.setDaemon(true);
+                thread.start();
+                writers.add(thread);
+            }
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
+    public CompletableFuture<UrlResponse> submit(UrlRequest request) {
+        CompletableFuture<UrlResponse> result = new CompletableFuture<>();
+        if (!running) {
+            result.completeExceptionally(new IllegalStateException("Async creates are not being written"));
+            return result;
+        }
+        try {
+            queue.put(new PendingCreate(request, result));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(ex);
+        }
+        return result;
+    }
+
+    // Runs until stopped and the queue is empty
+    private void drain(Function<List<UrlRequest>, List<UrlResponse>> writer) {
+        List<PendingCreate> batch = new ArrayList<>(maxBatchSize);
+        while (true) {
+            try {
+                PendingCreate first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (!running)
+                        return;
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                long deadline = System.nanoTime() + maxWaitNanos;
+                for (long left = maxWaitNanos; batch.size() < maxBatchSize && left > 0; left = deadline - System.nanoTime()) {
+                    PendingCreate next = queue.poll(left, TimeUnit.NANOSECONDS);
+                    if (next == null)
+                        break;
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                }
+            } catch (InterruptedException ex) {
+                // Only stop() interrupts, and only once the queue had time to empty
+                fail(batch, ex);
+                return;
+            }
+            write(writer, batch);
+            batch.clear();
+        }
+    }
+
+    private void write(Function<List<UrlRequest>, List<UrlResponse>> writer, List<PendingCreate> batch) {
+        List<UrlRequest> requests = new ArrayList<>(batch.size());
+        for (PendingCreate pending : batch) {
+            requests.add(pending.request());
+        }
+        List<UrlResponse> responses;
+        try {
+            responses = writer.apply(requests);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to write a batch of {} short URLs", batch.size(), ex);
+            fail(batch, ex);
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result().complete(responses.get(i));
+        }
+        if (batchSizes != null)
+            batchSizes.record(batch.size());
+    }
+
+    private static void fail(List<PendingCreate> batch, Exception ex) {
+        for (PendingCreate pending : batch) {
+            pending.result().completeExceptionally(ex);
+        }
+    }
+
+    // New creates are turned away; the writers finish what is queued, for up to 10 seconds
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // Joining the writers blocks, so not in a synchronized block, which would pin a virtual thread
+        lifecycleLock.lock();
+        try {
+            running = false;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            for (Thread writer : writers) {
+                writer.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+                writer.interrupt();
+            }
+            writers.clear();
+        } finally {
+            lifecycleLock.unlock();
+        }
+        List<PendingCreate> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        fail(abandoned, new IllegalStateException("Async creates are not being written"));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled)
+            return;
+        batchSizes = DistributionSummary.builder("shortener.create.batch_size")
+            .description("Creates written per async batch")
+            .register(registry);
+        Gauge.builder("shortener.create.queued", queue, BlockingQueue::size)
+            .description("Async creates waiting for a writer")
+            .register(registry);
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.ShortenerURL.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.ShortenerURL.invalidation.Invalidation;
+import com.example.ShortenerURL.invalidation.InvalidationBus;
+import com.example.ShortenerURL.repositories.ShortUrlRepository;
+import com.example.ShortenerURL.storage.HierarchicalTimingWheel;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Purges expired short URLs. Each code expiring within the horizon of a hierarchical timing
+ * wheel gets a timer for its expiry plus the grace period, during which it answers 410 Gone;
+ * the timers that fire on a tick are deleted by short code in chunks, then evicted from the
+ * cache, the code index and the pending access counts, and published as deleted on the
+ * invalidation bus so that the other nodes evict them too. Codes expiring further out are
+ * loaded by a periodic range scan over the expires_at index, never by a full table sweep.
+ */
+@Component
+public class ExpiryScheduler implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpiryScheduler.class);
+
+    private final ShortUrlRepository urlRepository;
+    private final ShortUrlCache urlCache;
+    private final ShortCodeIndex codeIndex;
+    private final AccessCountAggregator accessCountAggregator;
+    private final InvalidationBus invalidationBus;
+    private final boolean enabled;
+    private final Duration gracePeriod;
+    private final int purgeBatchSize;
+    private final HierarchicalTimingWheel<String> wheel;
+
+    // Expiry of every code with a pending timer; also tells the redirect path which codes are gone
+    private final ConcurrentHashMap<String, LocalDateTime> scheduled = new ConcurrentHashMap<>();
+    // Expiries up to here are in the wheel, later ones wait for the next refill
+    private volatile LocalDateTime loadedUntil;
+    private Counter purged;
+    private Timer purgeTimer;
+
+    public ExpiryScheduler(ShortUrlRepository urlRepository, ShortUrlCache urlCache, ShortCodeIndex codeIndex,
+                           AccessCountAggregator accessCountAggregator, InvalidationBus invalidationBus,
+                           @Value("${shortener.expiry.enabled:true}") boolean enabled,
+                           @Value("${shortener.expiry.tick-ms:1000}") long tickMillis,
+                           @Value("${shortener.expiry.wheel-size:64}") int wheelSize,
+                           @Value("${shortener.expiry.levels:3}") int levels,
+                           @Value("${shortener.expiry.grace-period-seconds:86400}") long gracePeriodSeconds,
+                           @Value("${shortener.expiry.purge-batch-size:500}") int purgeBatchSize,
+                           @Value("${shortener.expiry.refill-interval-ms:3600000}") long refillIntervalMillis) {
+        this.urlRepository = urlRepository;
+        this.urlCache = urlCache;
+        this.codeIndex = codeIndex;
+        this.accessCountAggregator = accessCountAggregator;
+        this.invalidationBus = invalidationBus;
+        this.enabled = enabled;
+        this.gracePeriod = Duration.ofSeconds(gracePeriodSeconds);
+        this.purgeBatchSize = purgeBatchSize;
+        this.wheel = new HierarchicalTimingWheel<>(tickMillis, wheelSize, levels, System.currentTimeMillis());
+
+        long horizonMillis = wheel.horizonMillis() - System.currentTimeMillis();
+        if (horizonMillis - gracePeriod.toMillis() <= refillIntervalMillis)
+            throw new IllegalArgumentException("The expiry wheel horizon of " + horizonMillis / 1000
+                + " s must exceed grace-period-seconds plus refill-interval-ms");
+    }
+
+    @PostConstruct
+    public void load() {
+        if (enabled)
+            refill();
+    }
+
+    // Loads the codes expiring between the last refill and the point where the wheel still holds their purge
+    @Scheduled(fixedDelayString = "${shortener.expiry.refill-interval-ms:3600000}",
+               initialDelayString = "${shortener.expiry.refill-interval-ms:3600000}")
+    public void refill() {
+        if (!enabled)
+            return;
+
+        long started = System.nanoTime();
+        LocalDateTime after = loadedUntil;
+        LocalDateTime until = toLocalDateTime(wheel.horizonMillis()).minus(gracePeriod);
+        // Published before the scan, so a code created meanwhile is scheduled by schedule() or read by the scan
+        loadedUntil = until;
+        int before = scheduled.size();
+        urlRepository.forEachExpiring(after, until, this::track);
+        log.info("Scheduled {} expiring short URLs up to {} in {} ms",
+            scheduled.size() - before, until, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Called by ShortUrlService once a create or update committed; null clears a previous expiry
+    public void schedule(String shortCode, LocalDateTime expiresAt) {
+        if (!enabled)
+            return;
+        if (expiresAt == null)
+            scheduled.remove(shortCode);
+        else if (loadedUntil != null && !expiresAt.isAfter(loadedUntil))
+            track(shortCode, expiresAt);
+    }
+
+    public void unschedule(String shortCode) {
+        scheduled.remove(shortCode);
+    }
+
+    // True from the expiry of a code this node has scheduled until its purge
+    public boolean isExpired(String shortCode) {
+        LocalDateTime expiresAt = scheduled.get(shortCode);
+        return expiresAt != null && !expiresAt.isAfter(LocalDateTime.now());
+    }
+
+    private void track(String shortCode, LocalDateTime expiresAt) {
+        // An unchanged expiry already has its timer
+        if (expiresAt.equals(scheduled.put(shortCode, expiresAt)))
+            return;
+        if (!wheel.add(shortCode, toEpochMillis(expiresAt.plus(gracePeriod))))
+            scheduled.remove(shortCode, expiresAt); // Past the horizon after all: the next refill has it
+    }
+
+    @Scheduled(fixedRateString = "${shortener.expiry.tick-ms:1000}")
+    public void purge() {
+        if (!enabled)
+            return;
+
+        LocalDateTime expiredBefore = LocalDateTime.now().minus(gracePeriod);
+        List<String> due = new ArrayList<>();
+        List<LocalDateTime> expiries = new ArrayList<>();
+        for (String shortCode : wheel.advance(System.currentTimeMillis())) {
+            LocalDateTime expiresAt = scheduled.get(shortCode);
+            // Timers left behind by an expiry that was extended, cleared or deleted since are skipped
+            if (expiresAt != null && !expiresAt.isAfter(expiredBefore)) {
+                due.add(shortCode);
+                expiries.add(expiresAt);
+            }
+        }
+
+        for (int from = 0; from < due.size(); from += purgeBatchSize) {
+            int to = Math.min(from + purgeBatchSize, due.size());
+            long started = System.nanoTime();
+            // The condition keeps rows whose expiry another node has moved meanwhile; those stay
+            // in the code index, which that node's update refreshes
+            Set<String> deleted = new HashSet<>(urlRepository.deleteExpiredByShortCodeIn(due.subList(from, to), expiredBefore));
+            for (int i = from; i < to; i++) {
+                String shortCode = due.get(i);
+                urlCache.invalidate(shortCode);
+                scheduled.remove(shortCode, expiries.get(i));
+                if (deleted.contains(shortCode)) {
+                    invalidationBus.publish(shortCode, Invalidation.Kind.DELETED);
+                    codeIndex.remove(shortCode);
+                    accessCountAggregator.discard(shortCode);
+                }
+            }
+            if (purgeTimer != null) {
+                purgeTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                purged.increment(deleted.size());
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled)
+            return;
+        purged = Counter.builder("shortener.expiry.purged")
+            .description("Expired short URLs deleted by the purge")
+            .register(registry);
+        purgeTimer = Timer.builder("shortener.expiry.purge")
+            .description("Time to delete one chunk of expired short URLs and evict them from the caches")
+            .register(registry);
+        Gauge.builder("shortener.expiry.scheduled", scheduled, ConcurrentHashMap::size)
+            .description("Short codes with an expiry in the wheel, expired ones awaiting their purge included")
+            .register(registry);
+        Gauge.builder("shortener.expiry.wheel.timers", wheel, HierarchicalTimingWheel::size)
+            .description("Pending timers in the wheel, stale ones of changed expiries included")
+            .register(registry);
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.ShortenerURL.services;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.ShortenerURL.models.HotKey;
+import com.example.ShortenerURL.storage.SpaceSaving;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Finds the short codes resolved most often and pins them in ShortUrlCache. One access in
+ * sample-rate is offered to a Space-Saving sketch; the request thread only tries its lock and
+ * drops the sample when it is held, so detection never makes a resolution wait. Every window
+ * the sketch is read and reset: codes whose guaranteed rate reaches min-rate are pinned, up to
+ * top-k of them, and codes that fell below it are unpinned.
+ */
+@Component
+public class HotKeyDetector implements MeterBinder {
+
+    private final ShortUrlCache urlCache;
+    private final boolean enabled;
+    private final int topK;
+    private final int sampleRate;
+    private final long windowMillis;
+    private final double minRate;
+    private final SpaceSaving sketch;
+    private final ReentrantLock sketchLock = new ReentrantLock();
+    private long windowStart = System.nanoTime();
+    private volatile List<HotKey> hotKeys = List.of();
+    private Counter pins;
+
+    public HotKeyDetector(ShortUrlCache urlCache,
+                          @Value("${shortener.hot-keys.enabled:false}") boolean enabled,
+                          @Value("${shortener.hot-keys.top-k:16}") int topK,
+                          @Value("${shortener.hot-keys.counters:1024}") int counters,
+                          @Value("${shortener.hot-keys.sample-rate:16}") int sampleRate,
+                          @Value("${shortener.hot-keys.window-ms:1000}") long windowMillis,
+                          @Value("${shortener.hot-keys.min-rate:100}") double minRate) {
+        if (enabled && counters < topK)
+            throw new IllegalArgumentException("shortener.hot-keys.counters must be at least top-k");
+        this.urlCache = urlCache;
+        this.enabled = enabled;
+        this.topK = topK;
+        this.sampleRate = Math.max(1, sampleRate);
+        this.windowMillis = windowMillis;
+        this.minRate = minRate;
+        this.sketch = enabled ? new SpaceSaving(counters) : null;
+    }
+
+    public void record(String shortCode) {
+        if (!enabled || (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0))
+            return;
+        if (!sketchLock.tryLock())
+            return;
+        try {
+            sketch.offer(shortCode, sampleRate);
+        } finally {
+            sketchLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shortener.hot-keys.window-ms:1000}")
+    public void roll() {
+        if (!enabled)
+            return;
+
+        List<SpaceSaving.Entry> top;
+        double seconds;
+        sketchLock.lock();
+        try {
+            top = sketch.top(topK);
+            sketch.clear();
+            long now = System.nanoTime();
+            seconds = Math.max(1, now - windowStart) / 1e9;
+            windowStart = now;
+        } finally {
+            sketchLock.unlock();
+        }
+
+        Set<String> hot = new HashSet<>();
+        List<HotKey> current = new ArrayList<>();
+        for (SpaceSaving.Entry entry : top) {
+            double rate = entry.guaranteedCount() / seconds;
+            if (rate < minRate)
+                continue;
+            hot.add(entry.key());
+            boolean pinned = urlCache.isPinned(entry.key());
+            if (!pinned && urlCache.pin(entry.key())) {
+                pinned = true;
+                if (pins != null)
+                    pins.increment();
+            }
+            current.add(new HotKey(entry.key(), rate, pinned));
+        }
+        for (HotKey previous : hotKeys) {
+            if (!hot.contains(previous.getShortCode()))
+                urlCache.unpin(previous.getShortCode());
+        }
+        hotKeys = List.copyOf(current);
+    }
+
+    // Hot codes of the last window, hottest first
+    public List<HotKey> hotKeys() {
+        return hotKeys;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long windowMillis() {
+        return windowMillis;
+    }
+
+    public double minRate() {
+        return minRate;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled)
+            return;
+        pins = Counter.builder("shortener.hot_keys.pins")
+            .description("Times a hot short code was pinned in the local tier")
+            .register(registry);
+        Gauge.builder("shortener.hot_keys.pinned", urlCache, ShortUrlCache::pinnedSize)
+            .description("Short codes pinned in the local tier")
+            .register(registry);
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.ShortenerURL.services;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Sends short code lookups to read replicas, registered by ReplicaDataSourceConfig, and
+ * everything else to the primary. A lookup goes to the primary instead when its code was
+ * written on this node within the read-your-writes window, when no replica is up and
+ * within max-lag, when the replica fails, and when the replica does not find the code,
+ * which may be one it has not replayed yet. Without replicas every lookup runs as before.
+ */
+@Component
+public class ReplicaRouter implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRouter.class);
+
+    private final boolean enabled;
+    private final long readYourWritesNanos;
+    private final long maxLagMillis;
+    private final String lagQuery;
+    private final TransactionTemplate readTransaction;
+    // Write time per code, only needed for as long as the window lasts
+    private final Cache<String, Long> recentWrites;
+    private final List<Replica> replicas = new CopyOnWriteArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    // Replica the lookup on this thread goes to, read by the routing DataSource when it hands out a connection
+    private final ThreadLocal<String> current = new ThreadLocal<>();
+    private Counter replicaReads;
+    private Counter recentWriteFallbacks;
+    private Counter unavailableFallbacks;
+    private Counter failureFallbacks;
+    private Counter missFallbacks;
+
+    public ReplicaRouter(@Lazy PlatformTransactionManager transactionManager,
+                         @Value("${shortener.replicas.enabled:false}") boolean enabled,
+                         @Value("${shortener.replicas.read-your-writes-ms:5000}") long readYourWritesMillis,
+                         @Value("${shortener.replicas.read-your-writes-size:100000}") long readYourWritesSize,
+                         @Value("${shortener.replicas.max-lag-ms:1000}") long maxLagMillis,
+                         @Value("${shortener.replicas.lag-query:}") String lagQuery) {
+        // A replica lagging less than the window has replayed every write the window still covers
+        if (enabled && readYourWritesMillis <= maxLagMillis)
+            throw new IllegalArgumentException("shortener.replicas.read-your-writes-ms must be greater than max-lag-ms");
+
+        this.enabled = enabled;
+        this.readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(readYourWritesMillis);
+        this.maxLagMillis = maxLagMillis;
+        this.lagQuery = lagQuery.isBlank() ? null : lagQuery;
+        // A transaction of its own per attempt, so a fallback gets a fresh connection from the primary
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.recentWrites = enabled ? Caffeine.newBuilder()
+            .maximumSize(readYourWritesSize)
+            .expireAfterWrite(Duration.ofMillis(readYourWritesMillis))
+            .build() : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Called by ReplicaDataSourceConfig; the router closes the pool on shutdown
+    public void addReplica(String name, DataSource dataSource) {
+        replicas.add(new Replica(name, dataSource));
+    }
+
+    // Lookup key for the routing DataSource: the replica chosen for this thread, null for the primary
+    public String currentReplica() {
+        return current.get();
+    }
+
+    // Reads of this code go to the primary until the window has passed
+    public void recordWrite(String shortCode) {
+        if (recentWrites != null)
+            recentWrites.put(shortCode, System.nanoTime());
+    }
+
+    // Runs a lookup of one code, on a replica when that is safe; null results are retried on the primary
+    public <T> T read(String shortCode, Supplier<T> query) {
+        if (replicas.isEmpty())
+            return query.get();
+
+        Long writtenAt = recentWrites.getIfPresent(shortCode);
+        if (writtenAt != null && System.nanoTime() - writtenAt < readYourWritesNanos)
+            return onPrimary(query, recentWriteFallbacks);
+        Replica replica = pick();
+        if (replica == null)
+            return onPrimary(query, unavailableFallbacks);
+
+        T result;
+        current.set(replica.name);
+        try {
+            result = readTransaction.execute(status -> query.get());
+        } catch (DataAccessException | TransactionException ex) {
+            current.remove(); // So the retry is routed to the primary
+            // Back in rotation once the next check reaches it
+            replica.up = false;
+            log.warn("Read replica {} failed, reading from the primary until it recovers: {}", replica.name, ex.getMessage());
+            return onPrimary(query, failureFallbacks);
+        } finally {
+            current.remove();
+        }
+        if (replicaReads != null)
+            replicaReads.increment();
+        return result != null ? result : onPrimary(query, missFallbacks);
+    }
+
+    private static <T> T onPrimary(Supplier<T> query, Counter fallbacks) {
+        if (fallbacks != null)
+            fallbacks.increment();
+        return query.get();
+    }
+
+    // Round robin over the replicas that are up and within max-lag
+    private Replica pick() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.isUsable(maxLagMillis))
+                return replica;
+        }
+        return null;
+    }
+
+    // Takes replicas that fail out of rotation, and those lagging beyond max-lag until they catch up
+    @Scheduled(fixedDelayString = "${shortener.replicas.check-interval-ms:1000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try {
+                JdbcTemplate jdbcTemplate = new JdbcTemplate(replica.dataSource);
+                if (lagQuery == null) {
+                    jdbcTemplate.execute("SELECT 1");
+                    replica.lagMillis = 0;
+                } else {
+                    Long lag = jdbcTemplate.queryForObject(lagQuery, Long.class);
+                    replica.lagMillis = lag == null ? 0 : lag;
+                }
+                if (!replica.up)
+                    log.info("Read replica {} is back, {} ms behind", replica.name, replica.lagMillis);
+                replica.up = true;
+            } catch (DataAccessException ex) {
+                if (replica.up)
+                    log.warn("Read replica {} is down: {}", replica.name, ex.getMessage());
+                replica.up = false;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable)
+                ((AutoCloseable) replica.dataSource).close();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled)
+            return;
+        replicaReads = Counter.builder("shortener.replica.reads")
+            .description("Short code lookups answered by a read replica")
+            .register(registry);
+        recentWriteFallbacks = fallbackCounter(registry, "recent_write");
+        unavailableFallbacks = fallbackCounter(registry, "unavailable");
+        failureFallbacks = fallbackCounter(registry, "failure");
+        missFallbacks = fallbackCounter(registry, "miss");
+        Gauge.builder("shortener.replica.available", this, ReplicaRouter::available)
+            .description("Read replicas up and within max-lag")
+            .register(registry);
+        Gauge.builder("shortener.replica.lag", this, ReplicaRouter::maxLag)
+            .description("Replication lag of the furthest behind replica that is up, in milliseconds")
+            .register(registry);
+    }
+
+    private static Counter fallbackCounter(MeterRegistry registry, String reason) {
+        return Counter.builder("shortener.replica.fallbacks")
+            .description("Short code lookups sent to the primary while replicas are configured")
+            .tag("reason", reason)
+            .register(registry);
+    }
+
+    private double available() {
+        return replicas.stream().filter(replica -> replica.isUsable(maxLagMillis)).count();
+    }
+
+    private double maxLag() {
+        return replicas.stream().filter(replica -> replica.up).mapToLong(replica -> replica.lagMillis).max().orElse(0);
+    }
+
+    private static final class Replica {
+
+        final String name;
+        final DataSource dataSource;
+        volatile boolean up = true;
+        volatile long lagMillis;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        boolean isUsable(long maxLagMillis) {
+            return up && lagMillis <= maxLagMillis;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.ShortenerURL.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.ShortenerURL.repositories.ShortUrlRepository;
+import com.example.ShortenerURL.storage.ScalableBloomFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Bloom filter of every existing short code, so lookups of codes that were never created
+ * (mostly scanners) are answered without a query, and freshly drawn random codes skip their
+ * existence check. Built at startup by streaming short_urls, fed by ShortUrlService on
+ * create, and rebuilt on a schedule to shed deleted codes. Until the first build completes,
+ * and whenever disabled, every code might exist.
+ */
+@Component
+public class ShortCodeFilter implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ShortCodeFilter.class);
+
+    private final ShortUrlRepository urlRepository;
+    private final boolean enabled;
+    private final long expectedEntries;
+    private final double falsePositiveRate;
+
+    private volatile ScalableBloomFilter filter;
+    // The filter being rebuilt, which must also see the codes created meanwhile
+    private volatile ScalableBloomFilter next;
+    private Counter rejected;
+
+    public ShortCodeFilter(ShortUrlRepository urlRepository,
+                           @Value("${shortener.code-filter.enabled:false}") boolean enabled,
+                           @Value("${shortener.code-filter.expected-entries:1000000}") long expectedEntries,
+                           @Value("${shortener.code-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.urlRepository = urlRepository;
+        this.enabled = enabled;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    @PostConstruct
+    public void load() {
+        if (enabled)
+            rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${shortener.code-filter.rebuild-interval-ms:3600000}",
+               initialDelayString = "${shortener.code-filter.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        if (!enabled)
+            return;
+
+        long started = System.nanoTime();
+        ScalableBloomFilter current = filter;
+        // Sized for what the last filter held, so a steady table keeps a single stage
+        ScalableBloomFilter fresh = new ScalableBloomFilter(
+            current == null ? expectedEntries : Math.max(expectedEntries, current.size()), falsePositiveRate);
+        // Published before the scan starts: a code created from here on is either added to
+        // both filters or committed early enough for the scan to read it
+        next = fresh;
+        try {
+            urlRepository.forEachUrl((shortCode, url) -> fresh.add(shortCode));
+            filter = fresh;
+        } finally {
+            next = null;
+        }
+        log.info("Built the short code filter over {} codes in {} ms",
+            fresh.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // False means the code certainly does not exist; true means it may
+    public boolean mightContain(String shortCode) {
+        ScalableBloomFilter current = filter;
+        if (current == null || current.mightContain(shortCode))
+            return true;
+        if (rejected != null)
+            rejected.increment();
+        return false;
+    }
+
+    public void put(String shortCode) {
+        if (!enabled)
+            return;
+        // Read before the filter, so a rebuild swapping in between cannot lose the code
+        ScalableBloomFilter rebuilding = next;
+        ScalableBloomFilter current = filter;
+        if (current != null)
+            current.add(shortCode);
+        if (rebuilding != null)
+            rebuilding.add(shortCode);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled)
+            return;
+        rejected = Counter.builder("shortener.code_filter.rejected")
+            .description("Existence checks answered as not found by the filter, without a query")
+            .register(registry);
+        Gauge.builder("shortener.code_filter.entries", this, f -> f.filter == null ? 0 : f.filter.size())
+            .description("Short codes added to the current filter, deleted ones included")
+            .register(registry);
+        Gauge.builder("shortener.code_filter.memory.bytes", this, f -> f.filter == null ? 0 : f.filter.memoryBytes())
+            .description("Heap taken by the filter bit arrays")
+            .register(registry);
+        Gauge.builder("shortener.code_filter.false_positive.rate", this,
+                f -> f.filter == null ? 0 : f.filter.expectedFalsePositiveRate())
+            .description("Estimated share of unknown codes the filter lets through to the database")
+            .register(registry);
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.ShortenerURL.services;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.ShortenerURL.repositories.ShortUrlRepository;
+import com.example.ShortenerURL.storage.PackedCodeIndex;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Fully warm resolution index for read-heavy nodes. When enabled, every short_urls row is
+ * streamed into a {@link PackedCodeIndex} before the application starts serving, and
+ * ShortUrlService keeps it current on create, update and delete. For codes it covers the
+ * index is authoritative: a miss is a 404 without a database round trip. Expiring codes are
+ * few, so their expiries sit in a map beside the packed table, for the redirect path to answer
+ * 410 on its own as well. A reload after missed invalidations builds a fresh table beside the
+ * live one and swaps it in.
+ */
+@Component
+public class ShortCodeIndex implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ShortCodeIndex.class);
+    private static final LocalDateTime EVERY_EXPIRY = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private final ShortUrlRepository urlRepository;
+    private final boolean enabled;
+    private final int expectedEntries;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Table table;
+    private volatile boolean loaded;
+    // The table being loaded and the codes written since its scan started, which the scan must
+    // not overwrite with the rows it read earlier; both guarded by writeLock
+    private Table next;
+    private Set<String> writtenDuringLoad;
+
+    private record Table(PackedCodeIndex codes, Map<String, LocalDateTime> expiries) {
+
+        Table(int expectedEntries) {
+            this(new PackedCodeIndex(expectedEntries), new ConcurrentHashMap<>());
+        }
+
+        void put(long key, String shortCode, String url, LocalDateTime expiresAt) {
+            codes.put(key, url);
+            if (expiresAt == null)
+                expiries.remove(shortCode);
+            else
+                expiries.put(shortCode, expiresAt);
+        }
+
+        void remove(long key, String shortCode) {
+            codes.remove(key);
+            expiries.remove(shortCode);
+        }
+    }
+
+    public ShortCodeIndex(ShortUrlRepository urlRepository,
+                          @Value("${shortener.code-index.enabled:false}") boolean enabled,
+                          @Value("${shortener.code-index.expected-entries:1000000}") int expectedEntries) {
+        this.urlRepository = urlRepository;
+        this.enabled = enabled;
+        this.expectedEntries = expectedEntries;
+        this.table = enabled ? new Table(expectedEntries) : null;
+    }
+
+    // Streams every row into a fresh table while lookups keep using the current one, then swaps
+    // it in, so a reload also drops the codes deleted without this node hearing of it
+    @PostConstruct
+    public void load() {
+        if (!enabled)
+            return;
+
+        long started = System.nanoTime();
+        // Sized for what the current table holds, so a reload does not grow it step by step
+        Table fresh = new Table(loaded ? Math.max(expectedEntries, table.codes().size()) : expectedEntries);
+        writeLock.lock();
+        try {
+            next = fresh;
+            writtenDuringLoad = new HashSet<>();
+        } finally {
+            writeLock.unlock();
+        }
+        try {
+            urlRepository.forEachUrl((shortCode, url) -> loadRow(fresh, shortCode, url, null));
+            urlRepository.forEachExpiring(null, EVERY_EXPIRY, (shortCode, expiresAt) -> loadRow(fresh, shortCode, null, expiresAt));
+            table = fresh;
+            loaded = true;
+        } finally {
+            writeLock.lock();
+            try {
+                next = null;
+                writtenDuringLoad = null;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        log.info("Loaded {} short codes into the code index in {} ms",
+            fresh.codes().size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // A URL or else an expiry read by the scan, unless a write since it started got there first
+    private void loadRow(Table fresh, String shortCode, String url, LocalDateTime expiresAt) {
+        long key = PackedCodeIndex.pack(shortCode);
+        if (key == PackedCodeIndex.UNPACKABLE)
+            return;
+        writeLock.lock();
+        try {
+            if (writtenDuringLoad.contains(shortCode))
+                return;
+            if (url != null)
+                fresh.codes().put(key, url);
+            else
+                fresh.expiries().put(shortCode, expiresAt);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Whether lookups of this code can be answered by the index alone
+    public boolean covers(String shortCode) {
+        return loaded && PackedCodeIndex.pack(shortCode) != PackedCodeIndex.UNPACKABLE;
+    }
+
+    public String get(String shortCode) {
+        return table.codes().get(PackedCodeIndex.pack(shortCode));
+    }
+
+    // True once a covered code's expiry has passed
+    public boolean isExpired(String shortCode) {
+        LocalDateTime expiresAt = table.expiries().get(shortCode);
+        return expiresAt != null && !expiresAt.isAfter(LocalDateTime.now());
+    }
+
+    // Codes the index cannot pack stay with the cache and the repository; a null expiry
+    // clears a previous one. During a load the write goes to both tables
+    public void put(String shortCode, String url, LocalDateTime expiresAt) {
+        if (!enabled)
+            return;
+        long key = PackedCodeIndex.pack(shortCode);
+        if (key == PackedCodeIndex.UNPACKABLE)
+            return;
+        writeLock.lock();
+        try {
+            table.put(key, shortCode, url, expiresAt);
+            if (next != null) {
+                next.put(key, shortCode, url, expiresAt);
+                writtenDuringLoad.add(shortCode);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(String shortCode) {
+        if (!enabled)
+            return;
+        long key = PackedCodeIndex.pack(shortCode);
+        if (key == PackedCodeIndex.UNPACKABLE)
+            return;
+        writeLock.lock();
+        try {
+            table.remove(key, shortCode);
+            if (next != null) {
+                next.remove(key, shortCode);
+                writtenDuringLoad.add(shortCode);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled)
+            return;
+        Gauge.builder("shortener.code_index.entries", this, index -> index.table.codes().size())
+            .description("Short codes held by the in-memory code index")
+            .register(registry);
+        Gauge.builder("shortener.code_index.memory.bytes", this, index -> index.table.codes().memoryBytes())
+            .description("Heap taken by the code index table and URL arena")
+            .register(registry);
+        Gauge.builder("shortener.code_index.garbage.bytes", this, index -> index.table.codes().garbageBytes())
+            .description("Arena bytes of replaced or removed URLs, not yet compacted")
+            .register(registry);
+    }
+}
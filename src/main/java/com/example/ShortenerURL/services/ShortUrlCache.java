@@ -0,0 +1,210 @@
+package com.example.ShortenerURL.services;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.ShortenerURL.models.UrlResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded read-through cache of short code resolutions, in front of ShortUrlRepository.
+ * Unknown codes are cached as empty entries with their own (shorter) TTL, so repeated
+ * lookups of missing codes do not reach the database either.
+ *
+ * In front of it sits a small tier of pinned codes, those HotKeyDetector found hot, which is
+ * never evicted or expired: a pinned code only leaves when unpinned or invalidated.
+ *
+ * Misses are not loaded inside Cache.get, whose loader runs under a ConcurrentHashMap bin lock
+ * and so pins a virtual thread for the whole query. The first caller to miss registers a future
+ * in loads and queries outside any lock; callers missing the same code meanwhile wait on it.
+ */
+@Component
+public class ShortUrlCache implements MeterBinder {
+
+    private final boolean enabled;
+    private final long maximumSize;
+    private final Cache<String, Optional<UrlResponse>> cache;
+    private final Map<String, Optional<UrlResponse>> pinned = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Optional<UrlResponse>>> loads = new ConcurrentHashMap<>();
+
+    public ShortUrlCache(@Value("${shortener.cache.enabled:true}") boolean enabled,
+                         @Value("${shortener.cache.maximum-size:100000}") long maximumSize,
+                         @Value("${shortener.cache.ttl-seconds:0}") long ttlSeconds,
+                         @Value("${shortener.cache.negative-ttl-seconds:30}") long negativeTtlSeconds) {
+        this.enabled = enabled;
+        this.maximumSize = maximumSize;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new ResolutionExpiry(ttlSeconds, negativeTtlSeconds))
+            .recordStats()
+            .build();
+    }
+
+    // Returns the cached resolution, loading it on a miss; null if the code does not exist
+    public UrlResponse get(String shortCode, Function<String, UrlResponse> loader) {
+        if (!enabled)
+            return loader.apply(shortCode);
+        Optional<UrlResponse> hot = pinned.get(shortCode);
+        if (hot != null)
+            return hot.orElse(null);
+        Optional<UrlResponse> cached = cache.getIfPresent(shortCode);
+        if (cached != null)
+            return cached.orElse(null);
+        return load(shortCode, loader).orElse(null);
+    }
+
+    private Optional<UrlResponse> load(String shortCode, Function<String, UrlResponse> loader) {
+        CompletableFuture<Optional<UrlResponse>> loading = new CompletableFuture<>();
+        CompletableFuture<Optional<UrlResponse>> inFlight = loads.putIfAbsent(shortCode, loading);
+        if (inFlight != null) {
+            try {
+                return inFlight.join();
+            } catch (CompletionException ex) {
+                throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+            }
+        }
+        Optional<UrlResponse> loaded;
+        try {
+            loaded = Optional.ofNullable(loader.apply(shortCode));
+        } catch (RuntimeException ex) {
+            loads.remove(shortCode, loading);
+            loading.completeExceptionally(ex);
+            throw ex;
+        }
+        // Cached only if no put or invalidation dropped the load meanwhile, as they remove it
+        // from loads before touching the cache
+        cache.asMap().compute(shortCode, (code, current) -> loads.remove(code, loading) ? loaded : current);
+        loading.complete(loaded);
+        return loaded;
+    }
+
+    // Cached resolution without loading: null when not cached, empty when cached as missing
+    public Optional<UrlResponse> getIfPresent(String shortCode) {
+        return enabled ? cache.getIfPresent(shortCode) : null;
+    }
+
+    public void putMissing(String shortCode) {
+        if (enabled) {
+            loads.remove(shortCode);
+            cache.put(shortCode, Optional.empty());
+            pinned.remove(shortCode);
+        }
+    }
+
+    public void put(UrlResponse urlResponse) {
+        if (enabled) {
+            loads.remove(urlResponse.getShortCode());
+            cache.put(urlResponse.getShortCode(), Optional.of(urlResponse));
+            pinned.remove(urlResponse.getShortCode());
+        }
+    }
+
+    // The pinned tier goes after the cache, so a pin racing with this sees either the entry
+    // gone from the cache or its own pin removed
+    public void invalidate(String shortCode) {
+        loads.remove(shortCode);
+        cache.invalidate(shortCode);
+        pinned.remove(shortCode);
+    }
+
+    public void invalidateAll() {
+        loads.clear();
+        cache.invalidateAll();
+        pinned.clear();
+    }
+
+    // Pins the code's cached resolution; false when it is not cached. Reads through asMap(),
+    // which leaves the hit and miss counts alone
+    public boolean pin(String shortCode) {
+        Optional<UrlResponse> cached = enabled ? cache.asMap().get(shortCode) : null;
+        if (cached == null)
+            return false;
+        pinned.put(shortCode, cached);
+        // Invalidated meanwhile: the pin may hold the old resolution
+        if (cache.asMap().get(shortCode) != cached) {
+            pinned.remove(shortCode, cached);
+            return false;
+        }
+        return true;
+    }
+
+    public void unpin(String shortCode) {
+        pinned.remove(shortCode);
+    }
+
+    public boolean isPinned(String shortCode) {
+        return pinned.containsKey(shortCode);
+    }
+
+    public int pinnedSize() {
+        return pinned.size();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public long maximumSize() {
+        return maximumSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // cache.gets{result=hit|miss}, cache.evictions, cache.size, tagged cache=short_urls
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "short_urls");
+    }
+
+    private static class ResolutionExpiry implements Expiry<String, Optional<UrlResponse>> {
+
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        ResolutionExpiry(long ttlSeconds, long negativeTtlSeconds) {
+            this.ttlNanos = toNanos(ttlSeconds);
+            this.negativeTtlNanos = toNanos(negativeTtlSeconds);
+        }
+
+        // A non-positive TTL means entries never expire
+        private static long toNanos(long seconds) {
+            return seconds > 0 ? Duration.ofSeconds(seconds).toNanos() : Long.MAX_VALUE;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Optional<UrlResponse> value, long currentTime) {
+            return value.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Optional<UrlResponse> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Optional<UrlResponse> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
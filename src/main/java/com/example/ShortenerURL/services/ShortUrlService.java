@@ -1,112 +1,645 @@
 package com.example.ShortenerURL.services;
 
 import java.time.LocalDateTime;
-import java.util.Random;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.example.ShortenerURL.analytics.ClickAnalytics;
+import com.example.ShortenerURL.exceptions.ExpiryNotSupportedException;
+import com.example.ShortenerURL.exceptions.ShortUrlExpiredException;
+import com.example.ShortenerURL.generators.ShortCodeGenerator;
+import com.example.ShortenerURL.invalidation.Invalidation;
+import com.example.ShortenerURL.invalidation.InvalidationBus;
+import com.example.ShortenerURL.models.ClickCount;
+import com.example.ShortenerURL.models.ClickSeriesResponse;
+import com.example.ShortenerURL.models.Granularity;
 import com.example.ShortenerURL.models.ShortUrl;
+import com.example.ShortenerURL.models.ShortUrlStatsView;
+import com.example.ShortenerURL.models.ShortUrlView;
+import com.example.ShortenerURL.models.UrlRequest;
 import com.example.ShortenerURL.models.UrlResponse;
 import com.example.ShortenerURL.models.UrlStatsResponse;
 import com.example.ShortenerURL.repositories.ShortUrlRepository;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
 @Service
-public class ShortUrlService {
+public class ShortUrlService implements MeterBinder {
     
     private ShortUrlRepository urlRepository;
-    private final Random random = new Random();
+    private AccessCountAggregator accessCountAggregator;
+    private ShortUrlCache urlCache;
+    private ShortCodeGenerator shortCodeGenerator;
+    private ClickAnalytics clickAnalytics;
+    private ShortCodeIndex codeIndex;
+    private ShortCodeFilter codeFilter;
+    private UrlDeduplicator urlDeduplicator;
+    private ExpiryScheduler expiryScheduler;
+    private ReplicaRouter replicaRouter;
+    private InvalidationBus invalidationBus;
+    private CreateBatcher createBatcher;
+    private HotKeyDetector hotKeyDetector;
+    private Timer codeGenerationTimer;
+    private DistributionSummary codeAttempts;
+    // Sent by WarmUp's synthetic requests, which are not counted; random, so no client can send it
+    private final String warmUpUserAgent = "shortener-warm-up/" + UUID.randomUUID();
+
+    private static final int MAX_SAVE_ATTEMPTS = 3;
 
-    public ShortUrlService (ShortUrlRepository urlRepository){
+    public ShortUrlService (ShortUrlRepository urlRepository, AccessCountAggregator accessCountAggregator,
+                            ShortUrlCache urlCache, ShortCodeGenerator shortCodeGenerator,
+                            ClickAnalytics clickAnalytics, ShortCodeIndex codeIndex,
+                            ShortCodeFilter codeFilter, UrlDeduplicator urlDeduplicator,
+                            ExpiryScheduler expiryScheduler, ReplicaRouter replicaRouter,
+                            InvalidationBus invalidationBus, CreateBatcher createBatcher,
+                            HotKeyDetector hotKeyDetector){
         this.urlRepository = urlRepository;
+        this.accessCountAggregator = accessCountAggregator;
+        this.urlCache = urlCache;
+        this.shortCodeGenerator = shortCodeGenerator;
+        this.clickAnalytics = clickAnalytics;
+        this.codeIndex = codeIndex;
+        this.codeFilter = codeFilter;
+        this.urlDeduplicator = urlDeduplicator;
+        this.expiryScheduler = expiryScheduler;
+        this.replicaRouter = replicaRouter;
+        this.invalidationBus = invalidationBus;
+        this.createBatcher = createBatcher;
+        this.hotKeyDetector = hotKeyDetector;
+        invalidationBus.setListener(new InvalidationBus.Listener() {
+            @Override
+            public void onInvalidations(List<Invalidation> invalidations) {
+                applyRemoteWrites(invalidations);
+            }
+
+            @Override
+            public void onGap() {
+                dropLocalState();
+            }
+        });
+        createBatcher.start(this::writeCreates);
     }
 
-    // Generate a random short code
     private String generateShortCode() {
-        String characters = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-        StringBuilder shortCode = new StringBuilder(6);
-        for (int i = 0; i < 6; i++) {
-            shortCode.append(characters.charAt(random.nextInt(characters.length())));
+        long start = System.nanoTime();
+        int attempts = 0;
+        String shortCode;
+        do {
+            shortCode = shortCodeGenerator.generate();
+            attempts++;
+        } while (!shortCodeGenerator.isCollisionFree() && codeFilter.mightContain(shortCode)
+                 && urlRepository.existsByShortCode(shortCode));
+        if (codeGenerationTimer != null) {
+            codeGenerationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            codeAttempts.record(attempts);
         }
-        return shortCode.toString();
+        return shortCode;
     }
 
     public UrlResponse createShortUrl(String url){
-        String shortCode;
-        do {
-            shortCode = generateShortCode();
-        } while (urlRepository.existsByShortCode(shortCode));
+        return createShortUrl(url, null);
+    }
+
+    // With deduplication on, a URL shortened before gets its existing code back; links that
+    // expire are always new rows, and never handed out for a permanent one
+    public UrlResponse createShortUrl(String url, LocalDateTime expiresAt){
+        checkExpirySupported(expiresAt);
+        byte[] urlHash = UrlHasher.hash(url);
+        UrlResponse existing = findDuplicate(urlHash, expiresAt);
+        if (existing != null)
+            return existing;
+
         LocalDateTime time = LocalDateTime.now();
-        ShortUrl shortUrl = new ShortUrl(null, url, shortCode, time, time,0);
-        shortUrl = urlRepository.save(shortUrl);
+        ShortUrl shortUrl;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                shortUrl = urlRepository.save(new ShortUrl(null, url, generateShortCode(), time, time, 0, urlHash, expiresAt));
+                break;
+            } catch (DataIntegrityViolationException ex) {
+                // Code taken concurrently, or minted before a strategy switch: draw another one
+                if (attempt == MAX_SAVE_ATTEMPTS)
+                    throw ex;
+            }
+        }
 
-        return new UrlResponse(
-            shortUrl.getId(), 
-            shortUrl.getUrl(), 
-            shortUrl.getShortCode(), 
-            shortUrl.getCreatedAt(), 
-            shortUrl.getUpdatedAt()
-        );
+        UrlResponse urlResponse = toUrlResponse(shortUrl);
+        replicaRouter.recordWrite(urlResponse.getShortCode());
+        invalidationBus.publish(urlResponse.getShortCode(), Invalidation.Kind.CREATED);
+        urlCache.put(urlResponse); // Also replaces a cached miss for the new code
+        codeIndex.put(urlResponse.getShortCode(), urlResponse.getUrl(), expiresAt);
+        codeFilter.put(urlResponse.getShortCode());
+        if (expiresAt == null)
+            urlDeduplicator.put(urlHash, urlResponse.getShortCode());
+        else
+            expiryScheduler.schedule(urlResponse.getShortCode(), expiresAt);
+        return urlResponse;
     }
 
-    public UrlResponse retrieveOriginalUrl(String shortCode) {
-        ShortUrl shortUrl = urlRepository.findByShortCode(shortCode);
-        if(shortUrl == null) // Not Found
+    // Async create: with CreateBatcher on, the create joins the next batch instead of taking
+    // its own round trips; otherwise it runs right here, as createShortUrl
+    public CompletableFuture<UrlResponse> createShortUrlAsync(String url, LocalDateTime expiresAt) {
+        checkExpirySupported(expiresAt); // Before it joins a batch, which would fail as a whole
+        if (!createBatcher.isEnabled())
+            return CompletableFuture.completedFuture(createShortUrl(url, expiresAt));
+
+        UrlResponse existing = findDuplicate(UrlHasher.hash(url), expiresAt);
+        if (existing != null)
+            return CompletableFuture.completedFuture(existing);
+        return createBatcher.submit(new UrlRequest(url, expiresAt));
+    }
+
+    // Expiring links on a store that cannot expire them are a bad request, not a failed write
+    private void checkExpirySupported(LocalDateTime expiresAt) {
+        if (expiresAt != null && !urlRepository.supportsExpiry())
+            throw new ExpiryNotSupportedException();
+    }
+
+    // With deduplication on, the code a permanent link to the URL already has, if any
+    private UrlResponse findDuplicate(byte[] urlHash, LocalDateTime expiresAt) {
+        if (!urlDeduplicator.isEnabled() || expiresAt != null)
             return null;
+        return urlDeduplicator.find(urlHash, shortCode -> urlCache.get(shortCode, this::loadUrl));
+    }
 
-        // Update access count
-        shortUrl.setAccessCount(shortUrl.getAccessCount() + 1);
-        shortUrl = urlRepository.save(shortUrl);
+    // One batch of async creates, written with one multi-row INSERT. With deduplication on,
+    // requests for the same permanent URL share a row. Codes are drawn without a lookup; those
+    // the insert finds taken are drawn again for another INSERT of just their rows
+    private List<UrlResponse> writeCreates(List<UrlRequest> requests) {
+        LocalDateTime time = LocalDateTime.now();
+        Map<String, ShortUrl> permanentByUrl = new HashMap<>();
+        List<ShortUrl> rows = new ArrayList<>(requests.size());
+        List<ShortUrl> rowPerRequest = new ArrayList<>(requests.size());
+        for (UrlRequest request : requests) {
+            boolean coalesced = urlDeduplicator.isEnabled() && request.getExpiresAt() == null;
+            ShortUrl shortUrl = coalesced ? permanentByUrl.get(request.getUrl()) : null;
+            if (shortUrl == null) {
+                shortUrl = new ShortUrl(null, request.getUrl(), null, time, time, 0, UrlHasher.hash(request.getUrl()), request.getExpiresAt());
+                rows.add(shortUrl);
+                if (coalesced)
+                    permanentByUrl.put(request.getUrl(), shortUrl);
+            }
+            rowPerRequest.add(shortUrl);
+        }
 
-        return new UrlResponse(
-            shortUrl.getId(), 
-            shortUrl.getUrl(), 
-            shortUrl.getShortCode(), 
-            shortUrl.getCreatedAt(), 
-            shortUrl.getUpdatedAt()
-        );
+        List<ShortUrl> pending = rows;
+        for (int attempt = 1; !pending.isEmpty(); attempt++) {
+            if (attempt > MAX_SAVE_ATTEMPTS)
+                throw new DuplicateKeyException("Short codes still taken after " + MAX_SAVE_ATTEMPTS + " draws for " + pending.size() + " URLs");
+            Set<String> drawn = new HashSet<>();
+            for (ShortUrl shortUrl : pending) {
+                String shortCode;
+                do {
+                    shortCode = shortCodeGenerator.generate();
+                } while (!drawn.add(shortCode));
+                shortUrl.setShortCode(shortCode);
+            }
+            Set<ShortUrl> inserted = Collections.newSetFromMap(new IdentityHashMap<>());
+            inserted.addAll(urlRepository.insertSkippingTakenCodes(pending));
+            pending = pending.stream().filter(shortUrl -> !inserted.contains(shortUrl)).toList();
+        }
+
+        Map<ShortUrl, UrlResponse> responses = new IdentityHashMap<>();
+        for (ShortUrl shortUrl : rows) {
+            UrlResponse urlResponse = toUrlResponse(shortUrl);
+            replicaRouter.recordWrite(shortUrl.getShortCode());
+            invalidationBus.publish(shortUrl.getShortCode(), Invalidation.Kind.CREATED);
+            urlCache.put(urlResponse);
+            codeIndex.put(shortUrl.getShortCode(), shortUrl.getUrl(), shortUrl.getExpiresAt());
+            codeFilter.put(shortUrl.getShortCode());
+            if (shortUrl.getExpiresAt() == null)
+                urlDeduplicator.put(shortUrl.getUrlHash(), shortUrl.getShortCode());
+            else
+                expiryScheduler.schedule(shortUrl.getShortCode(), shortUrl.getExpiresAt());
+            responses.put(shortUrl, urlResponse);
+        }
+        List<UrlResponse> urlResponses = new ArrayList<>(requests.size());
+        for (ShortUrl shortUrl : rowPerRequest) {
+            urlResponses.add(responses.get(shortUrl));
+        }
+        return urlResponses;
+    }
+
+    // Cache loader, only reached on a cache miss; may read from a replica
+    private UrlResponse loadUrl(String shortCode) {
+        ShortUrlView view = replicaRouter.read(shortCode, () -> urlRepository.findViewByShortCode(shortCode));
+        if(view == null) // Not Found
+            return null;
+
+        return toUrlResponse(view);
+    }
+
+    public UrlResponse retrieveOriginalUrl(String shortCode) {
+        return resolve(shortCode, null, null);
     } 
 
-    public UrlResponse updateShortUrl(String shortCode, String url) {
-        ShortUrl shortUrl = urlRepository.findByShortCode(shortCode);
-        if(shortUrl == null) // Not Found
+    // Redirect path: only the target URL is needed. Scheduled expiries are checked first; then a
+    // warm code index answers alone, hit or miss; otherwise the filter turns away unknown codes,
+    // then the cache, and without it only the url column is selected
+    public String resolveUrl(String shortCode, String referrer, String userAgent) {
+        if (expiryScheduler.isExpired(shortCode))
+            throw new ShortUrlExpiredException(shortCode);
+
+        String url;
+        if (codeIndex.covers(shortCode)) {
+            // Also expiries the scheduler has not loaded yet
+            if (codeIndex.isExpired(shortCode))
+                throw new ShortUrlExpiredException(shortCode);
+            url = codeIndex.get(shortCode);
+        } else if (!codeFilter.mightContain(shortCode)) {
+            url = null;
+        } else if (urlCache.isEnabled()) {
+            UrlResponse urlResponse = urlCache.get(shortCode, this::loadUrl);
+            checkNotExpired(urlResponse);
+            url = urlResponse == null ? null : urlResponse.getUrl();
+        } else {
+            url = replicaRouter.read(shortCode, () -> urlRepository.findUrlByShortCode(shortCode));
+        }
+        if(url == null) // Not Found
             return null;
 
-        // Updates
-        shortUrl.setUrl(url);
-        shortUrl.setUpdatedAt(LocalDateTime.now());
-        shortUrl = urlRepository.save(shortUrl);
+        recordAccess(shortCode, referrer, userAgent);
+        return url;
+    }
 
-        return new UrlResponse(
-            shortUrl.getId(), 
-            shortUrl.getUrl(), 
-            shortUrl.getShortCode(), 
-            shortUrl.getCreatedAt(), 
-            shortUrl.getUpdatedAt()
-        );
+    private UrlResponse resolve(String shortCode, String referrer, String userAgent) {
+        if (!codeFilter.mightContain(shortCode)) // Never created
+            return null;
+        if (expiryScheduler.isExpired(shortCode))
+            throw new ShortUrlExpiredException(shortCode);
+
+        UrlResponse urlResponse = urlCache.get(shortCode, this::loadUrl);
+        if(urlResponse == null) // Not Found
+            return null;
+        checkNotExpired(urlResponse);
+
+        recordAccess(shortCode, referrer, userAgent);
+        return urlResponse;
+    }
+
+    // Count the access, written to the database by the next flush, emit a click event, and
+    // sample it for hot code detection; none ever waits on the database. WarmUp's requests are skipped
+    private void recordAccess(String shortCode, String referrer, String userAgent) {
+        if (warmUpUserAgent.equals(userAgent))
+            return;
+        accessCountAggregator.increment(shortCode);
+        clickAnalytics.record(shortCode, referrer, userAgent);
+        hotKeyDetector.record(shortCode);
+    }
+
+    // Catches what the scheduler has not seen, e.g. codes created on another node
+    private static void checkNotExpired(UrlResponse urlResponse) {
+        if (urlResponse != null && urlResponse.getExpiresAt() != null && urlResponse.isExpiredAt(LocalDateTime.now()))
+            throw new ShortUrlExpiredException(urlResponse.getShortCode());
+    }
+
+    public String warmUpUserAgent() {
+        return warmUpUserAgent;
+    }
+
+    // Streams up to limit of the most accessed live codes into the cache, no more than it holds,
+    // and returns them most accessed first. With the cache off they are only returned
+    public List<String> warmCache(int limit) {
+        if (urlCache.isEnabled())
+            limit = (int) Math.min(limit, urlCache.maximumSize());
+        List<String> shortCodes = new ArrayList<>();
+        urlRepository.forEachMostAccessed(limit, LocalDateTime.now(), shortUrl -> {
+            urlCache.put(toUrlResponse(shortUrl));
+            shortCodes.add(shortUrl.getShortCode());
+        });
+        return shortCodes;
+    }
+
+    @Transactional
+    public UrlResponse updateShortUrl(String shortCode, String url) {
+        return updateShortUrl(shortCode, url, null);
+    }
+
+    // One UPDATE statement, then a projection read of the new state; no entity is loaded. Like
+    // the URL, the expiry is replaced: null makes the link permanent again
+    @Transactional
+    public UrlResponse updateShortUrl(String shortCode, String url, LocalDateTime expiresAt) {
+        checkExpirySupported(expiresAt);
+        if (urlRepository.updateUrlByShortCode(shortCode, url, UrlHasher.hash(url), expiresAt, LocalDateTime.now()) == 0) // Not Found
+            return null;
+
+        afterCommit(() -> {
+            replicaRouter.recordWrite(shortCode); // Before the cache entry goes, so it is reloaded from the primary
+            invalidationBus.publish(shortCode, Invalidation.Kind.UPDATED);
+            urlCache.invalidate(shortCode);
+            codeIndex.put(shortCode, url, expiresAt);
+            expiryScheduler.schedule(shortCode, expiresAt);
+        });
+        return toUrlResponse(urlRepository.findViewByShortCode(shortCode));
     } 
 
+    // One DELETE statement; the affected row count tells whether the code existed
     @Transactional
     public boolean deleteShortUrl(String shortCode) {
-        if (urlRepository.existsByShortCode(shortCode)) {
-            urlRepository.deleteByShortCode(shortCode);
+        if (urlRepository.deleteByShortCode(shortCode) > 0) {
+            afterCommit(() -> evict(List.of(shortCode)));
             return true;
         }
         return false;  // Short URL not found
     }
 
+    @Transactional(readOnly = true)
     public UrlStatsResponse getUrlStats(String shortCode) {
-        ShortUrl shortUrl = urlRepository.findByShortCode(shortCode);
-        if(shortUrl == null) // Not Found
+        if (!codeFilter.mightContain(shortCode)) // Never created
+            return null;
+
+        ShortUrlStatsView stats = replicaRouter.read(shortCode, () -> urlRepository.findStatsByShortCode(shortCode));
+        if(stats == null) // Not Found
             return null;
 
         return new UrlStatsResponse(
+            stats.getId(), 
+            stats.getUrl(), 
+            stats.getShortCode(), 
+            stats.getCreatedAt(), 
+            stats.getUpdatedAt(), 
+            stats.getAccessCount() + accessCountAggregator.pendingCount(shortCode)
+        );
+    }
+
+    public ClickSeriesResponse getClickSeries(String shortCode, Granularity granularity, 
+                                              LocalDateTime from, LocalDateTime to) {
+        if (!codeFilter.mightContain(shortCode) || !urlRepository.existsByShortCode(shortCode)) // Not Found
+            return null;
+
+        List<ClickCount> series = clickAnalytics.series(shortCode, granularity, from, to);
+        long totalClicks = 0;
+        for (ClickCount count : series) {
+            totalClicks += count.getClicks();
+        }
+        return new ClickSeriesResponse(shortCode, granularity, from, to, totalClicks, series);
+    }
+
+    public List<UrlResponse> createShortUrls(List<String> urls) {
+        return createShortUrls(urls, null);
+    }
+
+    // Batch create: codes are minted up front and the rows inserted in JDBC batches. Every URL
+    // gets a new code, deduplication or not; expiries, if given, pair up with the URLs by position
+    public List<UrlResponse> createShortUrls(List<String> urls, List<LocalDateTime> expiries) {
+        if (expiries != null)
+            expiries.forEach(this::checkExpirySupported);
+        List<String> shortCodes = generateShortCodes(urls.size());
+        LocalDateTime time = LocalDateTime.now();
+        List<ShortUrl> shortUrls = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            LocalDateTime expiresAt = expiries == null ? null : expiries.get(i);
+            shortUrls.add(new ShortUrl(null, urls.get(i), shortCodes.get(i), time, time, 0, UrlHasher.hash(urls.get(i)), expiresAt));
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                urlRepository.insertAll(shortUrls);
+                break;
+            } catch (DataIntegrityViolationException ex) {
+                // Codes taken since they were checked, or minted before a strategy switch
+                if (attempt == MAX_SAVE_ATTEMPTS)
+                    throw ex;
+                redrawTakenCodes(shortUrls, ex);
+            }
+        }
+
+        List<UrlResponse> urlResponses = new ArrayList<>(shortUrls.size());
+        for (ShortUrl shortUrl : shortUrls) {
+            UrlResponse urlResponse = toUrlResponse(shortUrl);
+            replicaRouter.recordWrite(shortUrl.getShortCode());
+            invalidationBus.publish(shortUrl.getShortCode(), Invalidation.Kind.CREATED);
+            urlCache.put(urlResponse);
+            codeIndex.put(shortUrl.getShortCode(), shortUrl.getUrl(), shortUrl.getExpiresAt());
+            codeFilter.put(shortUrl.getShortCode());
+            if (shortUrl.getExpiresAt() != null)
+                expiryScheduler.schedule(shortUrl.getShortCode(), shortUrl.getExpiresAt());
+            urlResponses.add(urlResponse);
+        }
+        return urlResponses;
+    }
+
+    // The failed batch was rolled back as a whole: its rows drop the ids they were given, and those
+    // whose code is now taken draw another one, unique within the batch too
+    private void redrawTakenCodes(List<ShortUrl> shortUrls, DataIntegrityViolationException ex) {
+        Map<String, ShortUrl> byShortCode = new HashMap<>();
+        for (ShortUrl shortUrl : shortUrls) {
+            shortUrl.setId(null);
+            byShortCode.put(shortUrl.getShortCode(), shortUrl);
+        }
+        List<String> taken = urlRepository.findExistingShortCodes(new HashSet<>(byShortCode.keySet()));
+        if (taken.isEmpty())
+            throw ex; // Not a code collision
+        for (String shortCode : taken) {
+            String replacement;
+            do {
+                replacement = generateShortCode();
+            } while (byShortCode.containsKey(replacement));
+            ShortUrl shortUrl = byShortCode.remove(shortCode);
+            shortUrl.setShortCode(replacement);
+            byShortCode.put(replacement, shortUrl);
+        }
+    }
+
+    // Import of one batch: rows keep their code, timestamps and access count. Codes that already
+    // exist, or repeat within the batch, are skipped; returns the number of rows inserted. The
+    // cache only drops what it held for the codes, instead of filling up with imported rows
+    @Transactional
+    public int importShortUrls(List<ShortUrl> shortUrls) {
+        Map<String, ShortUrl> byShortCode = new LinkedHashMap<>();
+        for (ShortUrl shortUrl : shortUrls) {
+            byShortCode.putIfAbsent(shortUrl.getShortCode(), shortUrl);
+        }
+        for (String existing : urlRepository.findExistingShortCodes(byShortCode.keySet())) {
+            byShortCode.remove(existing);
+        }
+        if (byShortCode.isEmpty())
+            return 0;
+
+        List<ShortUrl> imported = urlRepository.insertAll(new ArrayList<>(byShortCode.values()));
+        afterCommit(() -> {
+            for (ShortUrl shortUrl : imported) {
+                urlCache.invalidate(shortUrl.getShortCode());
+                codeIndex.put(shortUrl.getShortCode(), shortUrl.getUrl(), shortUrl.getExpiresAt());
+                codeFilter.put(shortUrl.getShortCode());
+                if (shortUrl.getExpiresAt() != null)
+                    expiryScheduler.schedule(shortUrl.getShortCode(), shortUrl.getExpiresAt());
+            }
+        });
+        return imported.size();
+    }
+
+    // Random codes are checked with one query per round instead of one per code, and only those
+    // the filter cannot rule out
+    private List<String> generateShortCodes(int count) {
+        Set<String> shortCodes = new LinkedHashSet<>();
+        while (shortCodes.size() < count) {
+            Set<String> candidates = new LinkedHashSet<>();
+            while (shortCodes.size() + candidates.size() < count) {
+                String shortCode = shortCodeGenerator.generate();
+                if (!shortCodes.contains(shortCode))
+                    candidates.add(shortCode);
+            }
+            if (!shortCodeGenerator.isCollisionFree()) {
+                Set<String> suspects = new HashSet<>();
+                for (String candidate : candidates) {
+                    if (codeFilter.mightContain(candidate))
+                        suspects.add(candidate);
+                }
+                if (!suspects.isEmpty())
+                    candidates.removeAll(urlRepository.findExistingShortCodes(suspects));
+            }
+            shortCodes.addAll(candidates);
+        }
+        return new ArrayList<>(shortCodes);
+    }
+
+    // Batch lookup, one query for all codes; unlike retrieveOriginalUrl it does not count accesses,
+    // and returns expired links too, for the caller to report
+    @Transactional(readOnly = true)
+    public Map<String, UrlResponse> resolveShortUrls(Collection<String> shortCodes) {
+        Map<String, UrlResponse> urlResponses = new HashMap<>();
+        for (ShortUrlView view : urlRepository.findViewsByShortCodeIn(new HashSet<>(shortCodes))) {
+            urlResponses.put(view.getShortCode(), toUrlResponse(view));
+        }
+        return urlResponses;
+    }
+
+    // Batch delete, returns the codes that existed and were deleted
+    @Transactional
+    public Set<String> deleteShortUrls(Collection<String> shortCodes) {
+        Set<String> existing = new HashSet<>(urlRepository.findExistingShortCodes(new HashSet<>(shortCodes)));
+        if (!existing.isEmpty()) {
+            urlRepository.deleteAllByShortCodeIn(existing);
+            afterCommit(() -> evict(existing));
+        }
+        return existing;
+    }
+
+    private void evict(Collection<String> shortCodes) {
+        for (String shortCode : shortCodes) {
+            replicaRouter.recordWrite(shortCode); // A lagging replica would still find it
+            invalidationBus.publish(shortCode, Invalidation.Kind.DELETED);
+            urlCache.invalidate(shortCode);
+            codeIndex.remove(shortCode);
+            accessCountAggregator.discard(shortCode);
+            expiryScheduler.unschedule(shortCode);
+        }
+    }
+
+    // Writes committed on other nodes. The cache drops the codes, and reads them from the primary
+    // for the read-your-writes window; created and updated codes are read back in one query for
+    // the code index and for their expiry
+    private void applyRemoteWrites(List<Invalidation> invalidations) {
+        Map<String, Invalidation.Kind> reload = new HashMap<>();
+        for (Invalidation invalidation : invalidations) {
+            String shortCode = invalidation.getShortCode();
+            if (invalidation.getKind() == Invalidation.Kind.CREATED)
+                codeFilter.put(shortCode);
+            else
+                replicaRouter.recordWrite(shortCode);
+            urlCache.invalidate(shortCode);
+            if (invalidation.getKind() == Invalidation.Kind.DELETED) {
+                reload.remove(shortCode);
+                codeIndex.remove(shortCode);
+                accessCountAggregator.discard(shortCode);
+                expiryScheduler.unschedule(shortCode);
+            } else if (reload.get(shortCode) != Invalidation.Kind.UPDATED) {
+                reload.put(shortCode, invalidation.getKind());
+            }
+        }
+        if (reload.isEmpty() || (!codeIndex.isEnabled() && !expiryScheduler.isEnabled()))
+            return;
+
+        Map<String, ShortUrlView> views = new HashMap<>();
+        for (ShortUrlView view : urlRepository.findViewsByShortCodeIn(reload.keySet())) {
+            views.put(view.getShortCode(), view);
+        }
+        for (Map.Entry<String, Invalidation.Kind> entry : reload.entrySet()) {
+            ShortUrlView view = views.get(entry.getKey());
+            if (view == null) { // Deleted since
+                codeIndex.remove(entry.getKey());
+                continue;
+            }
+            codeIndex.put(entry.getKey(), view.getUrl(), view.getExpiresAt());
+            // Created codes too: the refill only scans past what it loaded, so it never finds a
+            // code created elsewhere that expires within that window
+            if (entry.getValue() == Invalidation.Kind.UPDATED || view.getExpiresAt() != null)
+                expiryScheduler.schedule(entry.getKey(), view.getExpiresAt());
+        }
+    }
+
+    // After missed invalidations: the cache is emptied, and the filter and the index are rebuilt
+    // beside the live ones and swapped in, which also drops the codes deleted meanwhile
+    private void dropLocalState() {
+        urlCache.invalidateAll();
+        codeFilter.rebuild();
+        codeIndex.load();
+    }
+
+    // Runs the action once the surrounding transaction committed, so no reader can re-cache the old row
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        codeGenerationTimer = Timer.builder("shortener.create.code_generation")
+            .description("Time to mint an unused short code, including existence checks")
+            .register(registry);
+        codeAttempts = DistributionSummary.builder("shortener.create.code_attempts")
+            .description("Codes drawn per created short URL; anything above 1 is a retry")
+            .register(registry);
+    }
+
+    private static UrlResponse toUrlResponse(ShortUrlView view) {
+        return new UrlResponse(
+            view.getId(), 
+            view.getUrl(), 
+            view.getShortCode(), 
+            view.getCreatedAt(), 
+            view.getUpdatedAt(),
+            view.getExpiresAt()
+        );
+    }
+
+    private static UrlResponse toUrlResponse(ShortUrl shortUrl) {
+        return new UrlResponse(
             shortUrl.getId(), 
             shortUrl.getUrl(), 
             shortUrl.getShortCode(), 
             shortUrl.getCreatedAt(), 
-            shortUrl.getUpdatedAt(), 
-            shortUrl.getAccessCount()
+            shortUrl.getUpdatedAt(),
+            shortUrl.getExpiresAt()
         );
     }
 }
@@ -0,0 +1,271 @@
+package com.example.ShortenerURL.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.ShortenerURL.models.ShortUrl;
+import com.example.ShortenerURL.models.ShortUrlExport;
+import com.example.ShortenerURL.models.TransferFormat;
+import com.example.ShortenerURL.models.TransferResponse;
+import com.example.ShortenerURL.models.UrlRequest;
+import com.example.ShortenerURL.repositories.ShortUrlRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.validation.Validator;
+
+/**
+ * Export and import of the whole short URL table, as NDJSON or CSV. Export streams rows from
+ * a database cursor straight into the writer; import reads the body a line at a time and
+ * inserts in batches, reading the next line only once the previous batch is written, so the
+ * client is slowed down to the pace of the database. Either way, memory holds one row or
+ * one batch, never the table.
+ */
+@Service
+public class ShortUrlTransfer implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ShortUrlTransfer.class);
+
+    private static final String CSV_HEADER = "shortCode,url,createdAt,updatedAt,accessCount,expiresAt";
+    // Codes have to be reachable by the redirect route
+    private static final Pattern SHORT_CODE = Pattern.compile("[a-zA-Z0-9]{1," + ShortUrl.MAX_CODE_LENGTH + "}");
+
+    private final ShortUrlRepository urlRepository;
+    private final ShortUrlService urlService;
+    private final Validator validator;
+    private final ObjectWriter jsonWriter;
+    private final ObjectReader jsonReader;
+    private final int importBatchSize;
+    private Counter exportedRows;
+    private Counter importedRows;
+
+    public ShortUrlTransfer(ShortUrlRepository urlRepository, ShortUrlService urlService, Validator validator,
+                            ObjectMapper objectMapper,
+                            @Value("${shortener.transfer.import-batch-size:1000}") int importBatchSize) {
+        this.urlRepository = urlRepository;
+        this.urlService = urlService;
+        this.validator = validator;
+        // One object per line, dates as ISO strings whatever the application's mapper does, no flush per row
+        this.jsonWriter = objectMapper.writerFor(ShortUrlExport.class)
+            .withRootValueSeparator("\n")
+            .without(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.jsonReader = objectMapper.readerFor(ShortUrlExport.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.importBatchSize = importBatchSize;
+    }
+
+    public TransferResponse exportShortUrls(TransferFormat format, Writer writer) throws IOException {
+        long started = System.nanoTime();
+        long[] rows = { 0 };
+        JsonGenerator generator = format == TransferFormat.NDJSON ? jsonWriter.createGenerator(writer) : null;
+        if (format == TransferFormat.CSV)
+            writer.write(CSV_HEADER + "\n");
+        try {
+            urlRepository.forEachShortUrl(shortUrl -> {
+                try {
+                    ShortUrlExport row = toExport(shortUrl);
+                    if (generator != null)
+                        jsonWriter.writeValue(generator, row);
+                    else
+                        writeCsv(writer, row);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex); // Client gone: abandon the cursor
+                }
+                rows[0]++;
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        } finally {
+            increment(exportedRows, rows[0]);
+        }
+        if (generator != null) {
+            if (rows[0] > 0)
+                generator.writeRaw('\n');
+            generator.flush();
+        }
+        writer.flush();
+
+        TransferResponse response = toResponse(rows[0], 0, 0, started);
+        log.info("Exported {} short URLs as {} in {} ms ({} rows/s)",
+            rows[0], format, response.getElapsedMillis(), response.getRowsPerSecond());
+        return response;
+    }
+
+    // Lines that cannot be read are counted and skipped, so one bad row does not abort a long import
+    public TransferResponse importShortUrls(TransferFormat format, Reader body) throws IOException {
+        long started = System.nanoTime();
+        long imported = 0;
+        long skipped = 0;
+        long invalid = 0;
+        BufferedReader reader = body instanceof BufferedReader ? (BufferedReader) body : new BufferedReader(body);
+        List<ShortUrl> batch = new ArrayList<>(importBatchSize);
+        LocalDateTime now = LocalDateTime.now();
+
+        String line = reader.readLine();
+        if (format == TransferFormat.CSV && line != null && line.equals(CSV_HEADER))
+            line = reader.readLine();
+        for (; line != null; line = reader.readLine()) {
+            if (line.isBlank())
+                continue;
+            ShortUrl shortUrl = toShortUrl(format == TransferFormat.CSV ? parseCsv(line) : parseJson(line), now);
+            if (shortUrl == null) {
+                invalid++;
+                continue;
+            }
+            batch.add(shortUrl);
+            if (batch.size() == importBatchSize) {
+                int inserted = urlService.importShortUrls(batch);
+                imported += inserted;
+                skipped += batch.size() - inserted;
+                increment(importedRows, inserted);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            int inserted = urlService.importShortUrls(batch);
+            imported += inserted;
+            skipped += batch.size() - inserted;
+            increment(importedRows, inserted);
+        }
+
+        TransferResponse response = toResponse(imported, skipped, invalid, started);
+        log.info("Imported {} short URLs from {} in {} ms ({} rows/s), {} existing and {} invalid skipped",
+            imported, format, response.getElapsedMillis(), response.getRowsPerSecond(), skipped, invalid);
+        return response;
+    }
+
+    private static ShortUrlExport toExport(ShortUrl shortUrl) {
+        return new ShortUrlExport(shortUrl.getShortCode(), shortUrl.getUrl(), shortUrl.getCreatedAt(),
+            shortUrl.getUpdatedAt(), shortUrl.getAccessCount(), shortUrl.getExpiresAt());
+    }
+
+    // Null when the row would not be a valid short URL; missing timestamps become the import time
+    private ShortUrl toShortUrl(ShortUrlExport row, LocalDateTime now) {
+        if (row == null || row.getShortCode() == null || !SHORT_CODE.matcher(row.getShortCode()).matches()
+                || row.getAccessCount() < 0 || !validator.validateValue(UrlRequest.class, "url", row.getUrl()).isEmpty())
+            return null;
+
+        LocalDateTime createdAt = row.getCreatedAt() == null ? now : row.getCreatedAt();
+        LocalDateTime updatedAt = row.getUpdatedAt() == null ? createdAt : row.getUpdatedAt();
+        return new ShortUrl(null, row.getUrl(), row.getShortCode(), createdAt, updatedAt, row.getAccessCount(),
+            UrlHasher.hash(row.getUrl()), row.getExpiresAt());
+    }
+
+    private ShortUrlExport parseJson(String line) {
+        try {
+            return jsonReader.readValue(line);
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    // Fields are quoted when they hold a comma, a quote or a line break, with quotes doubled (RFC 4180)
+    private static void writeCsv(Writer writer, ShortUrlExport row) throws IOException {
+        writeCsvField(writer, row.getShortCode());
+        writer.write(',');
+        writeCsvField(writer, row.getUrl());
+        writer.write(',');
+        writeCsvField(writer, row.getCreatedAt() == null ? null : row.getCreatedAt().toString());
+        writer.write(',');
+        writeCsvField(writer, row.getUpdatedAt() == null ? null : row.getUpdatedAt().toString());
+        writer.write(',');
+        writer.write(Long.toString(row.getAccessCount()));
+        writer.write(',');
+        writeCsvField(writer, row.getExpiresAt() == null ? null : row.getExpiresAt().toString());
+        writer.write('\n');
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null)
+            return;
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    // Null for a malformed line: wrong number of fields, an unterminated quote or an unparseable value
+    private static ShortUrlExport parseCsv(String line) {
+        List<String> fields = new ArrayList<>(6);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"')
+                    field.append(c);
+                else if (i + 1 < line.length() && line.charAt(i + 1) == '"')
+                    field.append(line.charAt(++i));
+                else
+                    quoted = false;
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        if (quoted || fields.size() != 6)
+            return null;
+
+        try {
+            return new ShortUrlExport(fields.get(0), fields.get(1), parseTime(fields.get(2)), parseTime(fields.get(3)),
+                fields.get(4).isEmpty() ? 0 : Long.parseLong(fields.get(4)), parseTime(fields.get(5)));
+        } catch (RuntimeException ex) {
+            return null;
+        }
+    }
+
+    private static LocalDateTime parseTime(String value) {
+        return value.isEmpty() ? null : LocalDateTime.parse(value);
+    }
+
+    private static TransferResponse toResponse(long rows, long skipped, long invalid, long startedNanos) {
+        long elapsedNanos = Math.max(1, System.nanoTime() - startedNanos);
+        return new TransferResponse(rows, skipped, invalid, elapsedNanos / 1_000_000, rows * 1_000_000_000L / elapsedNanos);
+    }
+
+    private static void increment(Counter counter, long rows) {
+        if (counter != null)
+            counter.increment(rows);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        exportedRows = transferCounter(registry, "export");
+        importedRows = transferCounter(registry, "import");
+    }
+
+    private static Counter transferCounter(MeterRegistry registry, String direction) {
+        return Counter.builder("shortener.transfer.rows")
+            .description("Short URLs exported, or imported as new rows")
+            .tag("direction", direction)
+            .register(registry);
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.ShortenerURL.services;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.ShortenerURL.models.ShortUrlView;
+import com.example.ShortenerURL.models.UrlResponse;
+import com.example.ShortenerURL.repositories.ShortUrlRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Opt-in deduplication of created short URLs: a URL whose normalized form was shortened
+ * before gets the existing code back instead of a new row. Recently seen URL hashes are
+ * answered from a bounded hot table, the rest from the url_hash index. Rows written before
+ * the column existed are hashed by a background backfill; until it has passed them, and
+ * for two identical URLs created at the same instant, a duplicate can still be minted.
+ */
+@Component
+public class UrlDeduplicator implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(UrlDeduplicator.class);
+
+    private final ShortUrlRepository urlRepository;
+    private final boolean enabled;
+    private final int backfillBatchSize;
+    private final Cache<HashKey, String> hotUrls;
+    private volatile boolean backfilled;
+    private Counter hotTableHits;
+    private Counter indexHits;
+    private Counter misses;
+    private Counter backfilledRows;
+
+    public UrlDeduplicator(ShortUrlRepository urlRepository,
+                           @Value("${shortener.dedup.enabled:false}") boolean enabled,
+                           @Value("${shortener.dedup.hot-table-size:100000}") long hotTableSize,
+                           @Value("${shortener.dedup.backfill-batch-size:1000}") int backfillBatchSize) {
+        this.urlRepository = urlRepository;
+        this.enabled = enabled;
+        this.backfillBatchSize = backfillBatchSize;
+        this.hotUrls = Caffeine.newBuilder().maximumSize(hotTableSize).build();
+    }
+
+    // Existing permanent short URL for the hash, or null. The resolver gives the current state
+    // of a hot table code, which may have been updated or deleted since
+    public UrlResponse find(byte[] urlHash, Function<String, UrlResponse> resolver) {
+        HashKey key = HashKey.of(urlHash);
+        String shortCode = hotUrls.getIfPresent(key);
+        if (shortCode != null) {
+            UrlResponse urlResponse = resolver.apply(shortCode);
+            if (urlResponse != null && urlResponse.getExpiresAt() == null
+                    && Arrays.equals(UrlHasher.hash(urlResponse.getUrl()), urlHash)) {
+                increment(hotTableHits);
+                return urlResponse;
+            }
+            hotUrls.invalidate(key);
+        }
+
+        ShortUrlView view = urlRepository.findFirstViewByUrlHashAndExpiresAtIsNullOrderByIdAsc(urlHash);
+        if (view == null) {
+            increment(misses);
+            return null;
+        }
+        increment(indexHits);
+        hotUrls.put(key, view.getShortCode());
+        return new UrlResponse(view.getId(), view.getUrl(), view.getShortCode(), view.getCreatedAt(), view.getUpdatedAt());
+    }
+
+    public void put(byte[] urlHash, String shortCode) {
+        if (enabled)
+            hotUrls.put(HashKey.of(urlHash), shortCode);
+    }
+
+    // Hashes the rows that have none in keyset batches, until a batch comes back short. Every
+    // row written since the column exists carries its hash, so one complete pass is enough
+    @Scheduled(fixedDelayString = "${shortener.dedup.backfill-interval-ms:60000}",
+               initialDelayString = "${shortener.dedup.backfill-interval-ms:60000}")
+    public void backfill() {
+        if (!enabled || backfilled)
+            return;
+
+        long started = System.nanoTime();
+        long afterId = 0;
+        long hashed = 0;
+        Map<Long, String> urls;
+        do {
+            urls = urlRepository.findUrlsWithoutHash(afterId, backfillBatchSize);
+            Map<Long, byte[]> urlHashes = new HashMap<>(urls.size() * 2);
+            for (Map.Entry<Long, String> url : urls.entrySet()) {
+                urlHashes.put(url.getKey(), UrlHasher.hash(url.getValue()));
+                afterId = url.getKey();
+            }
+            urlRepository.updateUrlHashes(urlHashes);
+            hashed += urlHashes.size();
+            if (backfilledRows != null)
+                backfilledRows.increment(urlHashes.size());
+        } while (urls.size() == backfillBatchSize);
+        backfilled = true;
+        log.info("Backfilled the URL hash of {} short URLs in {} ms", hashed, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null)
+            counter.increment();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled)
+            return;
+        hotTableHits = Counter.builder("shortener.dedup.hits")
+            .description("Creates answered with the existing code of the same normalized URL")
+            .tag("source", "hot_table")
+            .register(registry);
+        indexHits = Counter.builder("shortener.dedup.hits")
+            .description("Creates answered with the existing code of the same normalized URL")
+            .tag("source", "index")
+            .register(registry);
+        misses = Counter.builder("shortener.dedup.misses")
+            .description("Creates of a URL not shortened before, which mint a new code")
+            .register(registry);
+        backfilledRows = Counter.builder("shortener.dedup.backfilled")
+            .description("Existing rows given their URL hash by the backfill")
+            .register(registry);
+        Gauge.builder("shortener.dedup.hot_table.size", hotUrls, Cache::estimatedSize)
+            .description("URL hashes held in the hot table")
+            .register(registry);
+    }
+
+    // The 128-bit hash as a map key; arrays only compare by identity
+    private record HashKey(long high, long low) {
+
+        static HashKey of(byte[] urlHash) {
+            ByteBuffer buffer = ByteBuffer.wrap(urlHash);
+            return new HashKey(buffer.getLong(), buffer.getLong());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.ShortenerURL.services;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Fixed-width key of a long URL for the url_hash column: the first 128 bits of the SHA-256
+ * of its normalized form. URLs that only differ in the case of scheme and host, a default
+ * port, an empty path, dot segments or the case of percent-escapes share a hash.
+ */
+public final class UrlHasher {
+
+    public static final int HASH_LENGTH = 16;
+
+    private UrlHasher() {}
+
+    public static byte[] hash(String url) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex); // Required of every JRE
+        }
+        return Arrays.copyOf(digest.digest(normalize(url).getBytes(StandardCharsets.UTF_8)), HASH_LENGTH);
+    }
+
+    // Query and fragment are kept as they are; a URL that does not parse is only trimmed
+    public static String normalize(String url) {
+        String trimmed = url.trim();
+        URI uri;
+        try {
+            uri = new URI(trimmed).normalize();
+        } catch (URISyntaxException ex) {
+            return trimmed;
+        }
+        if (uri.isOpaque() || uri.getScheme() == null || uri.getRawAuthority() == null)
+            return trimmed;
+
+        String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+        StringBuilder normalized = new StringBuilder(trimmed.length()).append(scheme).append("://");
+        if (uri.getHost() == null) {
+            normalized.append(uri.getRawAuthority()); // Registry-based authority, left alone
+        } else {
+            if (uri.getRawUserInfo() != null)
+                normalized.append(uri.getRawUserInfo()).append('@');
+            normalized.append(uri.getHost().toLowerCase(Locale.ROOT));
+            if (uri.getPort() != -1 && uri.getPort() != defaultPort(scheme))
+                normalized.append(':').append(uri.getPort());
+        }
+
+        String path = uri.getRawPath();
+        normalized.append(path == null || path.isEmpty() ? "/" : upperCaseEscapes(path));
+        if (uri.getRawQuery() != null)
+            normalized.append('?').append(upperCaseEscapes(uri.getRawQuery()));
+        if (uri.getRawFragment() != null)
+            normalized.append('#').append(upperCaseEscapes(uri.getRawFragment()));
+        return normalized.toString();
+    }
+
+    private static int defaultPort(String scheme) {
+        switch (scheme) {
+            case "http":
+                return 80;
+            case "https":
+                return 443;
+            default:
+                return -1;
+        }
+    }
+
+    // %3a and %3A are the same octet
+    private static String upperCaseEscapes(String component) {
+        if (component.indexOf('%') < 0)
+            return component;
+        char[] chars = component.toCharArray();
+        for (int i = 0; i + 2 < chars.length; i++) {
+            if (chars[i] == '%') {
+                chars[i + 1] = Character.toUpperCase(chars[i + 1]);
+                chars[i + 2] = Character.toUpperCase(chars[i + 2]);
+                i += 2;
+            }
+        }
+        return new String(chars);
+    }
+}
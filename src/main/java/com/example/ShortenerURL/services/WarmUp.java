@@ -0,0 +1,134 @@
+package com.example.ShortenerURL.services;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Warms a node up before it reports ready. Application runners run once the web server is
+ * listening but before the readiness state turns to ACCEPTING_TRAFFIC, so a load balancer
+ * following /actuator/health/readiness sends nothing until this returns. First the top-codes
+ * most accessed short codes are streamed into ShortUrlCache; then synthetic redirects for them
+ * are sent to the node's own port from a few threads, so the JIT compiles the controller,
+ * service and cache path before real traffic does. Those requests carry ShortUrlService's
+ * warm-up user agent, so they are neither counted nor rate limited. The warm-up gives up at max-duration-ms, or at the
+ * first failed request, and the node then starts as it would have without it.
+ */
+@Component
+public class WarmUp implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmUp.class);
+
+    private final ShortUrlService urlService;
+    private final ApplicationContext context;
+    private final boolean enabled;
+    private final int topCodes;
+    private final int requests;
+    private final int concurrency;
+    private final long maxDurationNanos;
+    private final String contextPath;
+
+    public WarmUp(ShortUrlService urlService, ApplicationContext context,
+                  @Value("${shortener.warm-up.enabled:false}") boolean enabled,
+                  @Value("${shortener.warm-up.top-codes:10000}") int topCodes,
+                  @Value("${shortener.warm-up.requests:20000}") int requests,
+                  @Value("${shortener.warm-up.concurrency:4}") int concurrency,
+                  @Value("${shortener.warm-up.max-duration-ms:30000}") long maxDurationMillis,
+                  @Value("${server.servlet.context-path:}") String contextPath) {
+        this.urlService = urlService;
+        this.context = context;
+        this.enabled = enabled;
+        this.topCodes = topCodes;
+        this.requests = requests;
+        this.concurrency = Math.max(1, concurrency);
+        this.maxDurationNanos = Duration.ofMillis(maxDurationMillis).toNanos();
+        this.contextPath = contextPath;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        if (!enabled)
+            return;
+
+        long started = System.nanoTime();
+        List<String> shortCodes = urlService.warmCache(topCodes);
+        long cachedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        // No server without a servlet web application, e.g. in batch jobs and benchmarks
+        int port = context instanceof WebServerApplicationContext web && web.getWebServer() != null
+            ? web.getWebServer().getPort() : -1;
+        int sent = port > 0 && !shortCodes.isEmpty() ? sendRequests(port, shortCodes, started + maxDurationNanos) : 0;
+
+        log.info("Warmed up in {} ms: {} short codes cached in {} ms, {} synthetic requests",
+            (System.nanoTime() - started) / 1_000_000, shortCodes.size(), cachedMillis, sent);
+    }
+
+    // Redirects for the codes, round robin, until requests were sent or the deadline passed;
+    // returns how many were answered
+    private int sendRequests(int port, List<String> shortCodes, long deadline) throws InterruptedException {
+        HttpClient httpClient = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        String baseUrl = "http://127.0.0.1:" + port + contextPath + "/";
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger answered = new AtomicInteger();
+        AtomicBoolean failed = new AtomicBoolean();
+
+        List<Thread> senders = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Thread thread = new Thread(() -> {
+                while (!failed.get() && System.nanoTime() < deadline) {
+                    int n = next.getAndIncrement();
+                    if (n >= requests)
+                        return;
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + shortCodes.get(n % shortCodes.size())))
+                        .header("User-Agent", urlService.warmUpUserAgent())
+                        .timeout(Duration.ofSeconds(5))
+                        .GET()
+                        .build();
+                    try {
+                        int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        // An error ends the warm-up for every thread; the rate limit lets these through
+                        if (status >= 400 && status != 404 && status != 410) {
+                            if (failed.compareAndSet(false, true))
+                                log.warn("Stopped the warm-up at a synthetic request answered {}", status);
+                            return;
+                        }
+                        answered.incrementAndGet();
+                    } catch (IOException ex) {
+                        if (failed.compareAndSet(false, true))
+                            log.warn("Stopped the warm-up at a synthetic request that failed", ex);
+                        return;
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }, "warm-up-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            senders.add(thread);
+        }
+        for (Thread sender : senders) {
+            sender.join();
+        }
+        return answered.get();
+    }
+}
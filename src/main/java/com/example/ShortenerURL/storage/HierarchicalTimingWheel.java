@@ -0,0 +1,138 @@
+package com.example.ShortenerURL.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hierarchical timing wheel: levels of wheelSize buckets, each bucket of level n spanning
+ * wheelSize^n ticks. A timer goes into the lowest level whose span covers its distance; when
+ * the cursor enters a bucket of a higher level, the bucket is cascaded down a level. Adding
+ * a timer and expiring one are O(1), and advancing only touches the buckets whose time has
+ * come, however many timers are pending.
+ *
+ * Timers fire on the first tick boundary at or after their deadline. A deadline beyond the
+ * horizon (tick * wheelSize^levels from now) is refused, and must be added again later.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long[] levelTicks;
+    private final List<Timer<T>>[][] buckets;
+    private final long startMillis;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (tickMillis < 1 || wheelSize < 2 || levels < 1)
+            throw new IllegalArgumentException("tickMillis, wheelSize and levels must be at least 1, 2 and 1");
+
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.levelTicks = new long[levels + 1];
+        levelTicks[0] = 1;
+        for (int level = 1; level <= levels; level++) {
+            levelTicks[level] = Math.multiplyExact(levelTicks[level - 1], wheelSize);
+        }
+        this.buckets = new List[levels][wheelSize];
+        this.startMillis = startMillis;
+    }
+
+    // Latest deadline add accepts right now
+    public long horizonMillis() {
+        lock.lock();
+        try {
+            return startMillis + (currentTick + levelTicks[levelTicks.length - 1] - 1) * tickMillis;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Schedules the item to fire at the deadline; a deadline already passed fires on the next
+     * advance. Returns false, without scheduling, when the deadline is beyond the horizon.
+     */
+    public boolean add(T item, long deadlineMillis) {
+        lock.lock();
+        try {
+            long tick = Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis);
+            if (!place(new Timer<>(item, Math.max(tick, currentTick + 1))))
+                return false;
+            size++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Moves the cursor up to the time given and returns the items whose deadline it passed
+    public List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            long targetTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+            while (currentTick < targetTick) {
+                currentTick++;
+                // Highest level first, so a timer cascaded into a lower bucket about to be read is not missed
+                for (int level = buckets.length - 1; level > 0; level--) {
+                    if (currentTick % levelTicks[level] == 0)
+                        cascade(level, (int) ((currentTick / levelTicks[level]) % wheelSize));
+                }
+                List<Timer<T>> due = take(0, (int) (currentTick % wheelSize));
+                if (due != null) {
+                    for (Timer<T> timer : due) {
+                        expired.add(timer.item);
+                    }
+                    size -= due.size();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return expired;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void cascade(int level, int slot) {
+        List<Timer<T>> timers = take(level, slot);
+        if (timers == null)
+            return;
+        for (Timer<T> timer : timers) {
+            place(timer); // Always fits: it is now less than one bucket of this level away
+        }
+    }
+
+    private boolean place(Timer<T> timer) {
+        long distance = timer.tick - currentTick;
+        for (int level = 0; level < buckets.length; level++) {
+            if (distance < levelTicks[level + 1]) {
+                int slot = (int) ((timer.tick / levelTicks[level]) % wheelSize);
+                List<Timer<T>> bucket = buckets[level][slot];
+                if (bucket == null)
+                    buckets[level][slot] = bucket = new ArrayList<>();
+                bucket.add(timer);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Timer<T>> take(int level, int slot) {
+        List<Timer<T>> bucket = buckets[level][slot];
+        buckets[level][slot] = null;
+        return bucket;
+    }
+
+    private record Timer<T>(T item, long tick) {}
+}
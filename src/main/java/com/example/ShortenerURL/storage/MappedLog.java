@@ -0,0 +1,250 @@
+package com.example.ShortenerURL.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32C;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only record log over memory-mapped segment files. A location packs the segment
+ * index into the high 32 bits and the offset inside the segment into the low 32 bits.
+ *
+ * Records are 8-byte aligned: int length, int CRC32C, int counter, byte type, 3 bytes of
+ * padding, then the payload. The CRC covers everything from the type to the end of the
+ * record; the counter sits outside it so it can be updated in place. A zero length marks
+ * the end of the written part of a segment.
+ */
+final class MappedLog {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedLog.class);
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)-(\\d+)\\.log");
+
+    static final int HEADER_BYTES = 16;
+    private static final int LENGTH = 0;
+    private static final int CRC = 4;
+    private static final int COUNTER = 8;
+    private static final int TYPE = 12;
+
+    interface RecordVisitor {
+        void visit(long location, byte type, int length);
+    }
+
+    private final Path directory;
+    private final int generation;
+    private final int segmentSize;
+    // Copy-on-write, so readers can look up segments while a writer rolls over to a new one
+    private final List<MappedByteBuffer> segments = new CopyOnWriteArrayList<>();
+    private final CRC32C crc = new CRC32C();
+    private int writeOffset;
+
+    private MappedLog(Path directory, int generation, int segmentSize) {
+        this.directory = directory;
+        this.generation = generation;
+        this.segmentSize = segmentSize;
+    }
+
+    // Maps the existing segments of the generation, or creates its first one
+    static MappedLog open(Path directory, int generation, int segmentSize) throws IOException {
+        MappedLog mappedLog = new MappedLog(directory, generation, segmentSize);
+        for (int index = 0; Files.exists(mappedLog.segmentPath(index)); index++) {
+            mappedLog.segments.add(mappedLog.map(index));
+        }
+        if (mappedLog.segments.isEmpty())
+            mappedLog.segments.add(mappedLog.map(0));
+        return mappedLog;
+    }
+
+    // Removes the segment files of every generation but the given one
+    static void deleteOtherGenerations(Path directory, int generation) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "segment-*.log")) {
+            for (Path file : files) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches() && Integer.parseInt(matcher.group(1)) != generation)
+                    Files.delete(file);
+            }
+        }
+    }
+
+    private Path segmentPath(int index) {
+        return directory.resolve(String.format("segment-%d-%06d.log", generation, index));
+    }
+
+    // An existing segment keeps its size, so changing the configured size only affects new segments
+    private MappedByteBuffer map(int index) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(index),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size() > 0 ? channel.size() : segmentSize;
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    /**
+     * Visits every intact record in log order and positions the log after the last one.
+     * The first record that is cut short or fails its CRC ends the log: the rest of its
+     * segment is zeroed and later segments are deleted.
+     */
+    void recover(RecordVisitor visitor) throws IOException {
+        for (int index = 0; index < segments.size(); index++) {
+            MappedByteBuffer segment = segments.get(index);
+            int offset = 0;
+            while (offset + HEADER_BYTES <= segment.capacity()) {
+                int length = segment.getInt(offset + LENGTH);
+                if (length == 0)
+                    break;
+                if (!isIntact(segment, offset, length)) {
+                    log.warn("Truncating log at segment {} offset {}: torn or corrupt record", index, offset);
+                    truncate(index, offset);
+                    return;
+                }
+                visitor.visit(location(index, offset), segment.get(offset + TYPE), length);
+                offset += length;
+            }
+            writeOffset = offset;
+        }
+    }
+
+    private boolean isIntact(ByteBuffer segment, int offset, int length) {
+        if (length < HEADER_BYTES || length % 8 != 0 || length > segment.capacity() - offset)
+            return false;
+        return segment.getInt(offset + CRC) == checksum(segment, offset, length);
+    }
+
+    private int checksum(ByteBuffer segment, int offset, int length) {
+        crc.reset();
+        crc.update(segment.slice(offset + TYPE, length - TYPE));
+        return (int) crc.getValue();
+    }
+
+    private void truncate(int index, int offset) throws IOException {
+        MappedByteBuffer segment = segments.get(index);
+        for (int position = offset; position < segment.capacity(); position++) {
+            segment.put(position, (byte) 0);
+        }
+        while (segments.size() > index + 1) {
+            segments.remove(segments.size() - 1);
+            Files.delete(segmentPath(segments.size()));
+        }
+        writeOffset = offset;
+    }
+
+    // Appends a record and returns its location; the payload is taken from position 0 to limit
+    long append(byte type, int counter, ByteBuffer payload) {
+        int length = align(HEADER_BYTES + payload.limit());
+        MappedByteBuffer segment = segmentWithRoom(length);
+        int offset = writeOffset;
+
+        segment.putInt(offset + COUNTER, counter);
+        segment.put(offset + TYPE, type);
+        segment.put(offset + HEADER_BYTES, payload, 0, payload.limit());
+        segment.putInt(offset + CRC, checksum(segment, offset, length));
+        // Length goes last: until it is set the record reads as the end of the log
+        segment.putInt(offset + LENGTH, length);
+
+        writeOffset += length;
+        return location(segments.size() - 1, offset);
+    }
+
+    // Appends a verbatim copy of a record of another log, counter and CRC included
+    long appendCopy(MappedLog source, long sourceLocation) {
+        int length = source.length(sourceLocation);
+        MappedByteBuffer segment = segmentWithRoom(length);
+        int offset = writeOffset;
+
+        segment.put(offset + CRC, source.segment(sourceLocation), offset(sourceLocation) + CRC, length - CRC);
+        segment.putInt(offset + LENGTH, length);
+
+        writeOffset += length;
+        return location(segments.size() - 1, offset);
+    }
+
+    private MappedByteBuffer segmentWithRoom(int length) {
+        if (length > segmentSize)
+            throw new IllegalArgumentException("Record of " + length + " bytes exceeds the segment size of " + segmentSize);
+
+        MappedByteBuffer segment = segments.get(segments.size() - 1);
+        if (writeOffset + length <= segment.capacity())
+            return segment;
+
+        // The unwritten tail of the full segment stays zeroed, which reads as its end
+        try {
+            segment = map(segments.size());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        segments.add(segment);
+        writeOffset = 0;
+        return segment;
+    }
+
+    ByteBuffer segment(long location) {
+        return segments.get((int) (location >>> 32));
+    }
+
+    static int offset(long location) {
+        return (int) location;
+    }
+
+    int length(long location) {
+        return segment(location).getInt(offset(location) + LENGTH);
+    }
+
+    byte type(long location) {
+        return segment(location).get(offset(location) + TYPE);
+    }
+
+    int counter(long location) {
+        return segment(location).getInt(offset(location) + COUNTER);
+    }
+
+    void setCounter(long location, int counter) {
+        segment(location).putInt(offset(location) + COUNTER, counter);
+    }
+
+    // Bytes in use: full segments plus the written part of the last one
+    long sizeBytes() {
+        long size = writeOffset;
+        for (int index = 0; index < segments.size() - 1; index++) {
+            size += segments.get(index).capacity();
+        }
+        return size;
+    }
+
+    int generation() {
+        return generation;
+    }
+
+    void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    // The mappings themselves are released once the buffers are garbage collected
+    void delete() throws IOException {
+        for (int index = 0; index < segments.size(); index++) {
+            Files.deleteIfExists(segmentPath(index));
+        }
+        segments.clear();
+    }
+
+    private static long location(int segment, int offset) {
+        return ((long) segment << 32) | offset;
+    }
+
+    private static int align(int length) {
+        return (length + 7) & ~7;
+    }
+}
@@ -0,0 +1,565 @@
+package com.example.ShortenerURL.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+
+import com.example.ShortenerURL.models.ShortUrl;
+
+/**
+ * Short URL store without a database server: every change is appended to a
+ * {@link MappedLog} and an {@link OffHeapIndex} maps each short code to its latest
+ * record. Opening the store replays the log to rebuild the index; compaction rewrites
+ * the live records into a new log generation and switches to it through the CURRENT file.
+ *
+ * Access counts are updated in place in the record's counter field. Reads run in
+ * parallel; writes are serialized and exclude reads only while they touch the index.
+ */
+public class MappedShortUrlStore implements Closeable {
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final byte SEQUENCE = 3;
+
+    // PUT payload: long id, long createdAt, long updatedAt (epoch micros, UTC), short code length, code, int url length, url
+    private static final int ID = MappedLog.HEADER_BYTES;
+    private static final int CREATED_AT = ID + 8;
+    private static final int UPDATED_AT = CREATED_AT + 8;
+    private static final int CODE_LENGTH = UPDATED_AT + 8;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    // Entity ids are leased in blocks, like the pooled short_urls_seq of the JPA mapping
+    private static final String ID_SEQUENCE = "short_urls_seq";
+    private static final int ID_BLOCK = 50;
+    // Index slots per chunk of forEach, about 3000 records at three quarters full
+    private static final int FOR_EACH_CHUNK_SLOTS = 4096;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock writerLock = new ReentrantLock();
+    private final Map<String, Long> sequences = new HashMap<>();
+    private ByteBuffer scratch = ByteBuffer.allocate(1024);
+
+    private MappedLog log;
+    private OffHeapIndex index;
+    private long nextId = 1;
+    private long idCeiling;
+    private long deadBytes;
+
+    private MappedShortUrlStore(Path directory, int segmentSize, long expectedEntries) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.index = new OffHeapIndex(expectedEntries);
+    }
+
+    /**
+     * Opens the store in the directory, creating it if needed, and replays its log.
+     * expectedEntries only sizes the initial index; it grows past that on demand.
+     */
+    public static MappedShortUrlStore open(Path directory, int segmentSize, long expectedEntries) {
+        MappedShortUrlStore store = new MappedShortUrlStore(directory, segmentSize, expectedEntries);
+        try {
+            Files.createDirectories(directory);
+            int generation = store.readGeneration();
+            // Leftovers of a compaction that never reached its commit point, or of one that did
+            MappedLog.deleteOtherGenerations(directory, generation);
+            store.log = MappedLog.open(directory, generation, segmentSize);
+            store.log.recover(store::replay);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to open short URL store in " + directory, ex);
+        }
+        store.idCeiling = store.sequences.getOrDefault(ID_SEQUENCE, 0L);
+        store.nextId = Math.max(store.nextId, store.idCeiling + 1);
+        store.idCeiling = store.nextId - 1;
+        return store;
+    }
+
+    private void replay(long location, byte type, int length) {
+        switch (type) {
+            case PUT: {
+                nextId = Math.max(nextId, log.segment(location).getLong(MappedLog.offset(location) + ID) + 1);
+                byte[] code = code(location);
+                long previous = index.put(hash(code), location, matches(code));
+                if (previous >= 0)
+                    deadBytes += log.length(previous);
+                break;
+            }
+            case DELETE: {
+                byte[] code = code(location);
+                long removed = index.remove(hash(code), matches(code));
+                if (removed >= 0)
+                    deadBytes += log.length(removed);
+                deadBytes += length;
+                break;
+            }
+            case SEQUENCE: {
+                ByteBuffer segment = log.segment(location);
+                int offset = MappedLog.offset(location) + MappedLog.HEADER_BYTES;
+                String name = readString(segment, offset + 10, segment.getShort(offset + 8));
+                sequences.merge(name, segment.getLong(offset), Math::max);
+                deadBytes += length;
+                break;
+            }
+            default:
+                throw new IllegalStateException("Unknown record type " + type + " at " + location);
+        }
+    }
+
+    // Reads
+
+    public ShortUrl get(String shortCode) {
+        lock.readLock().lock();
+        try {
+            long location = locate(shortCode);
+            return location < 0 ? null : toShortUrl(location);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String getUrl(String shortCode) {
+        lock.readLock().lock();
+        try {
+            long location = locate(shortCode);
+            return location < 0 ? null : url(location);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(String shortCode) {
+        lock.readLock().lock();
+        try {
+            return locate(shortCode) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Visits every stored short URL, in no particular order, a chunk of the index at a time.
+    // Each chunk is copied under the read lock and handed to the action once it is released, so
+    // a slow consumer, such as an export to an HTTP client, never holds up writers. A record
+    // written meanwhile may or may not be visited
+    public void forEach(Consumer<ShortUrl> action) {
+        long span;
+        lock.readLock().lock();
+        try {
+            span = index.capacity();
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<ShortUrl> chunk = new ArrayList<>();
+        for (long from = 0; from < span; from += FOR_EACH_CHUNK_SLOTS) {
+            long to = Math.min(from + FOR_EACH_CHUNK_SLOTS, span);
+            lock.readLock().lock();
+            try {
+                index.forEachInRange(span, from, to, (hash, location) -> chunk.add(toShortUrl(location)));
+            } finally {
+                lock.readLock().unlock();
+            }
+            chunk.forEach(action);
+            chunk.clear();
+        }
+    }
+
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Writes
+
+    /**
+     * Stores a new short URL, assigning its id when it has none. Returns false and stores
+     * nothing when the short code is already taken.
+     */
+    public boolean insert(ShortUrl shortUrl) {
+        writerLock.lock();
+        try {
+            byte[] code = bytes(shortUrl.getShortCode());
+            if (index.find(hash(code), matches(code)) >= 0)
+                return false;
+            if (shortUrl.getId() == null)
+                shortUrl.setId(allocateId());
+            append(shortUrl, code, shortUrl.getAccessCount());
+            return true;
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    // All or nothing: returns false and stores nothing when any short code is taken or repeated
+    public boolean insertAll(List<ShortUrl> shortUrls) {
+        writerLock.lock();
+        try {
+            List<byte[]> codes = new ArrayList<>(shortUrls.size());
+            Set<String> batchCodes = new HashSet<>();
+            for (ShortUrl shortUrl : shortUrls) {
+                byte[] code = bytes(shortUrl.getShortCode());
+                if (!batchCodes.add(shortUrl.getShortCode()) || index.find(hash(code), matches(code)) >= 0)
+                    return false;
+                codes.add(code);
+            }
+            for (int i = 0; i < shortUrls.size(); i++) {
+                ShortUrl shortUrl = shortUrls.get(i);
+                if (shortUrl.getId() == null)
+                    shortUrl.setId(allocateId());
+                append(shortUrl, codes.get(i), shortUrl.getAccessCount());
+            }
+            return true;
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    /**
+     * Stores the short URL under its code, replacing the current record if there is one.
+     * A replaced record keeps its access count, as the JPA mapping never writes that column.
+     */
+    public void upsert(ShortUrl shortUrl) {
+        writerLock.lock();
+        try {
+            byte[] code = bytes(shortUrl.getShortCode());
+            long current = index.find(hash(code), matches(code));
+            if (shortUrl.getId() == null)
+                shortUrl.setId(current >= 0 ? id(current) : allocateId());
+            append(shortUrl, code, current >= 0 ? log.counter(current) : shortUrl.getAccessCount());
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    // Returns false when the short code does not exist
+    public boolean updateUrl(String shortCode, String url, LocalDateTime updatedAt) {
+        writerLock.lock();
+        try {
+            byte[] code = bytes(shortCode);
+            long current = index.find(hash(code), matches(code));
+            if (current < 0)
+                return false;
+            ShortUrl shortUrl = toShortUrl(current);
+            shortUrl.setUrl(url);
+            shortUrl.setUpdatedAt(updatedAt);
+            append(shortUrl, code, log.counter(current));
+            return true;
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    // Returns false when the short code does not exist
+    public boolean delete(String shortCode) {
+        writerLock.lock();
+        try {
+            byte[] code = bytes(shortCode);
+            long removed;
+            lock.writeLock().lock();
+            try {
+                removed = index.remove(hash(code), matches(code));
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (removed < 0)
+                return false;
+            ByteBuffer payload = payload(2 + code.length);
+            payload.putShort((short) code.length).put(code).flip();
+            long location = log.append(DELETE, 0, payload);
+            deadBytes += log.length(removed) + log.length(location);
+            return true;
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    // Adds the deltas to the access counts in place; unknown codes are skipped
+    public void incrementAccessCounts(Map<String, Long> deltas) {
+        writerLock.lock();
+        try {
+            for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+                byte[] code = bytes(delta.getKey());
+                long location = index.find(hash(code), matches(code));
+                if (location >= 0) {
+                    long count = (long) log.counter(location) + delta.getValue();
+                    log.setCounter(location, (int) Math.min(count, Integer.MAX_VALUE));
+                }
+            }
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    // Durable counterpart of a database sequence: values start at 1 and survive restarts
+    public long nextSequenceValue(String name) {
+        writerLock.lock();
+        try {
+            long value = sequences.getOrDefault(name, 0L) + 1;
+            appendSequence(name, value);
+            return value;
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    private long allocateId() {
+        if (nextId > idCeiling) {
+            idCeiling = nextId + ID_BLOCK - 1;
+            appendSequence(ID_SEQUENCE, idCeiling);
+        }
+        return nextId++;
+    }
+
+    private void appendSequence(String name, long value) {
+        deadBytes += writeSequence(log, name, value);
+        sequences.put(name, value);
+    }
+
+    // Returns the length of the written record
+    private int writeSequence(MappedLog target, String name, long value) {
+        byte[] nameBytes = bytes(name);
+        ByteBuffer payload = payload(10 + nameBytes.length);
+        payload.putLong(value).putShort((short) nameBytes.length).put(nameBytes).flip();
+        return target.length(target.append(SEQUENCE, 0, payload));
+    }
+
+    // The on-disk counter is an int; larger counts saturate, as increments do
+    private void append(ShortUrl shortUrl, byte[] code, long accessCount) {
+        byte[] url = bytes(shortUrl.getUrl());
+        ByteBuffer payload = payload(CODE_LENGTH - ID + 2 + code.length + 4 + url.length);
+        payload.putLong(shortUrl.getId())
+            .putLong(toMicros(shortUrl.getCreatedAt()))
+            .putLong(toMicros(shortUrl.getUpdatedAt()))
+            .putShort((short) code.length).put(code)
+            .putInt(url.length).put(url)
+            .flip();
+
+        long location = log.append(PUT, (int) Math.min(accessCount, Integer.MAX_VALUE), payload);
+        lock.writeLock().lock();
+        try {
+            long previous = index.put(hash(code), location, matches(code));
+            if (previous >= 0)
+                deadBytes += log.length(previous);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private ByteBuffer payload(int length) {
+        if (scratch.capacity() < length)
+            scratch = ByteBuffer.allocate(Math.max(length, scratch.capacity() * 2));
+        return scratch.clear();
+    }
+
+    /**
+     * Rewrites the live records into a new log generation and switches over to it once
+     * the CURRENT file names it. Writers wait for the whole compaction; readers keep using
+     * the old log until the switch.
+     */
+    public void compact() {
+        writerLock.lock();
+        try {
+            MappedLog target = MappedLog.open(directory, log.generation() + 1, segmentSize);
+            OffHeapIndex compacted = new OffHeapIndex(index.size());
+            long sequenceBytes = 0;
+            try {
+                MappedLog source = log;
+                index.forEach((hash, location) ->
+                    compacted.put(hash, target.appendCopy(source, location), candidate -> false));
+                for (Map.Entry<String, Long> sequence : sequences.entrySet()) {
+                    sequenceBytes += writeSequence(target, sequence.getKey(), sequence.getValue());
+                }
+                target.force();
+                writeGeneration(target.generation()); // commit point
+            } catch (IOException | RuntimeException ex) {
+                target.delete();
+                throw ex;
+            }
+
+            MappedLog previous = log;
+            lock.writeLock().lock();
+            try {
+                log = target;
+                index = compacted;
+                deadBytes = sequenceBytes;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            previous.delete();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to compact short URL store in " + directory, ex);
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    // Bytes of the log taken by superseded, deleted and sequence records
+    public long deadBytes() {
+        writerLock.lock();
+        try {
+            return deadBytes;
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    public long logBytes() {
+        writerLock.lock();
+        try {
+            return log.sizeBytes();
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    public long indexMemoryBytes() {
+        lock.readLock().lock();
+        try {
+            return index.memoryBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Flushes dirty pages of the mapped segments to disk
+    public void force() {
+        lock.readLock().lock();
+        try {
+            log.force();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        force();
+    }
+
+    // Record access, callers hold the read or write lock
+
+    private long locate(String shortCode) {
+        byte[] code = bytes(shortCode);
+        return index.find(hash(code), matches(code));
+    }
+
+    private LongPredicate matches(byte[] code) {
+        return location -> {
+            ByteBuffer segment = log.segment(location);
+            int offset = MappedLog.offset(location) + codeOffset(location);
+            if (segment.getShort(offset) != code.length)
+                return false;
+            for (int i = 0; i < code.length; i++) {
+                if (segment.get(offset + 2 + i) != code[i])
+                    return false;
+            }
+            return true;
+        };
+    }
+
+    // PUT and DELETE records differ in where the code length field sits
+    private int codeOffset(long location) {
+        return log.type(location) == PUT ? CODE_LENGTH : MappedLog.HEADER_BYTES;
+    }
+
+    private byte[] code(long location) {
+        ByteBuffer segment = log.segment(location);
+        int offset = MappedLog.offset(location) + codeOffset(location);
+        byte[] code = new byte[segment.getShort(offset)];
+        segment.get(offset + 2, code);
+        return code;
+    }
+
+    private long id(long location) {
+        return log.segment(location).getLong(MappedLog.offset(location) + ID);
+    }
+
+    private String url(long location) {
+        ByteBuffer segment = log.segment(location);
+        int offset = MappedLog.offset(location) + CODE_LENGTH;
+        offset += 2 + segment.getShort(offset);
+        return readString(segment, offset + 4, segment.getInt(offset));
+    }
+
+    private ShortUrl toShortUrl(long location) {
+        ByteBuffer segment = log.segment(location);
+        int offset = MappedLog.offset(location);
+        int codeLength = segment.getShort(offset + CODE_LENGTH);
+        return new ShortUrl(
+            segment.getLong(offset + ID),
+            url(location),
+            readString(segment, offset + CODE_LENGTH + 2, codeLength),
+            fromMicros(segment.getLong(offset + CREATED_AT)),
+            fromMicros(segment.getLong(offset + UPDATED_AT)),
+            log.counter(location));
+    }
+
+    private int readGeneration() throws IOException {
+        Path current = directory.resolve("CURRENT");
+        return Files.exists(current) ? Integer.parseInt(Files.readString(current).trim()) : 0;
+    }
+
+    private void writeGeneration(int generation) throws IOException {
+        Path temporary = directory.resolve("CURRENT.tmp");
+        Files.writeString(temporary, Integer.toString(generation));
+        Files.move(temporary, directory.resolve("CURRENT"), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static String readString(ByteBuffer segment, int offset, int length) {
+        byte[] bytes = new byte[length];
+        segment.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        if (time == null)
+            return NO_TIMESTAMP;
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        if (micros == NO_TIMESTAMP)
+            return null;
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+            (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    // FNV-1a with the MurmurHash3 finalizer, so the low bits used for the home slot are well mixed
+    private static long hash(byte[] code) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : code) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.ShortenerURL.storage;
+
+import java.nio.ByteBuffer;
+import java.util.function.LongPredicate;
+
+/**
+ * Open-addressing hash index from a 64-bit key hash to a log location, stored in direct
+ * buffers outside the Java heap: 16 bytes per slot, linear probing, backward-shift deletion
+ * (no tombstones), doubled once three quarters full. Different keys may share a hash, so
+ * lookups take a predicate that checks the record at a candidate location.
+ */
+final class OffHeapIndex {
+
+    private static final int SLOT_BYTES = 16;
+    private static final int PAGE_SHIFT = 20; // 1M slots, 16 MiB per direct buffer
+    private static final long EMPTY = 0;
+    private static final long MISSING = -1;
+
+    interface SlotVisitor {
+        void visit(long hash, long location);
+    }
+
+    private ByteBuffer[] pages;
+    private long capacity;
+    private long mask;
+    private long size;
+
+    OffHeapIndex(long expectedEntries) {
+        allocate(tableSizeFor(Math.max(16, expectedEntries + expectedEntries / 3 + 1)));
+    }
+
+    private void allocate(long slots) {
+        int pageSlots = (int) Math.min(slots, 1L << PAGE_SHIFT);
+        pages = new ByteBuffer[(int) (slots / pageSlots)];
+        for (int page = 0; page < pages.length; page++) {
+            pages[page] = ByteBuffer.allocateDirect(pageSlots * SLOT_BYTES); // zeroed, so every slot starts EMPTY
+        }
+        capacity = slots;
+        mask = slots - 1;
+        size = 0;
+    }
+
+    // Location of the entry whose record matches, or -1
+    long find(long hash, LongPredicate matches) {
+        hash = key(hash);
+        for (long slot = hash & mask; ; slot = (slot + 1) & mask) {
+            long slotHash = hashAt(slot);
+            if (slotHash == EMPTY)
+                return MISSING;
+            if (slotHash == hash && matches.test(locationAt(slot)))
+                return locationAt(slot);
+        }
+    }
+
+    // Points the matching entry at a new location, or adds one; returns the previous location or -1
+    long put(long hash, long location, LongPredicate matches) {
+        if ((size + 1) * 4 > capacity * 3)
+            grow();
+
+        hash = key(hash);
+        for (long slot = hash & mask; ; slot = (slot + 1) & mask) {
+            long slotHash = hashAt(slot);
+            if (slotHash == EMPTY) {
+                write(slot, hash, location);
+                size++;
+                return MISSING;
+            }
+            if (slotHash == hash && matches.test(locationAt(slot))) {
+                long previous = locationAt(slot);
+                write(slot, hash, location);
+                return previous;
+            }
+        }
+    }
+
+    // Removes the matching entry and returns its location, or -1
+    long remove(long hash, LongPredicate matches) {
+        hash = key(hash);
+        long slot = hash & mask;
+        while (true) {
+            long slotHash = hashAt(slot);
+            if (slotHash == EMPTY)
+                return MISSING;
+            if (slotHash == hash && matches.test(locationAt(slot)))
+                break;
+            slot = (slot + 1) & mask;
+        }
+        long removed = locationAt(slot);
+
+        // Shift later entries of the probe run back into the hole while that keeps them reachable
+        long hole = slot;
+        for (long next = (slot + 1) & mask; ; next = (next + 1) & mask) {
+            long nextHash = hashAt(next);
+            if (nextHash == EMPTY)
+                break;
+            long home = nextHash & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                write(hole, nextHash, locationAt(next));
+                hole = next;
+            }
+        }
+        write(hole, EMPTY, 0);
+        size--;
+        return removed;
+    }
+
+    void forEach(SlotVisitor visitor) {
+        for (long slot = 0; slot < capacity; slot++) {
+            long slotHash = hashAt(slot);
+            if (slotHash != EMPTY)
+                visitor.visit(slotHash, locationAt(slot));
+        }
+    }
+
+    /**
+     * Visits the entries whose hash modulo span, a power of two, lies in [from, to). Ranges
+     * cut from the same span visit every entry exactly once, however the table was resized
+     * or rebuilt in between, since an entry's home slot is its hash modulo the capacity.
+     */
+    void forEachInRange(long span, long from, long to, SlotVisitor visitor) {
+        if (span <= capacity) {
+            // The homes of these hashes: one interval per span-sized stretch of the table
+            for (long base = 0; base < capacity; base += span) {
+                visitHomes(base + from, to - from, span, from, to, visitor);
+            }
+        } else if (to - from >= capacity) {
+            visitHomes(0, capacity, span, from, to, visitor);
+        } else {
+            visitHomes(from & mask, to - from, span, from, to, visitor);
+        }
+    }
+
+    // Entries homed in the width slots from start, found in those slots or displaced past them
+    private void visitHomes(long start, long width, long span, long from, long to, SlotVisitor visitor) {
+        for (long i = 0; i < capacity; i++) {
+            long slot = (start + i) & mask;
+            long slotHash = hashAt(slot);
+            if (slotHash == EMPTY) {
+                if (i >= width)
+                    return;
+                continue;
+            }
+            long residue = slotHash & (span - 1);
+            if (((slotHash - start) & mask) < width && residue >= from && residue < to)
+                visitor.visit(slotHash, locationAt(slot));
+        }
+    }
+
+    private void grow() {
+        ByteBuffer[] oldPages = pages;
+        long oldCapacity = capacity;
+        allocate(capacity * 2);
+
+        // Keys are already unique, so entries go straight into the first free slot
+        int oldPageSlots = (int) Math.min(oldCapacity, 1L << PAGE_SHIFT);
+        for (long slot = 0; slot < oldCapacity; slot++) {
+            ByteBuffer page = oldPages[(int) (slot / oldPageSlots)];
+            int offset = (int) (slot % oldPageSlots) * SLOT_BYTES;
+            long slotHash = page.getLong(offset);
+            if (slotHash == EMPTY)
+                continue;
+            long target = slotHash & mask;
+            while (hashAt(target) != EMPTY) {
+                target = (target + 1) & mask;
+            }
+            write(target, slotHash, page.getLong(offset + 8));
+            size++;
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    long capacity() {
+        return capacity;
+    }
+
+    long memoryBytes() {
+        return capacity * SLOT_BYTES;
+    }
+
+    private long hashAt(long slot) {
+        return page(slot).getLong(offsetOf(slot));
+    }
+
+    private long locationAt(long slot) {
+        return page(slot).getLong(offsetOf(slot) + 8);
+    }
+
+    private void write(long slot, long hash, long location) {
+        ByteBuffer page = page(slot);
+        int offset = offsetOf(slot);
+        page.putLong(offset, hash);
+        page.putLong(offset + 8, location);
+    }
+
+    private ByteBuffer page(long slot) {
+        return pages[(int) (slot >>> PAGE_SHIFT)];
+    }
+
+    private static int offsetOf(long slot) {
+        return (int) (slot & ((1L << PAGE_SHIFT) - 1)) * SLOT_BYTES;
+    }
+
+    // Zero marks an empty slot, so a zero hash is stored as 1
+    private static long key(long hash) {
+        return hash == EMPTY ? 1 : hash;
+    }
+
+    private static long tableSizeFor(long entries) {
+        return Long.highestOneBit(entries - 1) << 1;
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.ShortenerURL.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+import com.example.ShortenerURL.generators.Base62;
+
+/**
+ * In-memory index from short code to URL with no per-entry objects. Base62 codes of up to
+ * ten characters are packed into a long (6 bits per character), keys and values live in
+ * two parallel long arrays probed linearly, and the URLs are UTF-8 bytes in a shared arena
+ * of 16 MiB pages. A value packs the arena offset with the URL length.
+ *
+ * Overhead is 16 bytes per slot at up to 80% load, so 20 bytes per entry plus arena space
+ * left behind by updated and removed URLs, which is reclaimed once it outgrows the live
+ * part. Lookups take a read stamp and allocate nothing but the returned String.
+ */
+public class PackedCodeIndex {
+
+    public static final long UNPACKABLE = 0;
+    private static final int MAX_CODE_LENGTH = 10;
+    private static final byte[] DIGITS = new byte[128];
+
+    private static final int PAGE_SHIFT = 24;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int LENGTH_BITS = 16;
+    private static final int MAX_URL_BYTES = (1 << LENGTH_BITS) - 1;
+    private static final double MAX_LOAD = 0.8;
+    private static final long MIN_COMPACTION_BYTES = 64L << 20;
+
+    static {
+        Arrays.fill(DIGITS, (byte) -1);
+        for (int i = 0; i < Base62.ALPHABET.length(); i++) {
+            DIGITS[Base62.ALPHABET.charAt(i)] = (byte) i;
+        }
+    }
+
+    private final StampedLock lock = new StampedLock();
+    private long[] keys;
+    private long[] values;
+    private int size;
+
+    private byte[][] pages = new byte[1][];
+    private int pageCount;
+    private int pagePosition = PAGE_SIZE; // forces the first write to allocate a page
+    private long arenaBytes;
+    private long garbageBytes;
+
+    public PackedCodeIndex(int expectedEntries) {
+        int capacity = capacityFor(expectedEntries);
+        keys = new long[capacity];
+        values = new long[capacity];
+    }
+
+    /**
+     * Packs a Base62 code of 1 to 10 characters into a non-zero long, each character as its
+     * digit plus one; any other code yields {@link #UNPACKABLE}.
+     */
+    public static long pack(CharSequence shortCode) {
+        int length = shortCode.length();
+        if (length == 0 || length > MAX_CODE_LENGTH)
+            return UNPACKABLE;
+
+        long packed = 0;
+        for (int i = 0; i < length; i++) {
+            char c = shortCode.charAt(i);
+            if (c >= DIGITS.length || DIGITS[c] < 0)
+                return UNPACKABLE;
+            packed = packed << 6 | (DIGITS[c] + 1);
+        }
+        return packed;
+    }
+
+    public String get(long key) {
+        long stamp = lock.readLock();
+        try {
+            int slot = find(key);
+            if (slot < 0)
+                return null;
+            long value = values[slot];
+            return new String(page(value), positionInPage(value), length(value), StandardCharsets.UTF_8);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean contains(long key) {
+        long stamp = lock.readLock();
+        try {
+            return find(key) >= 0;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public void put(long key, String url) {
+        byte[] bytes = url.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_URL_BYTES)
+            throw new IllegalArgumentException("URL of " + bytes.length + " bytes exceeds " + MAX_URL_BYTES);
+
+        long stamp = lock.writeLock();
+        try {
+            long value = append(bytes, 0, bytes.length);
+            int slot = find(key);
+            if (slot >= 0) {
+                garbageBytes += length(values[slot]);
+                values[slot] = value;
+            } else {
+                if (size + 1 > keys.length * MAX_LOAD)
+                    resize(capacityFor((int) Math.min(Integer.MAX_VALUE - 8, size * 3L / 2)));
+                insert(key, value);
+                size++;
+            }
+            compactIfWasteful();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean remove(long key) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = find(key);
+            if (slot < 0)
+                return false;
+            garbageBytes += length(values[slot]);
+
+            // Backward-shift deletion: pull later entries of the probe run into the hole
+            int hole = slot;
+            for (int next = nextSlot(slot); keys[next] != UNPACKABLE; next = nextSlot(next)) {
+                int home = home(keys[next]);
+                if (distance(home, next) >= distance(hole, next)) {
+                    keys[hole] = keys[next];
+                    values[hole] = values[next];
+                    hole = next;
+                }
+            }
+            keys[hole] = UNPACKABLE;
+            values[hole] = 0;
+            size--;
+            compactIfWasteful();
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Table plus arena, the whole heap footprint of the index
+    public long memoryBytes() {
+        long stamp = lock.readLock();
+        try {
+            return (long) keys.length * 16 + (long) pageCount * PAGE_SIZE;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public long garbageBytes() {
+        long stamp = lock.readLock();
+        try {
+            return garbageBytes;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private int find(long key) {
+        for (int slot = home(key); ; slot = nextSlot(slot)) {
+            long slotKey = keys[slot];
+            if (slotKey == key)
+                return slot;
+            if (slotKey == UNPACKABLE)
+                return -1;
+        }
+    }
+
+    private void insert(long key, long value) {
+        int slot = home(key);
+        while (keys[slot] != UNPACKABLE) {
+            slot = nextSlot(slot);
+        }
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[capacity];
+        values = new long[capacity];
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != UNPACKABLE)
+                insert(oldKeys[slot], oldValues[slot]);
+        }
+    }
+
+    // Copies the URL into the arena and returns its value; a URL never straddles two pages
+    private long append(byte[] source, int position, int length) {
+        if (pagePosition + length > PAGE_SIZE) {
+            if (pageCount == pages.length)
+                pages = Arrays.copyOf(pages, pageCount * 2);
+            pages[pageCount++] = new byte[PAGE_SIZE];
+            pagePosition = 0;
+        }
+        long offset = (long) (pageCount - 1) << PAGE_SHIFT | pagePosition;
+        System.arraycopy(source, position, pages[pageCount - 1], pagePosition, length);
+        pagePosition += length;
+        arenaBytes += length;
+        return offset << LENGTH_BITS | length;
+    }
+
+    // Rewrites the live URLs into fresh pages once dead bytes outweigh them
+    private void compactIfWasteful() {
+        if (garbageBytes < MIN_COMPACTION_BYTES || garbageBytes < arenaBytes - garbageBytes)
+            return;
+
+        byte[][] oldPages = pages;
+        pages = new byte[1][];
+        pageCount = 0;
+        pagePosition = PAGE_SIZE;
+        arenaBytes = 0;
+        garbageBytes = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] == UNPACKABLE)
+                continue;
+            long value = values[slot];
+            values[slot] = append(oldPages[(int) (offset(value) >>> PAGE_SHIFT)], positionInPage(value), length(value));
+        }
+    }
+
+    // Fibonacci hashing of the packed key, mapped onto any table size without a modulo
+    private int home(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (((hash >>> 32) * keys.length) >>> 32);
+    }
+
+    private int nextSlot(int slot) {
+        return slot + 1 == keys.length ? 0 : slot + 1;
+    }
+
+    private int distance(int from, int to) {
+        return to >= from ? to - from : to + keys.length - from;
+    }
+
+    private static long offset(long value) {
+        return value >>> LENGTH_BITS;
+    }
+
+    private byte[] page(long value) {
+        return pages[(int) (offset(value) >>> PAGE_SHIFT)];
+    }
+
+    private static int positionInPage(long value) {
+        return (int) (offset(value) & (PAGE_SIZE - 1));
+    }
+
+    private static int length(long value) {
+        return (int) (value & MAX_URL_BYTES);
+    }
+
+    private static int capacityFor(int entries) {
+        return (int) Math.min(Integer.MAX_VALUE - 8, Math.max(16, (long) Math.ceil(entries / MAX_LOAD) + 1));
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.ShortenerURL.storage;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bloom filter of short codes that grows with its content. Codes go into the newest stage;
+ * once that stage holds its capacity, a stage twice as large with half the false-positive
+ * rate is added, so the compound rate stays below twice the initial one however far the
+ * expected size was off. Elements cannot be removed: deleted codes linger until the owner
+ * builds a fresh filter.
+ *
+ * Adds and lookups are lock-free and allocate nothing; bits are set with CAS on an
+ * AtomicLongArray, and stage growth is the only locked step.
+ */
+public class ScalableBloomFilter {
+
+    private static final double GROWTH = 2;
+    private static final double TIGHTENING = 0.5;
+
+    private final double falsePositiveRate;
+    private final ReentrantLock growLock = new ReentrantLock();
+    private volatile Stage[] stages;
+
+    public ScalableBloomFilter(long expectedEntries, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1)
+            throw new IllegalArgumentException("False-positive rate must be between 0 and 1: " + falsePositiveRate);
+        // The stages' rates form a geometric series summing to twice the first one
+        this.falsePositiveRate = falsePositiveRate;
+        this.stages = new Stage[] { new Stage(Math.max(1, expectedEntries), falsePositiveRate / 2) };
+    }
+
+    public boolean mightContain(CharSequence shortCode) {
+        long hash1 = hash(shortCode);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (Stage stage : stages) {
+            if (stage.mightContain(hash1, hash2))
+                return true;
+        }
+        return false;
+    }
+
+    public void add(CharSequence shortCode) {
+        long hash1 = hash(shortCode);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        Stage[] current = stages;
+        for (Stage stage : current) {
+            if (stage.mightContain(hash1, hash2))
+                return;
+        }
+        Stage last = current[current.length - 1];
+        if (last.entries.get() >= last.capacity)
+            last = grow(last);
+        last.add(hash1, hash2);
+    }
+
+    // Another stage once the newest one is full; racing adders share the one created first
+    private Stage grow(Stage full) {
+        growLock.lock();
+        try {
+            Stage[] current = stages;
+            Stage last = current[current.length - 1];
+            if (last != full)
+                return last;
+            Stage next = new Stage((long) (full.capacity * GROWTH), full.falsePositiveRate * TIGHTENING);
+            Stage[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = next;
+            stages = grown;
+            return next;
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    // Distinct codes added, short of the few counted twice by racing adds of the same code
+    public long size() {
+        long size = 0;
+        for (Stage stage : stages) {
+            size += stage.entries.get();
+        }
+        return size;
+    }
+
+    public long memoryBytes() {
+        long bytes = 0;
+        for (Stage stage : stages) {
+            bytes += stage.words.length() * 8L;
+        }
+        return bytes;
+    }
+
+    public int stageCount() {
+        return stages.length;
+    }
+
+    // The configured bound, which holds however many stages are added
+    public double targetFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    /**
+     * Chance that a code never added is reported present, from the bits actually set in
+     * each stage rather than from the configured rates.
+     */
+    public double expectedFalsePositiveRate() {
+        double allNegative = 1;
+        for (Stage stage : stages) {
+            double fill = (double) stage.bitsSet.get() / stage.bits;
+            allNegative *= 1 - Math.pow(fill, stage.hashes);
+        }
+        return 1 - allNegative;
+    }
+
+    // FNV-1a over the chars, finished with a full avalanche so nearby codes spread out
+    private static long hash(CharSequence shortCode) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < shortCode.length(); i++) {
+            hash = (hash ^ shortCode.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static final class Stage {
+
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final long bits;
+        private final int hashes;
+        private final AtomicLongArray words;
+        private final AtomicLong entries = new AtomicLong();
+        private final AtomicLong bitsSet = new AtomicLong();
+
+        Stage(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray((int) Math.min(Integer.MAX_VALUE - 8, (optimalBits + 63) / 64));
+            this.bits = words.length() * 64L;
+            this.hashes = Math.max(1, (int) Math.round((double) bits / capacity * Math.log(2)));
+        }
+
+        // Double hashing: the i-th probe is hash1 + i * hash2
+        boolean mightContain(long hash1, long hash2) {
+            long combined = hash1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = (combined & Long.MAX_VALUE) % bits;
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0)
+                    return false;
+                combined += hash2;
+            }
+            return true;
+        }
+
+        void add(long hash1, long hash2) {
+            long combined = hash1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = (combined & Long.MAX_VALUE) % bits;
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long value;
+                while (((value = words.get(word)) & mask) == 0) {
+                    if (words.compareAndSet(word, value, value | mask)) {
+                        bitsSet.incrementAndGet();
+                        break;
+                    }
+                }
+                combined += hash2;
+            }
+            entries.incrementAndGet();
+        }
+    }
+}
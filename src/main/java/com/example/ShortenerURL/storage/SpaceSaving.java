@@ -0,0 +1,125 @@
+package com.example.ShortenerURL.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitter sketch: the most frequent keys of a stream in a fixed number of
+ * counters. A key without a counter takes over the smallest one and inherits its count as
+ * the error, so every count overestimates by at most its error, and any key seen more than
+ * total / capacity times is guaranteed a counter.
+ *
+ * Counters sit in a binary min-heap indexed by key, so an offer is one map lookup plus a
+ * sift of O(log capacity). Not thread-safe; the owner serializes access.
+ */
+public class SpaceSaving {
+
+    public record Entry(String key, long count, long error) {
+
+        // Occurrences the key is guaranteed to have had
+        public long guaranteedCount() {
+            return count - error;
+        }
+    }
+
+    private final String[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private final Map<String, Integer> positions;
+    private int size;
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        this.keys = new String[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.positions = new HashMap<>(capacity * 2);
+    }
+
+    public void offer(String key, long occurrences) {
+        Integer position = positions.get(key);
+        if (position != null) {
+            counts[position] += occurrences;
+            siftDown(position);
+        } else if (size < keys.length) {
+            keys[size] = key;
+            counts[size] = occurrences;
+            errors[size] = 0;
+            positions.put(key, size);
+            siftUp(size++);
+        } else {
+            // Takes over the smallest counter
+            positions.remove(keys[0]);
+            keys[0] = key;
+            errors[0] = counts[0];
+            counts[0] += occurrences;
+            positions.put(key, 0);
+            siftDown(0);
+        }
+    }
+
+    // Up to limit entries, highest count first
+    public List<Entry> top(int limit) {
+        List<Entry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new Entry(keys[i], counts[i], errors[i]));
+        }
+        entries.sort(Comparator.comparingLong(Entry::count).reversed());
+        return entries.size() > limit ? entries.subList(0, limit) : entries;
+    }
+
+    public void clear() {
+        positions.clear();
+        Arrays.fill(keys, 0, size, null);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (counts[parent] <= counts[position])
+                return;
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest])
+                smallest = left;
+            if (right < size && counts[right] < counts[smallest])
+                smallest = right;
+            if (smallest == position)
+                return;
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        String key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        long count = counts[i];
+        counts[i] = counts[j];
+        counts[j] = count;
+        long error = errors[i];
+        errors[i] = errors[j];
+        errors[j] = error;
+        positions.put(keys[i], i);
+        positions.put(keys[j], j);
+    }
+}
@@ -0,0 +1,5 @@
+-- The column changes of the PostgreSQL migration; H2 has neither hash partitioning nor
+-- INCLUDE columns, so the table keeps its layout and the unique index on short_code
+ALTER TABLE short_urls ALTER COLUMN short_code SET DATA TYPE VARCHAR(16);
+ALTER TABLE short_urls ALTER COLUMN url SET DATA TYPE VARCHAR(2048);
+ALTER TABLE short_urls ALTER COLUMN access_count SET DATA TYPE BIGINT;
@@ -0,0 +1,21 @@
+-- Click buckets become one row per code, granularity and bucket start, which each analytics flush
+-- adds its clicks to; until now every flush appended rows of its own. The rows appended so far
+-- are merged into the oldest of their bucket first.
+
+UPDATE click_buckets b
+SET clicks = (SELECT SUM(k.clicks) FROM click_buckets k
+              WHERE k.short_code = b.short_code AND k.granularity = b.granularity AND k.bucket_start = b.bucket_start)
+WHERE b.id = (SELECT MIN(k.id) FROM click_buckets k
+              WHERE k.short_code = b.short_code AND k.granularity = b.granularity AND k.bucket_start = b.bucket_start);
+
+DELETE FROM click_buckets b
+WHERE EXISTS (SELECT 1 FROM click_buckets kept
+              WHERE kept.short_code = b.short_code AND kept.granularity = b.granularity
+                AND kept.bucket_start = b.bucket_start AND kept.id < b.id);
+
+-- The key serves the series lookups the old index did, and the upserts' MERGE
+DROP INDEX IF EXISTS idx_click_buckets_series;
+ALTER TABLE click_buckets ADD CONSTRAINT uk_click_buckets_bucket UNIQUE (short_code, granularity, bucket_start);
+
+-- For the retention purge, which deletes by granularity and age across all codes
+CREATE INDEX idx_click_buckets_retention ON click_buckets (granularity, bucket_start);
@@ -0,0 +1,5 @@
+-- Databases ddl-auto created hold IDENTITY ids from 1 up, while short_urls_seq, which has given
+-- the ids since, started at 1 whatever was there. Hibernate's pooled optimizer takes a sequence
+-- value as the top of a block of 50 ids, so the next value goes 50 past the highest id, and never
+-- back below a value the sequence may already have handed out
+ALTER SEQUENCE short_urls_seq RESTART WITH (SELECT GREATEST(COALESCE(MAX(id), 0) + 50, NEXT VALUE FOR short_urls_seq) FROM short_urls);
@@ -0,0 +1,5 @@
+-- H2 has no INCLUDE columns, so the PostgreSQL covering index has no counterpart here and the
+-- unique index on short_code stays. The column is widened to the VARCHAR(255) it has on
+-- PostgreSQL, where narrowing it would rewrite the table; codes are limited to 16 characters
+-- on the way in either way
+ALTER TABLE short_urls ALTER COLUMN short_code SET DATA TYPE VARCHAR(255);
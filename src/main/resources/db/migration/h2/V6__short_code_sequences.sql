@@ -0,0 +1,4 @@
+-- Sequences of the sequence and block short code generators, which used to create them on
+-- startup and so needed DDL rights at runtime. IF NOT EXISTS keeps those a database has already
+CREATE SEQUENCE IF NOT EXISTS short_code_seq;
+CREATE SEQUENCE IF NOT EXISTS short_code_block_seq;
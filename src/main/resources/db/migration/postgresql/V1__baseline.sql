@@ -0,0 +1,32 @@
+-- The schema as ddl-auto=update left it before migrations took over. Databases it created are
+-- baselined at version 0 and find everything here already in place; new databases get it here.
+CREATE SEQUENCE IF NOT EXISTS short_urls_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS click_buckets_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS short_urls (
+    id BIGINT NOT NULL PRIMARY KEY,
+    url VARCHAR(255) NOT NULL,
+    short_code VARCHAR(255) NOT NULL UNIQUE,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    access_count INTEGER NOT NULL,
+    url_hash BYTEA,
+    expires_at TIMESTAMP(6)
+);
+
+-- For tables created before these columns existed
+ALTER TABLE short_urls ADD COLUMN IF NOT EXISTS url_hash BYTEA;
+ALTER TABLE short_urls ADD COLUMN IF NOT EXISTS expires_at TIMESTAMP(6);
+
+CREATE INDEX IF NOT EXISTS idx_short_urls_url_hash ON short_urls (url_hash);
+CREATE INDEX IF NOT EXISTS idx_short_urls_expires_at ON short_urls (expires_at);
+
+CREATE TABLE IF NOT EXISTS click_buckets (
+    id BIGINT NOT NULL PRIMARY KEY,
+    short_code VARCHAR(255) NOT NULL,
+    granularity VARCHAR(6) NOT NULL CHECK (granularity IN ('MINUTE', 'HOUR', 'DAY')),
+    bucket_start TIMESTAMP(6) NOT NULL,
+    clicks BIGINT NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_click_buckets_series ON click_buckets (short_code, granularity, bucket_start);
@@ -0,0 +1,15 @@
+-- Brings the columns of short_urls in line with the mappings. The table may be large, so it is
+-- altered rather than rebuilt in a new layout:
+--
+-- * url grows to VARCHAR(2048), which only changes the catalog
+-- * access_count becomes BIGINT. That rewrites the table and its indexes under an exclusive
+--   lock, once; lock_timeout makes the migration fail instead of queueing traffic behind it,
+--   and a large table is best migrated in a quiet window
+-- * short_code keeps its VARCHAR(255), since a lower limit would take another pass over the table
+--   under the lock; codes are already limited to 16 characters on the way in
+
+SET LOCAL lock_timeout = '5s';
+
+ALTER TABLE short_urls
+    ALTER COLUMN url TYPE VARCHAR(2048),
+    ALTER COLUMN access_count TYPE BIGINT;
@@ -0,0 +1,6 @@
+-- Databases ddl-auto created hold IDENTITY ids from 1 up, while short_urls_seq, which has given
+-- the ids since, started at 1 whatever was there. Hibernate's pooled optimizer takes a sequence
+-- value as the top of a block of 50 ids, so the next value goes 50 past the highest id, and never
+-- back below a value the sequence may already have handed out
+SELECT setval('short_urls_seq', GREATEST(COALESCE(MAX(id), 0) + 50, nextval('short_urls_seq')), false)
+FROM short_urls;
@@ -0,0 +1,26 @@
+-- A unique index on short_code that also carries url, so a redirect's lookup is an index-only
+-- scan. It is built with CONCURRENTLY, which writes keep going through but which cannot run
+-- in a transaction; the .conf beside this file runs the script outside one. A build that
+-- failed leaves an invalid index behind, so it is dropped first when the script is retried.
+DROP INDEX CONCURRENTLY IF EXISTS idx_short_urls_short_code_url;
+CREATE UNIQUE INDEX CONCURRENTLY idx_short_urls_short_code_url ON short_urls (short_code) INCLUDE (url);
+
+-- The new index enforces uniqueness, and ON CONFLICT (short_code) infers it, so the unique
+-- constraint on short_code alone would only cost every write a second index. Its name depends
+-- on whether V1 or ddl-auto created the table. Dropping it takes an exclusive lock, but only
+-- for a catalog change, and gives up rather than queue traffic behind it
+SET lock_timeout = '5s';
+DO $$
+DECLARE
+    constraint_name TEXT;
+BEGIN
+    FOR constraint_name IN
+        SELECT c.conname
+        FROM pg_constraint c
+        JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attname = 'short_code'
+        WHERE c.conrelid = 'short_urls'::regclass AND c.contype = 'u' AND c.conkey = ARRAY[a.attnum]
+    LOOP
+        EXECUTE format('ALTER TABLE short_urls DROP CONSTRAINT %I', constraint_name);
+    END LOOP;
+END $$;
+RESET lock_timeout;
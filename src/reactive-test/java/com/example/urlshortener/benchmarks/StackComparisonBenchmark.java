@@ -0,0 +1,187 @@
+package com.example.urlshortener.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.ShortenerURL.reactive.ReactiveApp;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Load test shared by both stacks: the same HTTP requests against App on Tomcat and against
+ * ReactiveApp on Netty, each over its own in-memory H2 database. SampleTime reports p99 per
+ * request type; each trial also prints what one idle keep-alive connection costs the server.
+ * Only compiled with the reactive profile: mvn -Pbenchmark,reactive verify -Djmh.include=StackComparisonBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+public class StackComparisonBenchmark {
+
+    private static final int PRELOADED_CODES = 10_000;
+    private static final int BATCH_SIZE = 1_000;
+    private static final int IDLE_CONNECTIONS = 1_000;
+
+    @Param({ "servlet", "reactive" })
+    public String stack;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private String baseUrl;
+    private String[] shortCodes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = "reactive".equals(stack) ? startReactive() : BenchmarkApplication.start(Map.of());
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        httpClient = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NEVER).build();
+        baseUrl = "http://localhost:" + port;
+
+        shortCodes = preload();
+        measureIdleConnections(port);
+    }
+
+    private static ConfigurableApplicationContext startReactive() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.r2dbc.url", "r2dbc:h2:mem:///bench_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        properties.put("spring.r2dbc.pool.initial-size", "32");
+        properties.put("spring.r2dbc.pool.max-size", "32");
+        properties.put("spring.sql.init.mode", "always");
+        properties.put("spring.sql.init.schema-locations", "classpath:reactive-schema.sql");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.root", "WARN");
+        properties.put("server.port", "0");
+        return ReactiveApp.application().properties(properties).run();
+    }
+
+    // Through the batch endpoint, so both stacks are filled the same way
+    private String[] preload() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<String> codes = new ArrayList<>(PRELOADED_CODES);
+        for (int batch = 0; batch < PRELOADED_CODES / BATCH_SIZE; batch++) {
+            List<Map<String, String>> urls = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                urls.add(Map.of("url", "https://example.com/preloaded/" + (batch * BATCH_SIZE + i)));
+            }
+            HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + "/shorten/batch"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(Map.of("urls", urls))))
+                    .build(),
+                HttpResponse.BodyHandlers.ofString());
+            for (JsonNode item : objectMapper.readTree(response.body()).get("items")) {
+                codes.add(item.get("shortCode").asText());
+            }
+        }
+        return codes.toArray(new String[0]);
+    }
+
+    // Heap and direct memory held per connection that has served one request and stays open
+    private void measureIdleConnections(int port) throws IOException {
+        long heapBefore = usedHeap();
+        long directBefore = usedDirect();
+        List<Socket> sockets = new ArrayList<>(IDLE_CONNECTIONS);
+        byte[] request = ("GET /shorten/" + shortCodes[0] + " HTTP/1.1\r\nHost: localhost\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        byte[] response = new byte[8192];
+        try {
+            for (int i = 0; i < IDLE_CONNECTIONS; i++) {
+                Socket socket = new Socket("localhost", port);
+                sockets.add(socket);
+                OutputStream out = socket.getOutputStream();
+                out.write(request);
+                out.flush();
+                InputStream in = socket.getInputStream();
+                in.read(response);
+            }
+            long heapPerConnection = (usedHeap() - heapBefore) / IDLE_CONNECTIONS;
+            long directPerConnection = (usedDirect() - directBefore) / IDLE_CONNECTIONS;
+            System.out.printf("%n%s: %d idle connections, heap %d B/connection, direct %d B/connection%n",
+                stack, IDLE_CONNECTIONS, heapPerConnection, directPerConnection);
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long usedDirect() {
+        long used = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName()))
+                used += pool.getMemoryUsed();
+        }
+        return used;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private String anyCode() {
+        return shortCodes[ThreadLocalRandom.current().nextInt(shortCodes.length)];
+    }
+
+    @Benchmark
+    public int redirect() throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + anyCode())).GET().build());
+    }
+
+    @Benchmark
+    public int retrieve() throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/shorten/" + anyCode())).GET().build());
+    }
+
+    @Benchmark
+    public int create() throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/shorten"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString("{\"url\":\"https://example.com/benchmark\"}"))
+            .build());
+    }
+
+    private int send(HttpRequest request) throws Exception {
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
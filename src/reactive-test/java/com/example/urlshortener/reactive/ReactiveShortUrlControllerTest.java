@@ -0,0 +1,168 @@
+package com.example.urlshortener.reactive;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.example.ShortenerURL.models.UrlRequest;
+import com.example.ShortenerURL.reactive.ReactiveApp;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+// Runs the reactive stack end to end on Netty, over an in-memory H2 database through R2DBC
+@SpringBootTest(classes = ReactiveApp.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.main.web-application-type=reactive",
+    "spring.r2dbc.url=r2dbc:h2:mem:///reactive_test;DB_CLOSE_DELAY=-1",
+    "spring.sql.init.mode=always",
+    "spring.sql.init.schema-locations=classpath:reactive-schema.sql"
+})
+@ActiveProfiles("reactive")
+class ReactiveShortUrlControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    // Returns the short code of the created URL
+    private String create(String url) {
+        Map<?, ?> created = webTestClient.post().uri("/shorten")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(new UrlRequest(url))
+            .exchange()
+            .expectStatus().isCreated()
+            .expectBody(Map.class)
+            .returnResult()
+            .getResponseBody();
+        assertNotNull(created.get("id"));
+        return (String) created.get("shortCode");
+    }
+
+    @Test
+    void testCreateAndRetrieve() {
+        String shortCode = create("https://example.com");
+
+        webTestClient.get().uri("/shorten/" + shortCode)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.url").isEqualTo("https://example.com")
+            .jsonPath("$.shortCode").isEqualTo(shortCode);
+    }
+
+    @Test
+    void testCreateShortUrl_InvalidUrl() {
+        webTestClient.post().uri("/shorten")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(new UrlRequest("invalid-url"))
+            .exchange()
+            .expectStatus().isBadRequest()
+            .expectBody()
+            .jsonPath("$.url").isEqualTo("Invalid URL format");
+    }
+
+    @Test
+    void testRedirect() {
+        String shortCode = create("https://example.com/redirect");
+        String etag = "\"" + Integer.toHexString("https://example.com/redirect".hashCode()) + "\"";
+
+        webTestClient.get().uri("/" + shortCode)
+            .exchange()
+            .expectStatus().isFound()
+            .expectHeader().valueEquals("Location", "https://example.com/redirect")
+            .expectHeader().valueEquals("ETag", etag);
+
+        webTestClient.get().uri("/" + shortCode)
+            .header("If-None-Match", etag)
+            .exchange()
+            .expectStatus().isNotModified();
+    }
+
+    @Test
+    void testUnknownCodeIsNotFound() {
+        webTestClient.get().uri("/unknown").exchange().expectStatus().isNotFound();
+        webTestClient.get().uri("/shorten/unknown").exchange().expectStatus().isNotFound();
+        webTestClient.get().uri("/shorten/unknown/stats").exchange().expectStatus().isNotFound();
+        webTestClient.delete().uri("/shorten/unknown").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void testUpdateThenDelete() {
+        String shortCode = create("https://example.com");
+
+        webTestClient.put().uri("/shorten/" + shortCode)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(new UrlRequest("https://updated.com"))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.url").isEqualTo("https://updated.com");
+        webTestClient.get().uri("/shorten/" + shortCode)
+            .exchange()
+            .expectBody()
+            .jsonPath("$.url").isEqualTo("https://updated.com");
+
+        webTestClient.delete().uri("/shorten/" + shortCode).exchange().expectStatus().isNoContent();
+        webTestClient.get().uri("/shorten/" + shortCode).exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void testStatsIncludePendingAccesses() {
+        String shortCode = create("https://example.com");
+        webTestClient.get().uri("/shorten/" + shortCode).exchange().expectStatus().isOk();
+        webTestClient.get().uri("/" + shortCode).exchange().expectStatus().isFound();
+
+        webTestClient.get().uri("/shorten/" + shortCode + "/stats")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.accessCount").isEqualTo(2);
+    }
+
+    @Test
+    void testBatchCreateReportsInvalidItems() {
+        Map<String, Object> request = Map.of("urls", List.of(
+            Map.of("url", "https://example.com/1"),
+            Map.of("url", "invalid-url"),
+            Map.of("url", "https://example.com/2")));
+
+        webTestClient.post().uri("/shorten/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(request)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.succeeded").isEqualTo(2)
+            .jsonPath("$.failed").isEqualTo(1)
+            .jsonPath("$.items[1].status").isEqualTo(400)
+            .jsonPath("$.items[2].data.url").isEqualTo("https://example.com/2");
+    }
+
+    @Test
+    void testBatchResolveAndDelete() {
+        String shortCode = create("https://example.com");
+        Map<String, Object> request = Map.of("shortCodes", List.of(shortCode, "unknown"));
+
+        webTestClient.post().uri("/shorten/batch/resolve")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(request)
+            .exchange()
+            .expectBody()
+            .jsonPath("$.items[0].status").isEqualTo(200)
+            .jsonPath("$.items[1].status").isEqualTo(404);
+
+        webTestClient.post().uri("/shorten/batch/delete")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(request)
+            .exchange()
+            .expectBody()
+            .jsonPath("$.items[0].status").isEqualTo(204)
+            .jsonPath("$.items[1].status").isEqualTo(404);
+
+        webTestClient.get().uri("/shorten/" + shortCode).exchange().expectStatus().isNotFound();
+    }
+}
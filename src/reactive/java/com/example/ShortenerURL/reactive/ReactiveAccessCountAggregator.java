@@ -0,0 +1,29 @@
+package com.example.ShortenerURL.reactive;
+
+import java.util.Map;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.example.ShortenerURL.services.AccessCountAggregator;
+
+/**
+ * Access count write-behind of the reactive stack. The flush runs on the scheduler thread,
+ * never on an event loop, so it may wait for the batch to be written.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveAccessCountAggregator extends AccessCountAggregator {
+
+    private final ReactiveShortUrlRepository urlRepository;
+
+    public ReactiveAccessCountAggregator(ReactiveShortUrlRepository urlRepository) {
+        super(null);
+        this.urlRepository = urlRepository;
+    }
+
+    @Override
+    protected void write(Map<String, Long> deltas) {
+        urlRepository.incrementAccessCounts(deltas).block();
+    }
+}
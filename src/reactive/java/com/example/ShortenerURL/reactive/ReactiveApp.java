@@ -0,0 +1,39 @@
+package com.example.ShortenerURL.reactive;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import com.example.ShortenerURL.exceptions.GlobalExceptionHandler;
+import com.example.ShortenerURL.services.ShortUrlCache;
+
+/**
+ * Reactive variant of the shortener: WebFlux on Netty over R2DBC, serving the same API as
+ * App. Only this package is scanned, plus the stack-neutral cache and exception handler, so
+ * none of the blocking JPA beans are created; every bean here is limited to the reactive
+ * profile, so App's own scan of this package skips them.
+ */
+@Profile("reactive")
+@SpringBootApplication(exclude = { DataSourceAutoConfiguration.class, DataSourceTransactionManagerAutoConfiguration.class,
+                                   HibernateJpaAutoConfiguration.class })
+@EnableScheduling
+@Import({ ShortUrlCache.class, GlobalExceptionHandler.class })
+public class ReactiveApp {
+
+    public static void main(String[] args) {
+        application().run(args);
+    }
+
+    // Both web stacks are on the classpath of this build, so Netty has to be asked for
+    public static SpringApplicationBuilder application() {
+        return new SpringApplicationBuilder(ReactiveApp.class)
+            .web(WebApplicationType.REACTIVE)
+            .profiles("reactive");
+    }
+}
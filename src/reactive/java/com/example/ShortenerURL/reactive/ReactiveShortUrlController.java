@@ -0,0 +1,248 @@
+package com.example.ShortenerURL.reactive;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+
+import com.example.ShortenerURL.exceptions.BatchSizeExceededException;
+import com.example.ShortenerURL.models.*;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import reactor.core.publisher.Mono;
+
+/**
+ * The endpoints of ShortUrlController on WebFlux, with the same validation, status codes
+ * and not-found counters. Click series are served by the blocking stack only.
+ */
+@RestController
+@Profile("reactive")
+public class ReactiveShortUrlController implements MeterBinder {
+
+    private ReactiveShortUrlService urlService;
+    private HttpStatus redirectStatus;
+    private long redirectMaxAgeSeconds;
+    private boolean redirectEtag;
+    private Validator validator;
+    private int maxBatchSize;
+    private Counter redirectNotFound;
+    private Counter retrieveNotFound;
+    private Counter updateNotFound;
+    private Counter deleteNotFound;
+    private Counter statsNotFound;
+
+    public ReactiveShortUrlController(ReactiveShortUrlService urlService,
+                                      @Value("${shortener.redirect.status:302}") int redirectStatus,
+                                      @Value("${shortener.redirect.cache-max-age-seconds:0}") long redirectMaxAgeSeconds,
+                                      @Value("${shortener.redirect.etag:true}") boolean redirectEtag,
+                                      Validator validator,
+                                      @Value("${shortener.batch.max-size:1000}") int maxBatchSize) {
+        this.urlService = urlService;
+        this.redirectStatus = HttpStatus.valueOf(redirectStatus);
+        this.redirectMaxAgeSeconds = redirectMaxAgeSeconds;
+        this.redirectEtag = redirectEtag;
+        this.validator = validator;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @GetMapping("/{shortCode:[a-zA-Z0-9]+}")
+    public Mono<ResponseEntity<Void>> redirect(@PathVariable String shortCode,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return urlService.resolveUrl(shortCode)
+            .map(url -> redirectTo(url, ifNoneMatch))
+            .switchIfEmpty(notFound(redirectNotFound));
+    }
+
+    private ResponseEntity<Void> redirectTo(String url, String ifNoneMatch) {
+        ResponseEntity.BodyBuilder response;
+        String etag = redirectEtag ? "\"" + Integer.toHexString(url.hashCode()) + "\"" : null;
+        if (etag != null && etag.equals(ifNoneMatch))
+            response = ResponseEntity.status(HttpStatus.NOT_MODIFIED);
+        else
+            response = ResponseEntity.status(redirectStatus).header(HttpHeaders.LOCATION, url);
+
+        if (etag != null)
+            response.eTag(etag);
+        if (redirectMaxAgeSeconds > 0)
+            response.cacheControl(CacheControl.maxAge(redirectMaxAgeSeconds, TimeUnit.SECONDS));
+        return response.build();
+    }
+
+    @PostMapping("/shorten")
+    public Mono<ResponseEntity<UrlResponse>> createShortUrl(@Valid @RequestBody UrlRequest urlRequest) {
+        return urlService.createShortUrl(urlRequest.getUrl(), urlRequest.getExpiresAt())
+            .map(createdShortUrl -> new ResponseEntity<>(createdShortUrl, HttpStatus.CREATED));
+    }
+
+    @GetMapping("/shorten/{shortCode}")
+    public Mono<ResponseEntity<UrlResponse>> retrieveOriginalUrl(@PathVariable String shortCode) {
+        return urlService.retrieveOriginalUrl(shortCode)
+            .map(urlResponse -> new ResponseEntity<>(urlResponse, HttpStatus.OK))
+            .switchIfEmpty(notFound(retrieveNotFound));
+    }
+
+    @PutMapping("/shorten/{shortCode}")
+    public Mono<ResponseEntity<UrlResponse>> updateShortUrl(@PathVariable String shortCode,
+                                                            @Valid @RequestBody UrlRequest urlRequest) {
+        return urlService.updateShortUrl(shortCode, urlRequest.getUrl(), urlRequest.getExpiresAt())
+            .map(urlUpdated -> new ResponseEntity<>(urlUpdated, HttpStatus.OK))
+            .switchIfEmpty(notFound(updateNotFound));
+    }
+
+    @DeleteMapping("/shorten/{shortCode}")
+    public Mono<ResponseEntity<Void>> deleteShortUrl(@PathVariable String shortCode) {
+        return urlService.deleteShortUrl(shortCode)
+            .flatMap(isDeleted -> isDeleted
+                ? Mono.just(new ResponseEntity<Void>(HttpStatus.NO_CONTENT))
+                : notFound(deleteNotFound));
+    }
+
+    @GetMapping("/shorten/{shortCode}/stats")
+    public Mono<ResponseEntity<UrlStatsResponse>> getUrlStats(@PathVariable String shortCode) {
+        return urlService.getUrlStats(shortCode)
+            .map(stats -> new ResponseEntity<>(stats, HttpStatus.OK))
+            .switchIfEmpty(notFound(statsNotFound));
+    }
+
+    @PostMapping("/shorten/batch")
+    public Mono<ResponseEntity<BatchResponse>> createShortUrls(@Valid @RequestBody BatchCreateRequest batchRequest) {
+        List<UrlRequest> urlRequests = batchRequest.getUrls();
+        checkBatchSize("urls", urlRequests.size());
+
+        // Invalid items are reported individually, the valid ones are created in one batch
+        List<BatchItemResponse> items = new ArrayList<>(Collections.nCopies(urlRequests.size(), null));
+        List<String> urls = new ArrayList<>();
+        List<LocalDateTime> expiries = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < urlRequests.size(); i++) {
+            String error = validate(urlRequests.get(i));
+            if (error != null) {
+                items.set(i, new BatchItemResponse(HttpStatus.BAD_REQUEST.value(), null, null, error));
+            } else {
+                urls.add(urlRequests.get(i).getUrl());
+                expiries.add(urlRequests.get(i).getExpiresAt());
+                positions.add(i);
+            }
+        }
+
+        Mono<List<UrlResponse>> created = urls.isEmpty()
+            ? Mono.just(List.of())
+            : urlService.createShortUrls(urls, expiries).collectList();
+        return created.map(urlResponses -> {
+            for (int i = 0; i < urlResponses.size(); i++) {
+                UrlResponse urlResponse = urlResponses.get(i);
+                items.set(positions.get(i),
+                    new BatchItemResponse(HttpStatus.CREATED.value(), urlResponse.getShortCode(), urlResponse, null));
+            }
+            return new ResponseEntity<>(toBatchResponse(items), HttpStatus.OK);
+        });
+    }
+
+    @PostMapping("/shorten/batch/resolve")
+    public Mono<ResponseEntity<BatchResponse>> resolveShortUrls(@Valid @RequestBody BatchCodesRequest batchRequest) {
+        List<String> shortCodes = batchRequest.getShortCodes();
+        checkBatchSize("shortCodes", shortCodes.size());
+
+        return urlService.resolveShortUrls(shortCodes).map(found -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<BatchItemResponse> items = new ArrayList<>(shortCodes.size());
+            for (String shortCode : shortCodes) {
+                UrlResponse urlResponse = found.get(shortCode);
+                if (urlResponse != null && urlResponse.isExpiredAt(now))
+                    items.add(new BatchItemResponse(HttpStatus.GONE.value(), shortCode, null, "Short URL has expired"));
+                else if (urlResponse != null)
+                    items.add(new BatchItemResponse(HttpStatus.OK.value(), shortCode, urlResponse, null));
+                else
+                    items.add(new BatchItemResponse(HttpStatus.NOT_FOUND.value(), shortCode, null, "Short URL not found"));
+            }
+            return new ResponseEntity<>(toBatchResponse(items), HttpStatus.OK);
+        });
+    }
+
+    @PostMapping("/shorten/batch/delete")
+    public Mono<ResponseEntity<BatchResponse>> deleteShortUrls(@Valid @RequestBody BatchCodesRequest batchRequest) {
+        List<String> shortCodes = batchRequest.getShortCodes();
+        checkBatchSize("shortCodes", shortCodes.size());
+
+        return urlService.deleteShortUrls(shortCodes).map(deleted -> {
+            List<BatchItemResponse> items = new ArrayList<>(shortCodes.size());
+            for (String shortCode : shortCodes) {
+                if (deleted.contains(shortCode))
+                    items.add(new BatchItemResponse(HttpStatus.NO_CONTENT.value(), shortCode, null, null));
+                else
+                    items.add(new BatchItemResponse(HttpStatus.NOT_FOUND.value(), shortCode, null, "Short URL not found"));
+            }
+            return new ResponseEntity<>(toBatchResponse(items), HttpStatus.OK);
+        });
+    }
+
+    private void checkBatchSize(String field, int size) {
+        if (size > maxBatchSize)
+            throw new BatchSizeExceededException(field, maxBatchSize);
+    }
+
+    // First constraint violation of the item, or null when it is valid
+    private String validate(UrlRequest urlRequest) {
+        if (urlRequest == null)
+            return "URL cannot be empty";
+        Set<ConstraintViolation<UrlRequest>> violations = validator.validate(urlRequest);
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+
+    private static BatchResponse toBatchResponse(List<BatchItemResponse> items) {
+        int succeeded = 0;
+        for (BatchItemResponse item : items) {
+            if (item.getStatus() < 400)
+                succeeded++;
+        }
+        return new BatchResponse(succeeded, items.size() - succeeded, items);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        redirectNotFound = notFoundCounter(registry, "redirect");
+        retrieveNotFound = notFoundCounter(registry, "retrieve");
+        updateNotFound = notFoundCounter(registry, "update");
+        deleteNotFound = notFoundCounter(registry, "delete");
+        statsNotFound = notFoundCounter(registry, "stats");
+    }
+
+    private static Counter notFoundCounter(MeterRegistry registry, String endpoint) {
+        return Counter.builder("shortener.not_found")
+            .description("Requests answered 404 because the short code does not exist")
+            .tag("endpoint", endpoint)
+            .register(registry);
+    }
+
+    // Deferred, so the counter only moves when the response really is a 404
+    private static <T> Mono<ResponseEntity<T>> notFound(Counter counter) {
+        return Mono.fromSupplier(() -> {
+            if (counter != null)
+                counter.increment();
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        });
+    }
+}
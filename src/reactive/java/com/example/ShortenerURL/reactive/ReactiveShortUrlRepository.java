@@ -0,0 +1,209 @@
+package com.example.ShortenerURL.reactive;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.ShortenerURL.models.ShortUrl;
+import com.example.ShortenerURL.models.ShortUrlStatsView;
+import com.example.ShortenerURL.models.ShortUrlView;
+import com.example.ShortenerURL.models.UrlResponse;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of ShortUrlRepository over R2DBC, with the same queries written
+ * out in SQL. Rows are read straight into the projections; nothing is tracked or cached.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveShortUrlRepository {
+
+    private static final String VIEW_COLUMNS = "id, url, short_code, created_at, updated_at, expires_at";
+    private static final int SEQUENCE_INCREMENT = 50;
+
+    private final DatabaseClient databaseClient;
+    private final ReentrantLock idLock = new ReentrantLock();
+    private long nextId;
+    private long lastId = -1;
+    private volatile String nextValueQuery;
+
+    public ReactiveShortUrlRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Boolean> existsByShortCode(String shortCode) {
+        return databaseClient.sql("SELECT 1 FROM short_urls WHERE short_code = :shortCode")
+            .bind("shortCode", shortCode)
+            .map(row -> Boolean.TRUE)
+            .first()
+            .defaultIfEmpty(Boolean.FALSE);
+    }
+
+    // The expiry comes along, so the redirect path can answer 410 without the cache
+    public Mono<UrlResponse> findUrlByShortCode(String shortCode) {
+        return databaseClient.sql("SELECT url, expires_at FROM short_urls WHERE short_code = :shortCode")
+            .bind("shortCode", shortCode)
+            .map(row -> new UrlResponse(null, row.get("url", String.class), shortCode, null, null,
+                                        row.get("expires_at", LocalDateTime.class)))
+            .one();
+    }
+
+    public Mono<ShortUrlView> findViewByShortCode(String shortCode) {
+        return databaseClient.sql("SELECT " + VIEW_COLUMNS + " FROM short_urls WHERE short_code = :shortCode")
+            .bind("shortCode", shortCode)
+            .map(ReactiveShortUrlRepository::toView)
+            .one();
+    }
+
+    public Mono<ShortUrlStatsView> findStatsByShortCode(String shortCode) {
+        return databaseClient.sql("SELECT " + VIEW_COLUMNS + ", access_count FROM short_urls WHERE short_code = :shortCode")
+            .bind("shortCode", shortCode)
+            .map(row -> new ShortUrlStatsView(
+                row.get("id", Long.class),
+                row.get("url", String.class),
+                row.get("short_code", String.class),
+                row.get("created_at", LocalDateTime.class),
+                row.get("updated_at", LocalDateTime.class),
+                row.get("access_count", Long.class)))
+            .one();
+    }
+
+    public Flux<ShortUrlView> findViewsByShortCodeIn(Collection<String> shortCodes) {
+        return databaseClient.sql("SELECT " + VIEW_COLUMNS + " FROM short_urls WHERE short_code IN (:shortCodes)")
+            .bind("shortCodes", shortCodes)
+            .map(ReactiveShortUrlRepository::toView)
+            .all();
+    }
+
+    public Flux<String> findExistingShortCodes(Collection<String> shortCodes) {
+        return databaseClient.sql("SELECT short_code FROM short_urls WHERE short_code IN (:shortCodes)")
+            .bind("shortCodes", shortCodes)
+            .map(row -> row.get("short_code", String.class))
+            .all();
+    }
+
+    // Ids come from short_urls_seq exactly as Hibernate's pooled optimizer takes them, so both stacks can share a table
+    public Mono<ShortUrl> insert(ShortUrl shortUrl) {
+        return nextId()
+            .flatMap(id -> {
+                shortUrl.setId(id);
+                DatabaseClient.GenericExecuteSpec insert = databaseClient.sql(
+                        "INSERT INTO short_urls (id, url, short_code, created_at, updated_at, access_count, url_hash, expires_at) "
+                        + "VALUES (:id, :url, :shortCode, :createdAt, :updatedAt, 0, :urlHash, :expiresAt)")
+                    .bind("id", id)
+                    .bind("url", shortUrl.getUrl())
+                    .bind("urlHash", shortUrl.getUrlHash())
+                    .bind("shortCode", shortUrl.getShortCode())
+                    .bind("createdAt", shortUrl.getCreatedAt())
+                    .bind("updatedAt", shortUrl.getUpdatedAt());
+                return bindExpiresAt(insert, shortUrl.getExpiresAt())
+                    .fetch()
+                    .rowsUpdated();
+            })
+            .thenReturn(shortUrl);
+    }
+
+    // All rows or none
+    @Transactional
+    public Flux<ShortUrl> insertAll(Collection<ShortUrl> shortUrls) {
+        return Flux.fromIterable(shortUrls).concatMap(this::insert);
+    }
+
+    public Mono<Long> updateUrlByShortCode(String shortCode, String url, byte[] urlHash, LocalDateTime expiresAt,
+                                           LocalDateTime updatedAt) {
+        DatabaseClient.GenericExecuteSpec update = databaseClient.sql("UPDATE short_urls SET url = :url, url_hash = :urlHash, "
+                + "expires_at = :expiresAt, updated_at = :updatedAt WHERE short_code = :shortCode")
+            .bind("url", url)
+            .bind("urlHash", urlHash)
+            .bind("updatedAt", updatedAt)
+            .bind("shortCode", shortCode);
+        return bindExpiresAt(update, expiresAt)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    public Mono<Long> deleteByShortCode(String shortCode) {
+        return databaseClient.sql("DELETE FROM short_urls WHERE short_code = :shortCode")
+            .bind("shortCode", shortCode)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    public Mono<Long> deleteAllByShortCodeIn(Collection<String> shortCodes) {
+        return databaseClient.sql("DELETE FROM short_urls WHERE short_code IN (:shortCodes)")
+            .bind("shortCodes", shortCodes)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    @Transactional
+    public Mono<Void> incrementAccessCounts(Map<String, Long> deltas) {
+        return Flux.fromIterable(deltas.entrySet())
+            .concatMap(delta -> databaseClient.sql("UPDATE short_urls SET access_count = access_count + :delta WHERE short_code = :shortCode")
+                .bind("delta", delta.getValue())
+                .bind("shortCode", delta.getKey())
+                .fetch()
+                .rowsUpdated())
+            .then();
+    }
+
+    // A sequence value v leases the ids v - 49 to v, the first value (1) only itself
+    private Mono<Long> nextId() {
+        return Mono.defer(() -> {
+            idLock.lock();
+            try {
+                if (nextId <= lastId)
+                    return Mono.just(nextId++);
+            } finally {
+                idLock.unlock();
+            }
+            return databaseClient.sql(nextValueQuery())
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .map(value -> {
+                    idLock.lock();
+                    try {
+                        // A racing lease may have refilled first; its remaining ids are simply skipped
+                        nextId = Math.max(1, value - SEQUENCE_INCREMENT + 1);
+                        lastId = value;
+                        return nextId++;
+                    } finally {
+                        idLock.unlock();
+                    }
+                });
+        });
+    }
+
+    // PostgreSQL has its own nextval() function, the others accept the SQL standard form
+    private String nextValueQuery() {
+        if (nextValueQuery == null) {
+            String product = databaseClient.getConnectionFactory().getMetadata().getName();
+            nextValueQuery = product.contains("PostgreSQL") ? "SELECT nextval('short_urls_seq')" : "SELECT NEXT VALUE FOR short_urls_seq";
+        }
+        return nextValueQuery;
+    }
+
+    // R2DBC needs the type of a null value
+    private static DatabaseClient.GenericExecuteSpec bindExpiresAt(DatabaseClient.GenericExecuteSpec spec, LocalDateTime expiresAt) {
+        return expiresAt == null ? spec.bindNull("expiresAt", LocalDateTime.class) : spec.bind("expiresAt", expiresAt);
+    }
+
+    private static ShortUrlView toView(Readable row) {
+        return new ShortUrlView(
+            row.get("id", Long.class),
+            row.get("url", String.class),
+            row.get("short_code", String.class),
+            row.get("created_at", LocalDateTime.class),
+            row.get("updated_at", LocalDateTime.class),
+            row.get("expires_at", LocalDateTime.class));
+    }
+}
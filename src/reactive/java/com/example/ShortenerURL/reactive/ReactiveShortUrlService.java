@@ -0,0 +1,226 @@
+package com.example.ShortenerURL.reactive;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import com.example.ShortenerURL.exceptions.ShortUrlExpiredException;
+import com.example.ShortenerURL.generators.RandomShortCodeGenerator;
+import com.example.ShortenerURL.generators.ShortCodeGenerator;
+import com.example.ShortenerURL.models.ShortUrl;
+import com.example.ShortenerURL.models.ShortUrlStatsView;
+import com.example.ShortenerURL.models.ShortUrlView;
+import com.example.ShortenerURL.models.UrlResponse;
+import com.example.ShortenerURL.models.UrlStatsResponse;
+import com.example.ShortenerURL.services.AccessCountAggregator;
+import com.example.ShortenerURL.services.ShortUrlCache;
+import com.example.ShortenerURL.services.UrlHasher;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Reactive counterpart of ShortUrlService: same cache, same write-behind access counts, same
+ * not-found semantics (an empty Mono where the blocking service returns null). Codes are
+ * drawn at random; the sequence-based strategies keep state in JDBC and stay on App.
+ * Expired links answer 410 as they do there, but only App purges them.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveShortUrlService {
+
+    private static final int MAX_SAVE_ATTEMPTS = 3;
+
+    private final ReactiveShortUrlRepository urlRepository;
+    private final AccessCountAggregator accessCountAggregator;
+    private final ShortUrlCache urlCache;
+    private final ShortCodeGenerator shortCodeGenerator = new RandomShortCodeGenerator();
+
+    public ReactiveShortUrlService(ReactiveShortUrlRepository urlRepository, AccessCountAggregator accessCountAggregator,
+                                   ShortUrlCache urlCache) {
+        this.urlRepository = urlRepository;
+        this.accessCountAggregator = accessCountAggregator;
+        this.urlCache = urlCache;
+    }
+
+    private Mono<String> generateShortCode() {
+        return Mono.fromSupplier(shortCodeGenerator::generate)
+            .filterWhen(shortCode -> urlRepository.existsByShortCode(shortCode).map(exists -> !exists))
+            .repeatWhenEmpty(attempts -> attempts);
+    }
+
+    public Mono<UrlResponse> createShortUrl(String url, LocalDateTime expiresAt) {
+        LocalDateTime time = LocalDateTime.now();
+        return generateShortCode()
+            .flatMap(shortCode -> urlRepository.insert(
+                new ShortUrl(null, url, shortCode, time, time, 0, UrlHasher.hash(url), expiresAt)))
+            // Code taken concurrently: draw another one
+            .retryWhen(Retry.max(MAX_SAVE_ATTEMPTS - 1)
+                .filter(DataIntegrityViolationException.class::isInstance)
+                .onRetryExhaustedThrow((retry, signal) -> signal.failure()))
+            .map(ReactiveShortUrlService::toUrlResponse)
+            .doOnNext(urlCache::put); // Also replaces a cached miss for the new code
+    }
+
+    public Mono<UrlResponse> retrieveOriginalUrl(String shortCode) {
+        return resolve(shortCode)
+            .doOnNext(urlResponse -> accessCountAggregator.increment(shortCode));
+    }
+
+    // Redirect path: only the target URL is needed, so without the cache only the url and expiry are selected
+    public Mono<String> resolveUrl(String shortCode) {
+        Mono<UrlResponse> urlResponse = urlCache.isEnabled()
+            ? resolve(shortCode)
+            : urlRepository.findUrlByShortCode(shortCode).flatMap(ReactiveShortUrlService::checkNotExpired);
+        return urlResponse
+            .map(UrlResponse::getUrl)
+            .doOnNext(found -> accessCountAggregator.increment(shortCode));
+    }
+
+    // Cache first; a miss reads the projection and caches the result, found or not
+    private Mono<UrlResponse> resolve(String shortCode) {
+        Optional<UrlResponse> cached = urlCache.getIfPresent(shortCode);
+        if (cached != null)
+            return Mono.justOrEmpty(cached).flatMap(ReactiveShortUrlService::checkNotExpired);
+
+        return urlRepository.findViewByShortCode(shortCode)
+            .map(ReactiveShortUrlService::toUrlResponse)
+            .doOnNext(urlCache::put)
+            .switchIfEmpty(Mono.fromRunnable(() -> urlCache.putMissing(shortCode)))
+            .flatMap(ReactiveShortUrlService::checkNotExpired);
+    }
+
+    private static Mono<UrlResponse> checkNotExpired(UrlResponse urlResponse) {
+        if (urlResponse.getExpiresAt() != null && urlResponse.isExpiredAt(LocalDateTime.now()))
+            return Mono.error(new ShortUrlExpiredException(urlResponse.getShortCode()));
+        return Mono.just(urlResponse);
+    }
+
+    // The UPDATE commits on its own, so the cache is only invalidated once no reader can see the old row
+    public Mono<UrlResponse> updateShortUrl(String shortCode, String url, LocalDateTime expiresAt) {
+        return urlRepository.updateUrlByShortCode(shortCode, url, UrlHasher.hash(url), expiresAt, LocalDateTime.now())
+            .filter(updated -> updated > 0)
+            .flatMap(updated -> urlRepository.findViewByShortCode(shortCode))
+            .map(ReactiveShortUrlService::toUrlResponse)
+            .doOnSuccess(updated -> urlCache.invalidate(shortCode));
+    }
+
+    public Mono<Boolean> deleteShortUrl(String shortCode) {
+        return urlRepository.deleteByShortCode(shortCode)
+            .map(deleted -> {
+                if (deleted == 0)
+                    return false;
+                evict(List.of(shortCode));
+                return true;
+            });
+    }
+
+    public Mono<UrlStatsResponse> getUrlStats(String shortCode) {
+        return urlRepository.findStatsByShortCode(shortCode)
+            .map(stats -> toUrlStatsResponse(stats, accessCountAggregator.pendingCount(shortCode)));
+    }
+
+    // Batch create: codes are minted up front and the rows inserted in one transaction; expiries pair up with the URLs by position
+    public Flux<UrlResponse> createShortUrls(List<String> urls, List<LocalDateTime> expiries) {
+        LocalDateTime time = LocalDateTime.now();
+        return Mono.defer(() -> generateShortCodes(new LinkedHashSet<>(), urls.size()))
+            .flatMapMany(shortCodes -> {
+                List<ShortUrl> shortUrls = new ArrayList<>(urls.size());
+                for (int i = 0; i < urls.size(); i++) {
+                    shortUrls.add(new ShortUrl(null, urls.get(i), shortCodes.get(i), time, time, 0,
+                                               UrlHasher.hash(urls.get(i)), expiries.get(i)));
+                }
+                return urlRepository.insertAll(shortUrls);
+            })
+            .map(ReactiveShortUrlService::toUrlResponse)
+            .doOnNext(urlCache::put);
+    }
+
+    // Random codes are checked with one query per round instead of one per code
+    private Mono<List<String>> generateShortCodes(Set<String> shortCodes, int count) {
+        if (shortCodes.size() == count)
+            return Mono.just(new ArrayList<>(shortCodes));
+
+        Set<String> candidates = new LinkedHashSet<>();
+        while (shortCodes.size() + candidates.size() < count) {
+            String shortCode = shortCodeGenerator.generate();
+            if (!shortCodes.contains(shortCode))
+                candidates.add(shortCode);
+        }
+        return urlRepository.findExistingShortCodes(candidates)
+            .collectList()
+            .flatMap(existing -> {
+                candidates.removeAll(existing);
+                shortCodes.addAll(candidates);
+                return generateShortCodes(shortCodes, count);
+            });
+    }
+
+    // Batch lookup, one query for all codes; unlike retrieveOriginalUrl it does not count accesses
+    public Mono<Map<String, UrlResponse>> resolveShortUrls(Collection<String> shortCodes) {
+        return urlRepository.findViewsByShortCodeIn(new HashSet<>(shortCodes))
+            .collectMap(ShortUrlView::getShortCode, ReactiveShortUrlService::toUrlResponse);
+    }
+
+    // Batch delete, returns the codes that existed and were deleted
+    public Mono<Set<String>> deleteShortUrls(Collection<String> shortCodes) {
+        return urlRepository.findExistingShortCodes(new HashSet<>(shortCodes))
+            .collect(Collectors.toSet())
+            .flatMap(existing -> existing.isEmpty()
+                ? Mono.just(existing)
+                : urlRepository.deleteAllByShortCodeIn(existing).thenReturn(existing))
+            .doOnNext(this::evict);
+    }
+
+    private void evict(Collection<String> shortCodes) {
+        for (String shortCode : shortCodes) {
+            urlCache.invalidate(shortCode);
+            accessCountAggregator.discard(shortCode);
+        }
+    }
+
+    private static UrlStatsResponse toUrlStatsResponse(ShortUrlStatsView stats, long pendingCount) {
+        return new UrlStatsResponse(
+            stats.getId(),
+            stats.getUrl(),
+            stats.getShortCode(),
+            stats.getCreatedAt(),
+            stats.getUpdatedAt(),
+            stats.getAccessCount() + pendingCount
+        );
+    }
+
+    private static UrlResponse toUrlResponse(ShortUrlView view) {
+        return new UrlResponse(
+            view.getId(),
+            view.getUrl(),
+            view.getShortCode(),
+            view.getCreatedAt(),
+            view.getUpdatedAt(),
+            view.getExpiresAt()
+        );
+    }
+
+    private static UrlResponse toUrlResponse(ShortUrl shortUrl) {
+        return new UrlResponse(
+            shortUrl.getId(),
+            shortUrl.getUrl(),
+            shortUrl.getShortCode(),
+            shortUrl.getCreatedAt(),
+            shortUrl.getUpdatedAt(),
+            shortUrl.getExpiresAt()
+        );
+    }
+}
@@ -0,0 +1,29 @@
+-- short_urls as the db/migration scripts leave it for App, for databases the reactive variant
+-- starts on first
+CREATE SEQUENCE IF NOT EXISTS short_urls_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS short_urls (
+    id BIGINT PRIMARY KEY,
+    url VARCHAR(2048) NOT NULL,
+    short_code VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    access_count BIGINT NOT NULL,
+    url_hash BYTEA,
+    expires_at TIMESTAMP(6)
+);
+
+-- For tables created before these columns existed
+ALTER TABLE short_urls ADD COLUMN IF NOT EXISTS url_hash BYTEA;
+ALTER TABLE short_urls ADD COLUMN IF NOT EXISTS expires_at TIMESTAMP(6);
+ALTER TABLE short_urls ALTER COLUMN access_count SET DATA TYPE BIGINT;
+ALTER TABLE short_urls ALTER COLUMN url SET DATA TYPE VARCHAR(2048);
+ALTER TABLE short_urls ALTER COLUMN short_code SET DATA TYPE VARCHAR(255);
+
+CREATE INDEX IF NOT EXISTS idx_short_urls_url_hash ON short_urls (url_hash);
+CREATE INDEX IF NOT EXISTS idx_short_urls_expires_at ON short_urls (expires_at);
+
+-- Unique on short_code and covering url, as V5 builds it; it replaces the unique constraint
+-- earlier versions of this script put on short_code
+CREATE UNIQUE INDEX IF NOT EXISTS idx_short_urls_short_code_url ON short_urls (short_code) INCLUDE (url);
+ALTER TABLE short_urls DROP CONSTRAINT IF EXISTS short_urls_short_code_key;
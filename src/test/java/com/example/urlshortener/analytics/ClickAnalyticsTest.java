@@ -0,0 +1,79 @@
+package com.example.urlshortener.analytics;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+
+import com.example.ShortenerURL.analytics.ClickAnalytics;
+import com.example.ShortenerURL.models.ClickBucket;
+import com.example.ShortenerURL.models.Granularity;
+import com.example.ShortenerURL.repositories.ClickBucketRepository;
+
+class ClickAnalyticsTest {
+
+    @Mock
+    private ClickBucketRepository bucketRepository;
+
+    private ClickAnalytics clickAnalytics;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        clickAnalytics = new ClickAnalytics(bucketRepository, true, 64, 2, 90, 0, 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlushAddsOneRowPerBucket() {
+        clickAnalytics.record("abc123", null, null);
+        clickAnalytics.record("abc123", null, null);
+        clickAnalytics.record("xyz789", null, null);
+
+        clickAnalytics.flush();
+
+        ArgumentCaptor<List<ClickBucket>> rows = ArgumentCaptor.forClass(List.class);
+        verify(bucketRepository).addClicks(rows.capture());
+        Map<String, Long> clicks = new HashMap<>();
+        for (ClickBucket row : rows.getValue()) {
+            assertTrue(clicks.put(row.getShortCode() + "/" + row.getGranularity(), row.getClicks()) == null);
+        }
+        // Unless the events straddle a minute boundary
+        if (clicks.size() == 6) {
+            for (Granularity granularity : Granularity.values()) {
+                assertEquals(2L, clicks.get("abc123/" + granularity));
+                assertEquals(1L, clicks.get("xyz789/" + granularity));
+            }
+        }
+    }
+
+    @Test
+    void testPurgeDeletesPastRetentionInChunks() {
+        when(bucketRepository.deleteOlderThan(eq(Granularity.MINUTE), any(LocalDateTime.class), eq(2))).thenReturn(2, 2, 1);
+        LocalDateTime before = LocalDateTime.now(ZoneOffset.UTC);
+
+        clickAnalytics.purge();
+
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(bucketRepository, times(3)).deleteOlderThan(eq(Granularity.MINUTE), cutoff.capture(), eq(2));
+        assertTrue(!cutoff.getValue().isBefore(before.minusDays(2)) && cutoff.getValue().isBefore(before.minusDays(2).plusMinutes(1)));
+        verify(bucketRepository).deleteOlderThan(eq(Granularity.HOUR), any(LocalDateTime.class), eq(2));
+        verify(bucketRepository, never()).deleteOlderThan(eq(Granularity.DAY), any(LocalDateTime.class), anyInt());
+    }
+}
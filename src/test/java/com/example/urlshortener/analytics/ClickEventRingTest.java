@@ -0,0 +1,70 @@
+package com.example.urlshortener.analytics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.example.ShortenerURL.analytics.ClickEventRing;
+
+class ClickEventRingTest {
+
+    @Test
+    void testOfferAndDrainInOrder() {
+        ClickEventRing ring = new ClickEventRing(8);
+        ring.offer("a", 1, 0, 0);
+        ring.offer("b", 2, 0, 0);
+
+        List<String> drained = new ArrayList<>();
+        int count = ring.drain((shortCode, timestamp, referrerHash, userAgentHash) -> drained.add(shortCode), 10);
+
+        assertEquals(2, count);
+        assertEquals(List.of("a", "b"), drained);
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    void testFullRingRejects() {
+        ClickEventRing ring = new ClickEventRing(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer("a", i, 0, 0));
+        }
+
+        assertFalse(ring.offer("a", 5, 0, 0));
+
+        ring.drain((shortCode, timestamp, referrerHash, userAgentHash) -> {}, 1);
+        assertTrue(ring.offer("a", 6, 0, 0));
+    }
+
+    @Test
+    void testCapacityRoundsUpToPowerOfTwo() {
+        assertEquals(8, new ClickEventRing(5).capacity());
+    }
+
+    @Test
+    void testConcurrentProducers() throws InterruptedException {
+        ClickEventRing ring = new ClickEventRing(1 << 16);
+        int producers = 4;
+        int perProducer = 10_000;
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    ring.offer("a", i, 0, 0);
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+
+        AtomicLong drained = new AtomicLong();
+        ring.drain((shortCode, timestamp, referrerHash, userAgentHash) -> drained.incrementAndGet(), Integer.MAX_VALUE);
+
+        assertEquals(producers * perProducer, drained.get());
+    }
+}
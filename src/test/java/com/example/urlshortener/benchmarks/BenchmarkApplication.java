@@ -0,0 +1,39 @@
+package com.example.urlshortener.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.ShortenerURL.App;
+
+/**
+ * Boots App against a fresh embedded H2 database for benchmarks, which Flyway migrates on
+ * startup as it would a production one. Also used by the load harness.
+ */
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {}
+
+    public static ConfigurableApplicationContext start(Map<String, Object> overrides) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.datasource.url", "jdbc:h2:mem:bench_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.jpa.database-platform", "org.hibernate.dialect.H2Dialect");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.root", "WARN");
+        properties.put("server.port", "0");
+        properties.putAll(overrides);
+
+        // As arguments, which take precedence over application.properties; default properties do not
+        return new SpringApplicationBuilder(App.class)
+            .run(properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new));
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.urlshortener.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.ShortenerURL.models.UrlResponse;
+import com.example.ShortenerURL.services.ShortUrlService;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Create throughput and latency, the synchronous path against async micro-batches, at 1, 8
+ * and 64 concurrent writers. Each writer waits for its own create, as a request thread would;
+ * SampleTime gives the p99. The mean async batch size is printed at the end of the trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreatePathBenchmark {
+
+    @Param({ "sync", "async" })
+    public String path;
+
+    private ConfigurableApplicationContext context;
+    private ShortUrlService urlService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(Map.of(
+            "spring.main.web-application-type", "none",
+            "shortener.create.async.enabled", String.valueOf(path.equals("async"))));
+        urlService = context.getBean(ShortUrlService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DistributionSummary batchSizes = context.getBean(MeterRegistry.class).find("shortener.create.batch_size").summary();
+        if (batchSizes != null && batchSizes.count() > 0)
+            System.out.printf("%nWrote %d batches of %.1f creates on average%n", batchSizes.count(), batchSizes.mean());
+        context.close();
+    }
+
+    private UrlResponse create() {
+        return urlService.createShortUrlAsync("https://example.com/benchmark", null).join();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public UrlResponse create_1() {
+        return create();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public UrlResponse create_8() {
+        return create();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public UrlResponse create_64() {
+        return create();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.urlshortener.benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.ShortenerURL.models.UrlResponse;
+import com.example.ShortenerURL.services.ShortUrlService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Redirect latency while the expiry purge deletes links in the background. A loader creates
+ * already expired links at purgedPerSecond; with no grace period and a 10 ms tick, the wheel
+ * hands them to the purge right away. Compare against purgedPerSecond=0 for the baseline;
+ * the purge throughput reached is printed at the end of the trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class ExpiryPurgeBenchmark {
+
+    private static final int PRELOADED_CODES = 10_000;
+    private static final int LOADER_BATCH = 500;
+
+    @Param({ "0", "10000" })
+    public int purgedPerSecond;
+
+    private ConfigurableApplicationContext context;
+    private ShortUrlService urlService;
+    private ScheduledExecutorService loader;
+    private String[] shortCodes;
+    private long startedNanos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(Map.of(
+            "spring.main.web-application-type", "none",
+            "shortener.expiry.tick-ms", "10",
+            "shortener.expiry.grace-period-seconds", "0",
+            "shortener.expiry.refill-interval-ms", "60000"));
+        urlService = context.getBean(ShortUrlService.class);
+
+        List<String> urls = new ArrayList<>(PRELOADED_CODES);
+        for (int i = 0; i < PRELOADED_CODES; i++) {
+            urls.add("https://example.com/preloaded/" + i);
+        }
+        List<String> codes = new ArrayList<>(PRELOADED_CODES);
+        for (UrlResponse created : urlService.createShortUrls(urls)) {
+            codes.add(created.getShortCode());
+        }
+        shortCodes = codes.toArray(new String[0]);
+
+        loader = Executors.newSingleThreadScheduledExecutor();
+        if (purgedPerSecond > 0) {
+            List<String> expiringUrls = Collections.nCopies(LOADER_BATCH, "https://example.com/expiring");
+            loader.scheduleAtFixedRate(() -> {
+                LocalDateTime expired = LocalDateTime.now().minusSeconds(1);
+                urlService.createShortUrls(expiringUrls, Collections.nCopies(LOADER_BATCH, expired));
+            }, 0, TimeUnit.SECONDS.toMicros(1) * LOADER_BATCH / purgedPerSecond, TimeUnit.MICROSECONDS);
+        }
+        startedNanos = System.nanoTime();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        loader.shutdownNow();
+        loader.awaitTermination(10, TimeUnit.SECONDS);
+
+        MeterRegistry registry = context.getBean(MeterRegistry.class);
+        Counter purged = registry.find("shortener.expiry.purged").counter();
+        Timer purge = registry.find("shortener.expiry.purge").timer();
+        if (purged != null && purge != null) {
+            double seconds = (System.nanoTime() - startedNanos) / 1e9;
+            System.out.printf("%nPurged %.0f links (%.0f/s) in %d chunks, %.2f ms per chunk on average%n",
+                purged.count(), purged.count() / seconds, purge.count(), purge.mean(TimeUnit.MILLISECONDS));
+        }
+        context.close();
+    }
+
+    @Benchmark
+    public String resolveUrl() {
+        return urlService.resolveUrl(shortCodes[ThreadLocalRandom.current().nextInt(shortCodes.length)], null, null);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.urlshortener.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.ShortenerURL.models.UrlResponse;
+import com.example.ShortenerURL.services.ShortUrlService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Convergence time between two nodes sharing one H2 database over the in-process invalidation
+ * transport: each invocation updates a code on node A, then polls node B, whose cache holds the
+ * old URL, until it resolves to the new one. A background writer on A updates other codes at
+ * updatesPerSecond; compare against updatesPerSecond=0 for the baseline. B's convergence timer
+ * is printed at the end of the trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvalidationBenchmark {
+
+    private static final int PRELOADED_CODES = 10_000;
+
+    @Param({ "0", "1000" })
+    public int updatesPerSecond;
+
+    @Param({ "100" })
+    public int flushIntervalMs;
+
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+    private ShortUrlService serviceA;
+    private ShortUrlService serviceB;
+    private ScheduledExecutorService writer;
+    private String[] shortCodes;
+    private String probedCode;
+    private final AtomicLong revision = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String url = "jdbc:h2:mem:bench_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        String channel = "bench_" + UUID.randomUUID().toString().replace("-", "");
+        nodeA = BenchmarkApplication.start(node(url, channel));
+        nodeB = BenchmarkApplication.start(node(url, channel));
+        serviceA = nodeA.getBean(ShortUrlService.class);
+        serviceB = nodeB.getBean(ShortUrlService.class);
+
+        List<String> urls = new ArrayList<>(PRELOADED_CODES);
+        for (int i = 0; i < PRELOADED_CODES; i++) {
+            urls.add("https://example.com/preloaded/" + i);
+        }
+        List<String> codes = new ArrayList<>(PRELOADED_CODES);
+        for (UrlResponse created : serviceA.createShortUrls(urls)) {
+            codes.add(created.getShortCode());
+        }
+        probedCode = codes.remove(codes.size() - 1); // Only the benchmark updates it
+        shortCodes = codes.toArray(new String[0]);
+
+        writer = Executors.newSingleThreadScheduledExecutor();
+        if (updatesPerSecond > 0) {
+            writer.scheduleAtFixedRate(() -> {
+                String shortCode = shortCodes[ThreadLocalRandom.current().nextInt(shortCodes.length)];
+                serviceA.updateShortUrl(shortCode, "https://example.com/background/" + revision.incrementAndGet());
+            }, 0, TimeUnit.SECONDS.toMicros(1) / updatesPerSecond, TimeUnit.MICROSECONDS);
+        }
+    }
+
+    private Map<String, Object> node(String url, String channel) {
+        return Map.of(
+            "spring.main.web-application-type", "none",
+            "spring.datasource.url", url,
+            "shortener.invalidation.transport", "in-process",
+            "shortener.invalidation.channel", channel,
+            "shortener.invalidation.flush-interval-ms", String.valueOf(flushIntervalMs));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        writer.shutdownNow();
+        writer.awaitTermination(10, TimeUnit.SECONDS);
+
+        Timer convergence = nodeB.getBean(MeterRegistry.class).find("shortener.invalidation.convergence").timer();
+        if (convergence != null) {
+            System.out.printf("%nNode B applied %d invalidations, %.2f ms on average and %.2f ms at most after the write%n",
+                convergence.count(), convergence.mean(TimeUnit.MILLISECONDS), convergence.max(TimeUnit.MILLISECONDS));
+        }
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @Benchmark
+    public UrlResponse updateThenConverge() {
+        serviceB.retrieveOriginalUrl(probedCode); // Caches the current URL on B
+        String url = "https://example.com/probed/" + revision.incrementAndGet();
+        serviceA.updateShortUrl(probedCode, url);
+
+        UrlResponse resolved;
+        while (!url.equals((resolved = serviceB.retrieveOriginalUrl(probedCode)).getUrl())) {
+            LockSupport.parkNanos(100_000);
+        }
+        return resolved;
+    }
+}
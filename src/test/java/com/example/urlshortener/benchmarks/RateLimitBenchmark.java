@@ -0,0 +1,77 @@
+package com.example.urlshortener.benchmarks;
+
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import static org.mockito.Mockito.mock;
+
+import com.example.ShortenerURL.ratelimit.RateLimitFilter;
+import com.example.ShortenerURL.services.ShortUrlService;
+
+import jakarta.servlet.FilterChain;
+
+/**
+ * Per-request overhead of RateLimitFilter under high concurrency: every thread on one
+ * client, contending on a single bucket, or spread over many clients. The limits are set
+ * high enough that every request is let through; enabled=false is the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class RateLimitBenchmark {
+
+    private static final FilterChain PASS = (request, response) -> {};
+
+    @Param({ "true", "false" })
+    public boolean enabled;
+
+    @Param({ "1", "100000" })
+    public int clients;
+
+    private RateLimitFilter filter;
+    private String[] addresses;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        filter = new RateLimitFilter(mock(ShortUrlService.class), enabled, "X-API-Key", Set.of(), clients, 1e9, 1_000_000, 1e9, 1_000_000, 1e9, 1_000_000);
+        addresses = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            addresses[i] = "10." + (i >> 16 & 255) + "." + (i >> 8 & 255) + "." + (i & 255);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Request {
+
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/abc123");
+    }
+
+    @Benchmark
+    public int redirect(Request state) throws Exception {
+        MockHttpServletRequest request = state.request;
+        request.setRemoteAddr(addresses[ThreadLocalRandom.current().nextInt(addresses.length)]);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, PASS);
+        return response.getStatus();
+    }
+}
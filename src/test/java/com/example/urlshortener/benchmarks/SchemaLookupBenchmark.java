@@ -0,0 +1,144 @@
+package com.example.urlshortener.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Latency of resolving a short code straight against the migrated schema, at 10M, 100M and
+ * 500M rows. Rows are generated by the database itself, in chunks, and the query plan of one
+ * lookup is printed before measuring, so it shows which index the lookup scans and how many
+ * buffers it touches. Defaults to an H2 file in a temporary directory, which fills slowly at
+ * the larger sizes; pass -p jdbcUrl=jdbc:postgresql://host/db -p username=... -p password=...
+ * for PostgreSQL, where the table is kept between runs and only topped up or reloaded to the
+ * requested size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class SchemaLookupBenchmark {
+
+    private static final long CHUNK_ROWS = 1_000_000;
+    private static final String LOOKUP = "SELECT url FROM short_urls WHERE short_code = ?";
+
+    @Param({ "10000000", "100000000", "500000000" })
+    public long rows;
+
+    @Param({ "h2" })
+    public String jdbcUrl;
+
+    @Param({ "sa" })
+    public String username;
+
+    @Param({ "" })
+    public String password;
+
+    private Path directory;
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private boolean postgres;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        postgres = jdbcUrl.startsWith("jdbc:postgresql:");
+        dataSource = new HikariDataSource();
+        if ("h2".equals(jdbcUrl)) {
+            directory = Files.createTempDirectory("schema-lookup");
+            dataSource.setJdbcUrl("jdbc:h2:file:" + directory.resolve("db").toAbsolutePath());
+        } else {
+            dataSource.setJdbcUrl(jdbcUrl);
+        }
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(8);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        Flyway.configure()
+            .dataSource(dataSource)
+            .locations(postgres ? "classpath:db/migration/postgresql" : "classpath:db/migration/h2")
+            .load()
+            .migrate();
+        preload();
+
+        System.out.printf("%nPlan of one lookup at %d rows:%n", rows);
+        String explain = postgres ? "EXPLAIN (ANALYZE, BUFFERS) " : "EXPLAIN ANALYZE ";
+        List<String> plan = jdbcTemplate.queryForList(explain + LOOKUP.replace("?", "'" + code(rows / 2) + "'"), String.class);
+        plan.forEach(System.out::println);
+    }
+
+    // Loads ids 1 to rows, keeping whatever is already there when it is a prefix of that
+    private void preload() {
+        long loaded = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM short_urls", Long.class);
+        if (loaded > rows) {
+            jdbcTemplate.execute("TRUNCATE TABLE short_urls");
+            loaded = 0;
+        }
+        String insert = postgres
+            ? "INSERT INTO short_urls (id, access_count, created_at, updated_at, short_code, url) "
+                + "SELECT x, 0, LOCALTIMESTAMP, LOCALTIMESTAMP, 'b' || x, 'https://example.com/preloaded/' || x "
+                + "FROM generate_series(?::bigint, ?::bigint) x"
+            : "INSERT INTO short_urls (id, access_count, created_at, updated_at, short_code, url) "
+                + "SELECT X, 0, LOCALTIMESTAMP, LOCALTIMESTAMP, 'b' || X, 'https://example.com/preloaded/' || X "
+                + "FROM SYSTEM_RANGE(?, ?)";
+        for (long first = loaded + 1; first <= rows; first += CHUNK_ROWS) {
+            jdbcTemplate.update(insert, first, Math.min(first + CHUNK_ROWS - 1, rows));
+        }
+        if (loaded < rows) {
+            // Sets the visibility map as well, without which no scan is index-only
+            jdbcTemplate.execute(postgres ? "VACUUM (ANALYZE) short_urls" : "ANALYZE");
+        }
+    }
+
+    private static String code(long id) {
+        return "b" + id;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (directory == null) {
+            dataSource.close();
+            return;
+        }
+        jdbcTemplate.execute("SHUTDOWN");
+        dataSource.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public String lookup() {
+        long id = ThreadLocalRandom.current().nextLong(rows) + 1;
+        return jdbcTemplate.queryForObject(LOOKUP, String.class, code(id));
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.urlshortener.benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.ShortenerURL.generators.BlockShortCodeGenerator;
+import com.example.ShortenerURL.generators.CodePermutation;
+import com.example.ShortenerURL.generators.RandomShortCodeGenerator;
+import com.example.ShortenerURL.generators.SequenceShortCodeGenerator;
+import com.example.ShortenerURL.generators.ShortCodeGenerator;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Create throughput of each ShortCodeGenerator strategy against embedded H2: mint a code,
+ * check it when the strategy requires it, and insert the row, as createShortUrl does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class ShortCodeGeneratorBenchmark {
+
+    @Param({ "random", "sequence", "block" })
+    public String strategy;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private ShortCodeGenerator generator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:generator_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(8);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE short_urls (id BIGINT AUTO_INCREMENT PRIMARY KEY, url VARCHAR(2048) NOT NULL, "
+            + "short_code VARCHAR(16) NOT NULL UNIQUE, created_at TIMESTAMP, updated_at TIMESTAMP, access_count INT NOT NULL)");
+        jdbcTemplate.execute("CREATE SEQUENCE short_code_seq");
+        jdbcTemplate.execute("CREATE SEQUENCE short_code_block_seq");
+
+        CodePermutation permutation = new CodePermutation(42);
+        switch (strategy) {
+            case "random":
+                generator = new RandomShortCodeGenerator();
+                break;
+            case "sequence":
+                generator = new SequenceShortCodeGenerator(() -> nextValue("short_code_seq"), permutation);
+                break;
+            default:
+                generator = new BlockShortCodeGenerator(() -> nextValue("short_code_block_seq"), 1000, permutation);
+        }
+    }
+
+    private long nextValue(String sequenceName) {
+        return jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + sequenceName, Long.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+        dataSource.close();
+    }
+
+    @Benchmark
+    public String create() {
+        String shortCode;
+        do {
+            shortCode = generator.generate();
+        } while (!generator.isCollisionFree() && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) > 0 FROM short_urls WHERE short_code = ?", Boolean.class, shortCode)));
+
+        LocalDateTime time = LocalDateTime.now();
+        jdbcTemplate.update("INSERT INTO short_urls (url, short_code, created_at, updated_at, access_count) VALUES (?, ?, ?, ?, 0)",
+            "https://example.com/benchmark", shortCode, time, time);
+        return shortCode;
+    }
+
+    @Benchmark
+    public String generateOnly() {
+        return generator.generate();
+    }
+}
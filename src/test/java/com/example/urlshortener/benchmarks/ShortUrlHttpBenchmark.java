@@ -0,0 +1,130 @@
+package com.example.urlshortener.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import com.example.ShortenerURL.models.UrlResponse;
+import com.example.ShortenerURL.services.ShortUrlService;
+
+/**
+ * End-to-end request throughput: through the MVC stack with MockMvc, and over real HTTP
+ * against the embedded Tomcat.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class ShortUrlHttpBenchmark {
+
+    private static final int PRELOADED_CODES = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private HttpClient httpClient;
+    private String baseUrl;
+    private String[] shortCodes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(Map.of());
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        httpClient = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NEVER).build();
+        baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+
+        ShortUrlService urlService = context.getBean(ShortUrlService.class);
+        List<String> urls = new ArrayList<>(PRELOADED_CODES);
+        for (int i = 0; i < PRELOADED_CODES; i++) {
+            urls.add("https://example.com/preloaded/" + i);
+        }
+        List<String> codes = new ArrayList<>(PRELOADED_CODES);
+        for (UrlResponse created : urlService.createShortUrls(urls)) {
+            codes.add(created.getShortCode());
+        }
+        shortCodes = codes.toArray(new String[0]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private String anyCode() {
+        return shortCodes[ThreadLocalRandom.current().nextInt(shortCodes.length)];
+    }
+
+    @Benchmark
+    public MvcResult mockMvcRetrieve() throws Exception {
+        return mockMvc.perform(get("/shorten/" + anyCode())).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult mockMvcRedirect() throws Exception {
+        return mockMvc.perform(get("/" + anyCode())).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult mockMvcCreate() throws Exception {
+        MvcResult started = mockMvc.perform(post("/shorten")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"url\":\"https://example.com/benchmark\"}"))
+            .andReturn();
+        return mockMvc.perform(asyncDispatch(started)).andReturn(); // The create completes a future
+    }
+
+    @Benchmark
+    public int httpRetrieve() throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/shorten/" + anyCode())).GET().build());
+    }
+
+    @Benchmark
+    public int httpRedirect() throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + anyCode())).GET().build());
+    }
+
+    @Benchmark
+    public int httpCreate() throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/shorten"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString("{\"url\":\"https://example.com/benchmark\"}"))
+            .build());
+    }
+
+    private int send(HttpRequest request) throws Exception {
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
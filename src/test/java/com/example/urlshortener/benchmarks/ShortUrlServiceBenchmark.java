@@ -0,0 +1,103 @@
+package com.example.urlshortener.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.ShortenerURL.generators.ShortCodeGenerator;
+import com.example.ShortenerURL.models.UrlResponse;
+import com.example.ShortenerURL.models.UrlStatsResponse;
+import com.example.ShortenerURL.services.ShortUrlService;
+
+/**
+ * ShortUrlService hot paths against embedded H2, with the full Spring/JPA stack in place.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class ShortUrlServiceBenchmark {
+
+    @Param({ "10000" })
+    public int preloadedCodes;
+
+    @Param({ "random" })
+    public String strategy;
+
+    private ConfigurableApplicationContext context;
+    private ShortUrlService urlService;
+    private ShortCodeGenerator shortCodeGenerator;
+    private String[] shortCodes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(Map.of(
+            "spring.main.web-application-type", "none",
+            "shortener.code-generator.strategy", strategy));
+        urlService = context.getBean(ShortUrlService.class);
+        shortCodeGenerator = context.getBean(ShortCodeGenerator.class);
+
+        List<String> urls = new ArrayList<>(1000);
+        List<String> codes = new ArrayList<>(preloadedCodes);
+        for (int i = 0; i < preloadedCodes; i++) {
+            urls.add("https://example.com/preloaded/" + i);
+            if (urls.size() == 1000 || i == preloadedCodes - 1) {
+                for (UrlResponse created : urlService.createShortUrls(urls)) {
+                    codes.add(created.getShortCode());
+                }
+                urls.clear();
+            }
+        }
+        shortCodes = codes.toArray(new String[0]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private String anyCode() {
+        return shortCodes[ThreadLocalRandom.current().nextInt(shortCodes.length)];
+    }
+
+    @Benchmark
+    public String generateShortCode() {
+        return shortCodeGenerator.generate();
+    }
+
+    @Benchmark
+    public UrlResponse createShortUrl() {
+        return urlService.createShortUrl("https://example.com/benchmark");
+    }
+
+    @Benchmark
+    public UrlResponse retrieveOriginalUrl() {
+        return urlService.retrieveOriginalUrl(anyCode());
+    }
+
+    @Benchmark
+    public UrlStatsResponse getUrlStats() {
+        return urlService.getUrlStats(anyCode());
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.urlshortener.benchmarks;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.ShortenerURL.generators.Base62;
+import com.example.ShortenerURL.models.ShortUrl;
+import com.example.ShortenerURL.services.ShortUrlService;
+import com.example.ShortenerURL.storage.MappedShortUrlStore;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Time from launch to the first resolved short code over a preloaded store: the embedded
+ * mapped store, which replays its log into the off-heap index, against JPA on an H2 file.
+ * Each iteration prints the footprint per entry. The default size keeps a run short; pass
+ * -p entries=100000000 for the full-size comparison (needs about 10 GB of direct memory).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = { "-XX:MaxDirectMemorySize=10g" })
+public class StorageStartupBenchmark {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    @Param({ "mapped", "jpa" })
+    public String backend;
+
+    @Param({ "1000000" })
+    public int entries;
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void populate() throws IOException {
+        directory = Files.createTempDirectory("storage-startup");
+        if ("mapped".equals(backend))
+            populateStore();
+        else
+            populateDatabase();
+    }
+
+    private void populateStore() {
+        MappedShortUrlStore store = MappedShortUrlStore.open(directory.resolve("store"), 256 << 20, entries);
+        LocalDateTime time = LocalDateTime.now();
+        List<ShortUrl> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < entries; i++) {
+            batch.add(new ShortUrl(null, url(i), code(i), time, time, 0));
+            if (batch.size() == BATCH_SIZE || i == entries - 1) {
+                store.insertAll(batch);
+                batch.clear();
+            }
+        }
+        store.close();
+    }
+
+    private void populateDatabase() {
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setJdbcUrl(jdbcUrl());
+            dataSource.setUsername("sa");
+            // Migrated up front, so the launches only find the schema current
+            Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/h2").load().migrate();
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("ALTER SEQUENCE short_urls_seq RESTART WITH " + (entries + 1));
+
+            Timestamp time = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < entries; i++) {
+                batch.add(new Object[] { i + 1L, url(i), code(i), time, time });
+                if (batch.size() == BATCH_SIZE || i == entries - 1) {
+                    jdbcTemplate.batchUpdate("INSERT INTO short_urls (id, url, short_code, created_at, updated_at, access_count) "
+                        + "VALUES (?, ?, ?, ?, ?, 0)", batch);
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    private String jdbcUrl() {
+        return "jdbc:h2:file:" + directory.resolve("jpa").toAbsolutePath();
+    }
+
+    private static String code(int i) {
+        return Base62.encode(i, 6);
+    }
+
+    private static String url(int i) {
+        return "https://example.com/preloaded/" + i;
+    }
+
+    // Launch plus one resolution, so the store or connection pool has really been reached
+    @Benchmark
+    public String startup() {
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("spring.main.web-application-type", "none");
+        if ("mapped".equals(backend)) {
+            overrides.put("spring.profiles.active", "embedded");
+            overrides.put("shortener.storage.mapped.directory", directory.resolve("store").toString());
+            overrides.put("shortener.storage.mapped.expected-entries", entries);
+        } else {
+            overrides.put("spring.datasource.url", jdbcUrl());
+        }
+        context = BenchmarkApplication.start(overrides);
+        return context.getBean(ShortUrlService.class).resolveUrl(code(entries / 2), null, null);
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() throws IOException {
+        System.gc();
+        long heapBytes = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        long offHeapBytes = (long) gauge("shortener.storage.index.bytes");
+        long diskBytes = "mapped".equals(backend) ? (long) gauge("shortener.storage.log.bytes") : databaseFileBytes();
+        System.out.printf("%n%s, %d entries: heap %d MB in total, off-heap %.1f B/entry, disk %.1f B/entry%n",
+            backend, entries, heapBytes >> 20, (double) offHeapBytes / entries, (double) diskBytes / entries);
+        context.close();
+    }
+
+    private double gauge(String name) {
+        for (MeterRegistry registry : context.getBeansOfType(MeterRegistry.class).values()) {
+            Gauge gauge = registry.find(name).gauge();
+            if (gauge != null)
+                return gauge.value();
+        }
+        return 0;
+    }
+
+    private long databaseFileBytes() throws IOException {
+        return Files.size(directory.resolve("jpa.mv.db"));
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
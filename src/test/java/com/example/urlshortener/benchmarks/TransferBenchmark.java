@@ -0,0 +1,131 @@
+package com.example.urlshortener.benchmarks;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.ShortenerURL.generators.Base62;
+import com.example.ShortenerURL.models.TransferFormat;
+import com.example.ShortenerURL.models.TransferResponse;
+import com.example.ShortenerURL.services.ShortUrlTransfer;
+
+/**
+ * Export and import of the whole table through ShortUrlTransfer, on an H2 file with the heap
+ * capped at 512 MB, so a run that loads the table into memory fails instead of passing.
+ * Import reads a file written by an export beforehand, into the emptied table. Each
+ * iteration prints its rows per second; pass -p rows=100000000 for the full-size run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx512m" })
+public class TransferBenchmark {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    @Param({ "NDJSON", "CSV" })
+    public TransferFormat format;
+
+    @Param({ "1000000" })
+    public int rows;
+
+    private Path directory;
+    private Path exportFile;
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private ShortUrlTransfer urlTransfer;
+    private TransferResponse lastResponse;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("transfer");
+        context = BenchmarkApplication.start(Map.of(
+            "spring.main.web-application-type", "none",
+            "spring.datasource.url", "jdbc:h2:file:" + directory.resolve("db").toAbsolutePath(),
+            "shortener.transfer.import-batch-size", "1000"));
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        urlTransfer = context.getBean(ShortUrlTransfer.class);
+
+        Timestamp time = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[] { i + 1L, "https://example.com/preloaded/" + i, Base62.encode(i, 6), time, time });
+            if (batch.size() == BATCH_SIZE || i == rows - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO short_urls (id, url, short_code, created_at, updated_at, access_count) "
+                    + "VALUES (?, ?, ?, ?, ?, 0)", batch);
+                batch.clear();
+            }
+        }
+
+        exportFile = directory.resolve("short_urls." + format.getExtension());
+        try (Writer writer = Files.newBufferedWriter(exportFile, StandardCharsets.UTF_8)) {
+            urlTransfer.exportShortUrls(format, writer);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void emptyTableForImport(BenchmarkParams params) {
+        if (params.getBenchmark().endsWith("importShortUrls"))
+            jdbcTemplate.execute("TRUNCATE TABLE short_urls");
+    }
+
+    @Benchmark
+    public long exportShortUrls() throws IOException {
+        lastResponse = urlTransfer.exportShortUrls(format, Writer.nullWriter());
+        return lastResponse.getRows();
+    }
+
+    @Benchmark
+    public long importShortUrls() throws IOException {
+        try (Reader reader = Files.newBufferedReader(exportFile, StandardCharsets.UTF_8)) {
+            lastResponse = urlTransfer.importShortUrls(format, reader);
+        }
+        return lastResponse.getRows();
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        System.out.printf("%n%s, %d rows in %d ms: %d rows/s%n",
+            format, lastResponse.getRows(), lastResponse.getElapsedMillis(), lastResponse.getRowsPerSecond());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.urlshortener.benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+
+/**
+ * Cold start with and without the startup warm-up, over an H2 file of short codes whose access
+ * counts follow a Zipf law. The score is the time from launch until the application is ready;
+ * after each launch, the first firstSeconds of redirects, drawn from the same Zipf law by a few
+ * client threads, are timed and their percentiles printed. The JIT only starts cold once per
+ * JVM, so every measurement runs in a fork of its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+public class WarmUpBenchmark {
+
+    private static final int CLIENT_THREADS = 8;
+
+    @Param({ "false", "true" })
+    public boolean warmUp;
+
+    @Param({ "1000000" })
+    public int entries;
+
+    @Param({ "60" })
+    public int firstSeconds;
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void populate() throws IOException {
+        directory = Files.createTempDirectory("warm-up");
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setJdbcUrl(jdbcUrl());
+            dataSource.setUsername("sa");
+            Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/h2").load().migrate();
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            // Code X was accessed entries / X times, so the lowest codes are the hottest
+            jdbcTemplate.update("INSERT INTO short_urls (id, access_count, created_at, updated_at, short_code, url) "
+                + "SELECT X, ? / X, LOCALTIMESTAMP, LOCALTIMESTAMP, 'w' || X, 'https://example.com/preloaded/' || X "
+                + "FROM SYSTEM_RANGE(1, ?)", entries, entries);
+            jdbcTemplate.execute("ALTER SEQUENCE short_urls_seq RESTART WITH " + (entries + 1));
+        }
+    }
+
+    private String jdbcUrl() {
+        return "jdbc:h2:file:" + directory.resolve("db").toAbsolutePath();
+    }
+
+    // Launch until ready, which includes the warm-up when it is on
+    @Benchmark
+    public ConfigurableApplicationContext startup() {
+        context = BenchmarkApplication.start(Map.of(
+            "spring.datasource.url", jdbcUrl(),
+            "shortener.warm-up.enabled", String.valueOf(warmUp)));
+        return context;
+    }
+
+    @TearDown(Level.Iteration)
+    public void firstTraffic() throws InterruptedException {
+        String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/";
+        HttpClient httpClient = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NEVER).build();
+        Histogram latencies = new ConcurrentHistogram(TimeUnit.SECONDS.toNanos(10), 3);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(firstSeconds);
+
+        List<Thread> clients = new ArrayList<>(CLIENT_THREADS);
+        for (int i = 0; i < CLIENT_THREADS; i++) {
+            Thread client = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "w" + zipf())).GET().build();
+                    long started = System.nanoTime();
+                    try {
+                        httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                    } catch (IOException ex) {
+                        throw new IllegalStateException(ex);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    latencies.recordValue(Math.min(System.nanoTime() - started, latencies.getHighestTrackableValue()));
+                }
+            });
+            client.start();
+            clients.add(client);
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+
+        TimeGauge ready = context.getBean(MeterRegistry.class).find("application.ready.time").timeGauge();
+        System.out.printf("%nWarm-up %s: ready after %.0f ms; first %d s, %d redirects: p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms%n",
+            warmUp ? "on" : "off", ready == null ? Double.NaN : ready.value(TimeUnit.MILLISECONDS), firstSeconds,
+            latencies.getTotalCount(), millis(latencies.getValueAtPercentile(50)), millis(latencies.getValueAtPercentile(99)),
+            millis(latencies.getValueAtPercentile(99.9)), millis(latencies.getMaxValue()));
+        context.close();
+    }
+
+    // 1 to entries, code X drawn with a probability proportional to 1 / X
+    private int zipf() {
+        double u = ThreadLocalRandom.current().nextDouble();
+        return (int) Math.min(entries, Math.exp(u * Math.log(entries + 1.0)));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
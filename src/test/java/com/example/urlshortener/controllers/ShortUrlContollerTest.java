@@ -1,29 +1,52 @@
 package com.example.urlshortener.controllers;
 
+import java.io.Writer;
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.example.ShortenerURL.controllers.ShortUrlController;
+import com.example.ShortenerURL.exceptions.ShortUrlExpiredException;
+import com.example.ShortenerURL.models.BatchCodesRequest;
+import com.example.ShortenerURL.models.BatchCreateRequest;
+import com.example.ShortenerURL.models.ClickCount;
+import com.example.ShortenerURL.models.ClickSeriesResponse;
+import com.example.ShortenerURL.models.Granularity;
+import com.example.ShortenerURL.models.TransferFormat;
+import com.example.ShortenerURL.models.TransferResponse;
 import com.example.ShortenerURL.models.UrlRequest;
 import com.example.ShortenerURL.models.UrlResponse;
 import com.example.ShortenerURL.models.UrlStatsResponse;
 import com.example.ShortenerURL.services.ShortUrlService;
+import com.example.ShortenerURL.services.ShortUrlTransfer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 
@@ -36,6 +59,9 @@ class ShortUrlControllerTest {
     @MockBean
     private ShortUrlService urlService;
 
+    @MockBean
+    private ShortUrlTransfer urlTransfer;
+
     private ObjectMapper objectMapper;
 
     @BeforeEach
@@ -49,11 +75,14 @@ class ShortUrlControllerTest {
         LocalDateTime time = LocalDateTime.now();
         UrlResponse response = new UrlResponse(1L, "https://example.com", "abc123", time, time);
         
-        when(urlService.createShortUrl(anyString())).thenReturn(response);
+        when(urlService.createShortUrlAsync(anyString(), any())).thenReturn(CompletableFuture.completedFuture(response));
         
-        mockMvc.perform(post("/shorten")
+        MvcResult started = mockMvc.perform(post("/shorten")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.url").value("https://example.com"));
     }
@@ -100,12 +129,61 @@ class ShortUrlControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void testRedirect() throws Exception {
+        when(urlService.resolveUrl(eq("abc123"), any(), any())).thenReturn("https://example.com");
+
+        mockMvc.perform(get("/abc123"))
+                .andExpect(status().isFound())
+                .andExpect(header().string("Location", "https://example.com"))
+                .andExpect(header().exists("ETag"))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testRedirect_NotModified() throws Exception {
+        String etag = "\"" + Integer.toHexString("https://example.com".hashCode()) + "\"";
+        when(urlService.resolveUrl(eq("abc123"), any(), any())).thenReturn("https://example.com");
+
+        mockMvc.perform(get("/abc123").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().doesNotExist("Location"));
+    }
+
+    @Test
+    void testRedirect_NotFound() throws Exception {
+        when(urlService.resolveUrl(eq("invalid"), any(), any())).thenReturn(null);
+
+        mockMvc.perform(get("/invalid"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testRedirect_Expired() throws Exception {
+        when(urlService.resolveUrl(eq("expired"), any(), any())).thenThrow(new ShortUrlExpiredException("expired"));
+
+        mockMvc.perform(get("/expired"))
+                .andExpect(status().isGone())
+                .andExpect(header().doesNotExist("Location"));
+    }
+
+    @Test
+    void testCreateShortUrl_ExpiryInThePast() throws Exception {
+        String request = "{\"url\":\"https://example.com\",\"expiresAt\":\"2000-01-01T00:00:00\"}";
+
+        mockMvc.perform(post("/shorten")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(request))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.expiresAt").value("Expiry must be in the future"));
+    }
+
     @Test
     void testUpdateShortUrl() throws Exception {
         UrlRequest request = new UrlRequest("https://updated.com");
         UrlResponse response = new UrlResponse(1L, "https://updated.com", "abc123", LocalDateTime.now(), LocalDateTime.now());
         
-        when(urlService.updateShortUrl(eq("abc123"), anyString())).thenReturn(response);
+        when(urlService.updateShortUrl(eq("abc123"), anyString(), any())).thenReturn(response);
         
         mockMvc.perform(put("/shorten/abc123")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -139,7 +217,7 @@ class ShortUrlControllerTest {
     void testUpdateShortUrl_NotFound() throws Exception {
         UrlRequest request = new UrlRequest("https://updated.com");
         
-        when(urlService.updateShortUrl(eq("invalid"), anyString())).thenReturn(null);
+        when(urlService.updateShortUrl(eq("invalid"), anyString(), any())).thenReturn(null);
         
         mockMvc.perform(put("/shorten/invalid")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -177,6 +255,32 @@ class ShortUrlControllerTest {
                 .andExpect(jsonPath("$.accessCount").value(1));
     }
 
+    @Test
+    void testGetClickSeries() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 1, 2, 0, 0);
+        ClickSeriesResponse series = new ClickSeriesResponse("abc123", Granularity.HOUR, from, to, 5,
+            List.of(new ClickCount(from, 2L), new ClickCount(from.plusHours(1), 3L)));
+
+        when(urlService.getClickSeries("abc123", Granularity.HOUR, from, to)).thenReturn(series);
+
+        mockMvc.perform(get("/shorten/abc123/stats")
+                .param("granularity", "HOUR")
+                .param("from", "2024-01-01T00:00:00")
+                .param("to", "2024-01-02T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalClicks").value(5))
+                .andExpect(jsonPath("$.series[1].clicks").value(3));
+    }
+
+    @Test
+    void testGetClickSeries_NotFound() throws Exception {
+        when(urlService.getClickSeries(eq("invalid"), eq(Granularity.DAY), any(), any())).thenReturn(null);
+
+        mockMvc.perform(get("/shorten/invalid/stats").param("granularity", "DAY"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void testGetUrlStats_NotFound() throws Exception {
         when(urlService.getUrlStats("invalid"))
@@ -185,4 +289,108 @@ class ShortUrlControllerTest {
         mockMvc.perform(get("/shorten/invalid/stats"))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void testCreateShortUrls() throws Exception {
+        BatchCreateRequest request = new BatchCreateRequest(List.of(
+            new UrlRequest("https://example.com"), new UrlRequest("invalid-url")));
+        LocalDateTime time = LocalDateTime.now();
+        UrlResponse response = new UrlResponse(1L, "https://example.com", "abc123", time, time);
+
+        when(urlService.createShortUrls(anyList(), anyList())).thenReturn(List.of(response));
+
+        mockMvc.perform(post("/shorten/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.items[0].status").value(201))
+                .andExpect(jsonPath("$.items[0].shortCode").value("abc123"))
+                .andExpect(jsonPath("$.items[1].status").value(400))
+                .andExpect(jsonPath("$.items[1].error").value("Invalid URL format"));
+    }
+
+    @Test
+    void testCreateShortUrls_Empty() throws Exception {
+        BatchCreateRequest request = new BatchCreateRequest(List.of());
+
+        mockMvc.perform(post("/shorten/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testCreateShortUrls_TooLarge() throws Exception {
+        BatchCreateRequest request = new BatchCreateRequest(
+            Collections.nCopies(1001, new UrlRequest("https://example.com")));
+
+        mockMvc.perform(post("/shorten/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.urls").exists());
+    }
+
+    @Test
+    void testResolveShortUrls() throws Exception {
+        BatchCodesRequest request = new BatchCodesRequest(List.of("abc123", "invalid"));
+        LocalDateTime time = LocalDateTime.now();
+        UrlResponse response = new UrlResponse(1L, "https://example.com", "abc123", time, time);
+
+        when(urlService.resolveShortUrls(anyList())).thenReturn(Map.of("abc123", response));
+
+        mockMvc.perform(post("/shorten/batch/resolve")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].status").value(200))
+                .andExpect(jsonPath("$.items[0].data.url").value("https://example.com"))
+                .andExpect(jsonPath("$.items[1].status").value(404));
+    }
+
+    @Test
+    void testDeleteShortUrls() throws Exception {
+        BatchCodesRequest request = new BatchCodesRequest(List.of("abc123", "invalid"));
+
+        when(urlService.deleteShortUrls(anyList())).thenReturn(Set.of("abc123"));
+
+        mockMvc.perform(post("/shorten/batch/delete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].status").value(204))
+                .andExpect(jsonPath("$.items[1].status").value(404));
+    }
+
+    @Test
+    void testExportShortUrls_Csv() throws Exception {
+        doAnswer(invocation -> {
+            Writer writer = invocation.getArgument(1);
+            writer.write("shortCode,url,createdAt,updatedAt,accessCount,expiresAt\n");
+            writer.flush();
+            return new TransferResponse(0, 0, 0, 1, 0);
+        }).when(urlTransfer).exportShortUrls(eq(TransferFormat.CSV), any(Writer.class));
+
+        mockMvc.perform(get("/shorten/export").param("format", "CSV"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"short_urls.csv\""))
+                .andExpect(content().string("shortCode,url,createdAt,updatedAt,accessCount,expiresAt\n"));
+    }
+
+    @Test
+    void testImportShortUrls_ReportsRowsPerSecond() throws Exception {
+        when(urlTransfer.importShortUrls(eq(TransferFormat.NDJSON), any())).thenReturn(new TransferResponse(3, 1, 2, 10, 300));
+
+        mockMvc.perform(post("/shorten/import")
+                .contentType("application/x-ndjson")
+                .content("{\"shortCode\":\"abc123\",\"url\":\"https://example.com\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(3))
+                .andExpect(jsonPath("$.skipped").value(1))
+                .andExpect(jsonPath("$.invalid").value(2))
+                .andExpect(jsonPath("$.rowsPerSecond").value(300));
+    }
 }
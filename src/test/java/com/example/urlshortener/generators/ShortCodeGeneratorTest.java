@@ -0,0 +1,76 @@
+package com.example.urlshortener.generators;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.example.ShortenerURL.generators.Base62;
+import com.example.ShortenerURL.generators.BlockShortCodeGenerator;
+import com.example.ShortenerURL.generators.CodePermutation;
+import com.example.ShortenerURL.generators.RandomShortCodeGenerator;
+import com.example.ShortenerURL.generators.SequenceShortCodeGenerator;
+
+class ShortCodeGeneratorTest {
+
+    @Test
+    void testBase62Encode() {
+        assertEquals("aaaaaa", Base62.encode(0, 6));
+        assertEquals("aaaaab", Base62.encode(1, 6));
+        assertEquals("ba", Base62.encode(62, 1));
+        assertEquals("999999", Base62.encode(Base62.keyspace(6) - 1, 6));
+    }
+
+    @Test
+    void testPermutationIsCollisionFree() {
+        CodePermutation permutation = new CodePermutation(42);
+        Set<String> codes = new HashSet<>();
+        for (long value = 0; value < 200_000; value++) {
+            String code = permutation.encode(value);
+            assertEquals(6, code.length());
+            assertTrue(codes.add(code), "duplicate code for " + value);
+        }
+    }
+
+    @Test
+    void testPermutationGrowsPastSixChars() {
+        CodePermutation permutation = new CodePermutation(42);
+
+        assertEquals(6, permutation.encode(Base62.keyspace(6) - 1).length());
+        assertEquals(7, permutation.encode(Base62.keyspace(6)).length());
+    }
+
+    @Test
+    void testSequenceGenerator() {
+        AtomicLong sequence = new AtomicLong();
+        SequenceShortCodeGenerator generator = new SequenceShortCodeGenerator(sequence::incrementAndGet, new CodePermutation(7));
+
+        assertTrue(generator.isCollisionFree());
+        assertFalse(generator.generate().equals(generator.generate()));
+        assertEquals(2, sequence.get());
+    }
+
+    @Test
+    void testBlockGeneratorLeasesOncePerBlock() {
+        AtomicLong blocks = new AtomicLong();
+        BlockShortCodeGenerator generator = new BlockShortCodeGenerator(blocks::incrementAndGet, 100, new CodePermutation(7));
+
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < 250; i++) {
+            assertTrue(codes.add(generator.generate()));
+        }
+        assertEquals(3, blocks.get());
+    }
+
+    @Test
+    void testRandomGenerator() {
+        RandomShortCodeGenerator generator = new RandomShortCodeGenerator();
+
+        assertFalse(generator.isCollisionFree());
+        assertEquals(6, generator.generate().length());
+    }
+}
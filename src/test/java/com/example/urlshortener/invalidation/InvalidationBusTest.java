@@ -0,0 +1,201 @@
+package com.example.urlshortener.invalidation;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.example.ShortenerURL.invalidation.InProcessInvalidationTransport;
+import com.example.ShortenerURL.invalidation.Invalidation;
+import com.example.ShortenerURL.invalidation.InvalidationBus;
+import com.example.ShortenerURL.invalidation.InvalidationTransport;
+
+class InvalidationBusTest {
+
+    private final String channel = "test_" + UUID.randomUUID().toString().replace("-", "");
+
+    // A node: its bus, and what its listener was handed
+    private static final class Node {
+
+        final InProcessInvalidationTransport transport;
+        final InvalidationBus bus;
+        final BlockingQueue<Invalidation> received = new LinkedBlockingQueue<>();
+
+        Node(String channel) {
+            transport = new InProcessInvalidationTransport(channel);
+            bus = new InvalidationBus(Optional.of(transport), 600, 1000);
+            bus.setListener(new InvalidationBus.Listener() {
+                @Override
+                public void onInvalidations(List<Invalidation> invalidations) {
+                    received.addAll(invalidations);
+                }
+
+                @Override
+                public void onGap() {
+                }
+            });
+        }
+
+        Invalidation next() throws InterruptedException {
+            return received.poll(5, TimeUnit.SECONDS);
+        }
+    }
+
+    // Sends raw payloads, as another node would
+    private InvalidationTransport sender() {
+        InProcessInvalidationTransport transport = new InProcessInvalidationTransport(channel);
+        transport.subscribe(new InvalidationTransport.Receiver() {
+            @Override
+            public void onMessage(String payload) {
+            }
+
+            @Override
+            public void onGap() {
+            }
+        });
+        return transport;
+    }
+
+    @Test
+    void testFlush_ReachesOtherNodesOnly() throws Exception {
+        Node a = new Node(channel);
+        Node b = new Node(channel);
+
+        a.bus.publish("abc123", Invalidation.Kind.UPDATED);
+        a.bus.flush();
+
+        Invalidation invalidation = b.next();
+        assertNotNull(invalidation);
+        assertEquals("abc123", invalidation.getShortCode());
+        assertEquals(Invalidation.Kind.UPDATED, invalidation.getKind());
+        assertNull(a.received.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testReceive_DropsVersionsOlderThanTheNewestApplied() throws Exception {
+        Node b = new Node(channel);
+        InvalidationTransport other = sender();
+
+        other.send("other-node\nD abc123 200\n");
+        other.send("other-node\nC abc123 100\n"); // Late: the create this delete undid
+        other.send("other-node\nD abc123 200\n"); // Repeated
+        other.send("other-node\nC abc123 300\n"); // Created again
+        other.close();
+
+        assertEquals(Invalidation.Kind.DELETED, b.next().getKind());
+        Invalidation recreated = b.next();
+        assertEquals(Invalidation.Kind.CREATED, recreated.getKind());
+        assertEquals(300, recreated.getVersion());
+        assertNull(b.received.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testFlush_SplitsBatchesAtThePayloadLimit() throws Exception {
+        Node a = new Node(channel);
+        Node b = new Node(channel);
+        BlockingQueue<String> payloads = new LinkedBlockingQueue<>();
+        InProcessInvalidationTransport observer = new InProcessInvalidationTransport(channel);
+        observer.subscribe(new InvalidationTransport.Receiver() {
+            @Override
+            public void onMessage(String payload) {
+                payloads.add(payload);
+            }
+
+            @Override
+            public void onGap() {
+            }
+        });
+
+        for (int i = 0; i < 1000; i++) {
+            a.bus.publish(String.format("code%04d", i), Invalidation.Kind.CREATED);
+        }
+        a.bus.flush();
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(String.format("code%04d", i), b.next().getShortCode());
+        }
+        int batches = 0;
+        for (int lines = 0; lines < 1000; batches++) {
+            String payload = payloads.poll(5, TimeUnit.SECONDS);
+            assertTrue(payload.length() <= 7999);
+            lines += payload.split("\n").length - 1; // Less the header
+        }
+        assertTrue(batches > 1);
+        observer.close();
+    }
+
+    @Test
+    void testFlush_KeepsEveryInvalidationWhenASendFails() {
+        List<String> lines = new ArrayList<>();
+        InvalidationTransport failingOnce = new InvalidationTransport() {
+            private boolean failed;
+
+            @Override
+            public int maxPayloadBytes() {
+                return 100; // A few lines per payload
+            }
+
+            @Override
+            public void send(String payload) {
+                if (!failed) {
+                    failed = true;
+                    throw new IllegalStateException("connection lost");
+                }
+                String[] split = payload.split("\n");
+                lines.addAll(List.of(split).subList(1, split.length)); // Less the header
+            }
+
+            @Override
+            public void subscribe(Receiver receiver) {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        InvalidationBus bus = new InvalidationBus(Optional.of(failingOnce), 600, 1000);
+        for (int i = 0; i < 20; i++) {
+            bus.publish(String.format("code%04d", i), Invalidation.Kind.CREATED);
+        }
+
+        bus.flush(); // The first payload fails, after the next line was already polled
+        bus.flush();
+
+        Set<String> shortCodes = new HashSet<>();
+        for (String line : lines) {
+            shortCodes.add(line.split(" ")[1]);
+        }
+        assertEquals(20, shortCodes.size());
+    }
+
+    @Test
+    void testPublish_VersionsFollowThoseReceived() throws Exception {
+        Node a = new Node(channel);
+        Node b = new Node(channel);
+        long ahead = System.currentTimeMillis() + 60_000; // A writer whose clock runs a minute ahead
+        InvalidationTransport other = sender();
+        other.send("other-node\nU abc123 " + ahead + "\n");
+        assertEquals(ahead, b.next().getVersion());
+
+        b.bus.publish("abc123", Invalidation.Kind.DELETED);
+        b.bus.flush();
+
+        Invalidation deleted = a.next(); // A also got the update first
+        if (deleted.getKind() == Invalidation.Kind.UPDATED)
+            deleted = a.next();
+        assertEquals(Invalidation.Kind.DELETED, deleted.getKind());
+        assertTrue(deleted.getVersion() > ahead);
+        other.close();
+    }
+}
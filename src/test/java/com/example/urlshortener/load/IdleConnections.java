@@ -0,0 +1,113 @@
+package com.example.urlshortener.load;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keep-alive connections that have each served one request and then stay open and idle, as
+ * those of a large fleet of clients would between requests. One source and destination
+ * address pair runs out of ephemeral ports near 28,000 connections, so a loopback target is
+ * reached through 127.0.0.1, 127.0.0.2 and so on, which Linux routes to the same listener.
+ */
+final class IdleConnections implements AutoCloseable {
+
+    private static final int CONNECTIONS_PER_ADDRESS = 20_000;
+    private static final byte[] END_OF_HEADERS = "\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final List<SocketChannel> channels;
+
+    private IdleConnections(List<SocketChannel> channels) {
+        this.channels = channels;
+    }
+
+    // Opens count connections, each sending a HEAD request for path and reading its answer,
+    // which has no body
+    static IdleConnections open(URI baseUrl, String path, int count) throws IOException {
+        InetAddress target = InetAddress.getByName(baseUrl.getHost());
+        int port = baseUrl.getPort() < 0 ? 80 : baseUrl.getPort();
+        byte[] request = ("HEAD " + path + " HTTP/1.1\r\nHost: " + baseUrl.getAuthority() + "\r\n\r\n")
+            .getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer response = ByteBuffer.allocate(8192);
+        List<SocketChannel> channels = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                SocketChannel channel = SocketChannel.open(new InetSocketAddress(address(target, i), port));
+                channels.add(channel);
+                channel.write(ByteBuffer.wrap(request));
+                readHeaders(channel, response);
+                channel.configureBlocking(false);
+            }
+        } catch (IOException | RuntimeException e) {
+            new IdleConnections(channels).close();
+            throw new IOException("Opened " + channels.size() + " of " + count + " idle connections", e);
+        }
+        return new IdleConnections(channels);
+    }
+
+    private static InetAddress address(InetAddress target, int connection) throws IOException {
+        if (!target.isLoopbackAddress() || target.getAddress().length != 4)
+            return target;
+        byte[] address = { 127, 0, 0, (byte) (1 + connection / CONNECTIONS_PER_ADDRESS) };
+        return InetAddress.getByAddress(address);
+    }
+
+    private static void readHeaders(SocketChannel channel, ByteBuffer response) throws IOException {
+        response.clear();
+        while (!endsWithHeaders(response)) {
+            if (!response.hasRemaining() || channel.read(response) < 0)
+                throw new IOException("No complete response on an idle connection");
+        }
+        int status = Integer.parseInt(new String(response.array(), 9, 3, StandardCharsets.US_ASCII));
+        if (status >= 400)
+            throw new IOException("Idle connection answered " + status);
+    }
+
+    private static boolean endsWithHeaders(ByteBuffer response) {
+        int end = response.position();
+        if (end < END_OF_HEADERS.length)
+            return false;
+        for (int i = 0; i < END_OF_HEADERS.length; i++) {
+            if (response.get(end - END_OF_HEADERS.length + i) != END_OF_HEADERS[i])
+                return false;
+        }
+        return true;
+    }
+
+    int size() {
+        return channels.size();
+    }
+
+    // Connections the server has not closed; a read on a closed one returns -1 at once
+    int stillOpen() {
+        ByteBuffer discard = ByteBuffer.allocate(64);
+        int open = 0;
+        for (SocketChannel channel : channels) {
+            try {
+                discard.clear();
+                if (channel.read(discard) >= 0)
+                    open++;
+            } catch (IOException e) {
+                // Reset by the server
+            }
+        }
+        return open;
+    }
+
+    @Override
+    public void close() {
+        for (SocketChannel channel : channels) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Closing the rest matters more
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.urlshortener.load;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Options of LoadHarness, given as key=value arguments; one argument may hold several separated
+ * by spaces, which is how -Dload.args passes them. Keys containing a dot are application
+ * properties instead, e.g. shortener.cache.enabled=true, and are set on the booted App.
+ */
+public record LoadConfig(String baseUrl,
+                         List<Integer> rates,
+                         List<Integer> connections,
+                         int stepSeconds,
+                         int warmUpSeconds,
+                         int codes,
+                         double zipfExponent,
+                         Map<Operation, Integer> mix,
+                         boolean poisson,
+                         int maxInFlight,
+                         int reportSeconds,
+                         double sloMillis,
+                         boolean stopAtSaturation,
+                         long seed,
+                         Path output,
+                         Map<String, Object> applicationProperties) {
+
+    public static LoadConfig parse(String... args) {
+        Map<String, String> options = new HashMap<>();
+        Map<String, Object> applicationProperties = new HashMap<>();
+        for (String arg : args) {
+            for (String option : arg.trim().split("\\s+")) {
+                if (option.isEmpty())
+                    continue;
+                int equals = option.indexOf('=');
+                if (equals < 1)
+                    throw new IllegalArgumentException("Expected key=value: " + option);
+                String key = option.substring(0, equals);
+                String value = option.substring(equals + 1);
+                if (key.contains("."))
+                    applicationProperties.put(key, value);
+                else
+                    options.put(key, value);
+            }
+        }
+
+        LoadConfig config = new LoadConfig(
+            emptyToNull(options.remove("base-url")),
+            parseRates(remove(options, "rates", "500,1000,2000,4000,8000,16000")),
+            parseConnections(remove(options, "connections", "")),
+            Integer.parseInt(remove(options, "step-seconds", "30")),
+            Integer.parseInt(remove(options, "warm-up-seconds", "20")),
+            Integer.parseInt(remove(options, "codes", "100000")),
+            Double.parseDouble(remove(options, "zipf", "0.99")),
+            parseMix(remove(options, "mix", "resolve:80,create:8,stats:5,update:5,delete:2")),
+            parseArrivals(remove(options, "arrivals", "poisson")),
+            Integer.parseInt(remove(options, "max-in-flight", "1000")),
+            Integer.parseInt(remove(options, "report-seconds", "10")),
+            Double.parseDouble(remove(options, "slo-ms", "50")),
+            Boolean.parseBoolean(remove(options, "stop-at-saturation", "true")),
+            Long.parseLong(remove(options, "seed", "42")),
+            Path.of(remove(options, "output", "target/load")),
+            Collections.unmodifiableMap(applicationProperties));
+        if (!options.isEmpty())
+            throw new IllegalArgumentException("Unknown load options: " + options.keySet());
+        if (config.rates.isEmpty() || config.stepSeconds < 1 || config.codes < 1 || config.maxInFlight < 1 || config.reportSeconds < 1)
+            throw new IllegalArgumentException("rates, step-seconds, codes, max-in-flight and report-seconds must be positive");
+        return config;
+    }
+
+    private static String remove(Map<String, String> options, String key, String defaultValue) {
+        String value = options.remove(key);
+        return value == null ? defaultValue : value;
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    // Requests per second of each step, e.g. 1000,2000,4000
+    private static List<Integer> parseRates(String value) {
+        List<Integer> rates = new ArrayList<>();
+        for (String rate : value.split(",")) {
+            int parsed = Integer.parseInt(rate.trim());
+            if (parsed < 1)
+                throw new IllegalArgumentException("Rates must be positive: " + value);
+            rates.add(parsed);
+        }
+        return List.copyOf(rates);
+    }
+
+    // Idle connections to hold open during the steps, e.g. 1000,10000,50000, the steps being
+    // run again for each count; none by default
+    private static List<Integer> parseConnections(String value) {
+        List<Integer> connections = new ArrayList<>();
+        for (String count : value.split(",")) {
+            if (count.isBlank())
+                continue;
+            int parsed = Integer.parseInt(count.trim());
+            if (parsed < 1)
+                throw new IllegalArgumentException("Connection counts must be positive: " + value);
+            connections.add(parsed);
+        }
+        return List.copyOf(connections);
+    }
+
+    // Relative weights, e.g. resolve:90,create:10; operations left out are not sent
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2)
+                throw new IllegalArgumentException("Expected operation:weight in the mix: " + entry);
+            int weight = Integer.parseInt(parts[1]);
+            if (weight < 0)
+                throw new IllegalArgumentException("Weights cannot be negative: " + entry);
+            if (weight > 0)
+                mix.put(Operation.valueOf(parts[0].toUpperCase()), weight);
+        }
+        if (mix.isEmpty())
+            throw new IllegalArgumentException("The mix has no operation: " + value);
+        return Collections.unmodifiableMap(mix);
+    }
+
+    private static boolean parseArrivals(String value) {
+        return switch (value) {
+            case "poisson" -> true;
+            case "uniform" -> false;
+            default -> throw new IllegalArgumentException("Arrivals are poisson or uniform: " + value);
+        };
+    }
+}
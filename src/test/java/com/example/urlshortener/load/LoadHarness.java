@@ -0,0 +1,522 @@
+package com.example.urlshortener.load;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadInfo;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.urlshortener.benchmarks.BenchmarkApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+/**
+ * Open-loop load and soak harness. Boots App over an in-memory H2 database, or targets a
+ * running node at base-url, preloads codes short codes through the batch endpoint, then sends
+ * a weighted mix of creates, resolves, updates, deletes and stats at each of the given rates
+ * in turn, for step-seconds each. Codes are picked by a Zipf law, the first created being the
+ * most popular.
+ *
+ * Arrivals follow a schedule that does not wait for responses, so a slow server does not slow
+ * the load down: each request's latency is measured from when the schedule meant to send it,
+ * which counts the time it queued behind max-in-flight. A step whose completed rate falls
+ * short of the offered one, whose p99 exceeds slo-ms, or which fails over 1% of its requests
+ * is saturated. For a soak, run one rate for a long step and read the interval lines.
+ *
+ * With connections, the steps run once per count, while that many idle keep-alive connections
+ * are held open against the server, and the heap, direct memory and platform threads they cost
+ * are printed. Running it with spring.threads.virtual.enabled=false and then true compares the
+ * two request thread models at each count.
+ *
+ * Per step it prints latency percentiles and throughput per operation, GC counts and pauses,
+ * and bytes allocated per request, and writes every interval histogram to latency.hlog and a
+ * summary line per operation to summary.csv under output. The server shares this JVM when it
+ * is booted here, so its GC and allocation figures include the client's share; the allocation
+ * of Tomcat's worker threads alone is printed as well.
+ *
+ *   mvn -Pload verify -Dload.args="rates=1000,2000,4000 mix=resolve:95,create:5"
+ */
+public class LoadHarness {
+
+    private static final int PRELOAD_BATCH_SIZE = 1_000;
+    private static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toNanos(1);
+    private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final String SERVER_THREAD_PREFIX = "http-nio-";
+    // Room above the idle connections for the client's own and for stray ones
+    private static final int SPARE_CONNECTIONS = 1_000;
+    private static final PrintStream out = System.out;
+
+    private final LoadConfig config;
+    private final String baseUrl;
+    private final String requestThreads;
+    private final HttpClient httpClient;
+    private final Semaphore inFlight;
+    private final SplittableRandom random;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final ConcurrentLinkedQueue<String> created = new ConcurrentLinkedQueue<>();
+    private final AtomicLong urlCounter = new AtomicLong();
+    private final Map<String, GcStats> gcStats = new ConcurrentHashMap<>();
+    private String[] shortCodes;
+    private ZipfSampler zipf;
+    private long intervalStart;
+    private int held;
+
+    public LoadHarness(LoadConfig config, String baseUrl, String requestThreads) {
+        this.config = config;
+        this.baseUrl = baseUrl;
+        this.requestThreads = requestThreads;
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        this.inFlight = new Semaphore(config.maxInFlight());
+        this.random = new SplittableRandom(config.seed());
+        this.operations = config.mix().keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += config.mix().get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadConfig config = LoadConfig.parse(args);
+        ConfigurableApplicationContext context = config.baseUrl() == null
+            ? BenchmarkApplication.start(serverProperties(config)) : null;
+        try {
+            String baseUrl = context == null ? config.baseUrl()
+                : "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            String requestThreads = context == null ? "as configured on the target"
+                : context.getEnvironment().getProperty("spring.threads.virtual.enabled", Boolean.class, false)
+                    ? "virtual threads" : "platform threads";
+            new LoadHarness(config, baseUrl, requestThreads).run();
+        } finally {
+            if (context != null)
+                context.close();
+        }
+    }
+
+    // Tomcat accepts 8192 connections and closes idle ones after 20 s by default; a booted
+    // server holding idle connections takes them all and keeps them, unless told otherwise
+    private static Map<String, Object> serverProperties(LoadConfig config) {
+        Map<String, Object> properties = new HashMap<>(config.applicationProperties());
+        if (!config.connections().isEmpty()) {
+            int connections = Collections.max(config.connections()) + config.maxInFlight() + SPARE_CONNECTIONS;
+            properties.putIfAbsent("server.tomcat.max-connections", connections);
+            properties.putIfAbsent("server.tomcat.keep-alive-timeout", "-1ms");
+        }
+        return properties;
+    }
+
+    public void run() throws IOException, InterruptedException {
+        Files.createDirectories(config.output());
+        listenToGc();
+        preload();
+        zipf = new ZipfSampler(shortCodes.length, config.zipfExponent());
+        out.printf("%nTarget %s, requests on %s, %d short codes, Zipf exponent %.2f, mix %s, %s arrivals%n", baseUrl,
+            requestThreads, shortCodes.length, config.zipfExponent(), config.mix(), config.poisson() ? "Poisson" : "uniform");
+
+        try (PrintStream hlog = new PrintStream(config.output().resolve("latency.hlog").toFile());
+             PrintStream summary = new PrintStream(config.output().resolve("summary.csv").toFile())) {
+            HistogramLogWriter logWriter = new HistogramLogWriter(hlog);
+            long baseTime = System.currentTimeMillis();
+            logWriter.setBaseTime(baseTime);
+            logWriter.outputStartTime(baseTime);
+            logWriter.outputLegend();
+            summary.println("connections,rate,operation,count,ops_per_second,p50_ms,p90_ms,p99_ms,p999_ms,max_ms,not_found,failed");
+
+            if (config.warmUpSeconds() > 0) {
+                out.printf("%nWarming up at %d/s for %d s%n", config.rates().get(0), config.warmUpSeconds());
+                runStep(config.rates().get(0), config.warmUpSeconds(), null, null);
+            }
+            if (config.connections().isEmpty()) {
+                out.printf("%nHighest rate sustained: %s%n", runSteps(logWriter, summary));
+                return;
+            }
+            Map<Integer, String> sustained = new LinkedHashMap<>();
+            for (int connections : config.connections()) {
+                sustained.put(connections, runHoldingIdleConnections(connections, logWriter, summary));
+            }
+            out.printf("%nHighest rate sustained, requests on %s:%n", requestThreads);
+            sustained.forEach((connections, rate) -> out.printf("  %6d idle connections: %s%n", connections, rate));
+        }
+    }
+
+    // Every rate in turn; returns the highest one sustained
+    private String runSteps(HistogramLogWriter logWriter, PrintStream summary) throws InterruptedException {
+        Integer sustained = null;
+        for (int rate : config.rates()) {
+            String saturation = runStep(rate, config.stepSeconds(), logWriter, summary);
+            if (saturation == null) {
+                sustained = rate;
+                continue;
+            }
+            out.printf("Saturated at %d/s: %s%n", rate, saturation);
+            if (config.stopAtSaturation())
+                break;
+        }
+        return sustained == null ? "none" : sustained + "/s";
+    }
+
+    // The steps, while the given number of idle connections stay open; what those cost is
+    // measured before the load starts, so it is the idle cost alone
+    private String runHoldingIdleConnections(int connections, HistogramLogWriter logWriter, PrintStream summary)
+            throws IOException, InterruptedException {
+        out.printf("%nOpening %d idle connections%n", connections);
+        long heapBefore = usedHeap();
+        long directBefore = usedDirect();
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+        long start = System.nanoTime();
+        try (IdleConnections idle = IdleConnections.open(URI.create(baseUrl), "/shorten/" + shortCodes[0], connections)) {
+            out.printf("  Opened in %.1f s: heap %d B/connection, direct %d B/connection, %+d platform threads%n",
+                (System.nanoTime() - start) / 1e9, (usedHeap() - heapBefore) / connections,
+                (usedDirect() - directBefore) / connections, ManagementFactory.getThreadMXBean().getThreadCount() - threadsBefore);
+            held = connections;
+            String sustained = runSteps(logWriter, summary);
+            out.printf("  %d of %d idle connections still open%n", idle.stillOpen(), idle.size());
+            return sustained;
+        } finally {
+            held = 0;
+        }
+    }
+
+    // Creates codes through the batch endpoint, in creation order, which is popularity order
+    private void preload() throws IOException, InterruptedException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<String> codes = new ArrayList<>(config.codes());
+        while (codes.size() < config.codes()) {
+            int batchSize = Math.min(PRELOAD_BATCH_SIZE, config.codes() - codes.size());
+            List<Map<String, String>> urls = new ArrayList<>(batchSize);
+            for (int i = 0; i < batchSize; i++) {
+                urls.add(Map.of("url", "https://example.com/preloaded/" + (codes.size() + i)));
+            }
+            HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + "/shorten/batch"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(Map.of("urls", urls))))
+                    .build(),
+                HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200)
+                throw new IllegalStateException("Preload answered " + response.statusCode() + ": " + response.body());
+            for (JsonNode item : objectMapper.readTree(response.body()).get("items")) {
+                codes.add(item.get("shortCode").asText());
+            }
+        }
+        shortCodes = codes.toArray(new String[0]);
+    }
+
+    // One rate for the given time; returns why it was saturated, or null. Without a log writer
+    // it is a warm-up and reports nothing
+    private String runStep(int rate, int seconds, HistogramLogWriter logWriter, PrintStream summary) throws InterruptedException {
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : operations) {
+            stats.put(operation, new OperationStats());
+        }
+        gcStats.clear();
+        if (logWriter != null)
+            out.printf("%nStep at %d/s for %d s%s%n", rate, seconds, held == 0 ? "" : ", " + held + " idle connections held");
+        long allocatedBefore = allocatedBytes(false);
+        long serverAllocatedBefore = allocatedBytes(true);
+
+        double meanGapNanos = 1e9 / rate;
+        long start = System.nanoTime();
+        intervalStart = start;
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        long reportNanos = TimeUnit.SECONDS.toNanos(config.reportSeconds());
+        long nextReport = start + reportNanos;
+        double offset = 0;
+        long sent = 0;
+        long skipped = 0;
+        while (true) {
+            offset += config.poisson() ? -Math.log(1 - random.nextDouble()) * meanGapNanos : meanGapNanos;
+            long intended = start + (long) offset;
+            if (intended >= end)
+                break;
+            waitUntil(intended);
+            if (logWriter != null && System.nanoTime() >= nextReport) {
+                reportInterval(stats, rate, start, logWriter);
+                nextReport += reportNanos;
+            }
+
+            Operation operation = pickOperation();
+            HttpRequest request = request(operation);
+            if (request == null) { // A delete before anything was created
+                skipped++;
+                continue;
+            }
+            inFlight.acquire();
+            send(operation, request, intended, stats.get(operation));
+            sent++;
+        }
+        // Everything sent is answered before the step's figures are taken
+        inFlight.acquire(config.maxInFlight());
+        inFlight.release(config.maxInFlight());
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        if (logWriter == null)
+            return null;
+        reportInterval(stats, rate, start, logWriter);
+
+        return reportStep(rate, elapsedSeconds, sent, skipped, stats, summary,
+            allocatedBytes(false) - allocatedBefore, allocatedBytes(true) - serverAllocatedBefore);
+    }
+
+    // Sleeps most of the way, and spins the rest, since a park can overshoot by tens of microseconds
+    private static void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            if (remaining > SPIN_NANOS)
+                LockSupport.parkNanos(remaining - SPIN_NANOS);
+            else
+                Thread.onSpinWait();
+        }
+    }
+
+    private Operation pickOperation() {
+        int draw = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < operations.length; i++) {
+            if (draw < cumulativeWeights[i])
+                return operations[i];
+        }
+        throw new IllegalStateException();
+    }
+
+    // Deletes take codes created during the run, so the preloaded population stays whole
+    private HttpRequest request(Operation operation) {
+        return switch (operation) {
+            case CREATE -> json(HttpRequest.newBuilder(URI.create(baseUrl + "/shorten")), "POST",
+                "https://example.com/created/" + urlCounter.incrementAndGet());
+            case RESOLVE -> HttpRequest.newBuilder(URI.create(baseUrl + "/" + popularCode())).GET().build();
+            case UPDATE -> json(HttpRequest.newBuilder(URI.create(baseUrl + "/shorten/" + popularCode())), "PUT",
+                "https://example.com/updated/" + urlCounter.incrementAndGet());
+            case DELETE -> {
+                String shortCode = created.poll();
+                yield shortCode == null ? null : HttpRequest.newBuilder(URI.create(baseUrl + "/shorten/" + shortCode)).DELETE().build();
+            }
+            case STATS -> HttpRequest.newBuilder(URI.create(baseUrl + "/shorten/" + popularCode() + "/stats")).GET().build();
+        };
+    }
+
+    private String popularCode() {
+        return shortCodes[zipf.sample(random) - 1];
+    }
+
+    private static HttpRequest json(HttpRequest.Builder builder, String method, String url) {
+        return builder.header("Content-Type", "application/json")
+            .method(method, HttpRequest.BodyPublishers.ofString("{\"url\":\"" + url + "\"}"))
+            .build();
+    }
+
+    private void send(Operation operation, HttpRequest request, long intended, OperationStats stats) {
+        HttpResponse.BodyHandler<String> bodyHandler = operation == Operation.CREATE
+            ? HttpResponse.BodyHandlers.ofString() : HttpResponse.BodyHandlers.replacing(null);
+        httpClient.sendAsync(request, bodyHandler).whenComplete((response, failure) -> {
+            try {
+                stats.recorder.recordValue(Math.min(System.nanoTime() - intended, HIGHEST_LATENCY));
+                int status = failure == null ? response.statusCode() : 0;
+                if (status == 404 || status == 410) {
+                    stats.notFound.increment();
+                } else if (status < 200 || status >= 400) {
+                    stats.failed.increment();
+                } else if (operation == Operation.CREATE) {
+                    created.add(shortCode(response.body()));
+                }
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    // The created code, without parsing the whole response
+    private static String shortCode(String body) {
+        String field = "\"shortCode\":\"";
+        int from = body.indexOf(field) + field.length();
+        return body.substring(from, body.indexOf('"', from));
+    }
+
+    private void reportInterval(Map<Operation, OperationStats> stats, int rate, long start, HistogramLogWriter logWriter) {
+        Histogram all = new Histogram(HIGHEST_LATENCY, 3);
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats operationStats = entry.getValue();
+            Histogram interval = operationStats.recorder.getIntervalHistogram();
+            operationStats.step.add(interval);
+            all.add(interval);
+            interval.setTag(entry.getKey().label() + "@" + rate + (held == 0 ? "" : "/" + held));
+            logWriter.outputIntervalHistogram(interval);
+        }
+        long now = System.nanoTime();
+        double intervalSeconds = Math.max(1, now - intervalStart) / 1e9;
+        intervalStart = now;
+        out.printf("  [%4d s] %8.0f/s  p99 %8.2f ms  max %8.2f ms  in flight %4d  heap after GC %5d MB%n",
+            TimeUnit.NANOSECONDS.toSeconds(now - start), all.getTotalCount() / intervalSeconds,
+            millis(all.getValueAtPercentile(99)), millis(all.getMaxValue()),
+            config.maxInFlight() - inFlight.availablePermits(), heapAfterGc() >> 20);
+    }
+
+    private String reportStep(int rate, double elapsedSeconds, long sent, long skipped,
+                              Map<Operation, OperationStats> stats, PrintStream summary,
+                              long allocated, long serverAllocated) {
+        Histogram all = new Histogram(HIGHEST_LATENCY, 3);
+        long notFound = 0;
+        long failed = 0;
+        out.printf("  %d sent, %d deletes skipped for want of a created code%n", sent, skipped);
+        out.printf("  %-9s %10s %10s %9s %9s %9s %9s %9s %9s %7s%n",
+            "operation", "count", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "not found", "failed");
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats operationStats = entry.getValue();
+            all.add(operationStats.step);
+            notFound += operationStats.notFound.sum();
+            failed += operationStats.failed.sum();
+            printRow(entry.getKey().label(), operationStats.step, elapsedSeconds, operationStats.notFound.sum(), operationStats.failed.sum());
+            Histogram step = operationStats.step;
+            summary.printf("%d,%d,%s,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f,%d,%d%n", held, rate, entry.getKey().label(), step.getTotalCount(),
+                step.getTotalCount() / elapsedSeconds, millis(step.getValueAtPercentile(50)), millis(step.getValueAtPercentile(90)),
+                millis(step.getValueAtPercentile(99)), millis(step.getValueAtPercentile(99.9)), millis(step.getMaxValue()),
+                operationStats.notFound.sum(), operationStats.failed.sum());
+        }
+        printRow("all", all, elapsedSeconds, notFound, failed);
+        summary.flush();
+
+        gcStats.forEach((collector, gc) -> out.printf("  GC %s: %d, %d ms in total, longest %d ms%n",
+            collector, gc.count.sum(), gc.totalMillis.sum(), gc.maxMillis.get()));
+        long completed = Math.max(1, all.getTotalCount());
+        out.printf("  Allocated: %.1f KB/request, Tomcat workers %.1f KB/request%n",
+            allocated / 1024.0 / completed, serverAllocated / 1024.0 / completed);
+
+        double completedRate = all.getTotalCount() / elapsedSeconds;
+        if (completedRate < 0.95 * rate)
+            return String.format("completed %.0f/s", completedRate);
+        if (millis(all.getValueAtPercentile(99)) > config.sloMillis())
+            return String.format("p99 %.2f ms over %.0f ms", millis(all.getValueAtPercentile(99)), config.sloMillis());
+        if (failed > all.getTotalCount() / 100)
+            return failed + " requests failed";
+        return null;
+    }
+
+    private static void printRow(String label, Histogram histogram, double elapsedSeconds, long notFound, long failed) {
+        out.printf("  %-9s %10d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9d %7d%n", label, histogram.getTotalCount(),
+            histogram.getTotalCount() / elapsedSeconds, millis(histogram.getValueAtPercentile(50)),
+            millis(histogram.getValueAtPercentile(90)), millis(histogram.getValueAtPercentile(99)),
+            millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()), notFound, failed);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    // Pause counts and durations per collector, from GC notifications
+    private void listenToGc() {
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!(collector instanceof NotificationEmitter emitter))
+                continue;
+            emitter.addNotificationListener((notification, handback) -> {
+                if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType()))
+                    return;
+                GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                GcStats gc = gcStats.computeIfAbsent(info.getGcName(), name -> new GcStats());
+                gc.count.increment();
+                gc.totalMillis.add(info.getGcInfo().getDuration());
+                gc.maxMillis.accumulate(info.getGcInfo().getDuration());
+            }, null, null);
+        }
+    }
+
+    // Heap in use once garbage is collected, the client's side of the connections included
+    private static long usedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long usedDirect() {
+        long used = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName()))
+                used += pool.getMemoryUsed();
+        }
+        return used;
+    }
+
+    // Heap in use just after the last collection of each pool, which only grows in a soak
+    // when something is leaking
+    private static long heapAfterGc() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage usage = pool.getType() == MemoryType.HEAP ? pool.getCollectionUsage() : null;
+            if (usage != null)
+                used += usage.getUsed();
+        }
+        return used;
+    }
+
+    // Bytes allocated so far by live threads, or by Tomcat's workers only; threads that ended
+    // are not counted, but both pools keep theirs
+    private static long allocatedBytes(boolean serverOnly) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] ids = threads.getAllThreadIds();
+        if (serverOnly) {
+            ThreadInfo[] infos = threads.getThreadInfo(ids);
+            List<Long> serverIds = new ArrayList<>();
+            for (ThreadInfo info : infos) {
+                if (info != null && info.getThreadName().startsWith(SERVER_THREAD_PREFIX))
+                    serverIds.add(info.getThreadId());
+            }
+            ids = serverIds.stream().mapToLong(Long::longValue).toArray();
+        }
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(ids)) {
+            if (bytes > 0)
+                total += bytes;
+        }
+        return total;
+    }
+
+    private static class OperationStats {
+        final Recorder recorder = new Recorder(HIGHEST_LATENCY, 3);
+        final Histogram step = new Histogram(HIGHEST_LATENCY, 3);
+        final LongAdder notFound = new LongAdder();
+        final LongAdder failed = new LongAdder();
+    }
+
+    private static class GcStats {
+        final LongAdder count = new LongAdder();
+        final LongAdder totalMillis = new LongAdder();
+        final LongAccumulator maxMillis = new LongAccumulator(Math::max, 0);
+    }
+}
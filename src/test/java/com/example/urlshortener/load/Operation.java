@@ -0,0 +1,14 @@
+package com.example.urlshortener.load;
+
+// Requests the harness replays, named in the mix option by their lower case names
+public enum Operation {
+    CREATE,
+    RESOLVE,
+    UPDATE,
+    DELETE,
+    STATS;
+
+    public String label() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.urlshortener.load;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Ranks 1 to n drawn with a probability proportional to 1 / rank^exponent, by rejection
+ * inversion (Hormann and Derflinger, 1996): constant time and memory per draw whatever n is,
+ * with fewer than 1.1 uniform draws per sample on average. Thread-safe; the random generator
+ * is the caller's.
+ */
+public class ZipfSampler {
+
+    private final int n;
+    private final double exponent;
+    private final double hIntegralX1;
+    private final double hIntegralN;
+    private final double s;
+
+    public ZipfSampler(int n, double exponent) {
+        if (n < 1)
+            throw new IllegalArgumentException("Population must be positive: " + n);
+        if (exponent <= 0)
+            throw new IllegalArgumentException("Exponent must be positive: " + exponent);
+        this.n = n;
+        this.exponent = exponent;
+        this.hIntegralX1 = hIntegral(1.5) - 1;
+        this.hIntegralN = hIntegral(n + 0.5);
+        this.s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+    }
+
+    public int sample(RandomGenerator random) {
+        while (true) {
+            double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+            double x = hIntegralInverse(u);
+            int k = (int) (x + 0.5);
+            if (k < 1)
+                k = 1;
+            else if (k > n)
+                k = n;
+            // Accepted straight away in most draws; otherwise checked against the exact mass of k
+            if (k - x <= s || u >= hIntegral(k + 0.5) - h(k))
+                return k;
+        }
+    }
+
+    public int population() {
+        return n;
+    }
+
+    // H(x), an integral of h(x) = 1 / x^exponent
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return expm1Ratio((1 - exponent) * logX) * logX;
+    }
+
+    private double h(double x) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+
+    private double hIntegralInverse(double x) {
+        double t = Math.max(-1, x * (1 - exponent));
+        return Math.exp(log1pRatio(t) * x);
+    }
+
+    // log1p(x) / x, and its limit 1 at 0
+    private static double log1pRatio(double x) {
+        return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+    }
+
+    // expm1(x) / x, and its limit 1 at 0
+    private static double expm1Ratio(double x) {
+        return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1 + x * 0.5 * (1 + x / 3 * (1 + 0.25 * x));
+    }
+}
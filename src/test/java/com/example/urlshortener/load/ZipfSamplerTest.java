@@ -0,0 +1,67 @@
+package com.example.urlshortener.load;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class ZipfSamplerTest {
+
+    @Test
+    void testFrequenciesFollowTheLaw() {
+        int n = 1000;
+        int samples = 1_000_000;
+        double exponent = 0.99;
+        ZipfSampler sampler = new ZipfSampler(n, exponent);
+        SplittableRandom random = new SplittableRandom(1);
+        int[] counts = new int[n + 1];
+        for (int i = 0; i < samples; i++) {
+            int rank = sampler.sample(random);
+            assertTrue(rank >= 1 && rank <= n, "Rank out of range: " + rank);
+            counts[rank]++;
+        }
+
+        double normalization = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            normalization += Math.pow(rank, -exponent);
+        }
+        for (int rank : new int[] { 1, 2, 10, 100 }) {
+            double expected = samples * Math.pow(rank, -exponent) / normalization;
+            // Five standard deviations of the count
+            assertEquals(expected, counts[rank], 5 * Math.sqrt(expected), "Rank " + rank);
+        }
+    }
+
+    @Test
+    void testSteeperExponentConcentratesOnTheHead() {
+        SplittableRandom random = new SplittableRandom(2);
+        ZipfSampler flat = new ZipfSampler(100_000, 0.5);
+        ZipfSampler steep = new ZipfSampler(100_000, 1.5);
+        int flatHead = 0;
+        int steepHead = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (flat.sample(random) <= 10)
+                flatHead++;
+            if (steep.sample(random) <= 10)
+                steepHead++;
+        }
+        assertTrue(steepHead > 10 * flatHead, flatHead + " against " + steepHead);
+    }
+
+    @Test
+    void testSingleRank() {
+        ZipfSampler sampler = new ZipfSampler(1, 1.0);
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(1, sampler.sample(random));
+        }
+    }
+
+    @Test
+    void testRejectsInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new ZipfSampler(0, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new ZipfSampler(10, 0));
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.urlshortener.metrics;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import com.example.ShortenerURL.App;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Tests export no metrics unless asked to
+@AutoConfigureObservability(tracing = false)
+@SpringBootTest(classes = App.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:prometheus_endpoint;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+class PrometheusEndpointTest {
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void testScrape_ExposesHotPathMeters() throws Exception {
+        HttpResponse<String> created = send(HttpRequest.newBuilder(uri("/shorten"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString("{\"url\":\"https://example.com/metrics\"}")));
+        assertEquals(201, created.statusCode());
+        String shortCode = new ObjectMapper().readTree(created.body()).get("shortCode").asText();
+        assertEquals(200, send(HttpRequest.newBuilder(uri("/shorten/" + shortCode))).statusCode());
+        assertEquals(404, send(HttpRequest.newBuilder(uri("/shorten/missing0"))).statusCode());
+
+        HttpResponse<String> scrape = send(HttpRequest.newBuilder(uri("/actuator/prometheus")));
+
+        assertEquals(200, scrape.statusCode());
+        assertTrue(scrape.headers().firstValue("Content-Type").orElse("").startsWith("text/plain"));
+        String body = scrape.body();
+        assertTrue(body.contains("http_server_requests_seconds_bucket{"), "Request latency histogram");
+        assertTrue(body.contains("uri=\"/shorten/{shortCode}\""), "Requests tagged by route");
+        assertTrue(body.contains("shortener_create_code_generation_seconds_count 1.0"), "Code generation timer");
+        assertTrue(body.contains("shortener_not_found_total{"), "404 counter");
+        assertTrue(body.contains("cache=\"short_urls\""), "Cache meters");
+        assertTrue(body.contains("shortener_access_count_pending_codes"), "Access-count buffer gauge");
+        assertTrue(body.contains("shortener_validation_failures_total{"), "Validation failure counters");
+        assertTrue(body.contains("shortener_transfer_rows_total{"), "Transfer row counters");
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.urlshortener.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.example.ShortenerURL.ratelimit.RateLimitFilter;
+import com.example.ShortenerURL.services.ShortUrlService;
+
+class RateLimitFilterTest {
+
+    private static final String WARM_UP_USER_AGENT = "shortener-warm-up/test";
+    private static final ShortUrlService urlService = mock(ShortUrlService.class);
+
+    static {
+        when(urlService.warmUpUserAgent()).thenReturn(WARM_UP_USER_AGENT);
+    }
+
+    // One create, two resolves and one stats request per client before the limits kick in
+    private final RateLimitFilter filter = new RateLimitFilter(urlService, true, "X-API-Key", Set.of("key-a", "key-b"), 1000, 0.1, 1, 0.1, 2, 0.1, 1);
+
+    @Test
+    void testRejectsWithTooManyRequestsAndRetryAfter() throws Exception {
+        assertEquals(200, send("POST", "/shorten", null).getStatus());
+
+        MockHttpServletResponse rejected = send("POST", "/shorten/batch", null);
+        assertEquals(429, rejected.getStatus());
+        assertEquals("10", rejected.getHeader("Retry-After"));
+        assertEquals("{\"rateLimit\":\"Too many create requests\"}", rejected.getContentAsString());
+    }
+
+    @Test
+    void testEndpointsHaveSeparateLimits() throws Exception {
+        assertEquals(200, send("POST", "/shorten", null).getStatus());
+        assertEquals(429, send("POST", "/shorten", null).getStatus());
+
+        assertEquals(200, send("GET", "/abc123", null).getStatus());
+        assertEquals(200, send("GET", "/shorten/abc123", null).getStatus());
+        assertEquals(429, send("POST", "/shorten/batch/resolve", null).getStatus());
+
+        assertEquals(200, send("GET", "/shorten/abc123/stats", null).getStatus());
+        assertEquals(429, send("GET", "/shorten/abc123/stats", null).getStatus());
+    }
+
+    @Test
+    void testLeavesOtherRoutesAlone() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, send("PUT", "/shorten/abc123", null).getStatus());
+            assertEquals(200, send("DELETE", "/shorten/abc123", null).getStatus());
+            assertEquals(200, send("GET", "/admin/cache", null).getStatus());
+            assertEquals(200, send("GET", "/actuator/prometheus", null).getStatus());
+        }
+    }
+
+    @Test
+    void testApiKeyTakesPrecedenceOverTheAddress() throws Exception {
+        assertEquals(200, send("POST", "/shorten", "key-a").getStatus());
+        assertEquals(429, send("POST", "/shorten", "key-a").getStatus());
+
+        assertEquals(200, send("POST", "/shorten", "key-b").getStatus());
+        assertEquals(200, send("POST", "/shorten", null).getStatus());
+    }
+
+    @Test
+    void testUnknownKeysShareTheAddressBucket() throws Exception {
+        assertEquals(200, send("POST", "/shorten", "made-up-1").getStatus());
+        assertEquals(429, send("POST", "/shorten", "made-up-2").getStatus());
+        assertEquals(429, send("POST", "/shorten", null).getStatus());
+    }
+
+    @Test
+    void testWithoutConfiguredKeysTheHeaderIsIgnored() throws Exception {
+        RateLimitFilter byAddress = new RateLimitFilter(urlService, true, "X-API-Key", Set.of(), 1000, 0.1, 1, 0.1, 1, 0.1, 1);
+        MockHttpServletRequest first = new MockHttpServletRequest("POST", "/shorten");
+        first.addHeader("X-API-Key", "key-a");
+        byAddress.doFilter(first, new MockHttpServletResponse(), new MockFilterChain());
+
+        MockHttpServletRequest second = new MockHttpServletRequest("POST", "/shorten");
+        second.addHeader("X-API-Key", "key-b");
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        byAddress.doFilter(second, rejected, new MockFilterChain());
+        assertEquals(429, rejected.getStatus());
+    }
+
+    @Test
+    void testBatchesAreChargedPerItem() throws Exception {
+        RateLimitFilter perSecond = new RateLimitFilter(urlService, true, "X-API-Key", Set.of("key-a", "key-b"), 1000, 1, 5, 1, 5, 1, 5);
+        MockHttpServletRequest batch = new MockHttpServletRequest("POST", "/shorten/batch");
+        perSecond.doFilter(batch, new MockHttpServletResponse(), new MockFilterChain());
+
+        perSecond.chargeItems(batch, 10);
+
+        // Five tokens at most, ten taken: the next create waits until the bucket is back in credit
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        perSecond.doFilter(new MockHttpServletRequest("POST", "/shorten"), rejected, new MockFilterChain());
+        assertEquals(429, rejected.getStatus());
+        assertEquals("6", rejected.getHeader("Retry-After"));
+    }
+
+    @Test
+    void testWarmUpRequestsAreNotLimited() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/abc123");
+            request.addHeader("User-Agent", WARM_UP_USER_AGENT);
+            MockFilterChain chain = new MockFilterChain();
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+            assertNotNull(chain.getRequest());
+        }
+        // Nor did they take the address's tokens
+        assertEquals(200, send("GET", "/abc123", null).getStatus());
+        assertEquals(200, send("GET", "/abc123", null).getStatus());
+        assertEquals(429, send("GET", "/abc123", null).getStatus());
+    }
+
+    @Test
+    void testDisabledFilterPassesEverything() throws Exception {
+        RateLimitFilter disabled = new RateLimitFilter(urlService, false, "X-API-Key", Set.of(), 1000, 0.1, 1, 0.1, 1, 0.1, 1);
+        for (int i = 0; i < 3; i++) {
+            MockFilterChain chain = new MockFilterChain();
+            disabled.doFilter(new MockHttpServletRequest("POST", "/shorten"), new MockHttpServletResponse(), chain);
+            assertNotNull(chain.getRequest());
+        }
+    }
+
+    private MockHttpServletResponse send(String method, String path, String apiKey) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        if (apiKey != null)
+            request.addHeader("X-API-Key", apiKey);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        if (response.getStatus() != 429)
+            assertNotNull(chain.getRequest());
+        else
+            assertNull(chain.getRequest());
+        return response;
+    }
+}
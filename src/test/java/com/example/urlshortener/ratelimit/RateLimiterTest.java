@@ -0,0 +1,100 @@
+package com.example.urlshortener.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.ShortenerURL.ratelimit.RateLimiter;
+
+class RateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    // 10 requests per second: a token every 100 ms, up to 5 at once
+    private final RateLimiter limiter = new RateLimiter(10, 5, 1000);
+
+    @Test
+    void testAllowsTheBurstThenReportsTheWait() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("client", 0));
+        }
+
+        assertEquals(SECOND / 10, limiter.tryAcquire("client", 0));
+        assertEquals(SECOND / 10 - 30_000_000, limiter.tryAcquire("client", 30_000_000));
+    }
+
+    @Test
+    void testRefillsAtTheConfiguredRate() {
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("client", 0);
+        }
+
+        assertEquals(0, limiter.tryAcquire("client", SECOND / 10));
+        assertTrue(limiter.tryAcquire("client", SECOND / 10) > 0);
+        // Idle long enough, the bucket is full again but never holds more than the burst
+        long later = 10 * SECOND;
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("client", later));
+        }
+        assertTrue(limiter.tryAcquire("client", later) > 0);
+    }
+
+    @Test
+    void testClientsHaveTheirOwnBuckets() {
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("noisy", 0);
+        }
+
+        assertTrue(limiter.tryAcquire("noisy", 0) > 0);
+        assertEquals(0, limiter.tryAcquire("quiet", 0));
+        assertEquals(2, limiter.clients());
+    }
+
+    @Test
+    void testChargeOverdrawsTheBucket() {
+        assertEquals(0, limiter.tryAcquire("client", 0));
+        // A batch of 50 items: the request paid one token at the door, the other 49 are charged
+        limiter.charge("client", 49, 0);
+
+        // 4.9 s of debt, so the next token is there once at most 0.4 s of it is left
+        assertEquals(46 * SECOND / 10, limiter.tryAcquire("client", 0));
+        assertTrue(limiter.tryAcquire("client", 4 * SECOND) > 0);
+        assertEquals(0, limiter.tryAcquire("client", 5 * SECOND));
+        assertEquals(0, limiter.tryAcquire("other", 0));
+    }
+
+    @Test
+    void testConcurrentClientsNeverExceedTheBurst() throws InterruptedException {
+        RateLimiter shared = new RateLimiter(1, 1000, 10);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 500; i++) {
+                    if (shared.tryAcquire("client", 0) == 0)
+                        granted.incrementAndGet();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1000, granted.get());
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.urlshortener.services;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.anyMap;
+import org.mockito.Mock;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import org.mockito.MockitoAnnotations;
+
+import com.example.ShortenerURL.repositories.ShortUrlRepository;
+import com.example.ShortenerURL.services.AccessCountAggregator;
+
+class AccessCountAggregatorTest {
+
+    @Mock
+    private ShortUrlRepository urlRepository;
+
+    private AccessCountAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        aggregator = new AccessCountAggregator(urlRepository);
+    }
+
+    @Test
+    void testFlushWritesBatchedDeltas() {
+        aggregator.increment("abc123");
+        aggregator.increment("abc123");
+        aggregator.increment("xyz789");
+
+        aggregator.flush();
+
+        verify(urlRepository).incrementAccessCounts(Map.of("abc123", 2L, "xyz789", 1L));
+        assertEquals(0, aggregator.pendingCount("abc123"));
+        assertEquals(0, aggregator.pendingCount("xyz789"));
+    }
+
+    @Test
+    void testFlushWithNothingPending() {
+        aggregator.flush();
+
+        verify(urlRepository, never()).incrementAccessCounts(anyMap());
+    }
+
+    @Test
+    void testFailedFlushKeepsDeltasPending() {
+        aggregator.increment("abc123");
+        doThrow(new RuntimeException("database down")).when(urlRepository).incrementAccessCounts(anyMap());
+
+        aggregator.flush();
+
+        assertEquals(1, aggregator.pendingCount("abc123"));
+    }
+
+    @Test
+    void testDiscard() {
+        aggregator.increment("abc123");
+
+        aggregator.discard("abc123");
+
+        assertEquals(0, aggregator.pendingCount("abc123"));
+    }
+
+    @Test
+    void testConcurrentFlushesLoseNoAccesses() throws Exception {
+        Map<String, Long> written = new ConcurrentHashMap<>();
+        AccessCountAggregator counting = new AccessCountAggregator(null) {
+            @Override
+            protected void write(Map<String, Long> deltas) {
+                deltas.forEach((code, delta) -> written.merge(code, delta, Long::sum));
+            }
+        };
+        // Many codes, so most counters are idle at each flush and get retired under the incrementers
+        int codes = 10_000;
+        int threads = 4;
+        int accessesPerThread = 250_000;
+        AtomicLongArray expected = new AtomicLongArray(codes);
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        try {
+            Future<?> flusher = executor.submit(() -> {
+                while (!done.get())
+                    counting.flush();
+            });
+            Future<?>[] incrementers = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                SplittableRandom random = new SplittableRandom(t);
+                incrementers[t] = executor.submit(() -> {
+                    for (int i = 0; i < accessesPerThread; i++) {
+                        int code = random.nextInt(codes);
+                        expected.incrementAndGet(code);
+                        counting.increment("c" + code);
+                    }
+                });
+            }
+            for (Future<?> incrementer : incrementers)
+                incrementer.get(60, TimeUnit.SECONDS);
+            done.set(true);
+            flusher.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        counting.flush();
+
+        for (int code = 0; code < codes; code++) {
+            assertEquals(expected.get(code), written.getOrDefault("c" + code, 0L), "Code c" + code);
+        }
+    }
+}
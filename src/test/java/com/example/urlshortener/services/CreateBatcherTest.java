@@ -0,0 +1,109 @@
+package com.example.urlshortener.services;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.ShortenerURL.models.UrlRequest;
+import com.example.ShortenerURL.models.UrlResponse;
+import com.example.ShortenerURL.services.CreateBatcher;
+
+class CreateBatcherTest {
+
+    private CreateBatcher batcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (batcher != null)
+            batcher.stop();
+    }
+
+    private static List<UrlResponse> echo(List<UrlRequest> requests) {
+        LocalDateTime time = LocalDateTime.now();
+        List<UrlResponse> responses = new ArrayList<>();
+        for (UrlRequest request : requests) {
+            responses.add(new UrlResponse(null, request.getUrl(), "code" + responses.size(), time, time));
+        }
+        return responses;
+    }
+
+    @Test
+    void testSubmit_CompletesWithTheResponseForItsRequest() throws Exception {
+        batcher = new CreateBatcher(true, 500, 0, 1, 100);
+        batcher.start(CreateBatcherTest::echo);
+
+        UrlResponse response = batcher.submit(new UrlRequest("https://example.com")).get(5, TimeUnit.SECONDS);
+
+        assertEquals("https://example.com", response.getUrl());
+    }
+
+    @Test
+    void testSubmit_QueuedWhileAWriteRunsGoInOneBatch() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> batchSizes = new ArrayList<>();
+        batcher = new CreateBatcher(true, 500, 0, 1, 100);
+        batcher.start(requests -> {
+            synchronized (batchSizes) {
+                batchSizes.add(requests.size());
+            }
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return echo(requests);
+        });
+
+        CompletableFuture<UrlResponse> first = batcher.submit(new UrlRequest("https://example.com/0"));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        List<CompletableFuture<UrlResponse>> queued = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            queued.add(batcher.submit(new UrlRequest("https://example.com/" + i)));
+        }
+        release.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        for (int i = 0; i < queued.size(); i++) {
+            assertEquals("https://example.com/" + (i + 1), queued.get(i).get(5, TimeUnit.SECONDS).getUrl());
+        }
+        synchronized (batchSizes) {
+            assertEquals(List.of(1, 10), batchSizes);
+        }
+    }
+
+    @Test
+    void testSubmit_FailedWriteFailsEveryCreateOfTheBatch() {
+        batcher = new CreateBatcher(true, 500, 0, 1, 100);
+        batcher.start(requests -> {
+            throw new IllegalStateException("database down");
+        });
+
+        CompletableFuture<UrlResponse> result = batcher.submit(new UrlRequest("https://example.com"));
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertEquals("database down", ex.getCause().getMessage());
+    }
+
+    @Test
+    void testSubmit_RejectedOnceStopped() throws InterruptedException {
+        batcher = new CreateBatcher(true, 500, 0, 1, 100);
+        batcher.start(CreateBatcherTest::echo);
+        batcher.stop();
+
+        CompletableFuture<UrlResponse> result = batcher.submit(new UrlRequest("https://example.com"));
+
+        assertTrue(result.isCompletedExceptionally());
+    }
+}
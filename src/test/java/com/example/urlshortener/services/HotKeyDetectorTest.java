@@ -0,0 +1,83 @@
+package com.example.urlshortener.services;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.ShortenerURL.models.UrlResponse;
+import com.example.ShortenerURL.services.HotKeyDetector;
+import com.example.ShortenerURL.services.ShortUrlCache;
+
+class HotKeyDetectorTest {
+
+    private ShortUrlCache urlCache;
+    private HotKeyDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        urlCache = new ShortUrlCache(true, 100, 0, 30);
+        // No sampling, and a rate any test loop reaches
+        detector = new HotKeyDetector(urlCache, true, 2, 16, 1, 1000, 1);
+        LocalDateTime time = LocalDateTime.now();
+        urlCache.put(new UrlResponse(1L, "https://example.com/viral", "viral1", time, time));
+        urlCache.put(new UrlResponse(2L, "https://example.com/quiet", "quiet1", time, time));
+    }
+
+    @Test
+    void testRoll_PinsTheHottestCodes() {
+        for (int i = 0; i < 100; i++) {
+            detector.record("viral1");
+        }
+        detector.record("quiet1");
+
+        detector.roll();
+
+        assertEquals(2, detector.hotKeys().size());
+        assertEquals("viral1", detector.hotKeys().get(0).getShortCode());
+        assertTrue(detector.hotKeys().get(0).isPinned());
+        assertTrue(urlCache.isPinned("viral1"));
+    }
+
+    @Test
+    void testRoll_UnpinsCodesThatCooledDown() {
+        for (int i = 0; i < 100; i++) {
+            detector.record("viral1");
+        }
+        detector.roll();
+
+        detector.roll(); // Nothing recorded since
+
+        assertTrue(detector.hotKeys().isEmpty());
+        assertFalse(urlCache.isPinned("viral1"));
+    }
+
+    @Test
+    void testInvalidate_DropsThePin() {
+        for (int i = 0; i < 100; i++) {
+            detector.record("viral1");
+        }
+        detector.roll();
+
+        urlCache.invalidate("viral1");
+
+        assertFalse(urlCache.isPinned("viral1"));
+        assertNull(urlCache.getIfPresent("viral1"));
+    }
+
+    @Test
+    void testRoll_SkipsCodesNotCached() {
+        for (int i = 0; i < 100; i++) {
+            detector.record("absent1");
+        }
+
+        detector.roll();
+
+        assertEquals("absent1", detector.hotKeys().get(0).getShortCode());
+        assertFalse(detector.hotKeys().get(0).isPinned());
+    }
+}
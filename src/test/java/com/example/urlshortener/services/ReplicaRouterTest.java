@@ -0,0 +1,128 @@
+package com.example.urlshortener.services;
+
+import java.util.Map;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import com.example.ShortenerURL.services.ReplicaRouter;
+
+// Two in-memory H2 databases stand in for the primary and its replica; they hold different
+// URLs for the same code, so each lookup shows where it was answered
+class ReplicaRouterTest {
+
+    private DataSource primaryDataSource;
+    private DataSource replicaDataSource;
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private JdbcTemplate routed;
+    private ReplicaRouter replicaRouter;
+
+    @BeforeEach
+    void setUp() {
+        primaryDataSource = database();
+        replicaDataSource = database();
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        for (JdbcTemplate jdbcTemplate : new JdbcTemplate[] { primary, replica }) {
+            jdbcTemplate.execute("CREATE TABLE short_urls (short_code VARCHAR(255) PRIMARY KEY, url VARCHAR(255))");
+        }
+        primary.update("INSERT INTO short_urls VALUES ('abc123', 'https://primary.example.com')");
+        replica.update("INSERT INTO short_urls VALUES ('abc123', 'https://replica.example.com')");
+        primary.update("INSERT INTO short_urls VALUES ('new123', 'https://primary.example.com/new')");
+    }
+
+    private static DataSource database() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:replica_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+
+    // Wired the way ReplicaDataSourceConfig does it
+    private ReplicaRouter router(String lagQuery) {
+        AbstractRoutingDataSource routing = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return replicaRouter.currentReplica();
+            }
+        };
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+        replicaRouter = new ReplicaRouter(new DataSourceTransactionManager(dataSource), true, 5000, 100, 1000, lagQuery);
+        replicaRouter.addReplica("replica-0", replicaDataSource);
+        routing.setTargetDataSources(Map.of("replica-0", replicaDataSource));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        dataSource.setTargetDataSource(routing);
+        dataSource.afterPropertiesSet();
+        routed = new JdbcTemplate(dataSource);
+        return replicaRouter;
+    }
+
+    private String lookup(ReplicaRouter router, String shortCode) {
+        return router.read(shortCode, () -> routed.query("SELECT url FROM short_urls WHERE short_code = ?",
+                                                         rs -> rs.next() ? rs.getString(1) : null, shortCode));
+    }
+
+    @Test
+    void testRead_GoesToTheReplica() {
+        ReplicaRouter router = router("");
+
+        assertEquals("https://replica.example.com", lookup(router, "abc123"));
+        assertNull(router.currentReplica());
+    }
+
+    @Test
+    void testRead_RecentWriteGoesToThePrimary() {
+        ReplicaRouter router = router("");
+        router.recordWrite("abc123");
+
+        assertEquals("https://primary.example.com", lookup(router, "abc123"));
+    }
+
+    @Test
+    void testRead_MissOnTheReplicaIsRetriedOnThePrimary() {
+        ReplicaRouter router = router("");
+
+        assertEquals("https://primary.example.com/new", lookup(router, "new123"));
+        assertNull(lookup(router, "unknown"));
+    }
+
+    @Test
+    void testRead_FailedReplicaIsSkippedUntilItsNextCheck() {
+        ReplicaRouter router = router("");
+        replica.execute("DROP TABLE short_urls");
+
+        assertEquals("https://primary.example.com", lookup(router, "abc123"));
+
+        replica.execute("CREATE TABLE short_urls (short_code VARCHAR(255) PRIMARY KEY, url VARCHAR(255))");
+        replica.update("INSERT INTO short_urls VALUES ('abc123', 'https://replica.example.com')");
+        assertEquals("https://primary.example.com", lookup(router, "abc123"));
+        router.checkReplicas();
+        assertEquals("https://replica.example.com", lookup(router, "abc123"));
+    }
+
+    @Test
+    void testRead_LaggingReplicaIsSkipped() {
+        ReplicaRouter router = router("SELECT 5000");
+
+        assertEquals("https://replica.example.com", lookup(router, "abc123"));
+        router.checkReplicas();
+        assertEquals("https://primary.example.com", lookup(router, "abc123"));
+    }
+
+    @Test
+    void testConstructor_RejectsWindowShorterThanMaxLag() {
+        assertThrows(IllegalArgumentException.class, () -> new ReplicaRouter(null, true, 1000, 100, 1000, ""));
+    }
+}
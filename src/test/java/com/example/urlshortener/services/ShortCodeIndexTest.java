@@ -0,0 +1,69 @@
+package com.example.urlshortener.services;
+
+import java.time.LocalDateTime;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import static org.mockito.Mockito.doAnswer;
+
+import com.example.ShortenerURL.repositories.ShortUrlRepository;
+import com.example.ShortenerURL.services.ShortCodeIndex;
+
+class ShortCodeIndexTest {
+
+    @Mock
+    private ShortUrlRepository urlRepository;
+
+    private ShortCodeIndex codeIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        codeIndex = new ShortCodeIndex(urlRepository, true, 16);
+    }
+
+    @Test
+    void testLoad_ReloadDropsCodesDeletedMeanwhile() {
+        codeIndex.put("abc123", "https://example.com", null);
+        codeIndex.put("def456", "https://example.org", LocalDateTime.now().minusMinutes(1));
+
+        codeIndex.load();
+
+        assertNull(codeIndex.get("abc123"));
+        assertNull(codeIndex.get("def456"));
+        assertFalse(codeIndex.isExpired("def456"));
+    }
+
+    @Test
+    void testLoad_WritesDuringTheScanWinOverRowsItReadEarlier() {
+        codeIndex.put("abc123", "https://example.com", null);
+        codeIndex.put("def456", "https://example.org", null);
+        doAnswer(invocation -> {
+            BiConsumer<String, String> action = invocation.getArgument(0);
+            // Lookups keep using the live table until the scan is done
+            codeIndex.put("abc123", "https://updated.com", null);
+            codeIndex.remove("def456");
+            codeIndex.put("ghi789", "https://example.net", null);
+            assertEquals("https://updated.com", codeIndex.get("abc123"));
+            // Rows of a snapshot older than those writes
+            action.accept("abc123", "https://example.com");
+            action.accept("def456", "https://example.org");
+            action.accept("jkl012", "https://example.edu");
+            return null;
+        }).when(urlRepository).forEachUrl(any());
+
+        codeIndex.load();
+
+        assertEquals("https://updated.com", codeIndex.get("abc123"));
+        assertNull(codeIndex.get("def456"));
+        assertEquals("https://example.net", codeIndex.get("ghi789"));
+        assertEquals("https://example.edu", codeIndex.get("jkl012"));
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.urlshortener.services;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.ShortenerURL.models.UrlResponse;
+import com.example.ShortenerURL.services.ShortUrlCache;
+
+class ShortUrlCacheTest {
+
+    private ShortUrlCache urlCache;
+    private UrlResponse response;
+
+    @BeforeEach
+    void setUp() {
+        urlCache = new ShortUrlCache(true, 100, 0, 30);
+        LocalDateTime time = LocalDateTime.now();
+        response = new UrlResponse(1L, "https://example.com", "abc123", time, time);
+    }
+
+    @Test
+    void testGet_ConcurrentMissesLoadOnce() throws Exception {
+        AtomicInteger loadCount = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<UrlResponse>> results = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                results.add(executor.submit(() -> urlCache.get("abc123", code -> {
+                    loadCount.incrementAndGet();
+                    await(release);
+                    return response;
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<UrlResponse> result : results) {
+                assertSame(response, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loadCount.get());
+        assertSame(response, urlCache.get("abc123", code -> null));
+    }
+
+    @Test
+    void testGet_LoadRacingWithInvalidationIsNotCached() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+        Thread reader = Thread.ofVirtual().start(() -> urlCache.get("abc123", code -> {
+            loading.countDown();
+            await(invalidated);
+            return response;
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        urlCache.invalidate("abc123");
+        invalidated.countDown();
+        reader.join(5000);
+
+        assertNull(urlCache.getIfPresent("abc123"));
+    }
+
+    @Test
+    void testGet_FailedLoadIsRetried() {
+        assertThrows(IllegalStateException.class, () -> urlCache.get("abc123", code -> {
+            throw new IllegalStateException("Database down");
+        }));
+
+        assertSame(response, urlCache.get("abc123", code -> response));
+    }
+
+    @Test
+    void testGet_MissingCodeIsCachedAsEmpty() {
+        assertNull(urlCache.get("abc123", code -> null));
+
+        assertTrue(urlCache.getIfPresent("abc123").isEmpty());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,40 +1,94 @@
 package com.example.urlshortener.services;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
-import org.mockito.InjectMocks;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import com.example.ShortenerURL.analytics.ClickAnalytics;
+import com.example.ShortenerURL.exceptions.ExpiryNotSupportedException;
+import com.example.ShortenerURL.exceptions.ShortUrlExpiredException;
+import com.example.ShortenerURL.generators.RandomShortCodeGenerator;
+import com.example.ShortenerURL.invalidation.Invalidation;
+import com.example.ShortenerURL.invalidation.InvalidationBus;
 import com.example.ShortenerURL.models.ShortUrl;
+import com.example.ShortenerURL.models.ShortUrlStatsView;
+import com.example.ShortenerURL.models.ShortUrlView;
 import com.example.ShortenerURL.models.UrlResponse;
 import com.example.ShortenerURL.models.UrlStatsResponse;
 import com.example.ShortenerURL.repositories.ShortUrlRepository;
+import com.example.ShortenerURL.services.AccessCountAggregator;
+import com.example.ShortenerURL.services.CreateBatcher;
+import com.example.ShortenerURL.services.ExpiryScheduler;
+import com.example.ShortenerURL.services.HotKeyDetector;
+import com.example.ShortenerURL.services.ReplicaRouter;
+import com.example.ShortenerURL.services.ShortCodeFilter;
+import com.example.ShortenerURL.services.ShortCodeIndex;
+import com.example.ShortenerURL.services.ShortUrlCache;
 import com.example.ShortenerURL.services.ShortUrlService;
+import com.example.ShortenerURL.services.UrlDeduplicator;
+import com.example.ShortenerURL.services.UrlHasher;
 
 class ShortUrlServiceTest {
 
     @Mock
     private ShortUrlRepository urlRepository;
 
-    @InjectMocks
+    @Mock
+    private AccessCountAggregator accessCountAggregator;
+
+    @Mock
+    private ClickAnalytics clickAnalytics;
+
+    private ExpiryScheduler expiryScheduler;
+
+    private ReplicaRouter replicaRouter;
+
     private ShortUrlService urlService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(urlRepository.supportsExpiry()).thenReturn(true);
+        expiryScheduler = new ExpiryScheduler(urlRepository, new ShortUrlCache(true, 100, 0, 30), new ShortCodeIndex(urlRepository, false, 16),
+                                              accessCountAggregator, new InvalidationBus(Optional.empty(), 600, 1000),
+                                              false, 1000, 64, 3, 86400, 500, 3600000);
+        replicaRouter = new ReplicaRouter(null, false, 5000, 100000, 1000, "");
+        urlService = new ShortUrlService(urlRepository, accessCountAggregator, new ShortUrlCache(true, 100, 0, 30),
+                                          new RandomShortCodeGenerator(), clickAnalytics, new ShortCodeIndex(urlRepository, false, 16),
+                                          new ShortCodeFilter(urlRepository, false, 16, 0.01),
+                                          new UrlDeduplicator(urlRepository, false, 16, 1000), expiryScheduler, replicaRouter,
+                                          new InvalidationBus(Optional.empty(), 600, 1000), new CreateBatcher(false, 500, 0, 2, 10000),
+                                          new HotKeyDetector(null, false, 16, 1024, 16, 1000, 100));
     }
 
     @Test
@@ -58,36 +112,330 @@ class ShortUrlServiceTest {
         String url = "https://example.com";
         String shortCode = "abc123";
         LocalDateTime time = LocalDateTime.now();
-        ShortUrl shortUrl = new ShortUrl(1L, url, shortCode, time, time, 0);
+        ShortUrlView view = new ShortUrlView(1L, url, shortCode, time, time, null);
 
-        when(urlRepository.findByShortCode(shortCode)).thenReturn(shortUrl);
-        when(urlRepository.save(any(ShortUrl.class))).thenReturn(shortUrl);
+        when(urlRepository.findViewByShortCode(shortCode)).thenReturn(view);
 
         UrlResponse response = urlService.retrieveOriginalUrl(shortCode);
 
         assertNotNull(response);
         assertEquals(url, response.getUrl());
         assertEquals(shortCode, response.getShortCode());
+        verify(accessCountAggregator).increment(shortCode);
+        verify(urlRepository, never()).save(any(ShortUrl.class));
     }
 
     @Test
     void testRetrieveOriginalUrl_NotFound() {
-        when(urlRepository.findByShortCode("invalid")).thenReturn(null);
+        when(urlRepository.findViewByShortCode("invalid")).thenReturn(null);
         
         UrlResponse response = urlService.retrieveOriginalUrl("invalid");
         
         assertNull(response);
     }
 
+    @Test
+    void testRetrieveOriginalUrl_Cached() {
+        String shortCode = "abc123";
+        LocalDateTime time = LocalDateTime.now();
+        ShortUrlView view = new ShortUrlView(1L, "https://example.com", shortCode, time, time, null);
+
+        when(urlRepository.findViewByShortCode(shortCode)).thenReturn(view);
+
+        urlService.retrieveOriginalUrl(shortCode);
+        UrlResponse response = urlService.retrieveOriginalUrl(shortCode);
+
+        assertEquals("https://example.com", response.getUrl());
+        verify(urlRepository, times(1)).findViewByShortCode(shortCode);
+        verify(accessCountAggregator, times(2)).increment(shortCode);
+    }
+
+    @Test
+    void testRetrieveOriginalUrl_NotFoundIsCached() {
+        when(urlRepository.findViewByShortCode("invalid")).thenReturn(null);
+
+        urlService.retrieveOriginalUrl("invalid");
+        UrlResponse response = urlService.retrieveOriginalUrl("invalid");
+
+        assertNull(response);
+        verify(urlRepository, times(1)).findViewByShortCode("invalid");
+    }
+
+    @Test
+    void testResolveUrl() {
+        String shortCode = "abc123";
+        LocalDateTime time = LocalDateTime.now();
+        ShortUrlView view = new ShortUrlView(1L, "https://example.com", shortCode, time, time, null);
+
+        when(urlRepository.findViewByShortCode(shortCode)).thenReturn(view);
+
+        assertEquals("https://example.com", urlService.resolveUrl(shortCode, "https://referrer.com", "curl"));
+        assertNull(urlService.resolveUrl("invalid", null, null));
+        verify(accessCountAggregator).increment(shortCode);
+        verify(clickAnalytics).record(shortCode, "https://referrer.com", "curl");
+    }
+
+    @Test
+    void testResolveUrl_CacheDisabledSelectsOnlyUrl() {
+        urlService = new ShortUrlService(urlRepository, accessCountAggregator, new ShortUrlCache(false, 100, 0, 30),
+                                          new RandomShortCodeGenerator(), clickAnalytics, new ShortCodeIndex(urlRepository, false, 16),
+                                          new ShortCodeFilter(urlRepository, false, 16, 0.01),
+                                          new UrlDeduplicator(urlRepository, false, 16, 1000), expiryScheduler, replicaRouter,
+                                          new InvalidationBus(Optional.empty(), 600, 1000), new CreateBatcher(false, 500, 0, 2, 10000),
+                                          new HotKeyDetector(null, false, 16, 1024, 16, 1000, 100));
+        when(urlRepository.findUrlByShortCode("abc123")).thenReturn("https://example.com");
+
+        assertEquals("https://example.com", urlService.resolveUrl("abc123", null, null));
+        verify(urlRepository, never()).findViewByShortCode(anyString());
+    }
+
+    @Test
+    void testResolveUrl_WarmCodeIndexAnswersWithoutRepository() {
+        ShortCodeIndex codeIndex = new ShortCodeIndex(urlRepository, true, 16);
+        codeIndex.load();
+        urlService = new ShortUrlService(urlRepository, accessCountAggregator, new ShortUrlCache(false, 100, 0, 30),
+                                          new RandomShortCodeGenerator(), clickAnalytics, codeIndex,
+                                          new ShortCodeFilter(urlRepository, false, 16, 0.01),
+                                          new UrlDeduplicator(urlRepository, false, 16, 1000), expiryScheduler, replicaRouter,
+                                          new InvalidationBus(Optional.empty(), 600, 1000), new CreateBatcher(false, 500, 0, 2, 10000),
+                                          new HotKeyDetector(null, false, 16, 1024, 16, 1000, 100));
+        when(urlRepository.save(any(ShortUrl.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        UrlResponse created = urlService.createShortUrl("https://example.com");
+
+        assertEquals("https://example.com", urlService.resolveUrl(created.getShortCode(), null, null));
+        assertNull(urlService.resolveUrl("unknown", null, null));
+        verify(urlRepository).forEachUrl(any());
+        verify(urlRepository, never()).findUrlByShortCode(anyString());
+        verify(urlRepository, never()).findViewByShortCode(anyString());
+    }
+
+    @Test
+    void testCodeFilter_RejectsUnknownCodesWithoutRepository() {
+        ShortCodeFilter codeFilter = new ShortCodeFilter(urlRepository, true, 16, 0.01);
+        codeFilter.load();
+        urlService = new ShortUrlService(urlRepository, accessCountAggregator, new ShortUrlCache(true, 100, 0, 30),
+                                          new RandomShortCodeGenerator(), clickAnalytics,
+                                          new ShortCodeIndex(urlRepository, false, 16), codeFilter,
+                                          new UrlDeduplicator(urlRepository, false, 16, 1000), expiryScheduler, replicaRouter,
+                                          new InvalidationBus(Optional.empty(), 600, 1000), new CreateBatcher(false, 500, 0, 2, 10000),
+                                          new HotKeyDetector(null, false, 16, 1024, 16, 1000, 100));
+        when(urlRepository.save(any(ShortUrl.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        UrlResponse created = urlService.createShortUrl("https://example.com");
+
+        assertNull(urlService.resolveUrl("unknown", null, null));
+        assertNull(urlService.retrieveOriginalUrl("unknown"));
+        assertNull(urlService.getUrlStats("unknown"));
+        assertNotNull(urlService.retrieveOriginalUrl(created.getShortCode()));
+        verify(urlRepository, never()).existsByShortCode(anyString());
+        verify(urlRepository, never()).findViewByShortCode("unknown");
+        verify(urlRepository, never()).findStatsByShortCode(anyString());
+    }
+
+    @Test
+    void testDedup_ReturnsExistingCodeForSameNormalizedUrl() {
+        UrlDeduplicator urlDeduplicator = new UrlDeduplicator(urlRepository, true, 16, 1000);
+        urlService = new ShortUrlService(urlRepository, accessCountAggregator, new ShortUrlCache(true, 100, 0, 30),
+                                          new RandomShortCodeGenerator(), clickAnalytics, new ShortCodeIndex(urlRepository, false, 16),
+                                          new ShortCodeFilter(urlRepository, false, 16, 0.01), urlDeduplicator,
+                                          expiryScheduler, replicaRouter,
+                                          new InvalidationBus(Optional.empty(), 600, 1000), new CreateBatcher(false, 500, 0, 2, 10000),
+                                          new HotKeyDetector(null, false, 16, 1024, 16, 1000, 100));
+        when(urlRepository.save(any(ShortUrl.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        UrlResponse created = urlService.createShortUrl("https://Example.com:443");
+        UrlResponse again = urlService.createShortUrl("https://example.com/");
+
+        assertEquals(created.getShortCode(), again.getShortCode());
+        assertEquals("https://Example.com:443", again.getUrl());
+        verify(urlRepository, times(1)).save(any(ShortUrl.class));
+        // The second create was answered by the hot table, the first looked up the index
+        verify(urlRepository, times(1)).findFirstViewByUrlHashAndExpiresAtIsNullOrderByIdAsc(any(byte[].class));
+    }
+
+    @Test
+    void testDedup_FindsRowsOutsideTheHotTableThroughTheIndex() {
+        UrlDeduplicator urlDeduplicator = new UrlDeduplicator(urlRepository, true, 16, 1000);
+        urlService = new ShortUrlService(urlRepository, accessCountAggregator, new ShortUrlCache(true, 100, 0, 30),
+                                          new RandomShortCodeGenerator(), clickAnalytics, new ShortCodeIndex(urlRepository, false, 16),
+                                          new ShortCodeFilter(urlRepository, false, 16, 0.01), urlDeduplicator,
+                                          expiryScheduler, replicaRouter,
+                                          new InvalidationBus(Optional.empty(), 600, 1000), new CreateBatcher(false, 500, 0, 2, 10000),
+                                          new HotKeyDetector(null, false, 16, 1024, 16, 1000, 100));
+        LocalDateTime time = LocalDateTime.now();
+        when(urlRepository.findFirstViewByUrlHashAndExpiresAtIsNullOrderByIdAsc(UrlHasher.hash("https://example.com")))
+            .thenReturn(new ShortUrlView(1L, "https://example.com", "abc123", time, time, null));
+
+        UrlResponse response = urlService.createShortUrl("https://example.com");
+
+        assertEquals("abc123", response.getShortCode());
+        verify(urlRepository, never()).save(any(ShortUrl.class));
+    }
+
+    @Test
+    void testDedup_UpdatedCodeIsNotReturnedForItsOldUrl() {
+        UrlDeduplicator urlDeduplicator = new UrlDeduplicator(urlRepository, true, 16, 1000);
+        urlService = new ShortUrlService(urlRepository, accessCountAggregator, new ShortUrlCache(true, 100, 0, 30),
+                                          new RandomShortCodeGenerator(), clickAnalytics, new ShortCodeIndex(urlRepository, false, 16),
+                                          new ShortCodeFilter(urlRepository, false, 16, 0.01), urlDeduplicator,
+                                          expiryScheduler, replicaRouter,
+                                          new InvalidationBus(Optional.empty(), 600, 1000), new CreateBatcher(false, 500, 0, 2, 10000),
+                                          new HotKeyDetector(null, false, 16, 1024, 16, 1000, 100));
+        LocalDateTime time = LocalDateTime.now();
+        when(urlRepository.save(any(ShortUrl.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        UrlResponse created = urlService.createShortUrl("https://example.com");
+        when(urlRepository.updateUrlByShortCode(eq(created.getShortCode()), eq("https://updated.com"), any(byte[].class), any(), any(LocalDateTime.class))).thenReturn(1);
+        when(urlRepository.findViewByShortCode(created.getShortCode())).thenReturn(
+            new ShortUrlView(1L, "https://updated.com", created.getShortCode(), time, time, null));
+        urlService.updateShortUrl(created.getShortCode(), "https://updated.com");
+
+        UrlResponse again = urlService.createShortUrl("https://example.com");
+
+        assertNotEquals(created.getShortCode(), again.getShortCode());
+        verify(urlRepository, times(2)).save(any(ShortUrl.class));
+    }
+
+    @Test
+    void testRetrieveOriginalUrl_ExpiredIsGone() {
+        String shortCode = "abc123";
+        LocalDateTime time = LocalDateTime.now();
+        when(urlRepository.findViewByShortCode(shortCode)).thenReturn(
+            new ShortUrlView(1L, "https://example.com", shortCode, time.minusDays(2), time.minusDays(2), time.minusDays(1)));
+
+        assertThrows(ShortUrlExpiredException.class, () -> urlService.retrieveOriginalUrl(shortCode));
+        assertThrows(ShortUrlExpiredException.class, () -> urlService.resolveUrl(shortCode, null, null));
+        verify(accessCountAggregator, never()).increment(anyString());
+    }
+
+    @Test
+    void testResolveUrl_CodeIndexAnswersGoneForExpiryNotScheduled() throws InterruptedException {
+        ShortCodeIndex codeIndex = new ShortCodeIndex(urlRepository, true, 16);
+        codeIndex.load();
+        // The scheduler of setUp is disabled, as if the expiry were past what it loaded
+        urlService = new ShortUrlService(urlRepository, accessCountAggregator, new ShortUrlCache(false, 100, 0, 30),
+                                          new RandomShortCodeGenerator(), clickAnalytics, codeIndex,
+                                          new ShortCodeFilter(urlRepository, false, 16, 0.01),
+                                          new UrlDeduplicator(urlRepository, false, 16, 1000), expiryScheduler, replicaRouter,
+                                          new InvalidationBus(Optional.empty(), 600, 1000), new CreateBatcher(false, 500, 0, 2, 10000),
+                                          new HotKeyDetector(null, false, 16, 1024, 16, 1000, 100));
+        when(urlRepository.save(any(ShortUrl.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        String shortCode = urlService.createShortUrl("https://example.com", LocalDateTime.now().plusNanos(50_000_000)).getShortCode();
+        assertEquals("https://example.com", urlService.resolveUrl(shortCode, null, null));
+        Thread.sleep(100);
+
+        assertThrows(ShortUrlExpiredException.class, () -> urlService.resolveUrl(shortCode, null, null));
+        verify(urlRepository, never()).findUrlByShortCode(anyString());
+    }
+
+    @Test
+    void testExpiry_CodeCreatedOnAnotherNodeIsScheduled() {
+        InvalidationBus invalidationBus = mock(InvalidationBus.class);
+        ExpiryScheduler scheduler = new ExpiryScheduler(urlRepository, new ShortUrlCache(true, 100, 0, 30), new ShortCodeIndex(urlRepository, false, 16),
+                                                        accessCountAggregator, invalidationBus, true, 1000, 64, 3, 86400, 500, 3600000);
+        scheduler.load();
+        urlService = new ShortUrlService(urlRepository, accessCountAggregator, new ShortUrlCache(true, 100, 0, 30),
+                                          new RandomShortCodeGenerator(), clickAnalytics, new ShortCodeIndex(urlRepository, false, 16),
+                                          new ShortCodeFilter(urlRepository, false, 16, 0.01),
+                                          new UrlDeduplicator(urlRepository, false, 16, 1000), scheduler, replicaRouter,
+                                          invalidationBus, new CreateBatcher(false, 500, 0, 2, 10000),
+                                          new HotKeyDetector(null, false, 16, 1024, 16, 1000, 100));
+        ArgumentCaptor<InvalidationBus.Listener> listener = ArgumentCaptor.forClass(InvalidationBus.Listener.class);
+        verify(invalidationBus).setListener(listener.capture());
+        LocalDateTime time = LocalDateTime.now();
+        // Within the window the refill already scanned
+        when(urlRepository.findViewsByShortCodeIn(anyCollection())).thenReturn(List.of(
+            new ShortUrlView(1L, "https://example.com", "abc123", time, time, time.minusSeconds(1))));
+
+        listener.getValue().onInvalidations(List.of(new Invalidation("abc123", Invalidation.Kind.CREATED, 1)));
+
+        assertTrue(scheduler.isExpired("abc123"));
+    }
+
+    @Test
+    void testExpiry_RejectedWhereStorageCannotExpire() {
+        when(urlRepository.supportsExpiry()).thenReturn(false);
+        LocalDateTime expiresAt = LocalDateTime.now().plusDays(1);
+
+        assertThrows(ExpiryNotSupportedException.class, () -> urlService.createShortUrl("https://example.com", expiresAt));
+        assertThrows(ExpiryNotSupportedException.class, () -> urlService.createShortUrlAsync("https://example.com", expiresAt));
+        assertThrows(ExpiryNotSupportedException.class, () -> urlService.createShortUrls(List.of("https://example.com"), List.of(expiresAt)));
+        assertThrows(ExpiryNotSupportedException.class, () -> urlService.updateShortUrl("abc123", "https://example.com", expiresAt));
+        verify(urlRepository, never()).save(any(ShortUrl.class));
+        verify(urlRepository, never()).insertAll(anyList());
+        verify(urlRepository, never()).updateUrlByShortCode(anyString(), anyString(), any(byte[].class), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testExpiry_PurgeDeletesInChunksAndEvicts() throws InterruptedException {
+        ShortUrlCache urlCache = new ShortUrlCache(true, 100, 0, 30);
+        ShortCodeIndex codeIndex = new ShortCodeIndex(urlRepository, false, 16);
+        InvalidationBus invalidationBus = mock(InvalidationBus.class);
+        expiryScheduler = new ExpiryScheduler(urlRepository, urlCache, codeIndex, accessCountAggregator, invalidationBus,
+                                              true, 10, 64, 3, 0, 2, 1000);
+        expiryScheduler.load();
+        urlService = new ShortUrlService(urlRepository, accessCountAggregator, urlCache,
+                                          new RandomShortCodeGenerator(), clickAnalytics, codeIndex,
+                                          new ShortCodeFilter(urlRepository, false, 16, 0.01),
+                                          new UrlDeduplicator(urlRepository, false, 16, 1000), expiryScheduler, replicaRouter,
+                                          invalidationBus, new CreateBatcher(false, 500, 0, 2, 10000),
+                                          new HotKeyDetector(null, false, 16, 1024, 16, 1000, 100));
+        when(urlRepository.save(any(ShortUrl.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        LocalDateTime expiresAt = LocalDateTime.now().plusNanos(50_000_000);
+        List<String> shortCodes = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            shortCodes.add(urlService.createShortUrl("https://example.com/" + i, expiresAt).getShortCode());
+        }
+        assertEquals("https://example.com/0", urlService.resolveUrl(shortCodes.get(0), null, null));
+        Thread.sleep(100);
+
+        assertThrows(ShortUrlExpiredException.class, () -> urlService.resolveUrl(shortCodes.get(0), null, null));
+        // The second code's expiry was moved by another node meanwhile, so its row stays
+        when(urlRepository.deleteExpiredByShortCodeIn(anyCollection(), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            List<String> deleted = new ArrayList<>(invocation.<Collection<String>>getArgument(0));
+            deleted.remove(shortCodes.get(1));
+            return deleted;
+        });
+        expiryScheduler.purge();
+
+        // Three codes in chunks of two, then evicted: the next lookup reaches the repository
+        verify(urlRepository, times(2)).deleteExpiredByShortCodeIn(anyCollection(), any(LocalDateTime.class));
+        assertNull(urlService.retrieveOriginalUrl(shortCodes.get(0)));
+        verify(urlRepository).findViewByShortCode(shortCodes.get(0));
+        // Only the rows deleted are announced to the other nodes
+        verify(invalidationBus).publish(shortCodes.get(0), Invalidation.Kind.DELETED);
+        verify(invalidationBus).publish(shortCodes.get(2), Invalidation.Kind.DELETED);
+        verify(invalidationBus, never()).publish(shortCodes.get(1), Invalidation.Kind.DELETED);
+    }
+
+    @Test
+    void testUpdateShortUrl_InvalidatesCache() {
+        String shortCode = "abc123";
+        LocalDateTime time = LocalDateTime.now();
+
+        when(urlRepository.findViewByShortCode(shortCode)).thenReturn(
+            new ShortUrlView(1L, "https://example.com", shortCode, time, time, null),
+            new ShortUrlView(1L, "https://updated.com", shortCode, time, time.plusMinutes(1), null));
+        when(urlRepository.updateUrlByShortCode(eq(shortCode), eq("https://updated.com"), any(byte[].class), any(), any(LocalDateTime.class))).thenReturn(1);
+
+        urlService.retrieveOriginalUrl(shortCode);
+        urlService.updateShortUrl(shortCode, "https://updated.com");
+        UrlResponse response = urlService.retrieveOriginalUrl(shortCode);
+
+        assertEquals("https://updated.com", response.getUrl());
+    }
+
     @Test
     void testUpdateShortUrl_Found() {
         String shortCode = "abc123";
         String url = "https://example.com";
         LocalDateTime time = LocalDateTime.now();
-        ShortUrl shortUrl = new ShortUrl(1L, url, shortCode, time, time, 0);
 
-        when(urlRepository.findByShortCode(shortCode)).thenReturn(shortUrl);
-        when(urlRepository.save(any(ShortUrl.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(urlRepository.updateUrlByShortCode(eq(shortCode), eq("https://updated.com"), any(byte[].class), any(), any(LocalDateTime.class))).thenReturn(1);
+        when(urlRepository.findViewByShortCode(shortCode)).thenReturn(
+            new ShortUrlView(1L, "https://updated.com", shortCode, time, time.plusMinutes(1), null));
 
         UrlResponse response = urlService.updateShortUrl(shortCode, "https://updated.com");
         
@@ -99,7 +447,7 @@ class ShortUrlServiceTest {
 
     @Test
     void testUpdateShortUrl_NotFound() {
-        when(urlRepository.findByShortCode("invalid")).thenReturn(null);
+        when(urlRepository.updateUrlByShortCode(eq("invalid"), anyString(), any(byte[].class), any(), any(LocalDateTime.class))).thenReturn(0);
         
         UrlResponse response = urlService.updateShortUrl("invalid", "https://updated.com");
         
@@ -108,17 +456,17 @@ class ShortUrlServiceTest {
 
     @Test
     void testDeleteShortUrl_Found() {
-        when(urlRepository.existsByShortCode("abc123")).thenReturn(true);
-        doNothing().when(urlRepository).deleteByShortCode("abc123");
+        when(urlRepository.deleteByShortCode("abc123")).thenReturn(1);
 
         boolean result = urlService.deleteShortUrl("abc123");
         
         assertTrue(result);
+        verify(urlRepository, never()).existsByShortCode(anyString());
     }
 
     @Test
     void testDeleteShortUrl_NotFound() {
-        when(urlRepository.existsByShortCode("invalid")).thenReturn(false);
+        when(urlRepository.deleteByShortCode("invalid")).thenReturn(0);
         
         boolean result = urlService.deleteShortUrl("invalid");
         
@@ -128,9 +476,9 @@ class ShortUrlServiceTest {
     @Test
     void testGetUrlStats_Found() {
         String shortCode = "abc123";
-        ShortUrl shortUrl = new ShortUrl(1L, "https://example.com", shortCode, LocalDateTime.now(), LocalDateTime.now(), 10);
+        ShortUrlStatsView stats = new ShortUrlStatsView(1L, "https://example.com", shortCode, LocalDateTime.now(), LocalDateTime.now(), 10);
 
-        when(urlRepository.findByShortCode(shortCode)).thenReturn(shortUrl);
+        when(urlRepository.findStatsByShortCode(shortCode)).thenReturn(stats);
 
         UrlStatsResponse response = urlService.getUrlStats(shortCode);
         
@@ -139,12 +487,104 @@ class ShortUrlServiceTest {
         assertEquals(10, response.getAccessCount());
     }
 
+    @Test
+    void testGetUrlStats_IncludesPendingAccesses() {
+        String shortCode = "abc123";
+        ShortUrlStatsView stats = new ShortUrlStatsView(1L, "https://example.com", shortCode, LocalDateTime.now(), LocalDateTime.now(), 10);
+
+        when(urlRepository.findStatsByShortCode(shortCode)).thenReturn(stats);
+        when(accessCountAggregator.pendingCount(shortCode)).thenReturn(3L);
+
+        UrlStatsResponse response = urlService.getUrlStats(shortCode);
+
+        assertEquals(13, response.getAccessCount());
+    }
+
     @Test
     void testGetUrlStats_NotFound() {
-        when(urlRepository.findByShortCode("invalid")).thenReturn(null);
+        when(urlRepository.findStatsByShortCode("invalid")).thenReturn(null);
         
         UrlStatsResponse response = urlService.getUrlStats("invalid");
         
         assertNull(response);
     }
+
+    @Test
+    void testCreateShortUrls() {
+        when(urlRepository.findExistingShortCodes(anyCollection())).thenReturn(List.of());
+        when(urlRepository.insertAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<UrlResponse> responses = urlService.createShortUrls(List.of("https://a.com", "https://b.com"));
+
+        assertEquals(2, responses.size());
+        assertEquals("https://a.com", responses.get(0).getUrl());
+        assertEquals("https://b.com", responses.get(1).getUrl());
+        assertNotEquals(responses.get(0).getShortCode(), responses.get(1).getShortCode());
+        verify(urlRepository, never()).existsByShortCode(anyString());
+    }
+
+    @Test
+    void testCreateShortUrls_RedrawsCodesTakenMeanwhile() {
+        List<List<String>> insertedCodes = new ArrayList<>();
+        when(urlRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<ShortUrl> shortUrls = invocation.getArgument(0);
+            insertedCodes.add(shortUrls.stream().map(ShortUrl::getShortCode).toList());
+            if (insertedCodes.size() == 1)
+                throw new DataIntegrityViolationException("duplicate key value violates unique constraint");
+            return shortUrls;
+        });
+        // Free when drawn; the first code is taken by the time the first insert runs
+        when(urlRepository.findExistingShortCodes(anyCollection()))
+            .thenAnswer(invocation -> insertedCodes.isEmpty() ? List.of() : List.of(insertedCodes.get(0).get(0)));
+
+        List<UrlResponse> responses = urlService.createShortUrls(List.of("https://a.com", "https://b.com"));
+
+        assertEquals(2, insertedCodes.size());
+        assertNotEquals(insertedCodes.get(0).get(0), insertedCodes.get(1).get(0));
+        assertEquals(insertedCodes.get(0).get(1), insertedCodes.get(1).get(1));
+        assertEquals(insertedCodes.get(1), responses.stream().map(UrlResponse::getShortCode).toList());
+    }
+
+    @Test
+    void testDeleteShortUrls() {
+        when(urlRepository.findExistingShortCodes(anyCollection())).thenReturn(List.of("abc123"));
+
+        Set<String> deleted = urlService.deleteShortUrls(List.of("abc123", "invalid"));
+
+        assertEquals(Set.of("abc123"), deleted);
+        verify(urlRepository).deleteAllByShortCodeIn(Set.of("abc123"));
+        verify(accessCountAggregator).discard("abc123");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testWarmCache_LoadsMostAccessedWithinCacheSize() {
+        LocalDateTime time = LocalDateTime.now();
+        doAnswer(invocation -> {
+            Consumer<ShortUrl> action = invocation.getArgument(2);
+            action.accept(new ShortUrl(1L, "https://a.com", "aaa111", time, time, 50));
+            action.accept(new ShortUrl(2L, "https://b.com", "bbb222", time, time, 20));
+            return null;
+        }).when(urlRepository).forEachMostAccessed(anyInt(), any(LocalDateTime.class), any(Consumer.class));
+
+        List<String> shortCodes = urlService.warmCache(1000);
+
+        assertEquals(List.of("aaa111", "bbb222"), shortCodes);
+        verify(urlRepository).forEachMostAccessed(eq(100), any(LocalDateTime.class), any(Consumer.class));
+        assertEquals("https://a.com", urlService.resolveUrl("aaa111", null, null));
+        verify(urlRepository, never()).findUrlByShortCode(anyString());
+        verify(urlRepository, never()).findViewByShortCode(anyString());
+    }
+
+    @Test
+    void testResolveUrl_WarmUpRequestsAreNotCounted() {
+        LocalDateTime time = LocalDateTime.now();
+        when(urlRepository.findViewByShortCode("abc123"))
+            .thenReturn(new ShortUrlView(1L, "https://example.com", "abc123", time, time, null));
+
+        assertEquals("https://example.com", urlService.resolveUrl("abc123", null, urlService.warmUpUserAgent()));
+
+        verify(accessCountAggregator, never()).increment(anyString());
+        verify(clickAnalytics, never()).record(anyString(), any(), any());
+    }
 }
@@ -0,0 +1,153 @@
+package com.example.urlshortener.services;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.example.ShortenerURL.models.ShortUrl;
+import com.example.ShortenerURL.models.TransferFormat;
+import com.example.ShortenerURL.models.TransferResponse;
+import com.example.ShortenerURL.repositories.ShortUrlRepository;
+import com.example.ShortenerURL.services.ShortUrlService;
+import com.example.ShortenerURL.services.ShortUrlTransfer;
+import com.example.ShortenerURL.services.UrlHasher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.Validation;
+
+class ShortUrlTransferTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 2, 3, 4, 5);
+
+    @Mock
+    private ShortUrlRepository urlRepository;
+
+    @Mock
+    private ShortUrlService urlService;
+
+    private ShortUrlTransfer urlTransfer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        urlTransfer = new ShortUrlTransfer(urlRepository, urlService,
+                                           Validation.buildDefaultValidatorFactory().getValidator(),
+                                           new ObjectMapper().findAndRegisterModules(), 2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenRows(ShortUrl... shortUrls) {
+        doAnswer(invocation -> {
+            Consumer<ShortUrl> action = invocation.getArgument(0);
+            for (ShortUrl shortUrl : shortUrls) {
+                action.accept(shortUrl);
+            }
+            return null;
+        }).when(urlRepository).forEachShortUrl(any(Consumer.class));
+    }
+
+    @Test
+    void testExport_NdjsonOneObjectPerLine() throws Exception {
+        givenRows(new ShortUrl(1L, "https://example.com/a", "abc123", CREATED, CREATED, 7),
+                  new ShortUrl(2L, "https://example.com/b", "def456", CREATED, CREATED, 0, null, CREATED.plusDays(1)));
+        StringWriter out = new StringWriter();
+
+        TransferResponse response = urlTransfer.exportShortUrls(TransferFormat.NDJSON, out);
+
+        assertEquals(2, response.getRows());
+        assertEquals("{\"shortCode\":\"abc123\",\"url\":\"https://example.com/a\",\"createdAt\":\"2024-01-02T03:04:05\","
+                   + "\"updatedAt\":\"2024-01-02T03:04:05\",\"accessCount\":7}\n"
+                   + "{\"shortCode\":\"def456\",\"url\":\"https://example.com/b\",\"createdAt\":\"2024-01-02T03:04:05\","
+                   + "\"updatedAt\":\"2024-01-02T03:04:05\",\"accessCount\":0,\"expiresAt\":\"2024-01-03T03:04:05\"}\n",
+                     out.toString());
+    }
+
+    @Test
+    void testExport_CsvQuotesFieldsThatNeedIt() throws Exception {
+        givenRows(new ShortUrl(1L, "https://example.com/?q=a,\"b\"", "abc123", CREATED, CREATED, 3));
+        StringWriter out = new StringWriter();
+
+        urlTransfer.exportShortUrls(TransferFormat.CSV, out);
+
+        assertEquals("shortCode,url,createdAt,updatedAt,accessCount,expiresAt\n"
+                   + "abc123,\"https://example.com/?q=a,\"\"b\"\"\",2024-01-02T03:04:05,2024-01-02T03:04:05,3,\n",
+                     out.toString());
+    }
+
+    @Test
+    void testImport_InsertsInBatchesAndCountsWhatItSkips() throws Exception {
+        List<List<ShortUrl>> batches = new ArrayList<>();
+        when(urlService.importShortUrls(anyList())).thenAnswer(invocation -> {
+            List<ShortUrl> batch = invocation.getArgument(0);
+            batches.add(new ArrayList<>(batch));
+            return batches.size() == 1 ? 1 : batch.size(); // One code of the first batch already exists
+        });
+        String body = "{\"shortCode\":\"abc123\",\"url\":\"https://example.com/a\",\"accessCount\":7}\n"
+                    + "{\"shortCode\":\"def456\",\"url\":\"https://example.com/b\"}\n"
+                    + "\n"
+                    + "{\"shortCode\":\"bad code\",\"url\":\"https://example.com/c\"}\n"
+                    + "{\"shortCode\":\"ghi789\",\"url\":\"not a url\"}\n"
+                    + "{not json\n"
+                    + "{\"shortCode\":\"jkl012\",\"url\":\"https://example.com/d\"}\n";
+
+        TransferResponse response = urlTransfer.importShortUrls(TransferFormat.NDJSON, new StringReader(body));
+
+        assertEquals(2, response.getRows());
+        assertEquals(1, response.getSkipped());
+        assertEquals(3, response.getInvalid());
+        verify(urlService, times(2)).importShortUrls(anyList());
+        assertEquals(2, batches.get(0).size());
+        assertEquals(1, batches.get(1).size());
+
+        ShortUrl first = batches.get(0).get(0);
+        assertNull(first.getId());
+        assertEquals("abc123", first.getShortCode());
+        assertEquals(7, first.getAccessCount());
+        assertArrayEquals(UrlHasher.hash("https://example.com/a"), first.getUrlHash());
+        assertEquals(first.getCreatedAt(), first.getUpdatedAt());
+    }
+
+    @Test
+    void testImport_ReadsItsOwnCsvExport() throws Exception {
+        ShortUrl original = new ShortUrl(1L, "https://example.com/?q=a,\"b\"", "abc123", CREATED, CREATED.plusHours(1), 3,
+                                         null, CREATED.plusDays(30));
+        givenRows(original);
+        StringWriter out = new StringWriter();
+        urlTransfer.exportShortUrls(TransferFormat.CSV, out);
+
+        List<ShortUrl> imported = new ArrayList<>();
+        when(urlService.importShortUrls(anyList())).thenAnswer(invocation -> {
+            List<ShortUrl> batch = invocation.getArgument(0);
+            imported.addAll(batch);
+            return batch.size();
+        });
+        TransferResponse response = urlTransfer.importShortUrls(TransferFormat.CSV, new StringReader(out.toString() + "abc,\"unterminated\n"));
+
+        assertEquals(1, response.getRows());
+        assertEquals(1, response.getInvalid());
+        ShortUrl copy = imported.get(0);
+        assertEquals(original.getShortCode(), copy.getShortCode());
+        assertEquals(original.getUrl(), copy.getUrl());
+        assertEquals(original.getCreatedAt(), copy.getCreatedAt());
+        assertEquals(original.getUpdatedAt(), copy.getUpdatedAt());
+        assertEquals(original.getAccessCount(), copy.getAccessCount());
+        assertEquals(original.getExpiresAt(), copy.getExpiresAt());
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.urlshortener.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.ShortenerURL.services.UrlHasher;
+
+class UrlHasherTest {
+
+    @Test
+    void testNormalize_SchemeHostAndDefaultPort() {
+        assertEquals("https://example.com/", UrlHasher.normalize("HTTPS://Example.COM:443"));
+        assertEquals("http://example.com/a", UrlHasher.normalize("http://example.com:80/a"));
+        assertEquals("http://example.com:8080/a", UrlHasher.normalize("http://example.com:8080/a"));
+    }
+
+    @Test
+    void testNormalize_PathSegmentsAndEscapes() {
+        assertEquals("https://example.com/a/c", UrlHasher.normalize("https://example.com/a/./b/../c"));
+        assertEquals("https://example.com/a%3A?q=%2F", UrlHasher.normalize("https://example.com/a%3a?q=%2f"));
+    }
+
+    @Test
+    void testNormalize_KeepsPathQueryAndFragmentCase() {
+        assertEquals("https://example.com/Path?Q=V#Frag", UrlHasher.normalize("https://example.com/Path?Q=V#Frag"));
+    }
+
+    @Test
+    void testNormalize_LeavesUnparseableUrlsAlone() {
+        assertEquals("https://example.com/a b", UrlHasher.normalize(" https://example.com/a b "));
+    }
+
+    @Test
+    void testHash_FixedWidthAndEqualForEquivalentUrls() {
+        byte[] hash = UrlHasher.hash("https://example.com");
+
+        assertEquals(UrlHasher.HASH_LENGTH, hash.length);
+        assertArrayEquals(hash, UrlHasher.hash("HTTPS://EXAMPLE.com:443/"));
+        assertFalse(Arrays.equals(hash, UrlHasher.hash("https://example.com/other")));
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.urlshortener.services;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.ShortenerURL.App;
+import com.example.ShortenerURL.services.ShortUrlService;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// The warm-up's synthetic redirects all come from the node's own address, whose resolve bucket
+// holds a single request here; every one of them must still get through
+@SpringBootTest(classes = { App.class, WarmUpRateLimitTest.Statuses.class }, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:warm_up_rate_limit;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "shortener.warm-up.enabled=true",
+    "shortener.warm-up.requests=50",
+    "shortener.rate-limit.enabled=true",
+    "shortener.rate-limit.resolve.requests-per-second=0.01",
+    "shortener.rate-limit.resolve.burst=1"
+})
+class WarmUpRateLimitTest {
+
+    private static final Map<Integer, AtomicInteger> warmUpStatuses = new ConcurrentHashMap<>();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ShortUrlService urlService;
+
+    @TestConfiguration
+    static class Statuses {
+
+        // Before WarmUp, which has no order: codes for it to cache and request
+        @Bean
+        @Order(Ordered.HIGHEST_PRECEDENCE)
+        ApplicationRunner seedShortUrls(ShortUrlService urlService) {
+            return args -> {
+                for (int i = 0; i < 3; i++) {
+                    urlService.createShortUrl("https://example.com/warm/" + i);
+                }
+            };
+        }
+
+        @Bean
+        WarmUpStatusFilter warmUpStatusFilter(ShortUrlService urlService) {
+            return new WarmUpStatusFilter(urlService);
+        }
+    }
+
+    // Around the rate limit filter, so it sees the 429s that one answers
+    static class WarmUpStatusFilter extends OncePerRequestFilter implements Ordered {
+
+        private final ShortUrlService urlService;
+
+        WarmUpStatusFilter(ShortUrlService urlService) {
+            this.urlService = urlService;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            chain.doFilter(request, response);
+            if (urlService.warmUpUserAgent().equals(request.getHeader("User-Agent")))
+                warmUpStatuses.computeIfAbsent(response.getStatus(), status -> new AtomicInteger()).incrementAndGet();
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+
+    @Test
+    void testWarmUp_IsNotRateLimited() throws Exception {
+        assertEquals(50, warmUpStatuses.getOrDefault(302, new AtomicInteger()).get(), warmUpStatuses.toString());
+        assertEquals(1, warmUpStatuses.size(), warmUpStatuses.toString());
+
+        // Other requests from the same address are limited as before
+        String shortCode = urlService.createShortUrl("https://example.com/other").getShortCode();
+        assertEquals(302, redirect(shortCode));
+        assertEquals(429, redirect(shortCode));
+    }
+
+    private int redirect(String shortCode) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/" + shortCode)).build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
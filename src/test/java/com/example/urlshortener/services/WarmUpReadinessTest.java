@@ -0,0 +1,99 @@
+package com.example.urlshortener.services;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.ShortenerURL.App;
+import com.example.ShortenerURL.services.ShortUrlService;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// The readiness probe is read by the node's own server while the warm-up's synthetic requests
+// come in, then again once startup is over
+@SpringBootTest(classes = { App.class, WarmUpReadinessTest.Probes.class }, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:warm_up_readiness;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "shortener.warm-up.enabled=true",
+    "shortener.warm-up.requests=50"
+})
+class WarmUpReadinessTest {
+
+    private static final AtomicReference<HttpResponse<String>> readinessDuringWarmUp = new AtomicReference<>();
+    private static final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @TestConfiguration
+    static class Probes {
+
+        // Before WarmUp, which has no order: codes for it to cache and request
+        @Bean
+        @Order(Ordered.HIGHEST_PRECEDENCE)
+        ApplicationRunner seedShortUrls(ShortUrlService urlService) {
+            return args -> {
+                for (int i = 0; i < 3; i++) {
+                    urlService.createShortUrl("https://example.com/warm/" + i);
+                }
+            };
+        }
+
+        @Bean
+        OncePerRequestFilter readinessProbe(ShortUrlService urlService) {
+            return new OncePerRequestFilter() {
+                @Override
+                protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                        throws ServletException, IOException {
+                    if (urlService.warmUpUserAgent().equals(request.getHeader("User-Agent")) && readinessDuringWarmUp.get() == null) {
+                        try {
+                            readinessDuringWarmUp.compareAndSet(null, readiness(request.getLocalPort()));
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    chain.doFilter(request, response);
+                }
+            };
+        }
+    }
+
+    @Test
+    void testReadiness_RefusesTrafficUntilWarmedUp() throws Exception {
+        HttpResponse<String> during = readinessDuringWarmUp.get();
+        assertNotNull(during, "No synthetic warm-up request reached the server");
+        assertEquals(503, during.statusCode());
+        assertTrue(during.body().contains("OUT_OF_SERVICE"), during.body());
+
+        HttpResponse<String> after = readiness(port);
+        assertEquals(200, after.statusCode());
+        assertTrue(after.body().contains("UP"), after.body());
+    }
+
+    private static HttpResponse<String> readiness(int port) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health/readiness")).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
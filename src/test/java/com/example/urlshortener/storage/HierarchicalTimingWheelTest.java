@@ -0,0 +1,77 @@
+package com.example.urlshortener.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.ShortenerURL.storage.HierarchicalTimingWheel;
+
+class HierarchicalTimingWheelTest {
+
+    // Ticks of 10 ms, 4 buckets per level: levels span 40 ms, 160 ms and 640 ms
+    private final HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 4, 3, 0);
+
+    @Test
+    void testFiresOnTheFirstTickAtOrAfterTheDeadline() {
+        wheel.add("a", 25);
+
+        assertEquals(List.of(), wheel.advance(29));
+        assertEquals(List.of("a"), wheel.advance(30));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testCascadesThroughEveryLevel() {
+        long[] deadlines = { 5, 39, 40, 155, 160, 161, 400, 630 };
+        for (long deadline : deadlines) {
+            assertTrue(wheel.add(Long.toString(deadline), deadline));
+        }
+
+        // Advancing a tick at a time, each timer fires on the tick its deadline rounds up to
+        for (long now = 0; now <= 640; now += 10) {
+            for (String fired : wheel.advance(now)) {
+                long deadline = Long.parseLong(fired);
+                assertEquals((deadline + 9) / 10 * 10, now, "timer " + fired);
+            }
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testLargeAdvanceFiresEverythingDueInOrder() {
+        wheel.add("late", 500);
+        wheel.add("early", 15);
+        wheel.add("middle", 170);
+
+        assertEquals(List.of("early", "middle", "late"), wheel.advance(1_000));
+    }
+
+    @Test
+    void testOverdueDeadlineFiresOnTheNextTick() {
+        wheel.advance(100);
+        wheel.add("overdue", 50);
+
+        assertEquals(List.of("overdue"), wheel.advance(110));
+    }
+
+    @Test
+    void testRefusesDeadlinesBeyondTheHorizon() {
+        wheel.advance(100);
+
+        assertEquals(730, wheel.horizonMillis());
+        assertTrue(wheel.add("last", 730));
+        assertFalse(wheel.add("beyond", 731));
+        assertEquals(1, wheel.size());
+
+        List<String> fired = new ArrayList<>();
+        for (long now = 110; now <= 730; now += 10) {
+            fired.addAll(wheel.advance(now));
+        }
+        assertEquals(List.of("last"), fired);
+    }
+}
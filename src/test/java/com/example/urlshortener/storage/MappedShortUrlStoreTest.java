@@ -0,0 +1,263 @@
+package com.example.urlshortener.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.ShortenerURL.models.ShortUrl;
+import com.example.ShortenerURL.storage.MappedShortUrlStore;
+
+class MappedShortUrlStoreTest {
+
+    // Small segments, so the tests roll over to new segment files
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    // The store keeps microseconds, like a PostgreSQL timestamp
+    private final LocalDateTime time = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+    private MappedShortUrlStore open() {
+        return MappedShortUrlStore.open(directory, SEGMENT_SIZE, 4);
+    }
+
+    private ShortUrl shortUrl(String shortCode, String url) {
+        return new ShortUrl(null, url, shortCode, time, time, 0);
+    }
+
+    @Test
+    void testInsertAndGet() {
+        MappedShortUrlStore store = open();
+
+        assertTrue(store.insert(shortUrl("abc123", "https://example.com")));
+
+        ShortUrl stored = store.get("abc123");
+        assertNotNull(stored.getId());
+        assertEquals("https://example.com", stored.getUrl());
+        assertEquals(time, stored.getCreatedAt());
+        assertEquals("https://example.com", store.getUrl("abc123"));
+        assertTrue(store.contains("abc123"));
+        assertNull(store.get("missing"));
+    }
+
+    @Test
+    void testInsertRejectsTakenCode() {
+        MappedShortUrlStore store = open();
+        store.insert(shortUrl("abc123", "https://example.com"));
+
+        assertFalse(store.insert(shortUrl("abc123", "https://other.com")));
+        assertFalse(store.insertAll(List.of(shortUrl("new1", "https://a.com"), shortUrl("abc123", "https://b.com"))));
+
+        assertEquals("https://example.com", store.getUrl("abc123"));
+        assertNull(store.get("new1"));
+    }
+
+    @Test
+    void testUpdateKeepsAccessCount() {
+        MappedShortUrlStore store = open();
+        store.insert(shortUrl("abc123", "https://example.com"));
+        store.incrementAccessCounts(Map.of("abc123", 5L, "missing", 1L));
+
+        assertTrue(store.updateUrl("abc123", "https://updated.com", time.plusMinutes(1)));
+        assertFalse(store.updateUrl("missing", "https://updated.com", time));
+
+        ShortUrl stored = store.get("abc123");
+        assertEquals("https://updated.com", stored.getUrl());
+        assertEquals(time.plusMinutes(1), stored.getUpdatedAt());
+        assertEquals(5, stored.getAccessCount());
+    }
+
+    @Test
+    void testDelete() {
+        MappedShortUrlStore store = open();
+        store.insert(shortUrl("abc123", "https://example.com"));
+
+        assertTrue(store.delete("abc123"));
+        assertFalse(store.delete("abc123"));
+        assertNull(store.get("abc123"));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testReopenReplaysLog() {
+        MappedShortUrlStore store = open();
+        for (int i = 0; i < 200; i++) {
+            store.insert(shortUrl("code" + i, "https://example.com/" + i));
+        }
+        for (int i = 0; i < 200; i += 2) {
+            store.delete("code" + i);
+        }
+        store.updateUrl("code1", "https://updated.com", time);
+        store.incrementAccessCounts(Map.of("code1", 3L));
+        long id = store.get("code1").getId();
+        long sequenceValue = store.nextSequenceValue("short_code_seq");
+        store.close();
+
+        MappedShortUrlStore reopened = open();
+
+        assertEquals(100, reopened.size());
+        assertNull(reopened.get("code0"));
+        ShortUrl stored = reopened.get("code1");
+        assertEquals(id, stored.getId());
+        assertEquals("https://updated.com", stored.getUrl());
+        assertEquals(3, stored.getAccessCount());
+        assertEquals(sequenceValue + 1, reopened.nextSequenceValue("short_code_seq"));
+
+        ShortUrl inserted = shortUrl("fresh", "https://example.com");
+        reopened.insert(inserted);
+        assertTrue(inserted.getId() > 200);
+    }
+
+    @Test
+    void testReopenDropsTornTail() throws IOException {
+        MappedShortUrlStore store = open();
+        store.insert(shortUrl("first", "https://example.com/1"));
+        store.insert(shortUrl("second", "https://example.com/2"));
+        store.close();
+
+        // Corrupt the payload of the last record, as a crash halfway through writing it would
+        Path segment = lastSegment();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer content = ByteBuffer.allocate(SEGMENT_SIZE);
+            channel.read(content, 0);
+            int offset = 0;
+            int last = 0;
+            while (content.getInt(offset) != 0) {
+                last = offset;
+                offset += content.getInt(offset);
+            }
+            channel.write(ByteBuffer.wrap(new byte[] { 1, 2, 3 }), last + 20);
+        }
+
+        MappedShortUrlStore reopened = open();
+        assertNotNull(reopened.get("first"));
+        assertNull(reopened.get("second"));
+
+        assertTrue(reopened.insert(shortUrl("second", "https://example.com/2")));
+        reopened.close();
+        assertEquals("https://example.com/2", open().getUrl("second"));
+    }
+
+    @Test
+    void testForEachVisitsEveryRecordOnceWhileTheIndexGrowsAndShrinks() {
+        MappedShortUrlStore store = MappedShortUrlStore.open(directory, 1 << 20, 4);
+        for (int i = 0; i < 20_000; i++) {
+            store.insert(shortUrl("code" + i, "https://example.com/" + i));
+        }
+        Map<String, Integer> visits = new HashMap<>();
+        int[] calls = { 0 };
+
+        // Writes from the action would deadlock if the store's lock were still held
+        store.forEach(shortUrl -> {
+            visits.merge(shortUrl.getShortCode(), 1, Integer::sum);
+            if (++calls[0] == 1) {
+                for (int i = 0; i < 30_000; i++) {
+                    store.insert(shortUrl("new" + i, "https://example.org/" + i));
+                }
+            } else if (calls[0] == 10_000) {
+                for (int i = 0; i < 30_000; i++) {
+                    store.delete("new" + i);
+                }
+                // Also the records visited so far, so the compacted index is smaller than at the start
+                for (String shortCode : List.copyOf(visits.keySet())) {
+                    store.delete(shortCode);
+                }
+                store.compact();
+            }
+        });
+
+        for (int i = 0; i < 20_000; i++) {
+            assertEquals(1, visits.get("code" + i), "code" + i);
+        }
+        store.close();
+    }
+
+    @Test
+    void testCompactionKeepsLiveRecords() {
+        MappedShortUrlStore store = open();
+        for (int i = 0; i < 500; i++) {
+            store.insert(shortUrl("code" + i, "https://example.com/" + i));
+        }
+        for (int i = 0; i < 500; i++) {
+            if (i % 5 == 0)
+                store.updateUrl("code" + i, "https://updated.com/" + i, time);
+            else
+                store.delete("code" + i);
+        }
+        store.incrementAccessCounts(Map.of("code0", 7L));
+        long sequenceValue = store.nextSequenceValue("short_code_block_seq");
+        long logBytes = store.logBytes();
+
+        store.compact();
+
+        assertTrue(store.logBytes() < logBytes);
+        assertEquals(100, store.size());
+        assertEquals("https://updated.com/5", store.getUrl("code5"));
+        assertEquals(7, store.get("code0").getAccessCount());
+
+        store.insert(shortUrl("after", "https://example.com/after"));
+        store.close();
+
+        MappedShortUrlStore reopened = open();
+        assertEquals(101, reopened.size());
+        assertEquals("https://updated.com/5", reopened.getUrl("code5"));
+        assertEquals(sequenceValue + 1, reopened.nextSequenceValue("short_code_block_seq"));
+    }
+
+    @Test
+    void testMatchesMapUnderRandomOperations() {
+        MappedShortUrlStore store = open();
+        Map<String, String> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            String shortCode = "k" + random.nextInt(2_000);
+            switch (random.nextInt(3)) {
+                case 0:
+                    boolean inserted = store.insert(shortUrl(shortCode, "https://example.com/" + i));
+                    assertEquals(!expected.containsKey(shortCode), inserted);
+                    expected.putIfAbsent(shortCode, "https://example.com/" + i);
+                    break;
+                case 1:
+                    assertEquals(expected.remove(shortCode) != null, store.delete(shortCode));
+                    break;
+                default:
+                    assertEquals(expected.get(shortCode), store.getUrl(shortCode));
+            }
+            if (i % 5_000 == 0)
+                store.compact();
+        }
+        store.close();
+
+        MappedShortUrlStore reopened = open();
+        assertEquals(expected.size(), reopened.size());
+        expected.forEach((shortCode, url) -> assertEquals(url, reopened.getUrl(shortCode)));
+    }
+
+    private Path lastSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".log"))
+                .max(Path::compareTo)
+                .orElseThrow();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.urlshortener.storage;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.example.ShortenerURL.storage.PackedCodeIndex;
+
+class PackedCodeIndexTest {
+
+    @Test
+    void testPack() {
+        assertNotEquals(PackedCodeIndex.UNPACKABLE, PackedCodeIndex.pack("0"));
+        assertNotEquals(PackedCodeIndex.pack("abc"), PackedCodeIndex.pack("0abc"));
+        assertNotEquals(PackedCodeIndex.UNPACKABLE, PackedCodeIndex.pack("zzzzzzzzzz"));
+
+        assertEquals(PackedCodeIndex.UNPACKABLE, PackedCodeIndex.pack(""));
+        assertEquals(PackedCodeIndex.UNPACKABLE, PackedCodeIndex.pack("abcdefghijk"));
+        assertEquals(PackedCodeIndex.UNPACKABLE, PackedCodeIndex.pack("my-link"));
+        assertEquals(PackedCodeIndex.UNPACKABLE, PackedCodeIndex.pack("caf\u00e9"));
+    }
+
+    @Test
+    void testPutGetRemove() {
+        PackedCodeIndex index = new PackedCodeIndex(4);
+        long key = PackedCodeIndex.pack("abc123");
+
+        index.put(key, "https://example.com/\u00fcber");
+
+        assertEquals("https://example.com/\u00fcber", index.get(key));
+        assertTrue(index.contains(key));
+        assertNull(index.get(PackedCodeIndex.pack("abc124")));
+
+        assertTrue(index.remove(key));
+        assertFalse(index.remove(key));
+        assertNull(index.get(key));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void testPutReplacesUrl() {
+        PackedCodeIndex index = new PackedCodeIndex(4);
+        long key = PackedCodeIndex.pack("abc123");
+
+        index.put(key, "https://example.com");
+        index.put(key, "https://updated.com");
+
+        assertEquals("https://updated.com", index.get(key));
+        assertEquals(1, index.size());
+        assertEquals("https://example.com".length(), index.garbageBytes());
+    }
+
+    @Test
+    void testGrowsPastExpectedEntries() {
+        PackedCodeIndex index = new PackedCodeIndex(4);
+        for (int i = 0; i < 10_000; i++) {
+            index.put(PackedCodeIndex.pack("c" + i), "https://example.com/" + i);
+        }
+
+        assertEquals(10_000, index.size());
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals("https://example.com/" + i, index.get(PackedCodeIndex.pack("c" + i)));
+        }
+    }
+
+    @Test
+    void testMatchesMapUnderRandomOperations() {
+        PackedCodeIndex index = new PackedCodeIndex(16);
+        Map<Long, String> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            long key = PackedCodeIndex.pack("k" + random.nextInt(5_000));
+            switch (random.nextInt(3)) {
+                case 0:
+                    index.put(key, "https://example.com/" + i);
+                    expected.put(key, "https://example.com/" + i);
+                    break;
+                case 1:
+                    assertEquals(expected.remove(key) != null, index.remove(key));
+                    break;
+                default:
+                    assertEquals(expected.get(key), index.get(key));
+            }
+        }
+
+        assertEquals(expected.size(), index.size());
+        expected.forEach((key, url) -> assertEquals(url, index.get(key)));
+    }
+}
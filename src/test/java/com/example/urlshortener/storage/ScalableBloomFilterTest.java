@@ -0,0 +1,69 @@
+package com.example.urlshortener.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.example.ShortenerURL.generators.Base62;
+import com.example.ShortenerURL.storage.ScalableBloomFilter;
+
+class ScalableBloomFilterTest {
+
+    @Test
+    void testNoFalseNegatives() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+        for (int i = 0; i < 1_000; i++) {
+            filter.add(Base62.encode(i, 6));
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(filter.mightContain(Base62.encode(i, 6)));
+        }
+        assertEquals(1_000, filter.size());
+        assertEquals(1, filter.stageCount());
+    }
+
+    @Test
+    void testGrowsWithoutFalseNegatives() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            filter.add(Base62.encode(i, 6));
+        }
+
+        assertTrue(filter.stageCount() > 1);
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(filter.mightContain(Base62.encode(i, 6)));
+        }
+    }
+
+    @Test
+    void testFalsePositiveRateStaysWithinTarget() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+        for (int i = 0; i < 50_000; i++) {
+            filter.add(Base62.encode(i, 6));
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(Base62.encode(1_000_000 + i, 6)))
+                falsePositives++;
+        }
+
+        double measured = (double) falsePositives / probes;
+        assertTrue(measured < 0.02, "measured " + measured);
+        assertTrue(filter.expectedFalsePositiveRate() < 0.02);
+        assertEquals(measured, filter.expectedFalsePositiveRate(), 0.005);
+    }
+
+    @Test
+    void testAddingTwiceCountsOnce() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(10, 0.01);
+        filter.add("abc123");
+        filter.add("abc123");
+
+        assertEquals(1, filter.size());
+        assertFalse(filter.mightContain("abc124"));
+    }
+}
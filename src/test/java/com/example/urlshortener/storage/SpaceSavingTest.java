@@ -0,0 +1,60 @@
+package com.example.urlshortener.storage;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.example.ShortenerURL.generators.Base62;
+import com.example.ShortenerURL.storage.SpaceSaving;
+
+class SpaceSavingTest {
+
+    @Test
+    void testCountsAreExactWhileKeysFit() {
+        SpaceSaving sketch = new SpaceSaving(10);
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j <= i; j++) {
+                sketch.offer("code" + i, 1);
+            }
+        }
+
+        List<SpaceSaving.Entry> top = sketch.top(3);
+        assertEquals(List.of("code4", "code3", "code2"), top.stream().map(SpaceSaving.Entry::key).toList());
+        assertEquals(5, top.get(0).count());
+        assertEquals(0, top.get(0).error());
+    }
+
+    @Test
+    void testHeavyHittersSurviveALongTail() {
+        SpaceSaving sketch = new SpaceSaving(64);
+        for (int i = 0; i < 100_000; i++) {
+            sketch.offer(Base62.encode(i, 6), 1); // Each seen once
+            if (i % 10 == 0)
+                sketch.offer("viral1", 1);
+            if (i % 20 == 0)
+                sketch.offer("viral2", 1);
+        }
+
+        List<SpaceSaving.Entry> top = sketch.top(2);
+        assertEquals("viral1", top.get(0).key());
+        assertEquals("viral2", top.get(1).key());
+        // Never underestimated, and the error bounds the overestimate
+        assertTrue(top.get(0).count() >= 10_000);
+        assertTrue(top.get(0).guaranteedCount() <= 10_000);
+        assertEquals(64, sketch.size());
+    }
+
+    @Test
+    void testClear() {
+        SpaceSaving sketch = new SpaceSaving(4);
+        sketch.offer("abc123", 3);
+        sketch.clear();
+
+        assertEquals(0, sketch.size());
+        assertTrue(sketch.top(4).isEmpty());
+        sketch.offer("xyz789", 1);
+        assertEquals("xyz789", sketch.top(1).get(0).key());
+    }
+}